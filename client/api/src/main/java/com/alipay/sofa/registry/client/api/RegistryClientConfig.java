@@ -172,4 +172,33 @@ public interface RegistryClientConfig {
    * @return the boolean
    */
   boolean isEventBusEnable();
+
+  /**
+   * Gets register batch size, registers are sent one by one when it is not greater than 1.
+   *
+   * @return the register batch size
+   */
+  int getRegisterBatchSize();
+
+  /**
+   * Gets the max number of register batches in flight at the same time.
+   *
+   * @return the register pipeline window
+   */
+  int getRegisterPipelineWindow();
+
+  /**
+   * Gets the directory of the subscriber snapshots, snapshot is disabled when it is blank.
+   *
+   * @return the snapshot dir
+   */
+  String getSnapshotDir();
+
+  /**
+   * Is accept delta boolean, the session pushes the delta of the data to the subscriber when it is
+   * true.
+   *
+   * @return the boolean
+   */
+  boolean isAcceptDelta();
 }
@@ -103,6 +103,10 @@ public class DefaultRegistryClient implements RegistryClient {
 
   private LookoutSubscriber lookoutSubscriber;
 
+  private SubscriberSnapshotStore snapshotStore;
+
+  private Thread snapshotShutdownHook;
+
   private AtomicBoolean init = new AtomicBoolean(false);
 
   /**
@@ -144,6 +148,9 @@ public class DefaultRegistryClient implements RegistryClient {
               .setSyncConfigRetryInterval(registryClientConfig.getSyncConfigRetryInterval())
               .setAccessKey(registryClientConfig.getAccessKey())
               .setSecretKey(registryClientConfig.getSecretKey())
+              .setRegisterBatchSize(registryClientConfig.getRegisterBatchSize())
+              .setRegisterPipelineWindow(registryClientConfig.getRegisterPipelineWindow())
+              .setSnapshotDir(registryClientConfig.getSnapshotDir())
               .build();
     }
     return cloneConfig;
@@ -177,6 +184,14 @@ public class DefaultRegistryClient implements RegistryClient {
       observerHandler = new DefaultObserverHandler(registryClientConfig, eventBus);
     }
 
+    // init subscriber snapshot store
+    if (null == snapshotStore && StringUtils.isNotBlank(registryClientConfig.getSnapshotDir())) {
+      snapshotStore = new SubscriberSnapshotStore(registryClientConfig.getSnapshotDir());
+    }
+    if (null != snapshotStore) {
+      addSnapshotShutdownHook(snapshotStore);
+    }
+
     // init auth manager
     if (null == authManager) {
       authManager = NoopAuthManager.INSTANCE;
@@ -329,6 +344,7 @@ public class DefaultRegistryClient implements RegistryClient {
 
     subscriber = new DefaultSubscriber(registration, workerThread, registryClientConfig);
     ((DefaultSubscriber) subscriber).setAuthManager(authManager);
+    ((DefaultSubscriber) subscriber).setSnapshotStore(snapshotStore);
 
     Subscriber oldSubscriber = registrationSubscriberMap.putIfAbsent(registration, subscriber);
     if (null != oldSubscriber) {
@@ -338,6 +354,15 @@ public class DefaultRegistryClient implements RegistryClient {
     registerCache.addRegister(subscriber);
     addRegisterTask(subscriber);
 
+    // warm start with the local snapshot, it would be replaced by the first push
+    if (((DefaultSubscriber) subscriber).loadSnapshot()) {
+      observerHandler.notify(subscriber);
+      LOGGER.info(
+          "[api] Subscriber seeded from snapshot, dataId: {}, registerId: {}",
+          subscriber.getDataId(),
+          subscriber.getRegistId());
+    }
+
     LOGGER.info(
         "[api] Regist subscriber success, dataId: {}, group: {}, scope: {}, registerId: {}",
         subscriber.getDataId(),
@@ -483,6 +508,36 @@ public class DefaultRegistryClient implements RegistryClient {
     }
   }
 
+  /** flush the pending snapshots when the jvm exits without destroy */
+  private void addSnapshotShutdownHook(final SubscriberSnapshotStore store) {
+    snapshotShutdownHook =
+        new Thread(
+            new Runnable() {
+              @Override
+              public void run() {
+                store.destroy();
+              }
+            },
+            "SubscriberSnapshotShutdownHook");
+    Runtime.getRuntime().addShutdownHook(snapshotShutdownHook);
+  }
+
+  /** Destroy, flush the pending subscriber snapshots. */
+  public void destroy() {
+    if (null != snapshotShutdownHook) {
+      try {
+        Runtime.getRuntime().removeShutdownHook(snapshotShutdownHook);
+      } catch (IllegalStateException e) {
+        // the jvm is shutting down, the hook destroys the store
+        return;
+      }
+      snapshotShutdownHook = null;
+    }
+    if (null != snapshotStore) {
+      snapshotStore.destroy();
+    }
+  }
+
   /**
    * Getter method for property <tt>registerCache</tt>.
    *
@@ -556,6 +611,15 @@ public class DefaultRegistryClient implements RegistryClient {
     this.eventBus = eventBus;
   }
 
+  /**
+   * Setter method for property <tt>snapshotStore</tt>.
+   *
+   * @param snapshotStore value to be assigned to property snapshotStore
+   */
+  public void setSnapshotStore(SubscriberSnapshotStore snapshotStore) {
+    this.snapshotStore = snapshotStore;
+  }
+
   /** The type Registry check thread. */
   class RegistryCheckThread extends Thread {
 
@@ -91,6 +91,18 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
   /** */
   private boolean eventBusEnable;
 
+  /** */
+  private int registerBatchSize;
+
+  /** */
+  private int registerPipelineWindow;
+
+  /** */
+  private String snapshotDir;
+
+  /** */
+  private boolean acceptDelta;
+
   /**
    * Instantiates a new Default registry client config.
    *
@@ -115,6 +127,11 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
    * @param secretKey the secret key
    * @param algorithm the algorithm
    * @param authCacheInterval the auth cache interval
+   * @param eventBusEnable the event bus enable
+   * @param registerBatchSize the register batch size
+   * @param registerPipelineWindow the register pipeline window
+   * @param snapshotDir the snapshot dir
+   * @param acceptDelta the accept delta
    */
   public DefaultRegistryClientConfig(
       String env,
@@ -138,7 +155,11 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
       String secretKey,
       String algorithm,
       long authCacheInterval,
-      boolean eventBusEnable) {
+      boolean eventBusEnable,
+      int registerBatchSize,
+      int registerPipelineWindow,
+      String snapshotDir,
+      boolean acceptDelta) {
     this.env = env;
     this.instanceId = instanceId;
     this.ip = ip;
@@ -161,6 +182,10 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
     this.algorithm = algorithm;
     this.authCacheInterval = authCacheInterval;
     this.eventBusEnable = eventBusEnable;
+    this.registerBatchSize = registerBatchSize;
+    this.registerPipelineWindow = registerPipelineWindow;
+    this.snapshotDir = snapshotDir;
+    this.acceptDelta = acceptDelta;
   }
 
   /**
@@ -396,6 +421,46 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
     return eventBusEnable;
   }
 
+  /**
+   * Getter method for property <tt>registerBatchSize</tt>.
+   *
+   * @return property value of registerBatchSize
+   */
+  @Override
+  public int getRegisterBatchSize() {
+    return registerBatchSize;
+  }
+
+  /**
+   * Getter method for property <tt>registerPipelineWindow</tt>.
+   *
+   * @return property value of registerPipelineWindow
+   */
+  @Override
+  public int getRegisterPipelineWindow() {
+    return registerPipelineWindow;
+  }
+
+  /**
+   * Getter method for property <tt>snapshotDir</tt>.
+   *
+   * @return property value of snapshotDir
+   */
+  @Override
+  public String getSnapshotDir() {
+    return snapshotDir;
+  }
+
+  /**
+   * Getter method for property <tt>acceptDelta</tt>.
+   *
+   * @return property value of acceptDelta
+   */
+  @Override
+  public boolean isAcceptDelta() {
+    return acceptDelta;
+  }
+
   /**
    * Setter method for property <tt>eventBusEnable</tt>.
    *
@@ -527,6 +592,15 @@ public class DefaultRegistryClientConfig implements RegistryClientConfig {
         + authCacheInterval
         + ", eventBusEnable="
         + eventBusEnable
+        + ", registerBatchSize="
+        + registerBatchSize
+        + ", registerPipelineWindow="
+        + registerPipelineWindow
+        + ", snapshotDir='"
+        + snapshotDir
+        + '\''
+        + ", acceptDelta="
+        + acceptDelta
         + '}';
   }
 }
@@ -48,6 +48,10 @@ public class DefaultRegistryClientConfigBuilder {
   private String algorithm = "HmacSHA256";
   private long authCacheInterval = 5 * 60 * 1000;
   private boolean eventBusEnable = true;
+  private int registerBatchSize = 64;
+  private int registerPipelineWindow = 4;
+  private String snapshotDir;
+  private boolean acceptDelta = true;
 
   /**
    * Start default registry client config builder.
@@ -292,6 +296,46 @@ public class DefaultRegistryClientConfigBuilder {
     return this;
   }
 
+  /**
+   * Setter method for property <tt>registerBatchSize</tt>.
+   *
+   * @param registerBatchSize value to be assigned to property registerBatchSize
+   */
+  public DefaultRegistryClientConfigBuilder setRegisterBatchSize(int registerBatchSize) {
+    this.registerBatchSize = registerBatchSize;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>registerPipelineWindow</tt>.
+   *
+   * @param registerPipelineWindow value to be assigned to property registerPipelineWindow
+   */
+  public DefaultRegistryClientConfigBuilder setRegisterPipelineWindow(int registerPipelineWindow) {
+    this.registerPipelineWindow = registerPipelineWindow;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>snapshotDir</tt>.
+   *
+   * @param snapshotDir value to be assigned to property snapshotDir
+   */
+  public DefaultRegistryClientConfigBuilder setSnapshotDir(String snapshotDir) {
+    this.snapshotDir = snapshotDir;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>acceptDelta</tt>.
+   *
+   * @param acceptDelta value to be assigned to property acceptDelta
+   */
+  public DefaultRegistryClientConfigBuilder setAcceptDelta(boolean acceptDelta) {
+    this.acceptDelta = acceptDelta;
+    return this;
+  }
+
   /**
    * Create default registry client config default registry client config.
    *
@@ -320,6 +364,10 @@ public class DefaultRegistryClientConfigBuilder {
         secretKey,
         algorithm,
         authCacheInterval,
-        eventBusEnable);
+        eventBusEnable,
+        registerBatchSize,
+        registerPipelineWindow,
+        snapshotDir,
+        acceptDelta);
   }
 }
@@ -22,15 +22,19 @@ import com.alipay.sofa.registry.client.api.SubscriberDataObserver;
 import com.alipay.sofa.registry.client.api.model.UserData;
 import com.alipay.sofa.registry.client.api.registration.SubscriberRegistration;
 import com.alipay.sofa.registry.client.model.SegmentData;
+import com.alipay.sofa.registry.client.provider.SubscriberSnapshotStore.Snapshot;
 import com.alipay.sofa.registry.client.task.TaskEvent;
 import com.alipay.sofa.registry.client.task.Worker;
 import com.alipay.sofa.registry.client.util.CommonUtils;
+import com.alipay.sofa.registry.client.util.StringUtils;
 import com.alipay.sofa.registry.core.constants.EventTypeConstants;
 import com.alipay.sofa.registry.core.model.DataBox;
 import com.alipay.sofa.registry.core.model.ScopeEnum;
 import com.alipay.sofa.registry.core.model.SubscriberRegister;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -46,6 +50,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @version $Id : DefaultSubscriber.java, v 0.1 2017-11-23 22:13 zhuoyu.sjw Exp $$
  */
 public class DefaultSubscriber extends AbstractInternalRegister implements Subscriber {
+  private static final long STALE_SEGMENT_EXPIRE_MILLIS = 30000;
 
   private final String REGIST_ID;
   private SubscriberDataObserver dataObserver;
@@ -57,6 +62,16 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
   private Worker worker;
   private volatile String localZone;
   private List<String> availableSegments = new ArrayList<String>();
+  private SubscriberSnapshotStore snapshotStore;
+  /** segments seeded from the local snapshot and not replaced by a push yet */
+  private Set<String> staleSegments = new HashSet<String>();
+  /**
+   * the stale segments not pushed again in this time after the first push are no longer served by
+   * the server, they are dropped
+   */
+  private long staleSegmentExpireMillis = STALE_SEGMENT_EXPIRE_MILLIS;
+  /** when the stale segments expire, 0 before the first push */
+  private long staleExpireTimestamp;
 
   /**
    * Instantiates a new Default subscriber multi.
@@ -99,6 +114,8 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
       }
       Set<Entry<String, SegmentData>> values = data.entrySet();
       DefaultUserData userData = new DefaultUserData();
+      boolean staleExpired = isStaleExpired();
+      userData.setStale(!staleSegments.isEmpty() && !staleExpired);
       if (null == localZone) {
         userData.setLocalZone(config.getZone());
       } else {
@@ -113,6 +130,11 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
           continue;
         }
 
+        // the server no longer serves the segment of snapshot
+        if (staleExpired && staleSegments.contains(segment)) {
+          continue;
+        }
+
         SegmentData segmentData = segmentDataEntry.getValue();
 
         if (null == segmentData) {
@@ -176,6 +198,7 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
       register = new SubscriberRegister();
       register.setRegistId(REGIST_ID);
       register.setScope(registration.getScopeEnum().name());
+      register.setAcceptDelta(config.isAcceptDelta());
       setAttributes(register, registration, config);
       // auth signature
       setAuthSignature(register);
@@ -194,13 +217,186 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
   public void putReceivedData(SegmentData segmentData, String localZone) {
     writeLock.lock();
     try {
+      if (null != segmentData && staleSegments.remove(segmentData.getSegment())) {
+        // the pushed data always replaces the snapshot, whatever the version is
+        data.remove(segmentData.getSegment());
+      }
       putSegmentData(segmentData);
       this.localZone = localZone;
+      expireStaleSegments();
+      saveSnapshot();
     } finally {
       writeLock.unlock();
     }
   }
 
+  /**
+   * Seed the data from the local snapshot, it is marked as stale until replaced by pushes.
+   *
+   * @return true if seeded
+   */
+  public boolean loadSnapshot() {
+    if (null == snapshotStore) {
+      return false;
+    }
+    Snapshot snapshot = snapshotStore.load(snapshotKey());
+    if (null == snapshot || snapshot.getSegments().isEmpty()) {
+      return false;
+    }
+    writeLock.lock();
+    try {
+      if (init.get()) {
+        // has received the pushed data
+        return false;
+      }
+      data.putAll(snapshot.getSegments());
+      staleSegments.addAll(snapshot.getSegments().keySet());
+      this.localZone = snapshot.getLocalZone();
+      init.set(true);
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private boolean isStaleExpired() {
+    return staleExpireTimestamp > 0 && System.currentTimeMillis() >= staleExpireTimestamp;
+  }
+
+  /** Start the expiration at the first push, drop the stale segments once expired. */
+  private void expireStaleSegments() {
+    if (staleSegments.isEmpty()) {
+      return;
+    }
+    if (staleExpireTimestamp == 0) {
+      staleExpireTimestamp = System.currentTimeMillis() + staleSegmentExpireMillis;
+    }
+    if (!isStaleExpired()) {
+      return;
+    }
+    for (String segment : staleSegments) {
+      data.remove(segment);
+    }
+    staleSegments.clear();
+  }
+
+  private void saveSnapshot() {
+    if (null == snapshotStore || !isEnabled()) {
+      return;
+    }
+    snapshotStore.save(
+        snapshotKey(), new Snapshot(localZone, new HashMap<String, SegmentData>(data)));
+  }
+
+  String snapshotKey() {
+    String instanceId =
+        StringUtils.isNotEmpty(registration.getInstanceId())
+            ? registration.getInstanceId()
+            : config.getInstanceId();
+    return registration.getDataId()
+        + "#@#"
+        + instanceId
+        + "#@#"
+        + registration.getGroup()
+        + "#@#"
+        + (null == registration.getScopeEnum() ? ScopeEnum.zone : registration.getScopeEnum());
+  }
+
+  /**
+   * Apply the delta push on the segment data of base version.
+   *
+   * @param delta the added data and the target version
+   * @param baseVersion the base version
+   * @param removedData the removed data
+   * @param localZone the local zone
+   * @return false if the exist segment data is not the base version, need a full push
+   */
+  public boolean putReceivedDelta(
+      SegmentData delta,
+      long baseVersion,
+      Map<String, List<DataBox>> removedData,
+      String localZone) {
+    writeLock.lock();
+    try {
+      SegmentData existsData = data.get(delta.getSegment());
+      if (null == existsData || staleSegments.contains(delta.getSegment())) {
+        // never apply delta on the snapshot, need a full push
+        return false;
+      }
+      if (existsData.getVersion() >= delta.getVersion()) {
+        // has received the newer data
+        this.localZone = localZone;
+        return true;
+      }
+      if (existsData.getVersion() != baseVersion) {
+        return false;
+      }
+      SegmentData segmentData = new SegmentData();
+      segmentData.setSegment(delta.getSegment());
+      segmentData.setVersion(delta.getVersion());
+      segmentData.setData(applyDelta(existsData.getData(), delta.getData(), removedData));
+      putSegmentData(segmentData);
+      this.localZone = localZone;
+      expireStaleSegments();
+      saveSnapshot();
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static Map<String, List<DataBox>> applyDelta(
+      Map<String, List<DataBox>> base,
+      Map<String, List<DataBox>> added,
+      Map<String, List<DataBox>> removed) {
+    // sized by the zones of base and added, no rehash even if all the added zones are new
+    final int zoneNum = (null == base ? 0 : base.size()) + (null == added ? 0 : added.size());
+    Map<String, List<DataBox>> result = new HashMap<String, List<DataBox>>(zoneNum * 4 / 3 + 1);
+    if (null != base) {
+      for (Entry<String, List<DataBox>> entry : base.entrySet()) {
+        List<DataBox> addedData = null == added ? null : added.get(entry.getKey());
+        List<DataBox> zoneData =
+            new ArrayList<DataBox>(
+                entry.getValue().size() + (null == addedData ? 0 : addedData.size()));
+        zoneData.addAll(entry.getValue());
+        result.put(entry.getKey(), zoneData);
+      }
+    }
+    if (null != removed) {
+      for (Entry<String, List<DataBox>> entry : removed.entrySet()) {
+        List<DataBox> zoneData = result.get(entry.getKey());
+        if (null == zoneData) {
+          continue;
+        }
+        for (DataBox removedBox : entry.getValue()) {
+          String removedString = removedBox.getData();
+          // the same data maybe published more than once, only remove one of them
+          for (Iterator<DataBox> it = zoneData.iterator(); it.hasNext(); ) {
+            String dataString = it.next().getData();
+            if (null == dataString ? null == removedString : dataString.equals(removedString)) {
+              it.remove();
+              break;
+            }
+          }
+        }
+        if (zoneData.isEmpty()) {
+          result.remove(entry.getKey());
+        }
+      }
+    }
+    if (null != added) {
+      for (Entry<String, List<DataBox>> entry : added.entrySet()) {
+        List<DataBox> zoneData = result.get(entry.getKey());
+        if (null == zoneData) {
+          result.put(entry.getKey(), new ArrayList<DataBox>(entry.getValue()));
+        } else {
+          zoneData.addAll(entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
   private void putSegmentData(SegmentData segmentData) {
     if (null != segmentData) {
 
@@ -286,6 +482,38 @@ public class DefaultSubscriber extends AbstractInternalRegister implements Subsc
     return init.get();
   }
 
+  /**
+   * Is stale boolean, true if some data is still from the local snapshot.
+   *
+   * @return the boolean
+   */
+  public boolean isStale() {
+    readLock.lock();
+    try {
+      return !staleSegments.isEmpty() && !isStaleExpired();
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Setter method for property <tt>snapshotStore</tt>.
+   *
+   * @param snapshotStore value to be assigned to property snapshotStore
+   */
+  public void setSnapshotStore(SubscriberSnapshotStore snapshotStore) {
+    this.snapshotStore = snapshotStore;
+  }
+
+  /**
+   * Setter method for property <tt>staleSegmentExpireMillis</tt>.
+   *
+   * @param staleSegmentExpireMillis value to be assigned to property staleSegmentExpireMillis
+   */
+  void setStaleSegmentExpireMillis(long staleSegmentExpireMillis) {
+    this.staleSegmentExpireMillis = staleSegmentExpireMillis;
+  }
+
   @Override
   public String toString() {
     return "DefaultSubscriber{" + "registration=" + registration + '}' + super.toString();
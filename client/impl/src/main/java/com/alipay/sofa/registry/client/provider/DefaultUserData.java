@@ -33,6 +33,9 @@ public class DefaultUserData implements UserData {
   /** The current client`s zone */
   private String localZone;
 
+  /** The data is from the local snapshot, not pushed by the registry yet */
+  private boolean stale;
+
   /**
    * Getter method for property <tt>zoneData</tt>.
    *
@@ -71,6 +74,24 @@ public class DefaultUserData implements UserData {
     this.localZone = localZone;
   }
 
+  /**
+   * Getter method for property <tt>stale</tt>.
+   *
+   * @return property value of stale
+   */
+  public boolean isStale() {
+    return stale;
+  }
+
+  /**
+   * Setter method for property <tt>stale</tt>.
+   *
+   * @param stale value to be assigned to property stale
+   */
+  public void setStale(boolean stale) {
+    this.stale = stale;
+  }
+
   /**
    * To string string.
    *
@@ -78,6 +99,14 @@ public class DefaultUserData implements UserData {
    */
   @Override
   public String toString() {
-    return "DefaultUserData{" + "zoneData=" + zoneData + ", localZone='" + localZone + '\'' + '}';
+    return "DefaultUserData{"
+        + "zoneData="
+        + zoneData
+        + ", localZone='"
+        + localZone
+        + '\''
+        + ", stale="
+        + stale
+        + '}';
   }
 }
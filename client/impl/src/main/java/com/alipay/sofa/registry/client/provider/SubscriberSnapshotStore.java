@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.client.provider;
+
+import com.alipay.sofa.registry.client.factory.NamedThreadFactory;
+import com.alipay.sofa.registry.client.log.LoggerFactory;
+import com.alipay.sofa.registry.client.model.SegmentData;
+import com.alipay.sofa.registry.core.model.DataBox;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+
+/**
+ * Local snapshot of the data received by subscribers, one file for each subscribed dataInfo. It
+ * seeds the subscribers at startup so that they have data before the first push arrives.
+ *
+ * <p>Snapshots are written by a background thread, the writes of the same key are coalesced and
+ * only the latest one is flushed. Each file is written to a temp file and renamed over the old one,
+ * a crash never leaves a half written snapshot behind.
+ */
+public class SubscriberSnapshotStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriberSnapshotStore.class);
+
+  private static final int MAGIC = 0x53554253;
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final String SUFFIX = ".snapshot";
+
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private static final String CHARSET = "UTF-8";
+
+  private static final int DESTROY_WAIT_SECONDS = 3;
+
+  private static final int QUEUE_SIZE = 4096;
+
+  /** the readable part of the file name, the rest of the key is kept by the hash */
+  private static final int FILE_NAME_PREFIX_LENGTH = 64;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final File dir;
+
+  private final ConcurrentMap<String, Snapshot> pendings =
+      new ConcurrentHashMap<String, Snapshot>();
+
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Instantiates a new Subscriber snapshot store.
+   *
+   * @param dir the snapshot directory
+   */
+  public SubscriberSnapshotStore(String dir) {
+    this.dir = new File(dir);
+    this.executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+            new NamedThreadFactory("SubscriberSnapshotThread", true),
+            new DiscardWritePolicy());
+  }
+
+  /**
+   * Save the snapshot in background, only the latest one is written when saved frequently.
+   *
+   * @param key the subscriber key
+   * @param snapshot the snapshot
+   */
+  public void save(final String key, Snapshot snapshot) {
+    if (null != pendings.put(key, snapshot)) {
+      // the pending write has not started, it will write the latest snapshot
+      return;
+    }
+    executor.execute(new WriteTask(key));
+  }
+
+  /**
+   * Load the snapshot.
+   *
+   * @param key the subscriber key
+   * @return the snapshot, null if not exist or broken
+   */
+  public Snapshot load(String key) {
+    File file = new File(dir, fileName(key) + SUFFIX);
+    if (!file.isFile()) {
+      return null;
+    }
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        LOGGER.warn("[snapshot] ignore unknown snapshot file, {}", file);
+        return null;
+      }
+      if (!key.equals(readString(in))) {
+        LOGGER.warn("[snapshot] ignore conflict snapshot file, {}, {}", key, file);
+        return null;
+      }
+      String localZone = readString(in);
+      int segmentSize = in.readInt();
+      Map<String, SegmentData> segments = new HashMap<String, SegmentData>(segmentSize);
+      for (int i = 0; i < segmentSize; i++) {
+        SegmentData segmentData = new SegmentData();
+        segmentData.setSegment(readString(in));
+        segmentData.setVersion(in.readLong());
+        int zoneSize = in.readInt();
+        Map<String, List<DataBox>> data = new HashMap<String, List<DataBox>>(zoneSize);
+        for (int j = 0; j < zoneSize; j++) {
+          String zone = readString(in);
+          int boxSize = in.readInt();
+          List<DataBox> boxes = new ArrayList<DataBox>(boxSize);
+          for (int k = 0; k < boxSize; k++) {
+            boxes.add(new DataBox(readString(in)));
+          }
+          data.put(zone, boxes);
+        }
+        segmentData.setData(data);
+        segments.put(segmentData.getSegment(), segmentData);
+      }
+      return new Snapshot(localZone, segments);
+    } catch (Exception e) {
+      LOGGER.error("[snapshot] load snapshot error, {}", file, e);
+      return null;
+    } finally {
+      close(in);
+    }
+  }
+
+  /** Flush the pending snapshots and stop the background thread. */
+  public void destroy() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(DESTROY_WAIT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.warn("[snapshot] snapshots are not flushed in {}s", DESTROY_WAIT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  boolean write(String key, Snapshot snapshot) {
+    if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+      LOGGER.error("[snapshot] create snapshot dir failed, {}", dir);
+      return false;
+    }
+    String name = fileName(key);
+    File tmp = new File(dir, name + TMP_SUFFIX);
+    File file = new File(dir, name + SUFFIX);
+    FileOutputStream fos = null;
+    try {
+      fos = new FileOutputStream(tmp);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeString(out, key);
+      writeString(out, snapshot.getLocalZone());
+      Map<String, SegmentData> segments = snapshot.getSegments();
+      out.writeInt(segments.size());
+      for (SegmentData segmentData : segments.values()) {
+        writeString(out, segmentData.getSegment());
+        out.writeLong(null == segmentData.getVersion() ? 0 : segmentData.getVersion());
+        Map<String, List<DataBox>> data = segmentData.getData();
+        if (null == data) {
+          out.writeInt(0);
+          continue;
+        }
+        out.writeInt(data.size());
+        for (Entry<String, List<DataBox>> entry : data.entrySet()) {
+          writeString(out, entry.getKey());
+          out.writeInt(entry.getValue().size());
+          for (DataBox dataBox : entry.getValue()) {
+            writeString(out, dataBox.getData());
+          }
+        }
+      }
+      out.flush();
+      fos.getFD().sync();
+      close(fos);
+      fos = null;
+      if (tmp.renameTo(file)) {
+        return true;
+      }
+      // rename can not replace an exist file on some platforms
+      boolean deleted = file.delete();
+      if (!deleted) {
+        LOGGER.error("[snapshot] delete old snapshot file failed, {}", file);
+        return false;
+      }
+      boolean renamed = tmp.renameTo(file);
+      if (!renamed) {
+        LOGGER.error("[snapshot] replace snapshot file failed, {}", file);
+      }
+      return renamed;
+    } catch (Exception e) {
+      LOGGER.error("[snapshot] write snapshot error, {}", file, e);
+      return false;
+    } finally {
+      close(fos);
+    }
+  }
+
+  /**
+   * The file name is the truncated key followed by the md5 of the whole key, the length is bounded
+   * whatever the dataId is. A conflict of names is detected by the key written in the file.
+   */
+  static String fileName(String key) {
+    try {
+      String prefix = URLEncoder.encode(key, CHARSET);
+      if (prefix.length() > FILE_NAME_PREFIX_LENGTH) {
+        prefix = prefix.substring(0, FILE_NAME_PREFIX_LENGTH);
+      }
+      byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(CHARSET));
+      StringBuilder sb = new StringBuilder(prefix.length() + 1 + digest.length * 2);
+      sb.append(prefix).append('-');
+      for (byte b : digest) {
+        sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+      }
+      return sb.toString();
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (null == value) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(CHARSET);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, CHARSET);
+  }
+
+  private static void close(Closeable closeable) {
+    if (null == closeable) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  private final class WriteTask implements Runnable {
+    private final String key;
+
+    private WriteTask(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public void run() {
+      Snapshot latest = pendings.remove(key);
+      if (null != latest) {
+        write(key, latest);
+      }
+    }
+  }
+
+  /** Drop the write when the queue is full or stopped, the next push saves the snapshot again. */
+  private final class DiscardWritePolicy implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+      String key = ((WriteTask) r).key;
+      pendings.remove(key);
+      LOGGER.warn(
+          "[snapshot] discard write snapshot, {}, queue: {}, shutdown: {}",
+          key,
+          executor.getQueue().size(),
+          executor.isShutdown());
+    }
+  }
+
+  /** The data of a subscriber at some time. */
+  public static class Snapshot {
+    private final String localZone;
+
+    private final Map<String, SegmentData> segments;
+
+    /**
+     * Instantiates a new Snapshot.
+     *
+     * @param localZone the local zone
+     * @param segments the segment data, key is segment
+     */
+    public Snapshot(String localZone, Map<String, SegmentData> segments) {
+      this.localZone = localZone;
+      this.segments = segments;
+    }
+
+    /**
+     * Getter method for property <tt>localZone</tt>.
+     *
+     * @return property value of localZone
+     */
+    public String getLocalZone() {
+      return localZone;
+    }
+
+    /**
+     * Getter method for property <tt>segments</tt>.
+     *
+     * @return property value of segments
+     */
+    public Map<String, SegmentData> getSegments() {
+      return segments;
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package com.alipay.sofa.registry.client.remoting;
 
 import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.RpcResponseFuture;
 
 /**
  * The interface Client.
@@ -52,4 +53,13 @@ public interface Client {
    * @throws InterruptedException the interrupted exception
    */
   Object invokeSync(Object request) throws RemotingException, InterruptedException;
+
+  /**
+   * Invoke with future, the request is sent without waiting for the response.
+   *
+   * @param request the request
+   * @return the response future
+   * @throws RemotingException the remoting exception
+   */
+  RpcResponseFuture invokeWithFuture(Object request) throws RemotingException;
 }
@@ -21,6 +21,7 @@ import com.alipay.remoting.ConnectionEventProcessor;
 import com.alipay.remoting.ConnectionEventType;
 import com.alipay.remoting.exception.RemotingException;
 import com.alipay.remoting.rpc.RpcClient;
+import com.alipay.remoting.rpc.RpcResponseFuture;
 import com.alipay.remoting.rpc.protocol.UserProcessor;
 import com.alipay.sofa.registry.client.api.Configurator;
 import com.alipay.sofa.registry.client.api.Publisher;
@@ -175,6 +176,22 @@ public class ClientConnection implements Client {
     return client.invokeSync(clientConnection, request, config.getInvokeTimeout());
   }
 
+  /**
+   * Invoke with future.
+   *
+   * @param request the request
+   * @return the response future
+   * @throws RemotingException the remoting exception
+   */
+  @Override
+  public RpcResponseFuture invokeWithFuture(Object request) throws RemotingException {
+    if (!isConnected()) {
+      throw new IllegalStateException("Not connected");
+    }
+
+    return client.invokeWithFuture(clientConnection, request, config.getInvokeTimeout());
+  }
+
   private void recycle(Connection connection) {
     if (null == connection) {
       return;
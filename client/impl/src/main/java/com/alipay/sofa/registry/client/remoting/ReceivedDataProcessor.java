@@ -74,6 +74,9 @@ public class ReceivedDataProcessor extends SyncUserProcessor<ReceivedData> {
       segmentData.setVersion(request.getVersion());
       segmentData.setSegment(request.getSegment());
 
+      // delta push only contains the changed data since baseVersion
+      final Long baseVersion = request.getBaseVersion();
+      boolean deltaRejected = false;
       for (String registId : registIds) {
         Subscriber subscriber = registerCache.getSubscriberByRegistId(registId);
         if (null == subscriber) {
@@ -82,7 +85,18 @@ public class ReceivedDataProcessor extends SyncUserProcessor<ReceivedData> {
 
         if (subscriber instanceof DefaultSubscriber) {
           DefaultSubscriber defaultSubscriber = (DefaultSubscriber) subscriber;
-          defaultSubscriber.putReceivedData(segmentData, request.getLocalZone());
+          if (null == baseVersion) {
+            defaultSubscriber.putReceivedData(segmentData, request.getLocalZone());
+          } else if (!defaultSubscriber.putReceivedDelta(
+              segmentData, baseVersion, request.getRemovedData(), request.getLocalZone())) {
+            deltaRejected = true;
+            LOGGER.warn(
+                "[received] reject delta data, dataId: {}, registId: {}, baseVersion: {}",
+                subscriber.getDataId(),
+                subscriber.getRegistId(),
+                baseVersion);
+            continue;
+          }
           try {
             observerHandler.notify(subscriber);
           } catch (Exception e) {
@@ -98,6 +112,12 @@ public class ReceivedDataProcessor extends SyncUserProcessor<ReceivedData> {
         }
       }
 
+      if (deltaRejected) {
+        // the base version mismatch, the server would retry with full data
+        result.setSuccess(false);
+        result.setMessage("delta base version mismatch");
+      }
+
       LOGGER.info(
           "[received] receive subscriber data save success, dataId: {} group: {} version: {} data:{} registIds:{}",
           request.getDataId(),
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -36,29 +37,40 @@ public class TaskQueue implements Iterable<TaskEvent> {
   private final ConcurrentMap<String, TaskEvent> taskMap =
       new ConcurrentHashMap<String, TaskEvent>();
 
+  /** the sorted snapshot of taskMap, rebuilt only after the tasks changed */
+  private volatile List<TaskEvent> sortedTasks = Collections.emptyList();
+
+  private volatile boolean dirty = false;
+
   /**
-   * Iterator iterator.
+   * Iterator iterator. The sorted snapshot is reused until a task is put or cleaned, every pass of
+   * the worker increases the sendCount of all the tasks, so the order is kept between passes.
    *
-   * @return the iterator
+   * @return the read only iterator
    */
   @Override
   public Iterator<TaskEvent> iterator() {
-    List<TaskEvent> taskList = new ArrayList<TaskEvent>(taskMap.values());
-    Collections.sort(taskList);
-    return taskList.iterator();
+    if (dirty) {
+      // reset before the copy, the task put during the copy would mark it again
+      dirty = false;
+      List<TaskEvent> taskList = new ArrayList<TaskEvent>(taskMap.values());
+      Collections.sort(taskList);
+      sortedTasks = Collections.unmodifiableList(taskList);
+    }
+    return sortedTasks.iterator();
   }
 
-  /** Delete the completed task, return task queue size. */
+  /** Delete the completed task. */
   public void cleanCompletedTasks() {
-    List<String> taskList = new ArrayList<String>(taskMap.keySet());
-    for (String key : taskList) {
-      TaskEvent event = taskMap.get(key);
+    for (Map.Entry<String, TaskEvent> entry : taskMap.entrySet()) {
+      TaskEvent event = entry.getValue();
       AbstractInternalRegister r = (AbstractInternalRegister) event.getSource();
       if (r.isDone()) {
-        taskMap.remove(key, event);
+        if (taskMap.remove(entry.getKey(), event)) {
+          dirty = true;
+        }
       }
     }
-    taskMap.size();
   }
 
   /**
@@ -70,6 +82,7 @@ public class TaskQueue implements Iterable<TaskEvent> {
     Register register = event.getSource();
     String key = register.getRegistId();
     taskMap.put(key, event);
+    dirty = true;
   }
 
   /**
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.registry.client.task;
 
+import com.alipay.remoting.rpc.RpcResponseFuture;
 import com.alipay.sofa.registry.client.api.Register;
 import com.alipay.sofa.registry.client.api.RegistryClientConfig;
 import com.alipay.sofa.registry.client.log.LoggerFactory;
@@ -23,8 +24,15 @@ import com.alipay.sofa.registry.client.provider.AbstractInternalRegister;
 import com.alipay.sofa.registry.client.provider.AbstractInternalRegister.SyncTask;
 import com.alipay.sofa.registry.client.provider.RegisterCache;
 import com.alipay.sofa.registry.client.remoting.Client;
+import com.alipay.sofa.registry.core.model.BaseRegister;
+import com.alipay.sofa.registry.core.model.BatchRegisterRequest;
+import com.alipay.sofa.registry.core.model.BatchRegisterResponse;
+import com.alipay.sofa.registry.core.model.PublisherRegister;
 import com.alipay.sofa.registry.core.model.RegisterResponse;
+import com.alipay.sofa.registry.core.model.SubscriberRegister;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
@@ -38,6 +46,9 @@ import org.slf4j.Logger;
 public class WorkerThread extends AbstractWorkerThread {
   private static final Logger LOGGER = LoggerFactory.getLogger(WorkerThread.class);
 
+  /** Batch is suspended for a while after failed, e.g. the session does not support it yet. */
+  private static final long BATCH_SUSPEND_MILLIS = 60000;
+
   /** Task queue */
   protected final TaskQueue requestQueue = new TaskQueue();
 
@@ -47,6 +58,11 @@ public class WorkerThread extends AbstractWorkerThread {
 
   private AtomicBoolean inited = new AtomicBoolean(false);
 
+  /** Batches which are sent but not answered, at most registerPipelineWindow. */
+  private final LinkedList<InflightBatch> inflightBatches = new LinkedList<InflightBatch>();
+
+  private long batchSuspendUntil;
+
   /**
    * Instantiates a new Worker thread.
    *
@@ -103,19 +119,41 @@ public class WorkerThread extends AbstractWorkerThread {
         }
 
         Iterator<TaskEvent> lt = requestQueue.iterator();
+        List<SendingTask> batch = new ArrayList<SendingTask>();
 
-        while (lt.hasNext()) {
-          client.ensureConnected();
-          TaskEvent ev = lt.next();
-          lt.remove();
-          int sendCount = ev.incSendCount();
+        try {
+          while (lt.hasNext()) {
+            client.ensureConnected();
+            TaskEvent ev = lt.next();
+            int sendCount = ev.incSendCount();
 
-          // Resent needs delay when task event is not the first time to send.
-          if (sendCount != 0 && ev.delayTime() > 0) {
-            continue;
-          }
+            // Resent needs delay when task event is not the first time to send.
+            if (sendCount != 0 && ev.delayTime() > 0) {
+              continue;
+            }
 
-          handleTask(ev);
+            SendingTask task = prepareTask(ev);
+            if (task == null) {
+              continue;
+            }
+            if (task.isBatchable() && isBatchEnable()) {
+              batch.add(task);
+              if (batch.size() >= config.getRegisterBatchSize()) {
+                sendBatch(batch);
+                batch = new ArrayList<SendingTask>();
+              }
+            } else {
+              sendTask(task);
+            }
+          }
+          if (!batch.isEmpty()) {
+            sendBatch(batch);
+          }
+        } finally {
+          // wait all the batches in flight, the responses must be applied before cleaning
+          while (!inflightBatches.isEmpty()) {
+            completeBatch(inflightBatches.poll());
+          }
         }
 
         // Cleaning completed task, it will take more time when the registration number is large.
@@ -126,9 +164,13 @@ public class WorkerThread extends AbstractWorkerThread {
     }
   }
 
-  private void handleTask(TaskEvent event) {
+  private boolean isBatchEnable() {
+    return config.getRegisterBatchSize() > 1 && System.currentTimeMillis() >= batchSuspendUntil;
+  }
+
+  private SendingTask prepareTask(TaskEvent event) {
     if (null == event) {
-      return;
+      return null;
     }
 
     try {
@@ -137,58 +179,154 @@ public class WorkerThread extends AbstractWorkerThread {
 
       if (!(register instanceof AbstractInternalRegister)) {
         LOGGER.warn("[register] register type unknown, {}", register);
-        return;
+        return null;
       }
 
       AbstractInternalRegister abstractInternalRegister = (AbstractInternalRegister) register;
 
       SyncTask syncTask = abstractInternalRegister.assemblySyncTask();
-      String requestId = syncTask.getRequestId();
 
       if (syncTask.isDone()) {
         LOGGER.info("[register] register already sync succeeded, {}", register);
-        return;
+        return null;
       }
+      return new SendingTask(event, abstractInternalRegister, syncTask);
+    } catch (Exception e) {
+      LOGGER.error("[send] handle request failed, {}", event, e);
+      return null;
+    }
+  }
 
-      Object request = syncTask.getRequest();
-
-      Object result = client.invokeSync(request);
+  private void sendTask(SendingTask task) {
+    try {
+      Object result = client.invokeSync(task.syncTask.getRequest());
+      handleResult(task, result);
+    } catch (Exception e) {
+      LOGGER.error("[send] handle request failed, {}", task.event, e);
+    }
+  }
 
-      if (!(result instanceof RegisterResponse)) {
-        LOGGER.warn("[register] result type is wrong, {}", result);
-        return;
+  private void sendBatch(List<SendingTask> batch) {
+    if (!isBatchEnable()) {
+      // suspended by a failed batch of this round
+      for (SendingTask task : batch) {
+        sendTask(task);
       }
+      return;
+    }
+    // keep at most registerPipelineWindow batches in flight, wait the eldest one when full
+    while (inflightBatches.size() >= Math.max(1, config.getRegisterPipelineWindow())) {
+      completeBatch(inflightBatches.poll());
+    }
+    BatchRegisterRequest request = new BatchRegisterRequest();
+    for (SendingTask task : batch) {
+      request.addRegister((BaseRegister) task.syncTask.getRequest());
+    }
+    try {
+      inflightBatches.add(new InflightBatch(batch, client.invokeWithFuture(request)));
+    } catch (Exception e) {
+      fallback(batch, e);
+    }
+  }
 
-      RegisterResponse response = (RegisterResponse) result;
-      if (!response.isSuccess()) {
-        LOGGER.info("[register] register to server failed, {}, {}", request, response);
-        return;
+  private void completeBatch(InflightBatch inflight) {
+    Object result;
+    try {
+      result = inflight.future.get(config.getInvokeTimeout());
+    } catch (Exception e) {
+      fallback(inflight.tasks, e);
+      return;
+    }
+    if (!(result instanceof BatchRegisterResponse)
+        || ((BatchRegisterResponse) result).getResponses().size() != inflight.tasks.size()) {
+      fallback(inflight.tasks, new IllegalStateException("unexpected batch result: " + result));
+      return;
+    }
+    List<RegisterResponse> responses = ((BatchRegisterResponse) result).getResponses();
+    for (int i = 0; i < responses.size(); i++) {
+      SendingTask task = inflight.tasks.get(i);
+      try {
+        handleResult(task, responses.get(i));
+      } catch (Exception e) {
+        LOGGER.error("[send] handle request failed, {}", task.event, e);
       }
+    }
+  }
 
-      boolean syncOK =
-          abstractInternalRegister.syncOK(requestId, response.getVersion(), response.isRefused());
-      if (!syncOK) {
-        LOGGER.info(
-            "[register] requestId has expired, ignore this response, {}, {}, {}",
-            requestId,
-            request,
-            response);
-        return;
-      }
+  private void fallback(List<SendingTask> batch, Exception cause) {
+    batchSuspendUntil = System.currentTimeMillis() + BATCH_SUSPEND_MILLIS;
+    LOGGER.warn(
+        "[register] batch register failed, fallback to send one by one, size={}",
+        batch.size(),
+        cause);
+    for (SendingTask task : batch) {
+      sendTask(task);
+    }
+  }
 
-      if (!register.isEnabled()) {
-        registerCache.remove(register.getRegistId());
-      }
+  private void handleResult(SendingTask task, Object result) {
+    Object request = task.syncTask.getRequest();
+    String requestId = task.syncTask.getRequestId();
+    AbstractInternalRegister register = task.register;
 
-      if (response.isRefused()) {
-        LOGGER.info(
-            "[register] register refused by server, {}, {}, {}", requestId, request, response);
-      } else {
-        LOGGER.info(
-            "[register] register to server success, {}, {}, {}", requestId, request, response);
-      }
-    } catch (Exception e) {
-      LOGGER.error("[send] handle request failed, {}", event, e);
+    if (!(result instanceof RegisterResponse)) {
+      LOGGER.warn("[register] result type is wrong, {}", result);
+      return;
+    }
+
+    RegisterResponse response = (RegisterResponse) result;
+    if (!response.isSuccess()) {
+      LOGGER.info("[register] register to server failed, {}, {}", request, response);
+      return;
+    }
+
+    boolean syncOK = register.syncOK(requestId, response.getVersion(), response.isRefused());
+    if (!syncOK) {
+      LOGGER.info(
+          "[register] requestId has expired, ignore this response, {}, {}, {}",
+          requestId,
+          request,
+          response);
+      return;
+    }
+
+    if (!register.isEnabled()) {
+      registerCache.remove(register.getRegistId());
+    }
+
+    if (response.isRefused()) {
+      LOGGER.info(
+          "[register] register refused by server, {}, {}, {}", requestId, request, response);
+    } else {
+      LOGGER.info(
+          "[register] register to server success, {}, {}, {}", requestId, request, response);
+    }
+  }
+
+  private static final class SendingTask {
+    final TaskEvent event;
+    final AbstractInternalRegister register;
+    final SyncTask syncTask;
+
+    SendingTask(TaskEvent event, AbstractInternalRegister register, SyncTask syncTask) {
+      this.event = event;
+      this.register = register;
+      this.syncTask = syncTask;
+    }
+
+    boolean isBatchable() {
+      Object request = syncTask.getRequest();
+      return request instanceof PublisherRegister || request instanceof SubscriberRegister;
+    }
+  }
+
+  private static final class InflightBatch {
+    final List<SendingTask> tasks;
+    final RpcResponseFuture future;
+
+    InflightBatch(List<SendingTask> tasks, RpcResponseFuture future) {
+      this.tasks = tasks;
+      this.future = future;
     }
   }
 }
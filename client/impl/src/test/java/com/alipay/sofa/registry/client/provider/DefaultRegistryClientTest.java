@@ -21,6 +21,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import com.alipay.sofa.registry.client.api.ConfigDataObserver;
 import com.alipay.sofa.registry.client.api.Configurator;
@@ -63,6 +64,17 @@ public class DefaultRegistryClientTest extends BaseTest {
     mockServer.stop();
   }
 
+  /** Destroy flushes the subscriber snapshots. */
+  @Test
+  public void destroy() {
+    DefaultRegistryClient client =
+        new DefaultRegistryClient(DefaultRegistryClientConfigBuilder.start().build());
+    SubscriberSnapshotStore store = mock(SubscriberSnapshotStore.class);
+    client.setSnapshotStore(store);
+    client.destroy();
+    verify(store).destroy();
+  }
+
   /** Register publisher. */
   @Test
   public void registerPublisher() throws InterruptedException {
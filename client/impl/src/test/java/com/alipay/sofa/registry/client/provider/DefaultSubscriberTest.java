@@ -17,13 +17,17 @@
 package com.alipay.sofa.registry.client.provider;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.alipay.sofa.registry.client.api.model.UserData;
+import com.alipay.sofa.registry.client.api.registration.SubscriberRegistration;
 import com.alipay.sofa.registry.client.model.SegmentData;
 import com.alipay.sofa.registry.core.model.DataBox;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -233,6 +237,206 @@ public class DefaultSubscriberTest {
     assertZoneDataEquals(expectedMap8, userData10.getZoneData());
   }
 
+  @Test
+  public void testPutReceivedDelta() {
+    String localZone = ZHEJIANG;
+
+    DefaultRegistryClientConfig config = DefaultRegistryClientConfigBuilder.start().build();
+    DefaultSubscriber defaultSubscriber = new DefaultSubscriber(null, null, config);
+
+    // 1. no base data
+    SegmentData delta0 = new SegmentData();
+    delta0.setSegment(segmentA);
+    delta0.setVersion(2L);
+    delta0.setData(new HashMap<String, List<DataBox>>());
+    assertFalse(
+        defaultSubscriber.putReceivedDelta(
+            delta0, 1, new HashMap<String, List<DataBox>>(), localZone));
+
+    Map<String, List<DataBox>> map1 = new HashMap<String, List<DataBox>>();
+    addToDataBoxMap(map1, ZHEJIANG, HANGZHOU, NINGBO, NINGBO);
+    addToDataBoxMap(map1, JIANGSU, NANJING);
+    SegmentData sd1 = new SegmentData();
+    sd1.setSegment(segmentA);
+    sd1.setVersion(1L);
+    sd1.setData(map1);
+    defaultSubscriber.putReceivedData(sd1, localZone);
+
+    // 2. apply delta, remove one of the duplicate data
+    Map<String, List<DataBox>> added2 = new HashMap<String, List<DataBox>>();
+    addToDataBoxMap(added2, FUJIAN, XIAMEN);
+    Map<String, List<DataBox>> removed2 = new HashMap<String, List<DataBox>>();
+    addToDataBoxMap(removed2, ZHEJIANG, NINGBO);
+    addToDataBoxMap(removed2, JIANGSU, NANJING);
+    SegmentData delta2 = new SegmentData();
+    delta2.setSegment(segmentA);
+    delta2.setVersion(2L);
+    delta2.setData(added2);
+    assertTrue(defaultSubscriber.putReceivedDelta(delta2, 1, removed2, localZone));
+
+    Map<String, List<String>> expectedMap2 = new HashMap<String, List<String>>();
+    addToStringMap(expectedMap2, ZHEJIANG, HANGZHOU, NINGBO);
+    addToStringMap(expectedMap2, FUJIAN, XIAMEN);
+    assertZoneDataEquals(expectedMap2, defaultSubscriber.peekData().getZoneData());
+
+    // 3. base version mismatch
+    SegmentData delta3 = new SegmentData();
+    delta3.setSegment(segmentA);
+    delta3.setVersion(4L);
+    delta3.setData(new HashMap<String, List<DataBox>>());
+    assertFalse(defaultSubscriber.putReceivedDelta(delta3, 3, removed2, localZone));
+    assertZoneDataEquals(expectedMap2, defaultSubscriber.peekData().getZoneData());
+
+    // 4. has received the newer version
+    assertTrue(defaultSubscriber.putReceivedDelta(delta2, 1, removed2, localZone));
+    assertZoneDataEquals(expectedMap2, defaultSubscriber.peekData().getZoneData());
+  }
+
+  @Test
+  public void testAssemblyAcceptDelta() {
+    SubscriberRegistration registration = new SubscriberRegistration("dataId", null);
+    registration.setGroup("group");
+
+    DefaultSubscriber subscriber =
+        new DefaultSubscriber(
+            registration, null, DefaultRegistryClientConfigBuilder.start().build());
+    assertTrue(subscriber.assembly().acceptDelta());
+
+    subscriber =
+        new DefaultSubscriber(
+            registration,
+            null,
+            DefaultRegistryClientConfigBuilder.start().setAcceptDelta(false).build());
+    assertFalse(subscriber.assembly().acceptDelta());
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    File dir = File.createTempFile("snapshot", "");
+    assertTrue(dir.delete());
+    try {
+      DefaultRegistryClientConfig config =
+          DefaultRegistryClientConfigBuilder.start().setSnapshotDir(dir.getPath()).build();
+      SubscriberRegistration registration = new SubscriberRegistration("dataId", null);
+      registration.setGroup("group");
+
+      // 1. the first subscriber saves what is pushed
+      DefaultSubscriber first = new DefaultSubscriber(registration, null, config);
+      SubscriberSnapshotStore store = new SubscriberSnapshotStore(dir.getPath());
+      first.setSnapshotStore(store);
+      assertFalse(first.loadSnapshot());
+      Map<String, List<DataBox>> map1 = new HashMap<String, List<DataBox>>();
+      addToDataBoxMap(map1, ZHEJIANG, HANGZHOU, NINGBO);
+      SegmentData sd1 = new SegmentData();
+      sd1.setSegment(segmentA);
+      sd1.setVersion(10L);
+      sd1.setData(map1);
+      first.putReceivedData(sd1, ZHEJIANG);
+      assertFalse(first.isStale());
+      store.destroy();
+
+      // 2. the subscriber after restart is seeded with the snapshot
+      DefaultSubscriber second = new DefaultSubscriber(registration, null, config);
+      second.setSnapshotStore(new SubscriberSnapshotStore(dir.getPath()));
+      assertTrue(second.loadSnapshot());
+      assertTrue(second.isStale());
+      assertTrue(second.isInited());
+      DefaultUserData userData = (DefaultUserData) second.peekData();
+      assertTrue(userData.isStale());
+      assertEquals(ZHEJIANG, userData.getLocalZone());
+      assertZoneDataEquals(
+          Collections.singletonMap(ZHEJIANG, Arrays.asList(HANGZHOU, NINGBO)),
+          userData.getZoneData());
+
+      // 3. delta is never applied on the snapshot
+      assertFalse(second.putReceivedDelta(sd1, 10L, null, ZHEJIANG));
+
+      // 4. the pushed data replaces the snapshot even if the version is older
+      Map<String, List<DataBox>> map2 = new HashMap<String, List<DataBox>>();
+      addToDataBoxMap(map2, ZHEJIANG, WENZHOU);
+      SegmentData sd2 = new SegmentData();
+      sd2.setSegment(segmentA);
+      sd2.setVersion(5L);
+      sd2.setData(map2);
+      second.putReceivedData(sd2, ZHEJIANG);
+      assertFalse(second.isStale());
+      userData = (DefaultUserData) second.peekData();
+      assertFalse(userData.isStale());
+      assertZoneDataEquals(
+          Collections.singletonMap(ZHEJIANG, Collections.singletonList(WENZHOU)),
+          userData.getZoneData());
+      assertFalse(second.loadSnapshot());
+    } finally {
+      for (File file : dir.listFiles()) {
+        file.delete();
+      }
+      dir.delete();
+    }
+  }
+
+  @Test
+  public void testStaleSegmentExpire() throws Exception {
+    File dir = File.createTempFile("snapshot", "");
+    assertTrue(dir.delete());
+    try {
+      DefaultRegistryClientConfig config =
+          DefaultRegistryClientConfigBuilder.start().setSnapshotDir(dir.getPath()).build();
+      SubscriberRegistration registration = new SubscriberRegistration("dataId", null);
+      registration.setGroup("group");
+      DefaultSubscriber subscriber = new DefaultSubscriber(registration, null, config);
+      SubscriberSnapshotStore store = new SubscriberSnapshotStore(dir.getPath());
+      subscriber.setSnapshotStore(store);
+      subscriber.setStaleSegmentExpireMillis(200);
+
+      // 1. seeded with segment a and b
+      Map<String, SegmentData> segments = new HashMap<String, SegmentData>();
+      for (String segment : Arrays.asList(segmentA, segmentB)) {
+        Map<String, List<DataBox>> map = new HashMap<String, List<DataBox>>();
+        addToDataBoxMap(map, ZHEJIANG, segment);
+        SegmentData segmentData = new SegmentData();
+        segmentData.setSegment(segment);
+        segmentData.setVersion(1L);
+        segmentData.setData(map);
+        segments.put(segment, segmentData);
+      }
+      assertTrue(
+          store.write(
+              subscriber.snapshotKey(), new SubscriberSnapshotStore.Snapshot(ZHEJIANG, segments)));
+      assertTrue(subscriber.loadSnapshot());
+
+      // 2. only segment a is pushed, b is still served before expired
+      Map<String, List<DataBox>> map = new HashMap<String, List<DataBox>>();
+      addToDataBoxMap(map, ZHEJIANG, HANGZHOU);
+      SegmentData sd = new SegmentData();
+      sd.setSegment(segmentA);
+      sd.setVersion(2L);
+      sd.setData(map);
+      subscriber.putReceivedData(sd, ZHEJIANG);
+      assertTrue(subscriber.isStale());
+      assertZoneDataEquals(
+          Collections.singletonMap(ZHEJIANG, Arrays.asList(HANGZHOU, segmentB)),
+          subscriber.peekData().getZoneData());
+
+      // 3. the segment b is never pushed again, dropped after expired
+      Thread.sleep(300);
+      assertFalse(subscriber.isStale());
+      assertZoneDataEquals(
+          Collections.singletonMap(ZHEJIANG, Collections.singletonList(HANGZHOU)),
+          subscriber.peekData().getZoneData());
+      sd.setVersion(3L);
+      subscriber.putReceivedData(sd, ZHEJIANG);
+      store.destroy();
+      assertEquals(
+          Collections.singleton(segmentA),
+          store.load(subscriber.snapshotKey()).getSegments().keySet());
+    } finally {
+      for (File file : dir.listFiles()) {
+        file.delete();
+      }
+      dir.delete();
+    }
+  }
+
   private void addToDataBoxMap(Map<String, List<DataBox>> map, String key, String... values) {
     List<DataBox> list = map.get(key);
     if (list == null) {
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.client.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.alipay.sofa.registry.client.model.SegmentData;
+import com.alipay.sofa.registry.client.provider.SubscriberSnapshotStore.Snapshot;
+import com.alipay.sofa.registry.core.model.DataBox;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SubscriberSnapshotStoreTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testWriteLoad() throws Exception {
+    SubscriberSnapshotStore store = new SubscriberSnapshotStore(folder.getRoot().getPath());
+    String key = "dataId#@#DEFAULT_INSTANCE_ID#@#DEFAULT_GROUP#@#zone";
+    assertNull(store.load(key));
+
+    assertTrue(store.write(key, snapshot("zone1", 10, "a", "b", null)));
+    Snapshot snapshot = store.load(key);
+    assertEquals("zone1", snapshot.getLocalZone());
+    SegmentData segmentData = snapshot.getSegments().get("seg");
+    assertEquals(10L, segmentData.getVersion().longValue());
+    List<DataBox> boxes = segmentData.getData().get("zone1");
+    assertEquals(3, boxes.size());
+    assertEquals("a", boxes.get(0).getData());
+    assertEquals("b", boxes.get(1).getData());
+    assertNull(boxes.get(2).getData());
+
+    // replace the exist one
+    assertTrue(store.write(key, snapshot(null, 11, "c")));
+    snapshot = store.load(key);
+    assertNull(snapshot.getLocalZone());
+    assertEquals(11L, snapshot.getSegments().get("seg").getVersion().longValue());
+    assertEquals(1, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void testSave() throws Exception {
+    SubscriberSnapshotStore store = new SubscriberSnapshotStore(folder.getRoot().getPath());
+    for (int i = 1; i <= 100; i++) {
+      store.save("key", snapshot("zone", i, String.valueOf(i)));
+    }
+    // the pending snapshots are flushed before stopped
+    store.destroy();
+    assertEquals(100L, store.load("key").getSegments().get("seg").getVersion().longValue());
+  }
+
+  @Test
+  public void testBroken() throws Exception {
+    SubscriberSnapshotStore store = new SubscriberSnapshotStore(folder.getRoot().getPath());
+    assertTrue(store.write("key", snapshot("zone", 1, "a")));
+    File file = folder.getRoot().listFiles()[0];
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(new byte[] {1, 2, 3});
+    out.close();
+    assertNull(store.load("key"));
+  }
+
+  @Test
+  public void testLongKey() throws Exception {
+    SubscriberSnapshotStore store = new SubscriberSnapshotStore(folder.getRoot().getPath());
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("dataId");
+    }
+    String key1 = sb.toString() + "#@#1";
+    String key2 = sb.toString() + "#@#2";
+    assertTrue(SubscriberSnapshotStore.fileName(key1).length() < 128);
+    assertTrue(store.write(key1, snapshot("zone", 1, "a")));
+    assertTrue(store.write(key2, snapshot("zone", 2, "b")));
+    assertEquals(1L, store.load(key1).getSegments().get("seg").getVersion().longValue());
+    assertEquals(2L, store.load(key2).getSegments().get("seg").getVersion().longValue());
+  }
+
+  static Snapshot snapshot(String localZone, long version, String... data) {
+    List<DataBox> boxes = new ArrayList<DataBox>();
+    for (String d : data) {
+      boxes.add(new DataBox(d));
+    }
+    Map<String, List<DataBox>> zoneData = new HashMap<String, List<DataBox>>();
+    zoneData.put(null == localZone ? "zone1" : localZone, boxes);
+    SegmentData segmentData = new SegmentData();
+    segmentData.setSegment("seg");
+    segmentData.setVersion(version);
+    segmentData.setData(zoneData);
+    Map<String, SegmentData> segments = new HashMap<String, SegmentData>();
+    segments.put("seg", segmentData);
+    return new Snapshot(localZone, segments);
+  }
+}
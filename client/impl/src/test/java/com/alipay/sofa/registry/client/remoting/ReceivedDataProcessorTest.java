@@ -16,11 +16,19 @@
  */
 package com.alipay.sofa.registry.client.remoting;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.alipay.sofa.registry.client.api.Subscriber;
+import com.alipay.sofa.registry.client.model.SegmentData;
 import com.alipay.sofa.registry.client.provider.DefaultSubscriber;
 import com.alipay.sofa.registry.client.provider.RegisterCache;
 import com.alipay.sofa.registry.client.task.ObserverHandler;
@@ -81,6 +89,41 @@ public class ReceivedDataProcessorTest {
     Assert.assertNull(result.getMessage());
   }
 
+  @Test
+  public void handleDeltaRequest() {
+    RegisterCache registerCache = mock(RegisterCache.class);
+    ObserverHandler handler = mock(ObserverHandler.class);
+    DefaultSubscriber subscriber1 = mock(DefaultSubscriber.class);
+    DefaultSubscriber subscriber2 = mock(DefaultSubscriber.class);
+    when(registerCache.getSubscriberByRegistId("11")).thenReturn(subscriber1);
+    when(registerCache.getSubscriberByRegistId("22")).thenReturn(subscriber2);
+    when(subscriber1.putReceivedDelta(any(SegmentData.class), eq(1L), anyMap(), anyString()))
+        .thenReturn(true);
+    when(subscriber2.putReceivedDelta(any(SegmentData.class), eq(1L), anyMap(), anyString()))
+        .thenReturn(false);
+    ReceivedDataProcessor deltaProcessor = new ReceivedDataProcessor(registerCache, handler);
+
+    ReceivedData request = new ReceivedData();
+    request.setData(new HashMap<String, List<DataBox>>());
+    request.setRemovedData(new HashMap<String, List<DataBox>>());
+    request.setVersion(2L);
+    request.setBaseVersion(1L);
+    request.setSegment("seg1");
+    request.setLocalZone("local");
+
+    request.setSubscriberRegistIds(Arrays.asList("11"));
+    Result result = (Result) deltaProcessor.handleRequest(null, request);
+    Assert.assertTrue(result.isSuccess());
+    verify(handler, times(1)).notify(subscriber1);
+
+    // base version mismatch
+    request.setSubscriberRegistIds(Arrays.asList("11", "22"));
+    result = (Result) deltaProcessor.handleRequest(null, request);
+    Assert.assertFalse(result.isSuccess());
+    verify(handler, never()).notify(subscriber2);
+    verify(subscriber2, never()).putReceivedData(any(SegmentData.class), anyString());
+  }
+
   @Test
   public void interest() {
     Assert.assertEquals(ReceivedData.class.getName(), processor.interest());
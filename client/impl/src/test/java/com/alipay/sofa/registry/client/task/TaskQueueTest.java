@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.client.task;
+
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.client.provider.AbstractInternalRegister;
+import java.util.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TaskQueueTest {
+
+  @Test
+  public void testIterator() {
+    TaskQueue queue = new TaskQueue();
+    TaskEvent event1 = new TaskEvent(mockRegister("1", 200L));
+    TaskEvent event2 = new TaskEvent(mockRegister("2", 100L));
+    queue.put(event1);
+    queue.put(event2);
+
+    Iterator<TaskEvent> it = queue.iterator();
+    Assert.assertSame(event2, it.next());
+    Assert.assertSame(event1, it.next());
+    Assert.assertFalse(it.hasNext());
+
+    // the snapshot is reused if no task changed
+    Assert.assertSame(event2, queue.iterator().next());
+    try {
+      queue.iterator().remove();
+      Assert.fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+
+    // put and clean rebuild the snapshot
+    TaskEvent event3 = new TaskEvent(mockRegister("3", 50L));
+    queue.put(event3);
+    Assert.assertSame(event3, queue.iterator().next());
+
+    when(((AbstractInternalRegister) event3.getSource()).isDone()).thenReturn(true);
+    queue.cleanCompletedTasks();
+    Assert.assertSame(event2, queue.iterator().next());
+  }
+
+  private static AbstractInternalRegister mockRegister(String registId, long timestamp) {
+    AbstractInternalRegister register = Mockito.mock(AbstractInternalRegister.class);
+    when(register.getRegistId()).thenReturn(registId);
+    when(register.getTimestamp()).thenReturn(timestamp);
+    return register;
+  }
+}
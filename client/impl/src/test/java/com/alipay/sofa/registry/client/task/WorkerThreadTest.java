@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.client.task;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.alipay.remoting.exception.RemotingException;
+import com.alipay.remoting.rpc.RpcResponseFuture;
+import com.alipay.sofa.registry.client.api.RegistryClientConfig;
+import com.alipay.sofa.registry.client.provider.AbstractInternalRegister;
+import com.alipay.sofa.registry.client.provider.AbstractInternalRegister.SyncTask;
+import com.alipay.sofa.registry.client.provider.DefaultRegistryClientConfigBuilder;
+import com.alipay.sofa.registry.client.provider.RegisterCache;
+import com.alipay.sofa.registry.client.remoting.Client;
+import com.alipay.sofa.registry.core.model.BaseRegister;
+import com.alipay.sofa.registry.core.model.BatchRegisterRequest;
+import com.alipay.sofa.registry.core.model.BatchRegisterResponse;
+import com.alipay.sofa.registry.core.model.ConfiguratorRegister;
+import com.alipay.sofa.registry.core.model.PublisherRegister;
+import com.alipay.sofa.registry.core.model.RegisterResponse;
+import com.alipay.sofa.registry.core.model.SubscriberRegister;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class WorkerThreadTest {
+
+  private final RegistryClientConfig config =
+      DefaultRegistryClientConfigBuilder.start()
+          .setRecheckInterval(100)
+          .setRegisterBatchSize(2)
+          .setRegisterPipelineWindow(1)
+          .build();
+
+  @Test
+  public void testBatch() throws Exception {
+    Client client = mock(Client.class);
+    when(client.invokeWithFuture(any()))
+        .thenAnswer(
+            new Answer<RpcResponseFuture>() {
+              @Override
+              public RpcResponseFuture answer(InvocationOnMock invocation) throws Throwable {
+                BatchRegisterRequest request = (BatchRegisterRequest) invocation.getArguments()[0];
+                BatchRegisterResponse response = new BatchRegisterResponse();
+                for (BaseRegister register : request.getRegisters()) {
+                  response.addResponse(success(register));
+                }
+                RpcResponseFuture future = mock(RpcResponseFuture.class);
+                when(future.get(anyInt())).thenReturn(response);
+                return future;
+              }
+            });
+    when(client.invokeSync(any())).thenReturn(success(new ConfiguratorRegister()));
+
+    List<AbstractInternalRegister> registers = new ArrayList<AbstractInternalRegister>();
+    registers.add(register(new PublisherRegister(), "pub1"));
+    registers.add(register(new SubscriberRegister(), "sub1"));
+    registers.add(register(new PublisherRegister(), "pub2"));
+    registers.add(register(new ConfiguratorRegister(), "cfg1"));
+    schedule(client, registers);
+
+    for (AbstractInternalRegister register : registers) {
+      verify(register, timeout(3000)).syncOK(startsWith("req-"), eq(1L), eq(false));
+    }
+    // 3 publisher/subscriber in 2 batches, configurator is sent alone
+    verify(client, times(2)).invokeWithFuture(isA(BatchRegisterRequest.class));
+    verify(client, times(1)).invokeSync(isA(ConfiguratorRegister.class));
+  }
+
+  @Test
+  public void testFallback() throws Exception {
+    Client client = mock(Client.class);
+    when(client.invokeWithFuture(any())).thenThrow(new RemotingException("unsupported"));
+    when(client.invokeSync(any()))
+        .thenAnswer(
+            new Answer<RegisterResponse>() {
+              @Override
+              public RegisterResponse answer(InvocationOnMock invocation) throws Throwable {
+                return success((BaseRegister) invocation.getArguments()[0]);
+              }
+            });
+
+    List<AbstractInternalRegister> registers = new ArrayList<AbstractInternalRegister>();
+    registers.add(register(new PublisherRegister(), "pub1"));
+    registers.add(register(new SubscriberRegister(), "sub1"));
+    registers.add(register(new PublisherRegister(), "pub2"));
+    schedule(client, registers);
+
+    for (AbstractInternalRegister register : registers) {
+      verify(register, timeout(3000)).syncOK(startsWith("req-"), eq(1L), eq(false));
+    }
+    // the batch is suspended after the first failure
+    verify(client, times(1)).invokeWithFuture(any());
+    verify(client, times(3)).invokeSync(any());
+  }
+
+  @Test
+  public void testBatchDisable() throws Exception {
+    RegistryClientConfig config =
+        DefaultRegistryClientConfigBuilder.start()
+            .setRecheckInterval(100)
+            .setRegisterBatchSize(1)
+            .build();
+    Client client = mock(Client.class);
+    when(client.invokeSync(any())).thenReturn(success(new PublisherRegister()));
+    AbstractInternalRegister register = register(new PublisherRegister(), "pub1");
+    WorkerThread workerThread = new WorkerThread(client, config, mock(RegisterCache.class));
+    List<TaskEvent> events = new ArrayList<TaskEvent>();
+    events.add(new TaskEvent(register));
+    workerThread.schedule(events);
+
+    verify(register, timeout(3000)).syncOK(anyString(), anyLong(), eq(false));
+    verify(client, never()).invokeWithFuture(any());
+  }
+
+  private void schedule(Client client, List<AbstractInternalRegister> registers) {
+    WorkerThread workerThread = new WorkerThread(client, config, mock(RegisterCache.class));
+    List<TaskEvent> events = new ArrayList<TaskEvent>();
+    for (AbstractInternalRegister register : registers) {
+      events.add(new TaskEvent(register));
+    }
+    workerThread.schedule(events);
+  }
+
+  private static AbstractInternalRegister register(BaseRegister request, String registId) {
+    request.setRegistId(registId);
+    SyncTask syncTask = mock(SyncTask.class);
+    when(syncTask.getRequestId()).thenReturn("req-" + registId);
+    when(syncTask.getRequest()).thenReturn(request);
+
+    final AtomicBoolean done = new AtomicBoolean(false);
+    AbstractInternalRegister register = mock(AbstractInternalRegister.class);
+    when(register.getRegistId()).thenReturn(registId);
+    when(register.assemblySyncTask()).thenReturn(syncTask);
+    when(register.syncOK(anyString(), anyLong(), eq(false)))
+        .thenAnswer(
+            new Answer<Boolean>() {
+              @Override
+              public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                done.set(true);
+                return true;
+              }
+            });
+    when(register.isEnabled()).thenReturn(true);
+    when(register.isDone())
+        .thenAnswer(
+            new Answer<Boolean>() {
+              @Override
+              public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return done.get();
+              }
+            });
+    return register;
+  }
+
+  private static RegisterResponse success(BaseRegister register) {
+    RegisterResponse response = new RegisterResponse();
+    response.setSuccess(true);
+    response.setVersion(1L);
+    response.setRegistId(register.getRegistId());
+    return response;
+  }
+}
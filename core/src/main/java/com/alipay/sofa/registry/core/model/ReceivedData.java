@@ -51,6 +51,14 @@ public class ReceivedData implements Serializable {
 
   private Map<String, Integer> dataCount = new HashMap<String, Integer>();
 
+  /**
+   * not null means a delta push, the data only contains the added data boxes since baseVersion, and
+   * removedData contains the removed. only pushed to the subscriber which accepts delta
+   */
+  private Long baseVersion;
+
+  private Map<String /*zone*/, List<DataBox>> removedData;
+
   /** Instantiates a new Received data multi. */
   public ReceivedData() {}
 
@@ -262,6 +270,42 @@ public class ReceivedData implements Serializable {
     this.dataCount = dataCount;
   }
 
+  /**
+   * Getter method for property <tt>baseVersion</tt>.
+   *
+   * @return property value of baseVersion
+   */
+  public Long getBaseVersion() {
+    return baseVersion;
+  }
+
+  /**
+   * Setter method for property <tt>baseVersion</tt>.
+   *
+   * @param baseVersion value to be assigned to property baseVersion
+   */
+  public void setBaseVersion(Long baseVersion) {
+    this.baseVersion = baseVersion;
+  }
+
+  /**
+   * Getter method for property <tt>removedData</tt>.
+   *
+   * @return property value of removedData
+   */
+  public Map<String, List<DataBox>> getRemovedData() {
+    return removedData;
+  }
+
+  /**
+   * Setter method for property <tt>removedData</tt>.
+   *
+   * @param removedData value to be assigned to property removedData
+   */
+  public void setRemovedData(Map<String, List<DataBox>> removedData) {
+    this.removedData = removedData;
+  }
+
   /**
    * To string string.
    *
@@ -296,6 +340,10 @@ public class ReceivedData implements Serializable {
         + '\''
         + ", dataCount="
         + dataCount
+        + ", baseVersion="
+        + baseVersion
+        + ", removedData="
+        + removedData
         + '}';
   }
 }
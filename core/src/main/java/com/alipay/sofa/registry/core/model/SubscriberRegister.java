@@ -29,6 +29,8 @@ public class SubscriberRegister extends BaseRegister {
 
   private boolean acceptMulti;
 
+  private boolean acceptDelta;
+
   /**
    * Getter method for property <tt>scope</tt>.
    *
@@ -60,6 +62,19 @@ public class SubscriberRegister extends BaseRegister {
     this.acceptMulti = acceptMulti;
   }
 
+  public boolean acceptDelta() {
+    return this.acceptDelta;
+  }
+
+  /**
+   * Setter method for property <tt>acceptDelta</tt>.
+   *
+   * @param acceptDelta value to be assigned to property acceptDelta
+   */
+  public void setAcceptDelta(boolean acceptDelta) {
+    this.acceptDelta = acceptDelta;
+  }
+
   @Override
   public String toString() {
     return "SubscriberRegister{"
@@ -71,6 +86,8 @@ public class SubscriberRegister extends BaseRegister {
         + '\''
         + ", acceptMulti="
         + acceptMulti
+        + ", acceptDelta="
+        + acceptDelta
         + '}'
         + super.toString();
   }
@@ -18,6 +18,7 @@ package com.alipay.sofa.registry.common.model;
 
 import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
 import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
+import com.alipay.sofa.registry.common.model.dataserver.IncrementalDatumDigest;
 import com.google.common.collect.Maps;
 import java.util.*;
 
@@ -42,6 +43,36 @@ public final class PublisherDigestUtil {
     return ret;
   }
 
+  public static Map<String, DatumDigest> digest(
+      Map<String, DatumSummary> summaryMap, boolean incremental) {
+    if (!incremental) {
+      return digest(summaryMap);
+    }
+    if (summaryMap.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final Map<String, DatumDigest> ret = Maps.newHashMapWithExpectedSize(summaryMap.size());
+    for (Map.Entry<String, DatumSummary> e : summaryMap.entrySet()) {
+      ret.put(e.getKey(), incrementalDigest(e.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * the digest is same as the IncrementalDatumDigest which maintained by the add/remove of
+   * publishers
+   *
+   * @param summary summary
+   * @return DatumDigest
+   */
+  public static DatumDigest incrementalDigest(DatumSummary summary) {
+    IncrementalDatumDigest digest = new IncrementalDatumDigest();
+    for (Map.Entry<String, RegisterVersion> pub : summary.getPublisherVersions().entrySet()) {
+      digest.add(pub.getKey(), pub.getValue());
+    }
+    return digest.toDigest();
+  }
+
   public static DatumDigest digest(DatumSummary summary) {
     int publisherNum = summary.size();
     long publisherIdSign = 0;
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.dataserver;
+
+import com.alipay.sofa.registry.common.model.ProcessId;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * get the datum of a batch of dataInfoIds in the same slot, the slot epochs are shared by the
+ * dataInfoIds
+ */
+public class GetMultiDataBatchRequest implements Serializable {
+  private static final long serialVersionUID = 2917504851256870135L;
+
+  private final ProcessId sessionProcessId;
+
+  private final int slotId;
+
+  private final List<String> dataInfoIds;
+
+  private final String[] acceptEncodes;
+
+  private final Map<String, Long> slotTableEpochs;
+
+  private final Map<String, Long> slotLeaderEpochs;
+
+  public GetMultiDataBatchRequest(
+      ProcessId sessionProcessId,
+      int slotId,
+      List<String> dataInfoIds,
+      String[] acceptEncodes,
+      Map<String, Long> slotTableEpochs,
+      Map<String, Long> slotLeaderEpochs) {
+    this.sessionProcessId = sessionProcessId;
+    this.slotId = slotId;
+    this.dataInfoIds = dataInfoIds;
+    this.acceptEncodes = acceptEncodes;
+    this.slotTableEpochs = slotTableEpochs;
+    this.slotLeaderEpochs = slotLeaderEpochs;
+  }
+
+  /**
+   * Getter method for property <tt>sessionProcessId</tt>.
+   *
+   * @return property value of sessionProcessId
+   */
+  public ProcessId getSessionProcessId() {
+    return sessionProcessId;
+  }
+
+  /**
+   * Getter method for property <tt>slotId</tt>.
+   *
+   * @return property value of slotId
+   */
+  public int getSlotId() {
+    return slotId;
+  }
+
+  /**
+   * Getter method for property <tt>dataInfoIds</tt>.
+   *
+   * @return property value of dataInfoIds
+   */
+  public List<String> getDataInfoIds() {
+    return dataInfoIds;
+  }
+
+  /**
+   * Getter method for property <tt>acceptEncodes</tt>.
+   *
+   * @return property value of acceptEncodes
+   */
+  public String[] getAcceptEncodes() {
+    return acceptEncodes;
+  }
+
+  /**
+   * Getter method for property <tt>slotTableEpochs</tt>.
+   *
+   * @return property value of slotTableEpochs
+   */
+  public Map<String, Long> getSlotTableEpochs() {
+    return slotTableEpochs;
+  }
+
+  /**
+   * Getter method for property <tt>slotLeaderEpochs</tt>.
+   *
+   * @return property value of slotLeaderEpochs
+   */
+  public Map<String, Long> getSlotLeaderEpochs() {
+    return slotLeaderEpochs;
+  }
+
+  @Override
+  public String toString() {
+    return "GetMultiDataBatchRequest{slotId="
+        + slotId
+        + ", dataInfoIds="
+        + dataInfoIds.size()
+        + ", slotTableEpochs="
+        + slotTableEpochs
+        + ", slotLeaderEpochs="
+        + slotLeaderEpochs
+        + "}";
+  }
+}
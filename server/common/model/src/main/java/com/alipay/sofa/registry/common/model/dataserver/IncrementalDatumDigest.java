@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.dataserver;
+
+import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.util.StringFormatter;
+
+/**
+ * order-independent digest of publishers, each publisher is hashed alone and the signs are the sum
+ * of the hashes, so a publisher could be added or subtracted in O(1). not thread safe, the owner
+ * must guard the modifications
+ */
+public final class IncrementalDatumDigest {
+  private int publisherNum;
+  private long publisherIdSign;
+  private long publisherVerSign;
+  private long publisherTimestampSign;
+
+  public void add(String registerId, RegisterVersion ver) {
+    final long idHash = mix(registerId.hashCode());
+    publisherNum++;
+    publisherIdSign += idHash;
+    publisherVerSign += mix(idHash ^ ver.getVersion());
+    publisherTimestampSign += mix(idHash ^ ver.getRegisterTimestamp());
+  }
+
+  public void remove(String registerId, RegisterVersion ver) {
+    final long idHash = mix(registerId.hashCode());
+    publisherNum--;
+    publisherIdSign -= idHash;
+    publisherVerSign -= mix(idHash ^ ver.getVersion());
+    publisherTimestampSign -= mix(idHash ^ ver.getRegisterTimestamp());
+  }
+
+  public void clear() {
+    publisherNum = 0;
+    publisherIdSign = 0;
+    publisherVerSign = 0;
+    publisherTimestampSign = 0;
+  }
+
+  public boolean isEmpty() {
+    return publisherNum == 0;
+  }
+
+  public int getPublisherNum() {
+    return publisherNum;
+  }
+
+  public DatumDigest toDigest() {
+    // the max/min timestamp could not be maintained when remove, always zero
+    return new DatumDigest(
+        publisherNum,
+        publisherIdSign,
+        publisherVerSign,
+        publisherTimestampSign,
+        (short) 0,
+        (short) 0);
+  }
+
+  public static long mix(long z) {
+    // the finalizer of splitmix64, spreads the bits so the sum is hard to collide
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  @Override
+  public String toString() {
+    return StringFormatter.format(
+        "IncrDigest{num={},idSign={},verSign={},tsSign={}}",
+        publisherNum,
+        publisherIdSign,
+        publisherVerSign,
+        publisherTimestampSign);
+  }
+}
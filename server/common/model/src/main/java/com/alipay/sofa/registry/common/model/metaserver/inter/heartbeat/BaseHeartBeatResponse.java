@@ -21,6 +21,8 @@ import com.alipay.sofa.registry.common.model.metaserver.nodes.MetaNode;
 import com.alipay.sofa.registry.common.model.metaserver.nodes.SessionNode;
 import com.alipay.sofa.registry.common.model.multi.cluster.RemoteSlotTableStatus;
 import com.alipay.sofa.registry.common.model.slot.SlotTable;
+import com.alipay.sofa.registry.common.model.slot.SlotTableDelta;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.io.Serializable;
@@ -36,11 +38,14 @@ public class BaseHeartBeatResponse implements Serializable {
 
   private final boolean heartbeatOnLeader;
 
-  private final SlotTable slotTable;
+  // the omitted parts of the conditional response are null, filled by the node
+  private SlotTable slotTable;
 
-  private final VersionedList<MetaNode> metaNodes;
+  private SlotTableDelta slotTableDelta;
 
-  private final VersionedList<SessionNode> sessionNodes;
+  private VersionedList<MetaNode> metaNodes;
+
+  private VersionedList<SessionNode> sessionNodes;
 
   private final String metaLeader;
 
@@ -76,8 +81,29 @@ public class BaseHeartBeatResponse implements Serializable {
       String metaLeader,
       long metaLeaderEpoch,
       Map<String, RemoteSlotTableStatus> remoteSlotTableStatus) {
+    this(
+        heartbeatOnLeader,
+        metaNodes,
+        slotTable,
+        null,
+        sessionNodes,
+        metaLeader,
+        metaLeaderEpoch,
+        remoteSlotTableStatus);
+  }
+
+  public BaseHeartBeatResponse(
+      boolean heartbeatOnLeader,
+      VersionedList<MetaNode> metaNodes,
+      SlotTable slotTable,
+      SlotTableDelta slotTableDelta,
+      VersionedList<SessionNode> sessionNodes,
+      String metaLeader,
+      long metaLeaderEpoch,
+      Map<String, RemoteSlotTableStatus> remoteSlotTableStatus) {
     this.heartbeatOnLeader = heartbeatOnLeader;
     this.slotTable = slotTable;
+    this.slotTableDelta = slotTableDelta;
     this.metaNodes = metaNodes;
     this.sessionNodes = sessionNodes;
     this.metaLeader = metaLeader;
@@ -89,6 +115,53 @@ public class BaseHeartBeatResponse implements Serializable {
     return slotTable;
   }
 
+  public SlotTableDelta getSlotTableDelta() {
+    return slotTableDelta;
+  }
+
+  /**
+   * fill the parts omitted by the conditional response
+   *
+   * @param requestSlotTable the slot table in the request, the base of the slot table delta
+   * @param last the last response the node has applied
+   */
+  public void fillOmitted(SlotTable requestSlotTable, BaseHeartBeatResponse last) {
+    if (slotTableDelta != null) {
+      ParaCheckUtil.checkNotNull(requestSlotTable, "requestSlotTable");
+      this.slotTable = slotTableDelta.apply(requestSlotTable);
+      this.slotTableDelta = null;
+    }
+    if (metaNodes == null) {
+      ParaCheckUtil.checkNotNull(last, "lastHeartbeatResponse");
+      this.metaNodes = last.metaNodes;
+    }
+    if (sessionNodes == null) {
+      ParaCheckUtil.checkNotNull(last, "lastHeartbeatResponse");
+      this.sessionNodes = last.sessionNodes;
+    }
+  }
+
+  /**
+   * the digest of the session nodes, the weight of the session node is changed without changing the
+   * epoch, so the epoch is not enough to check whether the session nodes are the same
+   *
+   * @param sessionNodes sessionNodes
+   * @return int
+   */
+  public static int sessionNodesDigest(Collection<SessionNode> sessionNodes) {
+    int digest = 0;
+    // the sum is independent of the order
+    for (SessionNode node : sessionNodes) {
+      digest +=
+          Objects.hash(node.getIp(), node.getRegionId(), node.getProcessId(), node.getWeight());
+    }
+    return digest;
+  }
+
+  public int getSessionNodesDigest() {
+    return sessionNodesDigest(sessionNodes.getClusterMembers());
+  }
+
   public List<MetaNode> getMetaNodes() {
     return metaNodes.getClusterMembers();
   }
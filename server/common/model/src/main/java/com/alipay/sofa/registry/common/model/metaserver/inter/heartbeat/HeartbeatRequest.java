@@ -50,6 +50,15 @@ public class HeartbeatRequest<T extends Node> implements Serializable {
   // <cluster, slotTableEpoch>
   private final Map<String, Long> remoteClusterSlotTableEpoch;
 
+  // the meta omits the parts of the response which are the same as the node has
+  private boolean conditional;
+
+  private long metaServerEpoch;
+
+  private long sessionServerEpoch;
+
+  private int sessionNodesDigest;
+
   /**
    * constructor
    *
@@ -196,6 +205,61 @@ public class HeartbeatRequest<T extends Node> implements Serializable {
     return this;
   }
 
+  /**
+   * request the conditional response, the meta omits the meta nodes and the session nodes if the
+   * versions are the same as the node has, and responds the slot table as the delta from the slot
+   * table in the request
+   *
+   * @param metaServerEpoch the epoch of the meta nodes the node has
+   * @param sessionServerEpoch the epoch of the session nodes the node has
+   * @param sessionNodesDigest the digest of the session nodes the node has
+   * @return HeartbeatRequest
+   */
+  public HeartbeatRequest<T> setConditional(
+      long metaServerEpoch, long sessionServerEpoch, int sessionNodesDigest) {
+    this.conditional = true;
+    this.metaServerEpoch = metaServerEpoch;
+    this.sessionServerEpoch = sessionServerEpoch;
+    this.sessionNodesDigest = sessionNodesDigest;
+    return this;
+  }
+
+  /**
+   * Getter method for property <tt>conditional</tt>.
+   *
+   * @return property value of conditional
+   */
+  public boolean isConditional() {
+    return conditional;
+  }
+
+  /**
+   * Getter method for property <tt>metaServerEpoch</tt>.
+   *
+   * @return property value of metaServerEpoch
+   */
+  public long getMetaServerEpoch() {
+    return metaServerEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>sessionServerEpoch</tt>.
+   *
+   * @return property value of sessionServerEpoch
+   */
+  public long getSessionServerEpoch() {
+    return sessionServerEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>sessionNodesDigest</tt>.
+   *
+   * @return property value of sessionNodesDigest
+   */
+  public int getSessionNodesDigest() {
+    return sessionNodesDigest;
+  }
+
   /**
    * Getter method for property <tt>remoteClusterSlotTableEpoch</tt>.
    *
@@ -215,6 +279,9 @@ public class HeartbeatRequest<T extends Node> implements Serializable {
     final StringBuilder sb = new StringBuilder("RenewNodesRequest{");
     sb.append("duration=").append(duration);
     sb.append(", node=").append(node);
+    if (conditional) {
+      sb.append(", conditional=").append(metaServerEpoch).append('/').append(sessionServerEpoch);
+    }
     sb.append('}');
     return sb.toString();
   }
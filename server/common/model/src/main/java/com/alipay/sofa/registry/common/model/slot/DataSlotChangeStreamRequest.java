@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import java.io.Serializable;
+
+/**
+ * fetch the changes of the slot after the acked sequence of the change log, the logId identifies
+ * the change log of the slot leader, the sequences of different logs are not comparable
+ */
+public class DataSlotChangeStreamRequest implements Serializable {
+  private static final long serialVersionUID = 6393107458120372761L;
+
+  public static final long NONE_LOG_ID = -1L;
+
+  private final String localDataCenter;
+  private final long slotTableEpoch;
+  private final int slotId;
+  private final long slotLeaderEpoch;
+  private final SyncSlotAcceptorManager acceptorManager;
+  // NONE_LOG_ID means the requester has no cursor, only the head of the log is returned
+  private final long logId;
+  private final long ackSeq;
+  private final int maxDataInfoIds;
+
+  public DataSlotChangeStreamRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      SyncSlotAcceptorManager acceptorManager,
+      long logId,
+      long ackSeq,
+      int maxDataInfoIds) {
+    this.localDataCenter = localDataCenter;
+    this.slotTableEpoch = slotTableEpoch;
+    this.slotId = slotId;
+    this.slotLeaderEpoch = slotLeaderEpoch;
+    this.acceptorManager = acceptorManager;
+    this.logId = logId;
+    this.ackSeq = ackSeq;
+    this.maxDataInfoIds = maxDataInfoIds;
+  }
+
+  /**
+   * Getter method for property <tt>localDataCenter</tt>.
+   *
+   * @return property value of localDataCenter
+   */
+  public String getLocalDataCenter() {
+    return localDataCenter;
+  }
+
+  /**
+   * Getter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @return property value of slotTableEpoch
+   */
+  public long getSlotTableEpoch() {
+    return slotTableEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>slotId</tt>.
+   *
+   * @return property value of slotId
+   */
+  public int getSlotId() {
+    return slotId;
+  }
+
+  /**
+   * Getter method for property <tt>slotLeaderEpoch</tt>.
+   *
+   * @return property value of slotLeaderEpoch
+   */
+  public long getSlotLeaderEpoch() {
+    return slotLeaderEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>acceptorManager</tt>.
+   *
+   * @return property value of acceptorManager
+   */
+  public SyncSlotAcceptorManager getAcceptorManager() {
+    return acceptorManager;
+  }
+
+  /**
+   * Getter method for property <tt>logId</tt>.
+   *
+   * @return property value of logId
+   */
+  public long getLogId() {
+    return logId;
+  }
+
+  /**
+   * Getter method for property <tt>ackSeq</tt>.
+   *
+   * @return property value of ackSeq
+   */
+  public long getAckSeq() {
+    return ackSeq;
+  }
+
+  /**
+   * Getter method for property <tt>maxDataInfoIds</tt>.
+   *
+   * @return property value of maxDataInfoIds
+   */
+  public int getMaxDataInfoIds() {
+    return maxDataInfoIds;
+  }
+
+  @Override
+  public String toString() {
+    return "SlotChangeStream{"
+        + "slotId="
+        + slotId
+        + ", epoch="
+        + slotTableEpoch
+        + ", leaderEpoch="
+        + slotLeaderEpoch
+        + ", logId="
+        + logId
+        + ", ackSeq="
+        + ackSeq
+        + ", max="
+        + maxDataInfoIds
+        + '}';
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the changes of the slot in (ackSeq, toSeq] of the change log, carries the current publishers of
+ * the changed dataInfoIds, the empty list means the publishers of the dataInfoId are all removed.
+ * gap means the acked sequence is not in the log (truncated or another log), the requester needs to
+ * resume from the headSeq after a digest diff
+ */
+public class DataSlotChangeStreamResult implements Serializable {
+  private static final long serialVersionUID = -3052178829306622915L;
+
+  private long slotTableEpoch;
+  private final long logId;
+  private final long toSeq;
+  private final long headSeq;
+  private final boolean gap;
+  private final Map<String, List<Publisher>> changes;
+
+  private DataSlotChangeStreamResult(
+      long logId, long toSeq, long headSeq, boolean gap, Map<String, List<Publisher>> changes) {
+    this.logId = logId;
+    this.toSeq = toSeq;
+    this.headSeq = headSeq;
+    this.gap = gap;
+    this.changes = changes;
+  }
+
+  public static DataSlotChangeStreamResult gapOf(long logId, long headSeq) {
+    return new DataSlotChangeStreamResult(logId, headSeq, headSeq, true, null);
+  }
+
+  public static DataSlotChangeStreamResult changesOf(
+      long logId, long toSeq, long headSeq, Map<String, List<Publisher>> changes) {
+    return new DataSlotChangeStreamResult(logId, toSeq, headSeq, false, changes);
+  }
+
+  public boolean hasRemain() {
+    return !gap && toSeq < headSeq;
+  }
+
+  /**
+   * Getter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @return property value of slotTableEpoch
+   */
+  public long getSlotTableEpoch() {
+    return slotTableEpoch;
+  }
+
+  /**
+   * Setter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @param slotTableEpoch value to be assigned to property slotTableEpoch
+   */
+  public void setSlotTableEpoch(long slotTableEpoch) {
+    this.slotTableEpoch = slotTableEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>logId</tt>.
+   *
+   * @return property value of logId
+   */
+  public long getLogId() {
+    return logId;
+  }
+
+  /**
+   * Getter method for property <tt>toSeq</tt>.
+   *
+   * @return property value of toSeq
+   */
+  public long getToSeq() {
+    return toSeq;
+  }
+
+  /**
+   * Getter method for property <tt>headSeq</tt>.
+   *
+   * @return property value of headSeq
+   */
+  public long getHeadSeq() {
+    return headSeq;
+  }
+
+  /**
+   * Getter method for property <tt>gap</tt>.
+   *
+   * @return property value of gap
+   */
+  public boolean isGap() {
+    return gap;
+  }
+
+  /**
+   * Getter method for property <tt>changes</tt>.
+   *
+   * @return property value of changes
+   */
+  public Map<String, List<Publisher>> getChanges() {
+    return changes == null ? Collections.emptyMap() : changes;
+  }
+
+  @Override
+  public String toString() {
+    return "SlotChangeStreamResult{"
+        + "epoch="
+        + slotTableEpoch
+        + ", logId="
+        + logId
+        + ", toSeq="
+        + toSeq
+        + ", headSeq="
+        + headSeq
+        + ", gap="
+        + gap
+        + ", changes="
+        + getChanges().size()
+        + '}';
+  }
+}
@@ -21,6 +21,7 @@ import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author yuzhi.lyz
@@ -37,6 +38,20 @@ public class DataSlotDiffDigestRequest implements Serializable {
 
   private final SyncSlotAcceptorManager acceptorManager;
 
+  // the datumDigest is calc by IncrementalDatumDigest, the old version server ignore the field
+  // and the digest of all dataInfoIds would be different, so it should be enabled after upgraded
+  private final boolean incrementalDigest;
+
+  // not null means diff by the digest tree, the datumDigest is empty and only the different
+  // buckets are responded; the old version server ignore the field
+  private final SlotDigestTree digestTree;
+
+  // not null means the datumDigest only contains the dataInfoIds of the buckets, the others
+  // are converged and should not be treated as added
+  private final Set<Integer> digestBuckets;
+
+  private final int digestBucketNum;
+
   public DataSlotDiffDigestRequest(
       String localDataCenter,
       long slotTableEpoch,
@@ -44,12 +59,58 @@ public class DataSlotDiffDigestRequest implements Serializable {
       long slotLeaderEpoch,
       Map<String, DatumDigest> datumDigest,
       SyncSlotAcceptorManager acceptorManager) {
+    this(
+        localDataCenter,
+        slotTableEpoch,
+        slotId,
+        slotLeaderEpoch,
+        datumDigest,
+        acceptorManager,
+        false);
+  }
+
+  public DataSlotDiffDigestRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      Map<String, DatumDigest> datumDigest,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest) {
+    this(
+        localDataCenter,
+        slotTableEpoch,
+        slotId,
+        slotLeaderEpoch,
+        datumDigest,
+        acceptorManager,
+        incrementalDigest,
+        null,
+        0,
+        null);
+  }
+
+  private DataSlotDiffDigestRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      Map<String, DatumDigest> datumDigest,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest,
+      SlotDigestTree digestTree,
+      int digestBucketNum,
+      Set<Integer> digestBuckets) {
     this.localDataCenter = localDataCenter;
     this.slotTableEpoch = slotTableEpoch;
     this.slotId = slotId;
     this.slotLeaderEpoch = slotLeaderEpoch;
     this.datumDigest = datumDigest == null ? Collections.emptyMap() : datumDigest;
     this.acceptorManager = acceptorManager;
+    this.incrementalDigest = incrementalDigest;
+    this.digestTree = digestTree;
+    this.digestBucketNum = digestBucketNum;
+    this.digestBuckets = digestBuckets;
   }
 
   public static DataSlotDiffDigestRequest buildRequest(
@@ -63,6 +124,68 @@ public class DataSlotDiffDigestRequest implements Serializable {
         localDataCenter, slotTableEpoch, slotId, slotLeaderEpoch, datumDigest, acceptorManager);
   }
 
+  public static DataSlotDiffDigestRequest buildRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      Map<String, DatumDigest> datumDigest,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest) {
+    return new DataSlotDiffDigestRequest(
+        localDataCenter,
+        slotTableEpoch,
+        slotId,
+        slotLeaderEpoch,
+        datumDigest,
+        acceptorManager,
+        incrementalDigest);
+  }
+
+  public static DataSlotDiffDigestRequest buildTreeRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      SlotDigestTree digestTree,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest) {
+    return new DataSlotDiffDigestRequest(
+        localDataCenter,
+        slotTableEpoch,
+        slotId,
+        slotLeaderEpoch,
+        Collections.emptyMap(),
+        acceptorManager,
+        incrementalDigest,
+        digestTree,
+        0,
+        null);
+  }
+
+  public static DataSlotDiffDigestRequest buildBucketsRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      Map<String, DatumDigest> datumDigest,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest,
+      int digestBucketNum,
+      Set<Integer> digestBuckets) {
+    return new DataSlotDiffDigestRequest(
+        localDataCenter,
+        slotTableEpoch,
+        slotId,
+        slotLeaderEpoch,
+        datumDigest,
+        acceptorManager,
+        incrementalDigest,
+        null,
+        digestBucketNum,
+        digestBuckets);
+  }
+
   /**
    * Getter method for property <tt>slotId</tt>.
    *
@@ -103,6 +226,42 @@ public class DataSlotDiffDigestRequest implements Serializable {
     return acceptorManager;
   }
 
+  /**
+   * Getter method for property <tt>incrementalDigest</tt>.
+   *
+   * @return property value of incrementalDigest
+   */
+  public boolean isIncrementalDigest() {
+    return incrementalDigest;
+  }
+
+  /**
+   * Getter method for property <tt>digestTree</tt>.
+   *
+   * @return property value of digestTree
+   */
+  public SlotDigestTree getDigestTree() {
+    return digestTree;
+  }
+
+  /**
+   * Getter method for property <tt>digestBucketNum</tt>.
+   *
+   * @return property value of digestBucketNum
+   */
+  public int getDigestBucketNum() {
+    return digestBucketNum;
+  }
+
+  /**
+   * Getter method for property <tt>digestBuckets</tt>.
+   *
+   * @return property value of digestBuckets
+   */
+  public Set<Integer> getDigestBuckets() {
+    return digestBuckets;
+  }
+
   /**
    * Getter method for property <tt>localDataCenter</tt>.
    *
@@ -126,6 +285,12 @@ public class DataSlotDiffDigestRequest implements Serializable {
         + slotId
         + ", slotLeaderEpoch="
         + slotLeaderEpoch
+        + ", incrementalDigest="
+        + incrementalDigest
+        + ", digestTree="
+        + digestTree
+        + ", digestBuckets="
+        + (digestBuckets == null ? null : digestBuckets.size())
         + '}';
   }
 }
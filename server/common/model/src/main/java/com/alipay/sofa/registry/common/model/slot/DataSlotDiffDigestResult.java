@@ -21,6 +21,7 @@ import com.google.common.collect.Lists;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import org.apache.commons.collections.CollectionUtils;
 
 /**
@@ -34,6 +35,8 @@ public class DataSlotDiffDigestResult implements Serializable {
   private final List<String> removedDataInfoIds;
   // if from session, return the sessionProcessId for lease
   private ProcessId sessionProcessId;
+  // if diff by the digest tree, return the different buckets, the dataInfoIds are empty
+  private Set<Integer> diffBuckets;
 
   public DataSlotDiffDigestResult(
       List<String> updatedDataInfoIds,
@@ -97,6 +100,23 @@ public class DataSlotDiffDigestResult implements Serializable {
     this.sessionProcessId = sessionProcessId;
   }
 
+  public static DataSlotDiffDigestResult diffBuckets(Set<Integer> diffBuckets) {
+    DataSlotDiffDigestResult result =
+        new DataSlotDiffDigestResult(
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    result.diffBuckets = diffBuckets;
+    return result;
+  }
+
+  /**
+   * Getter method for property <tt>diffBuckets</tt>.
+   *
+   * @return property value of diffBuckets, null if not diff by digest tree
+   */
+  public Set<Integer> getDiffBuckets() {
+    return diffBuckets;
+  }
+
   public boolean isEmpty() {
     return CollectionUtils.isEmpty(updatedDataInfoIds)
         && CollectionUtils.isEmpty(removedDataInfoIds)
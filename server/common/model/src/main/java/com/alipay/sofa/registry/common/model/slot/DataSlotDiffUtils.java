@@ -28,6 +28,7 @@ import com.alipay.sofa.registry.log.Logger;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import java.util.*;
+import org.apache.commons.collections.CollectionUtils;
 
 /**
  * @author yuzhi.lyz
@@ -41,12 +42,36 @@ public final class DataSlotDiffUtils {
       Map<String, DatumDigest> targetDigestMap,
       Map<String, Map<String, Publisher>> sourcePublishers,
       SyncSlotAcceptorManager acceptorManager) {
+    return diffDigestResult(targetDigestMap, sourcePublishers, acceptorManager, false);
+  }
+
+  public static DataSlotDiffDigestResult diffDigestResult(
+      Map<String, DatumDigest> targetDigestMap,
+      Map<String, Map<String, Publisher>> sourcePublishers,
+      SyncSlotAcceptorManager acceptorManager,
+      boolean incrementalDigest) {
     Map<String, DatumSummary> sourceSummaryMap =
         PublisherUtils.getDatumSummary(sourcePublishers, acceptorManager);
-    Map<String, DatumDigest> digestMap = PublisherDigestUtil.digest(sourceSummaryMap);
+    Map<String, DatumDigest> digestMap =
+        PublisherDigestUtil.digest(sourceSummaryMap, incrementalDigest);
     return diffDigest(targetDigestMap, digestMap);
   }
 
+  public static DataSlotDiffDigestResult diffDigest(
+      DataSlotDiffDigestRequest request, Map<String, DatumDigest> sourceDigestMap) {
+    final SlotDigestTree targetTree = request.getDigestTree();
+    if (targetTree != null) {
+      SlotDigestTree sourceTree = SlotDigestTree.build(sourceDigestMap, targetTree.getBucketNum());
+      return DataSlotDiffDigestResult.diffBuckets(targetTree.diffBuckets(sourceTree));
+    }
+    if (request.getDigestBuckets() != null) {
+      sourceDigestMap =
+          SlotDigestTree.filterBuckets(
+              sourceDigestMap, request.getDigestBucketNum(), request.getDigestBuckets());
+    }
+    return diffDigest(request.getDatumDigest(), sourceDigestMap);
+  }
+
   public static DataSlotDiffDigestResult diffDigest(
       Map<String, DatumDigest> targetDigestMap, Map<String, DatumDigest> sourceDigestMap) {
     List<String> adds = Lists.newArrayList();
@@ -156,6 +181,13 @@ public final class DataSlotDiffUtils {
 
   public static void logDiffResult(
       String requestDataCenter, DataSlotDiffDigestResult result, int slotId, Logger logger) {
+    if (!CollectionUtils.isEmpty(result.getDiffBuckets())) {
+      logger.info(
+          "DiffDigestTree, requestDataCenter={}, slotId={}, diffBuckets={}",
+          requestDataCenter,
+          slotId,
+          result.getDiffBuckets());
+    }
     if (!result.isEmpty()) {
       logger.info(
           "DiffDigest, requestDataCenter={}, slotId={}, update={}, add={}, remove={}, adds={}, removes={}",
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import java.io.Serializable;
+
+/**
+ * request a chunk of the whole publishers of the slot, the dataInfoIds are iterated in order, the
+ * chunk starts after the cursor
+ */
+public class DataSlotSnapshotRequest implements Serializable {
+  private static final long serialVersionUID = -2386419723904171633L;
+
+  private final String localDataCenter;
+  private final long slotTableEpoch;
+  private final int slotId;
+  private final long slotLeaderEpoch;
+  private final SyncSlotAcceptorManager acceptorManager;
+  // the last dataInfoId of prev chunk, null means the first chunk
+  private final String cursor;
+  private final int maxPublishers;
+  private final String[] acceptEncodes;
+
+  public DataSlotSnapshotRequest(
+      String localDataCenter,
+      long slotTableEpoch,
+      int slotId,
+      long slotLeaderEpoch,
+      SyncSlotAcceptorManager acceptorManager,
+      String cursor,
+      int maxPublishers,
+      String[] acceptEncodes) {
+    this.localDataCenter = localDataCenter;
+    this.slotTableEpoch = slotTableEpoch;
+    this.slotId = slotId;
+    this.slotLeaderEpoch = slotLeaderEpoch;
+    this.acceptorManager = acceptorManager;
+    this.cursor = cursor;
+    this.maxPublishers = maxPublishers;
+    this.acceptEncodes = acceptEncodes;
+  }
+
+  /**
+   * Getter method for property <tt>localDataCenter</tt>.
+   *
+   * @return property value of localDataCenter
+   */
+  public String getLocalDataCenter() {
+    return localDataCenter;
+  }
+
+  /**
+   * Getter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @return property value of slotTableEpoch
+   */
+  public long getSlotTableEpoch() {
+    return slotTableEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>slotId</tt>.
+   *
+   * @return property value of slotId
+   */
+  public int getSlotId() {
+    return slotId;
+  }
+
+  /**
+   * Getter method for property <tt>slotLeaderEpoch</tt>.
+   *
+   * @return property value of slotLeaderEpoch
+   */
+  public long getSlotLeaderEpoch() {
+    return slotLeaderEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>acceptorManager</tt>.
+   *
+   * @return property value of acceptorManager
+   */
+  public SyncSlotAcceptorManager getAcceptorManager() {
+    return acceptorManager;
+  }
+
+  /**
+   * Getter method for property <tt>cursor</tt>.
+   *
+   * @return property value of cursor
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Getter method for property <tt>maxPublishers</tt>.
+   *
+   * @return property value of maxPublishers
+   */
+  public int getMaxPublishers() {
+    return maxPublishers;
+  }
+
+  /**
+   * Getter method for property <tt>acceptEncodes</tt>.
+   *
+   * @return property value of acceptEncodes
+   */
+  public String[] getAcceptEncodes() {
+    return acceptEncodes;
+  }
+
+  @Override
+  public String toString() {
+    return "SlotSnapshot{"
+        + "slotId="
+        + slotId
+        + ", epoch="
+        + slotTableEpoch
+        + ", leaderEpoch="
+        + slotLeaderEpoch
+        + ", cursor="
+        + cursor
+        + ", max="
+        + maxPublishers
+        + '}';
+  }
+}
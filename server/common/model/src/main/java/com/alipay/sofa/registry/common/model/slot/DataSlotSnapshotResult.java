@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** a chunk of the slot snapshot, the publishers are plain or compressed by the encoding */
+public class DataSlotSnapshotResult implements Serializable {
+  private static final long serialVersionUID = 4218753021196534882L;
+
+  private long slotTableEpoch;
+  // the cursor of next chunk, null means the snapshot has finished
+  private final String nextCursor;
+  private final int pubNum;
+  private final Map<String, List<Publisher>> publishers;
+  private final byte[] zipPublishers;
+  private final int originSize;
+  private final String encoding;
+
+  private DataSlotSnapshotResult(
+      String nextCursor,
+      int pubNum,
+      Map<String, List<Publisher>> publishers,
+      byte[] zipPublishers,
+      int originSize,
+      String encoding) {
+    this.nextCursor = nextCursor;
+    this.pubNum = pubNum;
+    this.publishers = publishers;
+    this.zipPublishers = zipPublishers;
+    this.originSize = originSize;
+    this.encoding = encoding;
+  }
+
+  public static DataSlotSnapshotResult plainOf(
+      String nextCursor, int pubNum, Map<String, List<Publisher>> publishers) {
+    return new DataSlotSnapshotResult(nextCursor, pubNum, publishers, null, 0, null);
+  }
+
+  public static DataSlotSnapshotResult zipOf(
+      String nextCursor, int pubNum, byte[] zipPublishers, int originSize, String encoding) {
+    return new DataSlotSnapshotResult(
+        nextCursor, pubNum, null, zipPublishers, originSize, encoding);
+  }
+
+  public boolean isZip() {
+    return zipPublishers != null;
+  }
+
+  public boolean hasRemain() {
+    return nextCursor != null;
+  }
+
+  /**
+   * the bytes of the publishers on the wire, the plain publishers has no exact size, use the pubNum
+   *
+   * @return int
+   */
+  public int byteSize() {
+    return zipPublishers != null ? zipPublishers.length : pubNum;
+  }
+
+  /**
+   * Getter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @return property value of slotTableEpoch
+   */
+  public long getSlotTableEpoch() {
+    return slotTableEpoch;
+  }
+
+  /**
+   * Setter method for property <tt>slotTableEpoch</tt>.
+   *
+   * @param slotTableEpoch value to be assigned to property slotTableEpoch
+   */
+  public void setSlotTableEpoch(long slotTableEpoch) {
+    this.slotTableEpoch = slotTableEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>nextCursor</tt>.
+   *
+   * @return property value of nextCursor
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Getter method for property <tt>pubNum</tt>.
+   *
+   * @return property value of pubNum
+   */
+  public int getPubNum() {
+    return pubNum;
+  }
+
+  /**
+   * Getter method for property <tt>publishers</tt>.
+   *
+   * @return property value of publishers
+   */
+  public Map<String, List<Publisher>> getPublishers() {
+    return publishers == null ? Collections.emptyMap() : publishers;
+  }
+
+  /**
+   * Getter method for property <tt>zipPublishers</tt>.
+   *
+   * @return property value of zipPublishers
+   */
+  public byte[] getZipPublishers() {
+    return zipPublishers;
+  }
+
+  /**
+   * Getter method for property <tt>originSize</tt>.
+   *
+   * @return property value of originSize
+   */
+  public int getOriginSize() {
+    return originSize;
+  }
+
+  /**
+   * Getter method for property <tt>encoding</tt>.
+   *
+   * @return property value of encoding
+   */
+  public String getEncoding() {
+    return encoding;
+  }
+
+  @Override
+  public String toString() {
+    return "SlotSnapshotResult{"
+        + "epoch="
+        + slotTableEpoch
+        + ", nextCursor="
+        + nextCursor
+        + ", pubNum="
+        + pubNum
+        + ", encoding="
+        + encoding
+        + ", bytes="
+        + byteSize()
+        + '}';
+  }
+
+  /** the holder of the compressed publishers */
+  public static final class PublisherChunk implements Serializable {
+    private static final long serialVersionUID = -6011250733962651409L;
+    public static final String className = PublisherChunk.class.getName();
+
+    private final Map<String, List<Publisher>> publishers;
+
+    public PublisherChunk(Map<String, List<Publisher>> publishers) {
+      this.publishers = publishers;
+    }
+
+    /**
+     * Getter method for property <tt>publishers</tt>.
+     *
+     * @return property value of publishers
+     */
+    public Map<String, List<Publisher>> getPublishers() {
+      return publishers;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
+import com.alipay.sofa.registry.common.model.dataserver.IncrementalDatumDigest;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * two levels hash tree of the DatumDigests in one slot, the dataInfoIds are hashed into buckets,
+ * the sign of bucket is the sum of the signs of its dataInfoIds and the root is the sum of buckets.
+ * if the roots are equal, the slot is converged, else only the dataInfoIds in the different buckets
+ * need to diff
+ */
+public final class SlotDigestTree implements Serializable {
+  private final long root;
+  private final long[] buckets;
+
+  private SlotDigestTree(long root, long[] buckets) {
+    this.root = root;
+    this.buckets = buckets;
+  }
+
+  public static SlotDigestTree build(Map<String, DatumDigest> digests, int bucketNum) {
+    ParaCheckUtil.checkIsPositive(bucketNum, "bucketNum");
+    final long[] buckets = new long[bucketNum];
+    long root = 0;
+    for (Map.Entry<String, DatumDigest> e : digests.entrySet()) {
+      final int idHash = e.getKey().hashCode();
+      final long sign = IncrementalDatumDigest.mix(idHash ^ e.getValue().sign());
+      buckets[bucketOf(idHash, bucketNum)] += sign;
+      root += sign;
+    }
+    return new SlotDigestTree(root, buckets);
+  }
+
+  public static int bucketOf(String dataInfoId, int bucketNum) {
+    return bucketOf(dataInfoId.hashCode(), bucketNum);
+  }
+
+  private static int bucketOf(int idHash, int bucketNum) {
+    // spread the hash, the dataInfoIds of one slot has the same crc32c mod
+    return (int) ((IncrementalDatumDigest.mix(idHash) & Long.MAX_VALUE) % bucketNum);
+  }
+
+  public static Map<String, DatumDigest> filterBuckets(
+      Map<String, DatumDigest> digests, int bucketNum, Set<Integer> buckets) {
+    Map<String, DatumDigest> ret = Maps.newHashMapWithExpectedSize(digests.size());
+    for (Map.Entry<String, DatumDigest> e : digests.entrySet()) {
+      if (buckets.contains(bucketOf(e.getKey(), bucketNum))) {
+        ret.put(e.getKey(), e.getValue());
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @param other other
+   * @return the buckets which are different, empty if the trees are equal
+   */
+  public Set<Integer> diffBuckets(SlotDigestTree other) {
+    Set<Integer> diffs = Sets.newHashSet();
+    if (root == other.root) {
+      return diffs;
+    }
+    for (int i = 0; i < buckets.length; i++) {
+      if (buckets.length != other.buckets.length || buckets[i] != other.buckets[i]) {
+        diffs.add(i);
+      }
+    }
+    return diffs;
+  }
+
+  public int getBucketNum() {
+    return buckets.length;
+  }
+
+  /**
+   * Getter method for property <tt>root</tt>.
+   *
+   * @return property value of root
+   */
+  public long getRoot() {
+    return root;
+  }
+
+  @Override
+  public String toString() {
+    return StringFormatter.format("DigestTree{root={},buckets={}}", root, buckets.length);
+  }
+}
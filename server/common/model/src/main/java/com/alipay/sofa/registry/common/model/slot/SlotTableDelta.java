@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * the per-slot changes between two epochs of the slot table, apply the delta to the slot table of
+ * fromEpoch to get the slot table of toEpoch
+ */
+public final class SlotTableDelta implements Serializable {
+  private static final long serialVersionUID = -1529716379462532581L;
+
+  private final long fromEpoch;
+
+  private final long toEpoch;
+
+  // the added or modified slots
+  private final List<Slot> updates;
+
+  private final Set<Integer> removes;
+
+  public SlotTableDelta(long fromEpoch, long toEpoch, List<Slot> updates, Set<Integer> removes) {
+    this.fromEpoch = fromEpoch;
+    this.toEpoch = toEpoch;
+    this.updates = updates;
+    this.removes = removes;
+  }
+
+  public static SlotTableDelta diff(SlotTable from, SlotTable to) {
+    List<Slot> updates = Lists.newArrayList();
+    for (Slot slot : to.getSlots()) {
+      if (!slot.equals(from.getSlot(slot.getId()))) {
+        updates.add(slot);
+      }
+    }
+    Set<Integer> removes = Collections.emptySet();
+    for (Integer slotId : from.getSlotIds()) {
+      if (to.getSlot(slotId) == null) {
+        if (removes.isEmpty()) {
+          removes = Sets.newHashSet();
+        }
+        removes.add(slotId);
+      }
+    }
+    return new SlotTableDelta(from.getEpoch(), to.getEpoch(), updates, removes);
+  }
+
+  public SlotTable apply(SlotTable from) {
+    if (from.getEpoch() != fromEpoch) {
+      throw new IllegalArgumentException(
+          StringFormatter.format(
+              "slot table epoch not match the delta, epoch={}, delta={}", from.getEpoch(), this));
+    }
+    Map<Integer, Slot> slots = from.getSlotMap();
+    for (Integer slotId : removes) {
+      slots.remove(slotId);
+    }
+    for (Slot slot : updates) {
+      slots.put(slot.getId(), slot);
+    }
+    return new SlotTable(toEpoch, slots.values());
+  }
+
+  /**
+   * the count of the changed slots
+   *
+   * @return int
+   */
+  public int size() {
+    return updates.size() + removes.size();
+  }
+
+  /**
+   * Getter method for property <tt>fromEpoch</tt>.
+   *
+   * @return property value of fromEpoch
+   */
+  public long getFromEpoch() {
+    return fromEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>toEpoch</tt>.
+   *
+   * @return property value of toEpoch
+   */
+  public long getToEpoch() {
+    return toEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>updates</tt>.
+   *
+   * @return property value of updates
+   */
+  public List<Slot> getUpdates() {
+    return updates;
+  }
+
+  /**
+   * Getter method for property <tt>removes</tt>.
+   *
+   * @return property value of removes
+   */
+  public Set<Integer> getRemoves() {
+    return removes;
+  }
+
+  @Override
+  public String toString() {
+    return StringFormatter.format(
+        "SlotTableDelta{from={},to={},updates={},removes={}}",
+        fromEpoch,
+        toEpoch,
+        updates.size(),
+        removes);
+  }
+}
@@ -48,6 +48,9 @@ public class Subscriber extends BaseInfo {
 
   private boolean acceptMulti;
 
+  /** the client could apply the delta of publishers based on the last pushed version */
+  private boolean acceptDelta;
+
   /** last push context */
   private Map<String /*dataCenter*/, PushContext> lastPushContexts;
 
@@ -99,6 +102,19 @@ public class Subscriber extends BaseInfo {
     this.acceptMulti = acceptMulti;
   }
 
+  public boolean acceptDelta() {
+    return this.acceptDelta;
+  }
+
+  /**
+   * Setter method for property <tt>acceptDelta</tt>.
+   *
+   * @param acceptDelta value to be assigned to property acceptDelta
+   */
+  public void setAcceptDelta(boolean acceptDelta) {
+    this.acceptDelta = acceptDelta;
+  }
+
   private PushContext getPushContext(String dataCenter) {
     PushContext ctx;
     if (lastPushContexts == null) {
@@ -295,10 +311,11 @@ public class Subscriber extends BaseInfo {
   @Override
   protected synchronized String getOtherInfo() {
     return StringFormatter.format(
-        "scope={},elementType={},multi={},ctx={}",
+        "scope={},elementType={},multi={},delta={},ctx={}",
         scope,
         elementType,
         acceptMulti,
+        acceptDelta,
         lastPushContexts);
   }
 
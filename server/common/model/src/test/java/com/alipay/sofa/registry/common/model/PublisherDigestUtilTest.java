@@ -18,6 +18,7 @@ package com.alipay.sofa.registry.common.model;
 
 import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
 import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
+import com.alipay.sofa.registry.common.model.dataserver.IncrementalDatumDigest;
 import com.alipay.sofa.registry.util.StringFormatter;
 import com.google.common.collect.Maps;
 import java.util.*;
@@ -83,6 +84,73 @@ public class PublisherDigestUtilTest {
     }
   }
 
+  @Test
+  public void testIncrementalDigestConflict() {
+    for (int i = 1; i < 100; i++) {
+      int count = i * 10;
+      Map<String, RegisterVersion> m1 = Maps.newHashMapWithExpectedSize(count);
+      Map<String, RegisterVersion> m2 = Maps.newHashMapWithExpectedSize(count);
+      for (int j = 0; j < count; j++) {
+        String id = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        long ver = 0;
+        int r = RANDOM.nextInt(9);
+        m1.put(id, RegisterVersion.of(ver, now));
+        if (r % 3 == 0) {
+          m2.put(id, RegisterVersion.of(ver, now));
+        } else if (r % 3 == 1) {
+          m2.put(id, RegisterVersion.of(ver + 1, now));
+        } else {
+          m2.put(UUID.randomUUID().toString(), RegisterVersion.of(ver, now));
+        }
+      }
+      DatumDigest d1 = PublisherDigestUtil.incrementalDigest(new DatumSummary("testDataId", m1));
+      DatumDigest d2 = PublisherDigestUtil.incrementalDigest(new DatumSummary("testDataId", m2));
+      Assert.assertFalse(StringFormatter.format("m1={},m2={}", m1, m2), d1.equals(d2));
+    }
+  }
+
+  @Test
+  public void testIncrementalDigest() {
+    Map<String, RegisterVersion> m = Maps.newHashMap();
+    IncrementalDatumDigest digest = new IncrementalDatumDigest();
+    Assert.assertTrue(digest.isEmpty());
+    for (int i = 0; i < 100; i++) {
+      String id = UUID.randomUUID().toString();
+      RegisterVersion ver = RegisterVersion.of(i, System.currentTimeMillis());
+      m.put(id, ver);
+      digest.add(id, ver);
+    }
+    // replace and remove
+    Iterator<Map.Entry<String, RegisterVersion>> it = m.entrySet().iterator();
+    for (int i = 0; i < 20 && it.hasNext(); i++) {
+      Map.Entry<String, RegisterVersion> e = it.next();
+      digest.remove(e.getKey(), e.getValue());
+      if (i % 2 == 0) {
+        it.remove();
+      } else {
+        RegisterVersion ver = RegisterVersion.of(e.getValue().getVersion() + 1, 100);
+        e.setValue(ver);
+        digest.add(e.getKey(), ver);
+      }
+    }
+    Assert.assertEquals(digest.getPublisherNum(), m.size());
+    Assert.assertEquals(
+        digest.toDigest(),
+        PublisherDigestUtil.incrementalDigest(new DatumSummary("testDataId", m)));
+    Assert.assertEquals(
+        digest.toDigest(),
+        PublisherDigestUtil.digest(
+                Collections.singletonMap("testDataId", new DatumSummary("testDataId", m)), true)
+            .get("testDataId"));
+    Assert.assertNotEquals(
+        digest.toDigest(), PublisherDigestUtil.digest(new DatumSummary("testDataId", m)));
+    digest.clear();
+    Assert.assertTrue(digest.isEmpty());
+    Assert.assertEquals(
+        digest.toDigest(), PublisherDigestUtil.incrementalDigest(new DatumSummary("testDataId")));
+  }
+
   private static void perf(int count, int len) {
     Map<String, Object> m = Maps.newHashMapWithExpectedSize(len);
 
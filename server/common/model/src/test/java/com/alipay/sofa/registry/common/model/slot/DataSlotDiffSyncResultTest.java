@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Assert;
 import org.junit.Test;
@@ -226,6 +227,60 @@ public class DataSlotDiffSyncResultTest {
     }
   }
 
+  @Test
+  public void testDiffDigestTree() {
+    Map<String, Integer> m = Maps.newHashMap();
+    m.put("a", 10);
+    m.put("b", 20);
+    m.put("c", 5);
+    Map<String, Map<String, Publisher>> publishers = randPublishers(m);
+    Map<String, DatumDigest> source =
+        PublisherDigestUtil.digest(PublisherUtils.getDatumSummary(publishers, ACCEPT_ALL), true);
+    Map<String, DatumDigest> target = Maps.newHashMap(source);
+
+    // converged
+    SlotDigestTree tree = SlotDigestTree.build(target, 16);
+    Assert.assertEquals(tree.getRoot(), SlotDigestTree.build(source, 16).getRoot());
+    DataSlotDiffDigestResult result =
+        DataSlotDiffUtils.diffDigest(
+            DataSlotDiffDigestRequest.buildTreeRequest("dc", 1, 1, 1, tree, ACCEPT_ALL, true),
+            source);
+    Assert.assertTrue(result.getDiffBuckets().isEmpty());
+    Assert.assertTrue(result.isEmpty());
+
+    // update a, remove b
+    target.put("a", new DatumDigest(1, 1, 1, 1, (short) 0, (short) 0));
+    target.remove("b");
+    tree = SlotDigestTree.build(target, 16);
+    result =
+        DataSlotDiffUtils.diffDigest(
+            DataSlotDiffDigestRequest.buildTreeRequest("dc", 1, 1, 1, tree, ACCEPT_ALL, true),
+            source);
+    Set<Integer> buckets =
+        Sets.newHashSet(SlotDigestTree.bucketOf("a", 16), SlotDigestTree.bucketOf("b", 16));
+    Assert.assertEquals(result.getDiffBuckets(), buckets);
+    Assert.assertTrue(result.isEmpty());
+
+    // only diff the dataInfoIds in the buckets
+    result =
+        DataSlotDiffUtils.diffDigest(
+            DataSlotDiffDigestRequest.buildBucketsRequest(
+                "dc",
+                1,
+                1,
+                1,
+                SlotDigestTree.filterBuckets(target, 16, buckets),
+                ACCEPT_ALL,
+                true,
+                16,
+                buckets),
+            source);
+    Assert.assertNull(result.getDiffBuckets());
+    Assert.assertEquals(result.getUpdatedDataInfoIds(), Lists.newArrayList("a"));
+    Assert.assertEquals(result.getAddedDataInfoIds(), Lists.newArrayList("b"));
+    Assert.assertTrue(result.getRemovedDataInfoIds().isEmpty());
+  }
+
   private static Publisher randPublisher() {
     Publisher p = new Publisher();
     p.setRegisterTimestamp(System.nanoTime());
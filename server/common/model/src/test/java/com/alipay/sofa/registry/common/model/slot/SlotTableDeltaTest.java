@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.common.model.slot;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotTableDeltaTest {
+
+  @Test
+  public void testDiffAndApply() {
+    Slot slot0 = new Slot(0, "a", 1, Lists.newArrayList("b"));
+    Slot slot1 = new Slot(1, "b", 1, Lists.newArrayList("a"));
+    Slot slot2 = new Slot(2, "c", 1, Collections.emptyList());
+    SlotTable from = new SlotTable(10, Lists.newArrayList(slot0, slot1, slot2));
+
+    Slot slot1Migrated = new Slot(1, "a", 2, Lists.newArrayList("b"));
+    Slot slot3 = new Slot(3, "c", 1, Collections.emptyList());
+    SlotTable to = new SlotTable(11, Lists.newArrayList(slot0, slot1Migrated, slot3));
+
+    SlotTableDelta delta = SlotTableDelta.diff(from, to);
+    Assert.assertEquals(10, delta.getFromEpoch());
+    Assert.assertEquals(11, delta.getToEpoch());
+    Assert.assertEquals(Sets.newHashSet(slot1Migrated, slot3), Sets.newHashSet(delta.getUpdates()));
+    Assert.assertEquals(Sets.newHashSet(2), delta.getRemoves());
+    Assert.assertEquals(3, delta.size());
+
+    SlotTable applied = delta.apply(from);
+    Assert.assertEquals(to, applied);
+    Assert.assertEquals(11, applied.getEpoch());
+
+    // the same slot table
+    delta = SlotTableDelta.diff(to, to);
+    Assert.assertEquals(0, delta.size());
+    Assert.assertEquals(to, delta.apply(to));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyEpochNotMatch() {
+    SlotTable from = new SlotTable(10, Collections.emptyList());
+    SlotTable to = new SlotTable(11, Collections.emptyList());
+    SlotTableDelta.diff(from, to).apply(new SlotTable(9, Collections.emptyList()));
+  }
+}
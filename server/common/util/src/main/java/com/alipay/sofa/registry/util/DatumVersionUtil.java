@@ -19,6 +19,7 @@ package com.alipay.sofa.registry.util;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.lang.StringUtils;
 
 /**
@@ -39,8 +40,6 @@ public final class DatumVersionUtil {
 
   private DatumVersionUtil() {}
 
-  private static long sequence = 0L;
-
   /** Tue Jan 01 00:00:00 CST 2019 */
   private static final long twepoch = 1546272000000L;
 
@@ -51,29 +50,44 @@ public final class DatumVersionUtil {
   private static final long timestampLeftShift = sequenceBits;
   private static final long sequenceMask = -1L ^ (-1L << sequenceBits);
 
-  private static long lastTimestamp = -1L;
-
   private static final long registryMinVersion = (timeStart - twepoch) << timestampLeftShift;
 
-  public static synchronized long nextId() {
-    long timestamp = timeGen();
-    if (timestamp < lastTimestamp) {
-      throw new RuntimeException(
-          String.format(
-              "Clock moved backwards. Refusing to generate id for %d milliseconds",
-              lastTimestamp - timestamp));
-    }
+  // the last id, packed the timestamp and the sequence, updated by cas instead of a global lock
+  private static final AtomicLong lastId = new AtomicLong(0L);
 
-    if (lastTimestamp == timestamp) {
-      sequence = (sequence + 1) & sequenceMask;
-      if (sequence == 0) {
-        timestamp = untilNextMillis(lastTimestamp);
+  public static long nextId() {
+    return nextId(lastId);
+  }
+
+  @VisibleForTesting
+  static long nextId(AtomicLong lastId) {
+    for (; ; ) {
+      // read the last before the clock, the timestamp of a succeeded cas is not newer than it
+      final long last = lastId.get();
+      final long lastTimestamp = last == 0L ? -1L : (last >> timestampLeftShift) + twepoch;
+      long timestamp = timeGen();
+      if (timestamp < lastTimestamp) {
+        throw new RuntimeException(
+            String.format(
+                "Clock moved backwards. Refusing to generate id for %d milliseconds",
+                lastTimestamp - timestamp));
+      }
+      final long next;
+      if (lastTimestamp == timestamp) {
+        if ((last & sequenceMask) == sequenceMask) {
+          // the sequence exhausted in the millisecond
+          timestamp = untilNextMillis(lastTimestamp);
+          next = (timestamp - twepoch) << timestampLeftShift;
+        } else {
+          next = last + 1;
+        }
+      } else {
+        next = (timestamp - twepoch) << timestampLeftShift;
+      }
+      if (lastId.compareAndSet(last, next)) {
+        return next;
       }
-    } else {
-      sequence = 0L;
     }
-    lastTimestamp = timestamp;
-    return ((timestamp - twepoch) << timestampLeftShift) | sequence;
   }
 
   public static long getRealTimestamp(long id) {
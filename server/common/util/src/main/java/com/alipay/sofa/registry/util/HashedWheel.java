@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.util;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * bounded hashed timing wheel without worker thread, the owner polls the expired items by {@link
+ * #expire(long)}. the items are hashed into the slots by deadline, so the cost of add is O(1) and
+ * the cost of expire is proportional to the elapsed ticks and the items in these slots. when full,
+ * the oldest added item is dropped. the items expired in one tick keep the order of adding
+ */
+public final class HashedWheel<T> {
+  private final long tickMillis;
+  private final ArrayDeque<Entry<T>>[] slots;
+  // the order of adding, for dropping the oldest when full
+  private final ArrayDeque<Entry<T>> fifo = new ArrayDeque<>();
+  // the ticks before cursor are drained
+  private long cursor = -1;
+  private int size;
+
+  public HashedWheel(long tickMillis, int ticksPerWheel) {
+    ParaCheckUtil.checkIsPositive(tickMillis, "tickMillis");
+    ParaCheckUtil.checkIsPositive(ticksPerWheel, "ticksPerWheel");
+    this.tickMillis = tickMillis;
+    this.slots = new ArrayDeque[ticksPerWheel];
+    for (int i = 0; i < ticksPerWheel; i++) {
+      slots[i] = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * @param item item
+   * @param deadline the timestamp of expire
+   * @param capacity max items in the wheel
+   * @return the dropped item if full, otherwise null
+   */
+  public synchronized T add(T item, long deadline, int capacity) {
+    final Entry<T> entry = new Entry<>(item, deadline);
+    long tick = deadline / tickMillis;
+    if (cursor >= 0 && tick < cursor) {
+      // the slot of deadline has passed, put into the current slot
+      tick = cursor;
+    }
+    slotOf(tick).add(entry);
+    fifo.add(entry);
+    size++;
+    T dropped = null;
+    while (size > capacity) {
+      Entry<T> oldest = fifo.poll();
+      if (oldest == null) {
+        break;
+      }
+      if (!oldest.removed) {
+        oldest.removed = true;
+        size--;
+        dropped = oldest.item;
+      }
+    }
+    return dropped;
+  }
+
+  /**
+   * @param now now
+   * @return the expired items
+   */
+  public synchronized List<T> expire(long now) {
+    final long nowTick = now / tickMillis;
+    final List<T> expires = Lists.newArrayList();
+    if (cursor < 0 || nowTick - cursor >= slots.length) {
+      // the first time or more than a round passed, scan all
+      for (ArrayDeque<Entry<T>> slot : slots) {
+        expireSlot(slot, now, expires);
+      }
+    } else {
+      // the current tick maybe not finished, it need to rescan next time
+      for (long tick = cursor; tick <= nowTick; tick++) {
+        expireSlot(slotOf(tick), now, expires);
+      }
+    }
+    cursor = Math.max(cursor, nowTick);
+    compactFifo();
+    return expires;
+  }
+
+  private ArrayDeque<Entry<T>> slotOf(long tick) {
+    return slots[(int) (tick % slots.length)];
+  }
+
+  private void expireSlot(ArrayDeque<Entry<T>> slot, long now, List<T> expires) {
+    final Iterator<Entry<T>> it = slot.iterator();
+    while (it.hasNext()) {
+      Entry<T> entry = it.next();
+      if (entry.removed) {
+        it.remove();
+        continue;
+      }
+      if (entry.deadline <= now) {
+        entry.removed = true;
+        size--;
+        expires.add(entry.item);
+        it.remove();
+      }
+    }
+  }
+
+  private void compactFifo() {
+    while (!fifo.isEmpty() && fifo.peek().removed) {
+      fifo.poll();
+    }
+    // the deadlines are not in the order of adding, the removed entries maybe in the middle
+    if (fifo.size() > (size << 1) + slots.length) {
+      fifo.removeIf(e -> e.removed);
+    }
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  private static final class Entry<T> {
+    final T item;
+    final long deadline;
+    boolean removed;
+
+    Entry(T item, long deadline) {
+      this.item = item;
+      this.deadline = deadline;
+    }
+  }
+}
@@ -16,6 +16,12 @@
  */
 package com.alipay.sofa.registry.util;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -30,6 +36,50 @@ public class DatumVersionUtilTest {
     Assert.assertTrue(ts <= System.currentTimeMillis());
   }
 
+  @Test
+  public void testNextIdConcurrent() throws Exception {
+    final int threads = 8;
+    final int num = 20000;
+    final Set<Long> ids = ConcurrentHashMap.newKeySet();
+    final CountDownLatch latch = new CountDownLatch(threads);
+    final AtomicBoolean monotonic = new AtomicBoolean(true);
+    for (int i = 0; i < threads; i++) {
+      new Thread(
+              () -> {
+                long last = 0;
+                for (int j = 0; j < num; j++) {
+                  long id = DatumVersionUtil.nextId();
+                  if (id <= last) {
+                    monotonic.set(false);
+                  }
+                  last = id;
+                  ids.add(id);
+                }
+                latch.countDown();
+              })
+          .start();
+    }
+    Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+    Assert.assertTrue(monotonic.get());
+    Assert.assertEquals(threads * num, ids.size());
+  }
+
+  @Test
+  public void testSequenceExhausted() {
+    long timestamp = System.currentTimeMillis();
+    AtomicLong lastId = new AtomicLong(DatumVersionUtil.nextId());
+    long id = DatumVersionUtil.nextId(lastId);
+    Assert.assertTrue(DatumVersionUtil.getRealTimestamp(id) >= timestamp);
+    // the sequence is exhausted in the millisecond, wait the next
+    long exhausted = id | 0x7FFFL;
+    lastId.set(exhausted);
+    id = DatumVersionUtil.nextId(lastId);
+    Assert.assertTrue(id > exhausted);
+    Assert.assertTrue(
+        DatumVersionUtil.getRealTimestamp(id) > DatumVersionUtil.getRealTimestamp(exhausted));
+    Assert.assertEquals(id, lastId.get());
+  }
+
   @Test
   public void testUnit() {
     long timestamp = System.currentTimeMillis();
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashedWheelTest {
+
+  @Test
+  public void testExpire() {
+    HashedWheel<Integer> wheel = new HashedWheel<>(10, 8);
+    Assert.assertNull(wheel.add(1, 1000, 100));
+    Assert.assertNull(wheel.add(2, 1025, 100));
+    Assert.assertNull(wheel.add(3, 1005, 100));
+    Assert.assertEquals(3, wheel.size());
+
+    Assert.assertEquals(Collections.emptyList(), wheel.expire(999));
+    Assert.assertEquals(Lists.newArrayList(1, 3), wheel.expire(1010));
+    Assert.assertEquals(1, wheel.size());
+    // in the same tick, but not reach the deadline
+    Assert.assertEquals(Collections.emptyList(), wheel.expire(1024));
+    Assert.assertEquals(Lists.newArrayList(2), wheel.expire(1025));
+    Assert.assertEquals(0, wheel.size());
+
+    // the deadline has passed, expire next time
+    Assert.assertNull(wheel.add(4, 900, 100));
+    Assert.assertEquals(Lists.newArrayList(4), wheel.expire(1025));
+  }
+
+  @Test
+  public void testRounds() {
+    HashedWheel<Integer> wheel = new HashedWheel<>(10, 4);
+    wheel.expire(1000);
+    // the same slot of different rounds
+    wheel.add(1, 1010, 100);
+    wheel.add(2, 1050, 100);
+    Assert.assertEquals(Lists.newArrayList(1), wheel.expire(1020));
+    Assert.assertEquals(Collections.emptyList(), wheel.expire(1040));
+    Assert.assertEquals(Lists.newArrayList(2), wheel.expire(1050));
+
+    // more than a round passed, scan all slots
+    wheel.add(3, 1060, 100);
+    wheel.add(4, 1090, 100);
+    Assert.assertEquals(Sets.newHashSet(3, 4), Sets.newHashSet(wheel.expire(2000)));
+  }
+
+  @Test
+  public void testFull() {
+    HashedWheel<Integer> wheel = new HashedWheel<>(10, 8);
+    wheel.expire(1000);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertNull(wheel.add(i, 5000, 5));
+    }
+    // drop the oldest
+    for (int i = 5; i < 10; i++) {
+      Assert.assertEquals(i - 5, wheel.add(i, 1000, 5).intValue());
+    }
+    Assert.assertEquals(5, wheel.size());
+    Assert.assertEquals(Lists.newArrayList(5, 6, 7, 8, 9), wheel.expire(1000));
+    Assert.assertEquals(0, wheel.size());
+    Assert.assertEquals(Collections.emptyList(), wheel.expire(6000));
+  }
+}
@@ -20,7 +20,24 @@ import com.alipay.remoting.exception.CodecException;
 import com.alipay.remoting.exception.DeserializationException;
 import com.alipay.remoting.exception.SerializationException;
 import com.alipay.remoting.serialization.Serializer;
+import com.alipay.sofa.registry.common.model.client.pb.GetRevisionsRequest;
+import com.alipay.sofa.registry.common.model.client.pb.GetRevisionsResponse;
+import com.alipay.sofa.registry.common.model.client.pb.MetaHeartbeatRequest;
+import com.alipay.sofa.registry.common.model.client.pb.MetaHeartbeatResponse;
+import com.alipay.sofa.registry.common.model.client.pb.MetaRegister;
+import com.alipay.sofa.registry.common.model.client.pb.MultiReceivedDataPb;
+import com.alipay.sofa.registry.common.model.client.pb.PublisherRegisterPb;
+import com.alipay.sofa.registry.common.model.client.pb.ReceivedConfigDataPb;
+import com.alipay.sofa.registry.common.model.client.pb.ReceivedDataPb;
+import com.alipay.sofa.registry.common.model.client.pb.RegisterResponsePb;
+import com.alipay.sofa.registry.common.model.client.pb.ResultPb;
+import com.alipay.sofa.registry.common.model.client.pb.ServiceAppMappingRequest;
+import com.alipay.sofa.registry.common.model.client.pb.ServiceAppMappingResponse;
+import com.alipay.sofa.registry.common.model.client.pb.SubscriberRegisterPb;
+import com.alipay.sofa.registry.common.model.client.pb.SyncConfigRequestPb;
+import com.alipay.sofa.registry.common.model.client.pb.SyncConfigResponsePb;
 import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.charset.StandardCharsets;
@@ -36,48 +53,57 @@ public class ProtobufSerializer implements Serializer {
 
   public static final byte PROTOCOL_PROTOBUF = 11;
 
-  /** cache parse method */
-  private final ConcurrentHashMap<Class, Method> parseMethodMap = new ConcurrentHashMap<>();
+  /**
+   * cache parser by class name, the messages of client are registered ahead, others are resolved by
+   * the default instance at the first time. no reflection and Class.forName per message
+   */
+  private final ConcurrentHashMap<String, Parser<?>> parserMap = new ConcurrentHashMap<>();
 
-  /** cache toByteArray method */
-  private final ConcurrentHashMap<Class, Method> toByteArrayMethodMap = new ConcurrentHashMap<>();
+  /** cache the result of the name based MessageLite check per class, used in both directions */
+  private static final ConcurrentHashMap<Class<?>, Boolean> messageLiteClassMap =
+      new ConcurrentHashMap<>();
 
   private static final ProtobufSerializer instance = new ProtobufSerializer();
 
-  private ProtobufSerializer() {}
+  private ProtobufSerializer() {
+    registerParser(PublisherRegisterPb.class, PublisherRegisterPb.parser());
+    registerParser(SubscriberRegisterPb.class, SubscriberRegisterPb.parser());
+    registerParser(RegisterResponsePb.class, RegisterResponsePb.parser());
+    registerParser(ReceivedDataPb.class, ReceivedDataPb.parser());
+    registerParser(MultiReceivedDataPb.class, MultiReceivedDataPb.parser());
+    registerParser(ReceivedConfigDataPb.class, ReceivedConfigDataPb.parser());
+    registerParser(SyncConfigRequestPb.class, SyncConfigRequestPb.parser());
+    registerParser(SyncConfigResponsePb.class, SyncConfigResponsePb.parser());
+    registerParser(ResultPb.class, ResultPb.parser());
+    registerParser(MetaRegister.class, MetaRegister.parser());
+    registerParser(MetaHeartbeatRequest.class, MetaHeartbeatRequest.parser());
+    registerParser(MetaHeartbeatResponse.class, MetaHeartbeatResponse.parser());
+    registerParser(GetRevisionsRequest.class, GetRevisionsRequest.parser());
+    registerParser(GetRevisionsResponse.class, GetRevisionsResponse.parser());
+    registerParser(ServiceAppMappingRequest.class, ServiceAppMappingRequest.parser());
+    registerParser(ServiceAppMappingResponse.class, ServiceAppMappingResponse.parser());
+  }
 
   public static ProtobufSerializer getInstance() {
     return instance;
   }
 
+  public <T extends MessageLite> void registerParser(Class<T> clazz, Parser<T> parser) {
+    parserMap.put(clazz.getName(), parser);
+  }
+
   @Override
   public byte[] serialize(Object object) throws CodecException {
     if (object == null) {
       throw new SerializationException("Unsupported null message");
-    } else if (isProtoBufMessageLite(object)) {
-      Class clazz = object.getClass();
-      Method method = toByteArrayMethodMap.get(clazz);
-      if (method == null) {
-        try {
-          method = clazz.getMethod("toByteArray");
-          method.setAccessible(true);
-          toByteArrayMethodMap.put(clazz, method);
-        } catch (Exception e) {
-          throw new SerializationException(
-              "Cannot found method "
-                  + clazz.getName()
-                  + ".toByteArray(), please check the generated code");
-        }
-      }
+    } else if (isProtoBufMessageLite(object.getClass())) {
       try {
-        return (byte[]) method.invoke(object);
+        // exact sized array by CodedOutputStream
+        return ((MessageLite) object).toByteArray();
       } catch (Exception e) {
         throw new SerializationException(
-            "Cannot found method "
-                + clazz.getName()
-                + ".toByteArray(), please check the generated code");
+            "Failed to serialize " + object.getClass().getName() + ".toByteArray()", e);
       }
-
     } else if (object instanceof String) {
       return ((String) object).getBytes(StandardCharsets.UTF_8);
     } else {
@@ -88,6 +114,10 @@ public class ProtobufSerializer implements Serializer {
 
   @Override
   public <T> T deserialize(byte[] data, String classOfT) throws CodecException {
+    final Parser<?> parser = parserMap.get(classOfT);
+    if (parser != null) {
+      return (T) parse(parser, data, classOfT);
+    }
     try {
       Class requestClass = Class.forName(classOfT);
       return (T) decode(data, requestClass);
@@ -97,35 +127,46 @@ public class ProtobufSerializer implements Serializer {
   }
 
   public Object decode(byte[] bytes, Class clazz) throws DeserializationException {
-    if (isProtoBufMessageLite(clazz)) {
-      try {
-        Method method = parseMethodMap.get(clazz);
-        if (method == null) {
-          method = clazz.getMethod("parseFrom", byte[].class);
-          if (!Modifier.isStatic(method.getModifiers())) {
-            throw new CodecException(
-                "Cannot found method "
-                    + clazz.getName()
-                    + ".parseFrom(byte[]), please check the generated code");
-          }
-          method.setAccessible(true);
-          parseMethodMap.put(clazz, method);
-        }
-        return method.invoke(null, bytes);
-      } catch (DeserializationException e) {
-        throw e;
-      } catch (Exception e) {
-        throw new DeserializationException(
+    if (clazz == String.class) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    if (!isProtoBufMessageLite(clazz)) {
+      throw new DeserializationException(
+          "Unsupported class:" + clazz.getName() + ", only support protobuf message");
+    }
+    Parser<?> parser = parserMap.get(clazz.getName());
+    if (parser == null) {
+      parser = resolveParser(clazz);
+      parserMap.putIfAbsent(clazz.getName(), parser);
+    }
+    return parse(parser, bytes, clazz.getName());
+  }
+
+  private static Object parse(Parser<?> parser, byte[] bytes, String className)
+      throws DeserializationException {
+    try {
+      return parser.parseFrom(bytes);
+    } catch (Exception e) {
+      throw new DeserializationException("Failed to parse " + className, e);
+    }
+  }
+
+  private static Parser<?> resolveParser(Class clazz) throws DeserializationException {
+    try {
+      Method method = clazz.getMethod("getDefaultInstance");
+      if (!Modifier.isStatic(method.getModifiers())) {
+        throw new CodecException(
             "Cannot found method "
                 + clazz.getName()
-                + ".parseFrom(byte[]), please check the generated code",
-            e);
+                + ".getDefaultInstance(), please check the generated code");
       }
-    } else if (clazz == String.class) {
-      return new String(bytes, StandardCharsets.UTF_8);
-    } else {
+      return ((MessageLite) method.invoke(null)).getParserForType();
+    } catch (Exception e) {
       throw new DeserializationException(
-          "Unsupported class:" + clazz.getName() + ", only support protobuf message");
+          "Cannot found method "
+              + clazz.getName()
+              + ".getDefaultInstance(), please check the generated code",
+          e);
     }
   }
 
@@ -134,11 +175,16 @@ public class ProtobufSerializer implements Serializer {
     return isProtoBufMessageLite(clzz);
   }
 
-  private static boolean isProtoBufMessageLite(Class clzz) {
-    if (clzz != null) {
-      return isSpecificationInterface(clzz, MessageLite.class.getCanonicalName());
+  private static boolean isProtoBufMessageLite(Class<?> clzz) {
+    if (clzz == null) {
+      return false;
+    }
+    Boolean is = messageLiteClassMap.get(clzz);
+    if (is == null) {
+      is = isSpecificationInterface(clzz, MessageLite.class.getCanonicalName());
+      messageLiteClassMap.putIfAbsent(clzz, is);
     }
-    return false;
+    return is;
   }
 
   /**
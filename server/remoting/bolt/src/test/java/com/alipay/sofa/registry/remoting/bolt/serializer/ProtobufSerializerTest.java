@@ -18,6 +18,9 @@ package com.alipay.sofa.registry.remoting.bolt.serializer;
 
 import com.alipay.remoting.exception.DeserializationException;
 import com.alipay.remoting.exception.SerializationException;
+import com.alipay.sofa.registry.common.model.client.pb.DataBoxPb;
+import com.alipay.sofa.registry.common.model.client.pb.PublisherRegisterPb;
+import com.alipay.sofa.registry.common.model.client.pb.ResultPb;
 import com.alipay.sofa.registry.remoting.bolt.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -37,5 +40,41 @@ public class ProtobufSerializerTest {
     Assert.assertFalse(ProtobufSerializer.isProtoBufMessageLite(null));
     Assert.assertFalse(ProtobufSerializer.isProtoBufMessageLite(new Integer(10)));
     Assert.assertFalse(ProtobufSerializer.isProtoBufMessageLite("xx"));
+    // cached per class
+    for (int i = 0; i < 2; i++) {
+      Assert.assertTrue(ProtobufSerializer.isProtoBufMessageLite(ResultPb.getDefaultInstance()));
+      Assert.assertFalse(ProtobufSerializer.isProtoBufMessageLite("xx"));
+    }
+  }
+
+  @Test
+  public void testCodec() throws Exception {
+    ProtobufSerializer serializer = ProtobufSerializer.getInstance();
+    // registered
+    PublisherRegisterPb pub =
+        PublisherRegisterPb.newBuilder()
+            .addDataList(DataBoxPb.newBuilder().setData("testData").build())
+            .build();
+    byte[] bytes = serializer.serialize(pub);
+    Assert.assertArrayEquals(pub.toByteArray(), bytes);
+    Assert.assertEquals(pub, serializer.deserialize(bytes, PublisherRegisterPb.class.getName()));
+    Assert.assertEquals(pub, serializer.decode(bytes, PublisherRegisterPb.class));
+
+    // resolved by the default instance
+    DataBoxPb box = DataBoxPb.newBuilder().setData("testData").build();
+    bytes = serializer.serialize(box);
+    Assert.assertEquals(box, serializer.deserialize(bytes, DataBoxPb.class.getName()));
+    Assert.assertEquals(box, serializer.decode(bytes, DataBoxPb.class));
+
+    Assert.assertEquals(
+        "xx", serializer.deserialize(serializer.serialize("xx"), "java.lang.String"));
+
+    // illegal content
+    TestUtils.assertRunException(
+        DeserializationException.class,
+        () -> serializer.deserialize(new byte[] {1, 2, 3}, ResultPb.class.getName()));
+    TestUtils.assertRunException(
+        DeserializationException.class,
+        () -> serializer.deserialize(null, ResultPb.class.getName()));
   }
 }
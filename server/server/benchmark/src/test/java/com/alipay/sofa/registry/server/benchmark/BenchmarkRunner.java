@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * run the benchmarks with the gc profiler, the allocation rate is reported as gc.alloc.rate.norm.
+ * the args are the regexps of the benchmarks to include, run all if empty, e.g. <code>
+ * PublisherGroupBenchmark.toDatum</code>
+ */
+public final class BenchmarkRunner {
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException {
+    ChainedOptionsBuilder builder = new OptionsBuilder().addProfiler(GCProfiler.class);
+    if (args.length == 0) {
+      builder.include("com.alipay.sofa.registry.server.*Benchmark");
+    }
+    for (String include : args) {
+      builder.include(include);
+    }
+    new Runner(builder.build()).run();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.benchmark;
+
+import com.alipay.sofa.registry.common.model.ConnectId;
+import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.ServerDataBox;
+import com.alipay.sofa.registry.common.model.store.DataInfo;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.common.model.store.URL;
+import com.google.common.collect.Lists;
+import java.util.Random;
+
+/**
+ * the fixtures of benchmarks, the publishers are created with the given value size, and spread over
+ * the sessions and the connections
+ */
+public final class BenchmarkUtils {
+  public static final String DATA_CENTER = "benchmarkDc";
+
+  private BenchmarkUtils() {}
+
+  public static String dataInfoId(int index) {
+    return DataInfo.toDataInfoId(
+        "benchmark-dataId-" + index, "DEFAULT_INSTANCE_ID", "DEFAULT_GROUP");
+  }
+
+  public static ProcessId sessionProcessId(int index) {
+    return new ProcessId("10.0.0." + index, 1000L, index, index);
+  }
+
+  public static ConnectId connectId(int sessionIndex, int clientIndex) {
+    return ConnectId.of(
+        "11."
+            + (clientIndex >>> 16 & 0xff)
+            + "."
+            + (clientIndex >>> 8 & 0xff)
+            + "."
+            + (clientIndex & 0xff)
+            + ":12200",
+        "10.0.0." + sessionIndex + ":9600");
+  }
+
+  public static Publisher newPublisher(
+      String dataInfoId,
+      String registerId,
+      long version,
+      byte[] value,
+      ProcessId sessionProcessId,
+      ConnectId connectId) {
+    Publisher publisher = new Publisher();
+    DataInfo dataInfo = DataInfo.valueOf(dataInfoId);
+    publisher.setDataInfoId(dataInfoId);
+    publisher.setDataId(dataInfo.getDataId());
+    publisher.setInstanceId(dataInfo.getInstanceId());
+    publisher.setGroup(dataInfo.getGroup());
+    publisher.setRegisterId(registerId);
+    publisher.setVersion(version);
+    publisher.setRegisterTimestamp(1000L);
+    publisher.setSessionProcessId(sessionProcessId);
+    publisher.setSourceAddress(URL.valueOf(connectId.clientAddress()));
+    publisher.setTargetAddress(URL.valueOf(connectId.sessionAddress()));
+    publisher.setDataList(Lists.newArrayList(new ServerDataBox(value)));
+    return publisher;
+  }
+
+  /**
+   * create the publishers of a dataInfoId, the publisher i is owned by the session i % sessionNum
+   * and the connection i % connectNum
+   */
+  public static Publisher[] newPublishers(
+      String dataInfoId, int pubNum, int valueSize, int sessionNum, int connectNum) {
+    final byte[] value = randomBytes(valueSize);
+    Publisher[] publishers = new Publisher[pubNum];
+    for (int i = 0; i < pubNum; i++) {
+      final int sessionIndex = i % sessionNum;
+      publishers[i] =
+          newPublisher(
+              dataInfoId,
+              dataInfoId + "-" + i,
+              1,
+              value,
+              sessionProcessId(sessionIndex),
+              connectId(sessionIndex, i % connectNum));
+    }
+    return publishers;
+  }
+
+  /** the publisher with the same registerId and a newer version, replaces the exist one */
+  public static Publisher newVersion(Publisher publisher, long version) {
+    return newPublisher(
+        publisher.getDataInfoId(),
+        publisher.getRegisterId(),
+        version,
+        publisher.getDataList().get(0).getBytes(),
+        publisher.getSessionProcessId(),
+        publisher.connectId());
+  }
+
+  public static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.benchmark;
+
+import com.alipay.sofa.registry.common.model.dataserver.Datum;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.common.model.store.SubDatum;
+import com.alipay.sofa.registry.server.shared.util.DatumUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** benchmark of converting the Datum to the SubDatum responded to session */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatumUtilsBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  int pubNum;
+
+  @Param({"64", "1024"})
+  int valueSize;
+
+  Datum datum;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String dataInfoId = BenchmarkUtils.dataInfoId(0);
+    datum = new Datum(dataInfoId, BenchmarkUtils.DATA_CENTER);
+    for (Publisher publisher :
+        BenchmarkUtils.newPublishers(dataInfoId, pubNum, valueSize, 4, pubNum)) {
+      datum.addPublisher(publisher);
+    }
+    datum.setVersion(1);
+  }
+
+  @Benchmark
+  public SubDatum of() {
+    return DatumUtils.of(datum);
+  }
+}
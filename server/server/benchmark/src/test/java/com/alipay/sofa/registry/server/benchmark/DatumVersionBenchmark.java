@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.benchmark;
+
+import com.alipay.sofa.registry.util.DatumVersionUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * the contention of the datum version generator, compares the cas generator with the previous
+ * generator which synchronized on the class. the MAX threads is the number of the cores
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class DatumVersionBenchmark {
+
+  @Benchmark
+  @Threads(1)
+  public long casSingle() {
+    return DatumVersionUtil.nextId();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public long lockSingle() {
+    return LockVersion.nextId();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long casMax() {
+    return DatumVersionUtil.nextId();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long lockMax() {
+    return LockVersion.nextId();
+  }
+
+  /** the previous generator */
+  static final class LockVersion {
+    private static final long twepoch = 1546272000000L;
+    private static final long sequenceBits = 15L;
+    private static final long sequenceMask = -1L ^ (-1L << sequenceBits);
+    private static long sequence = 0L;
+    private static long lastTimestamp = -1L;
+
+    static synchronized long nextId() {
+      long timestamp = System.currentTimeMillis();
+      if (timestamp < lastTimestamp) {
+        throw new RuntimeException("Clock moved backwards");
+      }
+      if (lastTimestamp == timestamp) {
+        sequence = (sequence + 1) & sequenceMask;
+        if (sequence == 0) {
+          while (timestamp <= lastTimestamp) {
+            timestamp = System.currentTimeMillis();
+          }
+        }
+      } else {
+        sequence = 0L;
+      }
+      lastTimestamp = timestamp;
+      return ((timestamp - twepoch) << sequenceBits) | sequence;
+    }
+  }
+}
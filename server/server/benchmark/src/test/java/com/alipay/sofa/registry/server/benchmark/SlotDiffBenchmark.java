@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.benchmark;
+
+import com.alipay.sofa.registry.common.model.PublisherDigestUtil;
+import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
+import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
+import com.alipay.sofa.registry.common.model.slot.DataSlotDiffPublisherResult;
+import com.alipay.sofa.registry.common.model.slot.DataSlotDiffUtils;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptAllManager;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.google.common.collect.Maps;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * benchmark of the slot sync between the leader and the follower, the follower reports the digest
+ * of the summaries, and the leader diffs the summaries with its publishers
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlotDiffBenchmark {
+  static final SyncSlotAcceptorManager ACCEPT_ALL = new SyncSlotAcceptAllManager();
+
+  @Param({"100", "1000"})
+  int dataInfoIdNum;
+
+  @Param({"10", "100"})
+  int pubNum;
+
+  /** the percent of the publishers which version is changed in the source */
+  @Param({"0", "10"})
+  int changedPercent;
+
+  Map<String, Map<String, Publisher>> sourcePublishers;
+
+  Map<String, DatumSummary> targetSummaries;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    sourcePublishers = Maps.newHashMapWithExpectedSize(dataInfoIdNum);
+    targetSummaries = Maps.newHashMapWithExpectedSize(dataInfoIdNum);
+    for (int i = 0; i < dataInfoIdNum; i++) {
+      final String dataInfoId = BenchmarkUtils.dataInfoId(i);
+      Publisher[] publishers = BenchmarkUtils.newPublishers(dataInfoId, pubNum, 64, 8, 1000);
+      Map<String, Publisher> publisherMap = Maps.newHashMapWithExpectedSize(pubNum);
+      Map<String, RegisterVersion> versions = Maps.newHashMapWithExpectedSize(pubNum);
+      for (int j = 0; j < publishers.length; j++) {
+        Publisher publisher = publishers[j];
+        if (j * 100 < changedPercent * publishers.length) {
+          publisher = BenchmarkUtils.newVersion(publisher, publisher.getVersion() + 1);
+        }
+        publisherMap.put(publisher.getRegisterId(), publisher);
+        versions.put(publishers[j].getRegisterId(), publishers[j].registerVersion());
+      }
+      sourcePublishers.put(dataInfoId, publisherMap);
+      targetSummaries.put(dataInfoId, new DatumSummary(dataInfoId, versions));
+    }
+  }
+
+  @Benchmark
+  public Map<String, DatumDigest> digest() {
+    return PublisherDigestUtil.digest(targetSummaries);
+  }
+
+  @Benchmark
+  public Map<String, DatumDigest> incrementalDigest() {
+    return PublisherDigestUtil.digest(targetSummaries, true);
+  }
+
+  @Benchmark
+  public DataSlotDiffPublisherResult diffPublishersResult() {
+    return DataSlotDiffUtils.diffPublishersResult(
+        targetSummaries.values(), sourcePublishers, Integer.MAX_VALUE, ACCEPT_ALL);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.server.benchmark.BenchmarkUtils;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * the heap footprint of the stored publishers, compares the full Publisher with the compact form.
+ * every publisher has its own value like the real pubs, so the footprint includes the value. the
+ * retained bytes per publisher is printed after each iteration, the score is the time of filling
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class PublisherFootprintBenchmark {
+  private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+  @Param({"false", "true"})
+  boolean compact;
+
+  @Param({"100000"})
+  int pubNum;
+
+  @Param({"64"})
+  int valueSize;
+
+  PublisherGroup group;
+
+  long usedBefore;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    group = null;
+    usedBefore = usedHeapAfterGc();
+  }
+
+  @Benchmark
+  public PublisherGroup fill() {
+    final String dataInfoId = BenchmarkUtils.dataInfoId(0);
+    PublisherGroup group =
+        new PublisherGroup(dataInfoId, BenchmarkUtils.DATA_CENTER, new PublisherIndex(), compact);
+    for (int i = 0; i < pubNum; i++) {
+      final int sessionIndex = i % 4;
+      // the publisher is garbage after added if compact
+      Publisher publisher =
+          BenchmarkUtils.newPublisher(
+              dataInfoId,
+              dataInfoId + "-" + i,
+              1,
+              BenchmarkUtils.randomBytes(valueSize),
+              BenchmarkUtils.sessionProcessId(sessionIndex),
+              BenchmarkUtils.connectId(sessionIndex, i));
+      group.addPublisher(publisher);
+    }
+    this.group = group;
+    return group;
+  }
+
+  @TearDown(Level.Iteration)
+  public void footprint() {
+    final long used = usedHeapAfterGc() - usedBefore;
+    System.out.printf(
+        "%n[footprint]compact=%s, pubs=%d, bytes/pub=%d%n",
+        compact, group.pubSize(), used / group.pubSize());
+    group = null;
+  }
+
+  private static long usedHeapAfterGc() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return MEMORY.getHeapMemoryUsage().getUsed();
+  }
+}
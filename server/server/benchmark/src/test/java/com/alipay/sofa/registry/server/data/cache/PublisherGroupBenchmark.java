@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.common.model.dataserver.Datum;
+import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.server.benchmark.BenchmarkUtils;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * benchmark of the publishers of one dataInfoId, the write path is addPublisher with a newer
+ * version, the read path is toDatum which is called by every subscriber fetch
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PublisherGroupBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  int pubNum;
+
+  @Param({"64", "1024"})
+  int valueSize;
+
+  PublisherGroup group;
+
+  Publisher[] publishers;
+
+  // shared by the writers, the version of add must be newer than the exist one
+  final AtomicLong version = new AtomicLong(1);
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String dataInfoId = BenchmarkUtils.dataInfoId(0);
+    group = new PublisherGroup(dataInfoId, BenchmarkUtils.DATA_CENTER);
+    publishers = BenchmarkUtils.newPublishers(dataInfoId, pubNum, valueSize, 4, pubNum);
+    for (Publisher publisher : publishers) {
+      group.addPublisher(publisher);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Writer {
+    int next;
+  }
+
+  @Benchmark
+  public Datum toDatum() {
+    return group.toDatum();
+  }
+
+  @Benchmark
+  public DatumVersion addPublisher(Writer writer) {
+    return add(writer);
+  }
+
+  /** the writers contend on the write lock of the group */
+  @Benchmark
+  @Threads(4)
+  public DatumVersion addPublisherContended(Writer writer) {
+    return add(writer);
+  }
+
+  /** the readers of toDatum contend with a writer */
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public Datum readWriteToDatum() {
+    return group.toDatum();
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public DatumVersion readWriteAddPublisher(Writer writer) {
+    return add(writer);
+  }
+
+  private DatumVersion add(Writer writer) {
+    final Publisher publisher = publishers[writer.next++ % publishers.length];
+    return group.addPublisher(BenchmarkUtils.newVersion(publisher, version.incrementAndGet()));
+  }
+}
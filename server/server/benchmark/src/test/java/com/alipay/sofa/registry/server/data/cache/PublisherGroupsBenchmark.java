@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.common.model.ConnectId;
+import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.server.benchmark.BenchmarkUtils;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * benchmark of the publishers of one dataCenter, getByConnectId is called when the client
+ * disconnected, clean is called when a session is down
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PublisherGroupsBenchmark {
+  static final int SESSION_NUM = 8;
+  static final int CONNECT_NUM = 1000;
+
+  @Param({"100", "1000"})
+  int dataInfoIdNum;
+
+  @Param({"10", "100"})
+  int pubNum;
+
+  @Param({"64"})
+  int valueSize;
+
+  PublisherGroups groups;
+
+  List<Publisher[]> publishers;
+
+  ConnectId[] connectIds;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    publishers = Lists.newArrayListWithCapacity(dataInfoIdNum);
+    for (int i = 0; i < dataInfoIdNum; i++) {
+      publishers.add(
+          BenchmarkUtils.newPublishers(
+              BenchmarkUtils.dataInfoId(i), pubNum, valueSize, SESSION_NUM, CONNECT_NUM));
+    }
+    connectIds = new ConnectId[CONNECT_NUM];
+    for (int i = 0; i < CONNECT_NUM; i++) {
+      connectIds[i] = BenchmarkUtils.connectId(i % SESSION_NUM, i);
+    }
+    groups = newGroups();
+  }
+
+  PublisherGroups newGroups() {
+    PublisherGroups groups = new PublisherGroups(BenchmarkUtils.DATA_CENTER);
+    for (Publisher[] pubs : publishers) {
+      groups.put(pubs[0].getDataInfoId(), Lists.newArrayList(pubs));
+    }
+    return groups;
+  }
+
+  @State(Scope.Thread)
+  public static class Reader {
+    int next;
+  }
+
+  /** the clean is destructive, fill a new groups before each invocation */
+  @State(Scope.Thread)
+  public static class CleanState {
+    PublisherGroups groups;
+
+    @Setup(Level.Invocation)
+    public void setup(PublisherGroupsBenchmark benchmark) {
+      groups = benchmark.newGroups();
+    }
+  }
+
+  @Benchmark
+  public Map<String, Publisher> getByConnectId(Reader reader) {
+    return groups.getByConnectId(connectIds[reader.next++ % connectIds.length]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Map<String, Publisher> getByConnectIdConcurrent(Reader reader) {
+    return groups.getByConnectId(connectIds[reader.next++ % connectIds.length]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 20)
+  public Map<String, DatumVersion> cleanBySession(CleanState state) {
+    final ProcessId sessionProcessId = BenchmarkUtils.sessionProcessId(0);
+    return state.groups.clean(sessionProcessId, CleanContinues.ALWAYS);
+  }
+}
@@ -23,6 +23,7 @@ import com.alipay.sofa.registry.remoting.bolt.exchange.BoltExchange;
 import com.alipay.sofa.registry.remoting.exchange.Exchange;
 import com.alipay.sofa.registry.remoting.jersey.exchange.JerseyExchange;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.SubDatumCacheService;
 import com.alipay.sofa.registry.server.data.change.DataChangeEventCenter;
 import com.alipay.sofa.registry.server.data.lease.SessionLeaseManager;
 import com.alipay.sofa.registry.server.data.multi.cluster.sync.info.FetchMultiSyncService;
@@ -33,6 +34,7 @@ import com.alipay.sofa.registry.server.data.remoting.DataNodeExchanger;
 import com.alipay.sofa.registry.server.data.remoting.SessionNodeExchanger;
 import com.alipay.sofa.registry.server.data.remoting.dataserver.handler.SlotFollowerDiffDigestRequestHandler;
 import com.alipay.sofa.registry.server.data.remoting.dataserver.handler.SlotFollowerDiffPublisherRequestHandler;
+import com.alipay.sofa.registry.server.data.remoting.dataserver.handler.SlotFollowerSnapshotRequestHandler;
 import com.alipay.sofa.registry.server.data.remoting.metaserver.MetaServerServiceImpl;
 import com.alipay.sofa.registry.server.data.remoting.metaserver.handler.NotifyProvideDataChangeHandler;
 import com.alipay.sofa.registry.server.data.remoting.metaserver.handler.RemoteDatumClearEventHandler;
@@ -127,6 +129,11 @@ public class DataServerBeanConfiguration {
       return new DatumStorageDelegate(dataServerConfig);
     }
 
+    @Bean
+    public SubDatumCacheService subDatumCacheService() {
+      return new SubDatumCacheService();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public SlotManager slotManager() {
@@ -204,6 +211,7 @@ public class DataServerBeanConfiguration {
       Collection<AbstractServerHandler> list = new ArrayList<>();
       list.add(getDataHandler());
       list.add(getMultiDataHandler());
+      list.add(getMultiDataBatchHandler());
       list.add(batchPutDataHandler());
       list.add(getDataVersionsHandler());
       return list;
@@ -214,6 +222,7 @@ public class DataServerBeanConfiguration {
       Collection<AbstractServerHandler> list = new ArrayList<>();
       list.add(slotFollowerDiffDataInfoIdRequestHandler());
       list.add(slotFollowerDiffPublisherRequestHandler());
+      list.add(slotFollowerSnapshotRequestHandler());
       return list;
     }
 
@@ -236,6 +245,11 @@ public class DataServerBeanConfiguration {
       return new GetMultiDataHandler();
     }
 
+    @Bean
+    public AbstractServerHandler getMultiDataBatchHandler() {
+      return new GetMultiDataBatchHandler();
+    }
+
     @Bean
     public AbstractServerHandler slotFollowerDiffDataInfoIdRequestHandler() {
       return new SlotFollowerDiffDigestRequestHandler();
@@ -246,6 +260,11 @@ public class DataServerBeanConfiguration {
       return new SlotFollowerDiffPublisherRequestHandler();
     }
 
+    @Bean
+    public AbstractServerHandler slotFollowerSnapshotRequestHandler() {
+      return new SlotFollowerSnapshotRequestHandler();
+    }
+
     @Bean
     public AbstractServerHandler getDataVersionsHandler() {
       return new GetDataVersionsHandler();
@@ -325,6 +325,7 @@ public class DataServerBootstrap {
       stopDataSyncServer();
       stopRemoteDataSyncServer();
       stopNotifyServer();
+      dataChangeEventCenter.destroy();
     } catch (Throwable e) {
       LOGGER.error("Shutting down Data Server error!", e);
     }
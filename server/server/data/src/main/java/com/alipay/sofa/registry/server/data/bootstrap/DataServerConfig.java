@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.registry.server.data.bootstrap;
 
+import com.alipay.sofa.registry.compress.CompressConstants;
 import com.alipay.sofa.registry.server.shared.config.CommonConfig;
 import com.alipay.sofa.registry.server.shared.config.ServerShareConfig;
 import com.alipay.sofa.registry.server.shared.env.ServerEnv;
@@ -59,6 +60,11 @@ public class DataServerConfig implements ServerShareConfig {
 
   private int notifyRetryBackoffMillis = 500;
 
+  // notify by sendCallback and pipeline the requests of one session
+  private volatile boolean notifyAsyncEnable = false;
+
+  private volatile int notifyMaxInFlight = 4;
+
   private int notifyTempExecutorPoolSize = OsUtils.getCpuCount() * 3;
 
   private int notifyTempExecutorQueueSize = 4000;
@@ -105,6 +111,26 @@ public class DataServerConfig implements ServerShareConfig {
 
   private volatile int slotSyncPublisherMaxNum = 512;
 
+  // use the digest maintained by PublisherGroup, enable it after all data/session upgraded
+  private volatile boolean slotSyncIncrementalDigestEnable = false;
+
+  // diff by the digest tree of slot when incremental digest, 0 means disable
+  private volatile int slotSyncDigestTreeBucketNum = 0;
+
+  // stream the whole slot by chunks at the first sync of follower, then diff by digest
+  private volatile boolean slotSyncBulkEnable = false;
+
+  private volatile int slotSyncBulkChunkPublisherMaxNum = 2000;
+
+  // the bandwidth shared by all the slots of bulk sync
+  private int slotSyncBulkBytesPerSecond = 1024 * 1024 * 64;
+
+  private volatile String[] slotSyncBulkAcceptEncodes = CompressConstants.defaultCompressEncodes;
+
+  private int subDatumCacheMaxWeight = 1024 * 1024 * 128;
+
+  private int subDatumCacheExpireSecs = 30;
+
   private int slotSyncRequestExecutorMinPoolSize = OsUtils.getCpuCount() * 3;
 
   private int slotSyncRequestExecutorMaxPoolSize = OsUtils.getCpuCount() * 3;
@@ -474,6 +500,152 @@ public class DataServerConfig implements ServerShareConfig {
     this.slotSyncPublisherDigestMaxNum = slotSyncPublisherDigestMaxNum;
   }
 
+  /**
+   * Getter method for property <tt>slotSyncIncrementalDigestEnable</tt>.
+   *
+   * @return property value of slotSyncIncrementalDigestEnable
+   */
+  public boolean isSlotSyncIncrementalDigestEnable() {
+    return slotSyncIncrementalDigestEnable;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncIncrementalDigestEnable</tt>.
+   *
+   * @param slotSyncIncrementalDigestEnable value to be assigned to property
+   *     slotSyncIncrementalDigestEnable
+   */
+  public void setSlotSyncIncrementalDigestEnable(boolean slotSyncIncrementalDigestEnable) {
+    this.slotSyncIncrementalDigestEnable = slotSyncIncrementalDigestEnable;
+  }
+
+  /**
+   * Getter method for property <tt>slotSyncDigestTreeBucketNum</tt>.
+   *
+   * @return property value of slotSyncDigestTreeBucketNum
+   */
+  public int getSlotSyncDigestTreeBucketNum() {
+    return slotSyncDigestTreeBucketNum;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncDigestTreeBucketNum</tt>.
+   *
+   * @param slotSyncDigestTreeBucketNum value to be assigned to property slotSyncDigestTreeBucketNum
+   */
+  public void setSlotSyncDigestTreeBucketNum(int slotSyncDigestTreeBucketNum) {
+    this.slotSyncDigestTreeBucketNum = slotSyncDigestTreeBucketNum;
+  }
+
+  /**
+   * Getter method for property <tt>slotSyncBulkEnable</tt>.
+   *
+   * @return property value of slotSyncBulkEnable
+   */
+  public boolean isSlotSyncBulkEnable() {
+    return slotSyncBulkEnable;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncBulkEnable</tt>.
+   *
+   * @param slotSyncBulkEnable value to be assigned to property slotSyncBulkEnable
+   */
+  public void setSlotSyncBulkEnable(boolean slotSyncBulkEnable) {
+    this.slotSyncBulkEnable = slotSyncBulkEnable;
+  }
+
+  /**
+   * Getter method for property <tt>slotSyncBulkChunkPublisherMaxNum</tt>.
+   *
+   * @return property value of slotSyncBulkChunkPublisherMaxNum
+   */
+  public int getSlotSyncBulkChunkPublisherMaxNum() {
+    return slotSyncBulkChunkPublisherMaxNum;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncBulkChunkPublisherMaxNum</tt>.
+   *
+   * @param slotSyncBulkChunkPublisherMaxNum value to be assigned to property
+   *     slotSyncBulkChunkPublisherMaxNum
+   */
+  public void setSlotSyncBulkChunkPublisherMaxNum(int slotSyncBulkChunkPublisherMaxNum) {
+    this.slotSyncBulkChunkPublisherMaxNum = slotSyncBulkChunkPublisherMaxNum;
+  }
+
+  /**
+   * Getter method for property <tt>slotSyncBulkBytesPerSecond</tt>.
+   *
+   * @return property value of slotSyncBulkBytesPerSecond
+   */
+  public int getSlotSyncBulkBytesPerSecond() {
+    return slotSyncBulkBytesPerSecond;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncBulkBytesPerSecond</tt>.
+   *
+   * @param slotSyncBulkBytesPerSecond value to be assigned to property slotSyncBulkBytesPerSecond
+   */
+  public void setSlotSyncBulkBytesPerSecond(int slotSyncBulkBytesPerSecond) {
+    this.slotSyncBulkBytesPerSecond = slotSyncBulkBytesPerSecond;
+  }
+
+  /**
+   * Getter method for property <tt>slotSyncBulkAcceptEncodes</tt>.
+   *
+   * @return property value of slotSyncBulkAcceptEncodes
+   */
+  public String[] getSlotSyncBulkAcceptEncodes() {
+    return slotSyncBulkAcceptEncodes;
+  }
+
+  /**
+   * Setter method for property <tt>slotSyncBulkAcceptEncodes</tt>.
+   *
+   * @param slotSyncBulkAcceptEncodes value to be assigned to property slotSyncBulkAcceptEncodes
+   */
+  public void setSlotSyncBulkAcceptEncodes(String[] slotSyncBulkAcceptEncodes) {
+    this.slotSyncBulkAcceptEncodes = slotSyncBulkAcceptEncodes;
+  }
+
+  /**
+   * Getter method for property <tt>subDatumCacheMaxWeight</tt>.
+   *
+   * @return property value of subDatumCacheMaxWeight
+   */
+  public int getSubDatumCacheMaxWeight() {
+    return subDatumCacheMaxWeight;
+  }
+
+  /**
+   * Setter method for property <tt>subDatumCacheMaxWeight</tt>.
+   *
+   * @param subDatumCacheMaxWeight value to be assigned to property subDatumCacheMaxWeight
+   */
+  public void setSubDatumCacheMaxWeight(int subDatumCacheMaxWeight) {
+    this.subDatumCacheMaxWeight = subDatumCacheMaxWeight;
+  }
+
+  /**
+   * Getter method for property <tt>subDatumCacheExpireSecs</tt>.
+   *
+   * @return property value of subDatumCacheExpireSecs
+   */
+  public int getSubDatumCacheExpireSecs() {
+    return subDatumCacheExpireSecs;
+  }
+
+  /**
+   * Setter method for property <tt>subDatumCacheExpireSecs</tt>.
+   *
+   * @param subDatumCacheExpireSecs value to be assigned to property subDatumCacheExpireSecs
+   */
+  public void setSubDatumCacheExpireSecs(int subDatumCacheExpireSecs) {
+    this.subDatumCacheExpireSecs = subDatumCacheExpireSecs;
+  }
+
   /**
    * Getter method for property <tt>slotSyncPublisherMaxNum</tt>.
    *
@@ -830,6 +1002,42 @@ public class DataServerConfig implements ServerShareConfig {
     this.notifyRetryBackoffMillis = notifyRetryBackoffMillis;
   }
 
+  /**
+   * Getter method for property <tt>notifyAsyncEnable</tt>.
+   *
+   * @return property value of notifyAsyncEnable
+   */
+  public boolean isNotifyAsyncEnable() {
+    return notifyAsyncEnable;
+  }
+
+  /**
+   * Setter method for property <tt>notifyAsyncEnable</tt>.
+   *
+   * @param notifyAsyncEnable value to be assigned to property notifyAsyncEnable
+   */
+  public void setNotifyAsyncEnable(boolean notifyAsyncEnable) {
+    this.notifyAsyncEnable = notifyAsyncEnable;
+  }
+
+  /**
+   * Getter method for property <tt>notifyMaxInFlight</tt>.
+   *
+   * @return property value of notifyMaxInFlight
+   */
+  public int getNotifyMaxInFlight() {
+    return notifyMaxInFlight;
+  }
+
+  /**
+   * Setter method for property <tt>notifyMaxInFlight</tt>.
+   *
+   * @param notifyMaxInFlight value to be assigned to property notifyMaxInFlight
+   */
+  public void setNotifyMaxInFlight(int notifyMaxInFlight) {
+    this.notifyMaxInFlight = notifyMaxInFlight;
+  }
+
   public int getLowWaterMark() {
     return lowWaterMark;
   }
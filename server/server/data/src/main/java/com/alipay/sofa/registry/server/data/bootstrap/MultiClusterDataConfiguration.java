@@ -18,6 +18,7 @@ package com.alipay.sofa.registry.server.data.bootstrap;
 
 import com.alipay.sofa.registry.common.model.slot.filter.MultiSyncDataAcceptorManager;
 import com.alipay.sofa.registry.server.data.multi.cluster.client.handler.RemoteDataChangeNotifyHandler;
+import com.alipay.sofa.registry.server.data.multi.cluster.dataserver.handler.MultiClusterSlotChangeStreamRequestHandler;
 import com.alipay.sofa.registry.server.data.multi.cluster.dataserver.handler.MultiClusterSlotDiffDigestRequestHandler;
 import com.alipay.sofa.registry.server.data.multi.cluster.dataserver.handler.MultiClusterSlotDiffPublisherRequestHandler;
 import com.alipay.sofa.registry.server.data.multi.cluster.exchanger.RemoteDataNodeExchanger;
@@ -25,6 +26,7 @@ import com.alipay.sofa.registry.server.data.multi.cluster.executor.MultiClusterE
 import com.alipay.sofa.registry.server.data.multi.cluster.slot.MultiClusterSlotManager;
 import com.alipay.sofa.registry.server.data.multi.cluster.slot.MultiClusterSlotManagerImpl;
 import com.alipay.sofa.registry.server.data.multi.cluster.storage.MultiClusterDatumService;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
 import com.alipay.sofa.registry.server.shared.remoting.AbstractClientHandler;
 import com.alipay.sofa.registry.server.shared.remoting.AbstractServerHandler;
 import java.util.ArrayList;
@@ -70,6 +72,7 @@ public class MultiClusterDataConfiguration {
       Collection<AbstractServerHandler> list = new ArrayList<>();
       list.add(multiClusterSlotDiffDigestRequestHandler());
       list.add(multiClusterSlotDiffPublisherRequestHandler());
+      list.add(multiClusterSlotChangeStreamRequestHandler());
       return list;
     }
 
@@ -90,6 +93,11 @@ public class MultiClusterDataConfiguration {
       return new MultiClusterSlotDiffPublisherRequestHandler();
     }
 
+    @Bean
+    public AbstractServerHandler multiClusterSlotChangeStreamRequestHandler() {
+      return new MultiClusterSlotChangeStreamRequestHandler();
+    }
+
     @Bean
     public AbstractClientHandler remoteDataChangeNotifyHandler() {
       return new RemoteDataChangeNotifyHandler();
@@ -114,5 +122,10 @@ public class MultiClusterDataConfiguration {
     public MultiClusterDatumService multiClusterDatumService() {
       return new MultiClusterDatumService();
     }
+
+    @Bean
+    public SlotChangeLogStorage slotChangeLogStorage() {
+      return new SlotChangeLogStorage();
+    }
   }
 }
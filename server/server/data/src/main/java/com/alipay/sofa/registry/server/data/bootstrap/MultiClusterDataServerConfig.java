@@ -53,4 +53,12 @@ public interface MultiClusterDataServerConfig {
   int getRemoteSyncDataIdExecutorQueueSize();
 
   int getMultiClusterConfigReloadMillis();
+
+  boolean isSyncRemoteSlotStreamEnable();
+
+  int getSyncRemoteSlotStreamMaxDataInfoIds();
+
+  int getSyncRemoteSlotChangeLogCapacity();
+
+  int getSyncRemoteSlotStreamIntervalSecs();
 }
@@ -59,6 +59,16 @@ public class MultiClusterDataServerConfigBean implements MultiClusterDataServerC
 
   private volatile int multiClusterConfigReloadMillis = 60 * 1000;
 
+  // both of the dataCenters need to upgrade before enable
+  private volatile boolean syncRemoteSlotStreamEnable = false;
+
+  private volatile int syncRemoteSlotStreamMaxDataInfoIds = 500;
+
+  private volatile int syncRemoteSlotChangeLogCapacity = 2000;
+
+  // the digest diff interval when the change stream is healthy
+  private volatile int syncRemoteSlotStreamIntervalSecs = 600;
+
   @Override
   public int getSyncRemoteSlotLeaderIntervalSecs() {
     return syncRemoteSlotLeaderIntervalSecs;
@@ -217,6 +227,65 @@ public class MultiClusterDataServerConfigBean implements MultiClusterDataServerC
     return multiClusterConfigReloadMillis;
   }
 
+  @Override
+  public boolean isSyncRemoteSlotStreamEnable() {
+    return syncRemoteSlotStreamEnable;
+  }
+
+  @Override
+  public int getSyncRemoteSlotStreamMaxDataInfoIds() {
+    return syncRemoteSlotStreamMaxDataInfoIds;
+  }
+
+  @Override
+  public int getSyncRemoteSlotChangeLogCapacity() {
+    return syncRemoteSlotChangeLogCapacity;
+  }
+
+  @Override
+  public int getSyncRemoteSlotStreamIntervalSecs() {
+    return syncRemoteSlotStreamIntervalSecs;
+  }
+
+  /**
+   * Setter method for property <tt>syncRemoteSlotStreamEnable</tt>.
+   *
+   * @param syncRemoteSlotStreamEnable value to be assigned to property syncRemoteSlotStreamEnable
+   */
+  public void setSyncRemoteSlotStreamEnable(boolean syncRemoteSlotStreamEnable) {
+    this.syncRemoteSlotStreamEnable = syncRemoteSlotStreamEnable;
+  }
+
+  /**
+   * Setter method for property <tt>syncRemoteSlotStreamMaxDataInfoIds</tt>.
+   *
+   * @param syncRemoteSlotStreamMaxDataInfoIds value to be assigned to property
+   *     syncRemoteSlotStreamMaxDataInfoIds
+   */
+  public void setSyncRemoteSlotStreamMaxDataInfoIds(int syncRemoteSlotStreamMaxDataInfoIds) {
+    this.syncRemoteSlotStreamMaxDataInfoIds = syncRemoteSlotStreamMaxDataInfoIds;
+  }
+
+  /**
+   * Setter method for property <tt>syncRemoteSlotChangeLogCapacity</tt>.
+   *
+   * @param syncRemoteSlotChangeLogCapacity value to be assigned to property
+   *     syncRemoteSlotChangeLogCapacity
+   */
+  public void setSyncRemoteSlotChangeLogCapacity(int syncRemoteSlotChangeLogCapacity) {
+    this.syncRemoteSlotChangeLogCapacity = syncRemoteSlotChangeLogCapacity;
+  }
+
+  /**
+   * Setter method for property <tt>syncRemoteSlotStreamIntervalSecs</tt>.
+   *
+   * @param syncRemoteSlotStreamIntervalSecs value to be assigned to property
+   *     syncRemoteSlotStreamIntervalSecs
+   */
+  public void setSyncRemoteSlotStreamIntervalSecs(int syncRemoteSlotStreamIntervalSecs) {
+    this.syncRemoteSlotStreamIntervalSecs = syncRemoteSlotStreamIntervalSecs;
+  }
+
   /**
    * Setter method for property <tt>multiClusterConfigReloadMillis</tt>.
    *
@@ -0,0 +1,509 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.common.model.ConnectId;
+import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.PublishSource;
+import com.alipay.sofa.registry.common.model.PublishType;
+import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.common.model.ServerDataBox;
+import com.alipay.sofa.registry.common.model.store.BaseInfo.ClientVersion;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.common.model.store.URL;
+import com.alipay.sofa.registry.common.model.store.URL.ProtocolType;
+import com.alipay.sofa.registry.util.SystemUtils;
+import com.google.common.net.InetAddresses;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * the compact form of the stored publisher. the fields of the dataInfoId are shared with the owner
+ * group, the version and sessionProcessId are kept by the envelope, the other fields are packed
+ * into one byte array:
+ *
+ * <ul>
+ *   <li>the enums are the ordinals
+ *   <li>the low cardinality strings, cell and appName, are the codes of the dictionary
+ *   <li>the ipv4 is the 4 bytes, the others are the utf8 bytes, the per-process strings are never
+ *       put into the append only dictionary, the churn of the clients would fill it up
+ *   <li>the ports and the timestamp are the varints
+ *   <li>the data boxes are the raw bytes, the large bytes are moved into the off-heap chunks if the
+ *       store is enabled, the record keeps the index of the chunk
+ * </ul>
+ *
+ * the Publisher is materialized on read
+ */
+final class CompactPublisher {
+  public static final String KEY_DICTIONARY_CAPACITY =
+      "registry.data.publisher.compact.dictionary.capacity";
+
+  static final StringDictionary DICTIONARY =
+      new StringDictionary(SystemUtils.getSystemInteger(KEY_DICTIONARY_CAPACITY, 1 << 18));
+
+  private static final int SERIALIZED_BY_JAVA = new ServerDataBox(new byte[0]).getSerialization();
+
+  // the string tags, the code of the dictionary starts from STR_CODE
+  private static final int STR_NULL = 0;
+  private static final int STR_INLINE = 1;
+  private static final int STR_IPV4 = 2;
+  private static final int STR_CODE = 3;
+
+  // the offset of the publishSource, the addresses start after the enums
+  private static final int PUBLISH_SOURCE_OFFSET = 2;
+  private static final int ADDRESS_OFFSET = 3;
+
+  private final PublisherGroup owner;
+  // the same instance as the key of the pubMap
+  private final String registerId;
+  // rarely used, null if empty
+  private final Map<String, String> attributes;
+  private final byte[] record;
+  // null if no off-heap value
+  private final OffHeapSlabStore.Chunk[] chunks;
+
+  private CompactPublisher(
+      PublisherGroup owner, Publisher publisher, byte[] record, OffHeapSlabStore.Chunk[] chunks) {
+    this.owner = owner;
+    this.registerId = publisher.getRegisterId();
+    this.attributes = publisher.attributesSize() == 0 ? null : publisher.getAttributes();
+    this.record = record;
+    this.chunks = chunks;
+  }
+
+  /**
+   * @param offHeap the off-heap store, null if disabled
+   * @return null if the publisher could not be packed
+   */
+  static CompactPublisher pack(
+      PublisherGroup owner, Publisher publisher, OffHeapSlabStore offHeap) {
+    if (!StringUtils.equals(owner.dataInfoId, publisher.getDataInfoId())
+        || !isPackable(publisher.getSourceAddress())
+        || !isPackable(publisher.getTargetAddress())
+        || !isPackable(publisher.getDataList())) {
+      return null;
+    }
+    final Writer w = new Writer();
+    w.writeOrdinal(publisher.getClientVersion());
+    w.writeOrdinal(publisher.getPublishType());
+    w.writeOrdinal(publisher.getPublishSource());
+    w.writeUrl(publisher.getSourceAddress());
+    w.writeUrl(publisher.getTargetAddress());
+    w.writeWord(publisher.getCell());
+    w.writeWord(publisher.getAppName());
+    w.writeInline(publisher.getProcessId());
+    w.writeInline(publisher.getClientId());
+    w.writeLong(publisher.getClientRegisterTimestamp());
+
+    final List<ServerDataBox> dataList = publisher.getDataList();
+    OffHeapSlabStore.Chunk[] chunks = null;
+    if (dataList == null) {
+      w.writeInt(0);
+    } else {
+      w.writeInt(dataList.size() + 1);
+      int chunkNum = 0;
+      for (ServerDataBox box : dataList) {
+        final byte[] bytes = box.getBytes();
+        final OffHeapSlabStore.Chunk chunk = offHeap == null ? null : offHeap.allocate(bytes);
+        if (chunk == null) {
+          w.writeInt(bytes.length << 1);
+          w.writeBytes(bytes);
+          continue;
+        }
+        if (chunks == null) {
+          chunks = new OffHeapSlabStore.Chunk[dataList.size()];
+        }
+        chunks[chunkNum] = chunk;
+        w.writeInt((chunkNum << 1) | 1);
+        chunkNum++;
+      }
+      if (chunks != null && chunkNum != chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunkNum);
+      }
+    }
+    return new CompactPublisher(owner, publisher, w.toBytes(), chunks);
+  }
+
+  private static boolean isPackable(URL url) {
+    // the ip of literal could be restored without resolving
+    return url != null
+        && url.getIpAddress() != null
+        && InetAddresses.isInetAddress(url.getIpAddress());
+  }
+
+  private static boolean isPackable(List<ServerDataBox> dataList) {
+    if (dataList == null) {
+      return true;
+    }
+    for (ServerDataBox box : dataList) {
+      // only the box in bytes by java could be restored by the bytes
+      if (box == null || !box.isInBytes() || box.getSerialization() != SERIALIZED_BY_JAVA) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return null if the off-heap chunks have been released, the envelope has been replaced */
+  Publisher toPublisher(RegisterVersion registerVersion, ProcessId sessionProcessId) {
+    final Reader r = new Reader(record, 0);
+    final int clientVersion = r.readOrdinal();
+    final int publishType = r.readOrdinal();
+    final int publishSource = r.readOrdinal();
+    final URL sourceAddress = r.readUrl();
+    final URL targetAddress = r.readUrl();
+    final String cell = r.readString();
+    final String appName = r.readString();
+    final String processId = r.readString();
+    final String clientId = r.readString();
+    final long clientRegisterTimestamp = r.readLong();
+    final int dataSize = r.readInt() - 1;
+    List<ServerDataBox> dataList = null;
+    if (dataSize >= 0) {
+      dataList = readDataList(r, dataSize);
+      if (dataList == null) {
+        return null;
+      }
+    }
+
+    Publisher publisher = new Publisher();
+    publisher.setDataInfoId(owner.dataInfoId);
+    publisher.setDataId(owner.dataId);
+    publisher.setInstanceId(owner.instanceId);
+    publisher.setGroup(owner.group);
+    publisher.setRegisterId(registerId);
+    publisher.setVersion(registerVersion.getVersion());
+    publisher.setRegisterTimestamp(registerVersion.getRegisterTimestamp());
+    publisher.setClientId(clientId);
+    publisher.setCell(cell);
+    publisher.setAppName(appName);
+    publisher.setProcessId(processId);
+    publisher.setSourceAddress(sourceAddress);
+    publisher.setTargetAddress(targetAddress);
+    publisher.setAttributes(attributes);
+    publisher.setClientRegisterTimestamp(clientRegisterTimestamp);
+    if (clientVersion >= 0) {
+      publisher.setClientVersion(ClientVersion.values()[clientVersion]);
+    }
+    publisher.setPublishType(publishType < 0 ? null : PublishType.values()[publishType]);
+    publisher.setPublishSource(publishSource < 0 ? null : PublishSource.values()[publishSource]);
+    publisher.setSessionProcessId(sessionProcessId);
+    publisher.setDataList(dataList);
+    return publisher;
+  }
+
+  /** @return null if the off-heap chunk has been released */
+  private List<ServerDataBox> readDataList(Reader r, int size) {
+    List<ServerDataBox> dataList = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final int tag = r.readInt();
+      final byte[] bytes;
+      if ((tag & 1) == 0) {
+        bytes = r.readBytes(tag >>> 1);
+      } else {
+        bytes = chunks[tag >>> 1].copy();
+        if (bytes == null) {
+          return null;
+        }
+      }
+      dataList.add(new ServerDataBox(bytes));
+    }
+    return dataList;
+  }
+
+  /** release the off-heap chunks, called once when the envelope is removed from the group */
+  void release() {
+    if (chunks == null) {
+      return;
+    }
+    for (OffHeapSlabStore.Chunk chunk : chunks) {
+      chunk.release();
+    }
+  }
+
+  int offHeapNum() {
+    return chunks == null ? 0 : chunks.length;
+  }
+
+  int recordSize() {
+    return record.length;
+  }
+
+  ConnectId connectId() {
+    final Reader r = new Reader(record, ADDRESS_OFFSET);
+    final String sourceIp = r.readString();
+    final int sourcePort = r.readInt();
+    r.skipUrlOptions();
+    final String targetIp = r.readString();
+    final int targetPort = r.readInt();
+    return new ConnectId(sourceIp, sourcePort, targetIp, targetPort);
+  }
+
+  PublishSource getPublishSource() {
+    final int ordinal = record[PUBLISH_SOURCE_OFFSET] - 1;
+    return ordinal < 0 ? null : PublishSource.values()[ordinal];
+  }
+
+  boolean dataListEquals(List<ServerDataBox> dataList) {
+    final Reader r = new Reader(record, ADDRESS_OFFSET);
+    r.skipUrl();
+    r.skipUrl();
+    // cell, appName, processId, clientId
+    for (int i = 0; i < 4; i++) {
+      r.skipString();
+    }
+    r.readLong();
+    final int size = r.readInt() - 1;
+    if (size < 0 || dataList == null) {
+      return size < 0 && dataList == null;
+    }
+    if (size != dataList.size()) {
+      return false;
+    }
+    for (ServerDataBox box : dataList) {
+      if (box == null || !box.isInBytes()) {
+        return false;
+      }
+      final int tag = r.readInt();
+      final boolean equals =
+          (tag & 1) == 0
+              ? r.bytesEquals(tag >>> 1, box.getBytes())
+              : chunks[tag >>> 1].contentEquals(box.getBytes());
+      if (!equals) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Writer {
+    private byte[] buf = new byte[64];
+    private int pos;
+
+    void writeOrdinal(Enum<?> e) {
+      // 0 means null
+      writeByte(e == null ? 0 : e.ordinal() + 1);
+    }
+
+    void writeUrl(URL url) {
+      writeIp(url.getIpAddress());
+      writeInt(url.getPort());
+      writeOrdinal(url.getProtocol());
+      final Byte serializerIndex = url.getSerializerIndex();
+      writeInt(serializerIndex == null ? 0 : (serializerIndex & 0xFF) + 1);
+    }
+
+    /** the word is encoded by the dictionary, kept inline if the dictionary is full */
+    void writeWord(String s) {
+      if (s == null) {
+        writeInt(STR_NULL);
+        return;
+      }
+      final int code = DICTIONARY.encode(s);
+      if (code < 0) {
+        writeInline(s);
+      } else {
+        writeInt(code + STR_CODE);
+      }
+    }
+
+    /** the ipv4 is packed into 4 bytes if it could be restored to the same string */
+    void writeIp(String ip) {
+      final InetAddress address = InetAddresses.forString(ip);
+      if (address instanceof Inet4Address && ip.equals(address.getHostAddress())) {
+        writeInt(STR_IPV4);
+        writeBytes(address.getAddress());
+      } else {
+        writeInline(ip);
+      }
+    }
+
+    void writeInline(String s) {
+      if (s == null) {
+        writeInt(STR_NULL);
+        return;
+      }
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeInt(STR_INLINE);
+      writeInt(bytes.length);
+      writeBytes(bytes);
+    }
+
+    void writeLong(long v) {
+      // zigzag, the negative is rare
+      long z = (v << 1) ^ (v >> 63);
+      while ((z & ~0x7FL) != 0) {
+        writeByte((int) ((z & 0x7F) | 0x80));
+        z >>>= 7;
+      }
+      writeByte((int) z);
+    }
+
+    void writeInt(int v) {
+      while ((v & ~0x7F) != 0) {
+        writeByte((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      writeByte(v);
+    }
+
+    void writeBytes(byte[] bytes) {
+      ensure(bytes.length);
+      System.arraycopy(bytes, 0, buf, pos, bytes.length);
+      pos += bytes.length;
+    }
+
+    private void writeByte(int b) {
+      ensure(1);
+      buf[pos++] = (byte) b;
+    }
+
+    private void ensure(int n) {
+      if (pos + n > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+      }
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buf, pos);
+    }
+  }
+
+  private static final class Reader {
+    private final byte[] buf;
+    private int pos;
+
+    Reader(byte[] buf, int pos) {
+      this.buf = buf;
+      this.pos = pos;
+    }
+
+    /** @return -1 if null */
+    int readOrdinal() {
+      return buf[pos++] - 1;
+    }
+
+    URL readUrl() {
+      final String ip = readString();
+      final int port = readInt();
+      final int protocol = readOrdinal();
+      final int serializerIndex = readInt();
+      return new URL(
+          protocol < 0 ? null : ProtocolType.values()[protocol],
+          ip,
+          port,
+          serializerIndex == 0 ? null : (byte) (serializerIndex - 1));
+    }
+
+    void skipUrl() {
+      skipString();
+      readInt();
+      skipUrlOptions();
+    }
+
+    void skipUrlOptions() {
+      readOrdinal();
+      readInt();
+    }
+
+    String readString() {
+      final int tag = readInt();
+      if (tag == STR_NULL) {
+        return null;
+      }
+      if (tag >= STR_CODE) {
+        return DICTIONARY.decode(tag - STR_CODE);
+      }
+      if (tag == STR_IPV4) {
+        final String ip =
+            (buf[pos] & 0xFF)
+                + "."
+                + (buf[pos + 1] & 0xFF)
+                + "."
+                + (buf[pos + 2] & 0xFF)
+                + "."
+                + (buf[pos + 3] & 0xFF);
+        pos += 4;
+        return ip;
+      }
+      final int length = readInt();
+      final String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return s;
+    }
+
+    void skipString() {
+      final int tag = readInt();
+      if (tag == STR_INLINE) {
+        // read the length before advancing, pos += readInt() reads pos first
+        final int length = readInt();
+        pos += length;
+      } else if (tag == STR_IPV4) {
+        pos += 4;
+      }
+    }
+
+    long readLong() {
+      long z = 0;
+      for (int shift = 0; ; shift += 7) {
+        final byte b = buf[pos++];
+        z |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      return (z >>> 1) ^ -(z & 1);
+    }
+
+    int readInt() {
+      int v = 0;
+      for (int shift = 0; ; shift += 7) {
+        final byte b = buf[pos++];
+        v |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return v;
+        }
+      }
+    }
+
+    byte[] readBytes(int length) {
+      final byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+      pos += length;
+      return bytes;
+    }
+
+    boolean bytesEquals(int length, byte[] bytes) {
+      final int from = pos;
+      pos += length;
+      if (bytes == null || bytes.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (buf[from + i] != bytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.alipay.sofa.registry.util.SystemUtils;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the off-heap store of the value bytes. the direct slabs are carved into the chunks of the power
+ * of two size classes, a value is copied into the smallest chunk which could hold it, and the chunk
+ * is referenced by a reference counted Chunk on heap. the chunk returns to the free list of the
+ * class when the count drops to zero, or when the Chunk is collected without being released, e.g.
+ * the slot is migrated and the whole PublisherGroups is dropped. a slab whose chunks are all free
+ * returns to the store and could be carved by another class, each class keeps its last slab to
+ * avoid carving it again and again. a value which could not get a chunk, e.g. the store is full,
+ * falls back to heap and is counted by fallbackCount
+ */
+public final class OffHeapSlabStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapSlabStore.class);
+
+  public static final String KEY_CAPACITY = "registry.data.publisher.offheap.capacity";
+  public static final String KEY_THRESHOLD = "registry.data.publisher.offheap.threshold";
+  public static final String KEY_SLAB_SIZE = "registry.data.publisher.offheap.slabSize";
+
+  static final int MIN_CHUNK_SIZE = 64;
+
+  // the store of the compact pubs, null if disabled. only effective with the compact form
+  static final OffHeapSlabStore DEFAULT = newDefault();
+
+  private final long capacity;
+  private final int threshold;
+  private final int slabSize;
+  private final SizeClass[] classes;
+
+  // the slabs, the index is the high 32 bits of the handle
+  private final List<ByteBuffer> slabs = new ArrayList<>();
+  // the slabs returned by the classes, guarded by this
+  private final Deque<Integer> freeSlabs = new ArrayDeque<>();
+  private final AtomicLong allocatedBytes = new AtomicLong();
+  private final AtomicLong fallbackCount = new AtomicLong();
+
+  // track the unreleased chunks, reclaim the chunk when the holder is collected
+  private final ReferenceQueue<Chunk> collected = new ReferenceQueue<>();
+  private final Set<ChunkRef> refs = ConcurrentHashMap.newKeySet();
+  private final AtomicLong usedBytes = new AtomicLong();
+
+  OffHeapSlabStore(long capacity, int threshold, int slabSize) {
+    ParaCheckUtil.checkIsPositive(slabSize, "slabSize");
+    ParaCheckUtil.checkIsPositive(threshold, "threshold");
+    if (Integer.bitCount(slabSize) != 1 || slabSize < MIN_CHUNK_SIZE) {
+      throw new IllegalArgumentException(
+          "slabSize must be power of two and not less than " + MIN_CHUNK_SIZE + ": " + slabSize);
+    }
+    this.capacity = capacity;
+    this.threshold = threshold;
+    this.slabSize = slabSize;
+    final int num = Integer.numberOfTrailingZeros(slabSize / MIN_CHUNK_SIZE) + 1;
+    this.classes = new SizeClass[num];
+    for (int i = 0; i < num; i++) {
+      classes[i] = new SizeClass(MIN_CHUNK_SIZE << i);
+    }
+  }
+
+  private static OffHeapSlabStore newDefault() {
+    final long capacity = SystemUtils.getSystemLong(KEY_CAPACITY, 0);
+    if (capacity <= 0) {
+      return null;
+    }
+    final int threshold = SystemUtils.getSystemInteger(KEY_THRESHOLD, 1024);
+    final int slabSize = SystemUtils.getSystemInteger(KEY_SLAB_SIZE, 1024 * 1024);
+    LOGGER.info("[OffHeap]capacity={}, threshold={}, slabSize={}", capacity, threshold, slabSize);
+    return new OffHeapSlabStore(capacity, threshold, slabSize);
+  }
+
+  /**
+   * copy the bytes into the off-heap chunk
+   *
+   * @param bytes bytes
+   * @return null if the bytes is small than the threshold, large than the slab or the store is
+   *     full, the caller keeps the bytes on heap
+   */
+  Chunk allocate(byte[] bytes) {
+    if (bytes.length < threshold || bytes.length > slabSize) {
+      return null;
+    }
+    reclaimCollected();
+    final SizeClass sizeClass = classes[classIndex(bytes.length)];
+    final long handle = sizeClass.allocate();
+    if (handle < 0) {
+      fallbackCount.incrementAndGet();
+      return null;
+    }
+    final ByteBuffer slab = slab(handle);
+    final int offset = (int) handle;
+    ByteBuffer dup = slab.duplicate();
+    dup.position(offset);
+    dup.put(bytes);
+    Chunk chunk = new Chunk(slab, offset, bytes.length);
+    refs.add(new ChunkRef(chunk, sizeClass, handle, collected));
+    usedBytes.addAndGet(sizeClass.chunkSize);
+    return chunk;
+  }
+
+  /** @return the store of the compact pubs, null if disabled */
+  public static OffHeapSlabStore getDefault() {
+    return DEFAULT;
+  }
+
+  static int classIndex(int length) {
+    if (length <= MIN_CHUNK_SIZE) {
+      return 0;
+    }
+    // the ceil of log2(length / MIN_CHUNK_SIZE)
+    return 32 - Integer.numberOfLeadingZeros((length - 1) / MIN_CHUNK_SIZE);
+  }
+
+  private synchronized ByteBuffer slab(long handle) {
+    return slabs.get((int) (handle >>> 32));
+  }
+
+  /** @return the index of the returned or new slab, -1 if the store is full */
+  private synchronized int takeSlab() {
+    if (!freeSlabs.isEmpty()) {
+      return freeSlabs.pop();
+    }
+    if (allocatedBytes.get() + slabSize > capacity) {
+      return -1;
+    }
+    slabs.add(ByteBuffer.allocateDirect(slabSize));
+    allocatedBytes.addAndGet(slabSize);
+    return slabs.size() - 1;
+  }
+
+  private synchronized void returnSlab(int slabIndex) {
+    freeSlabs.push(slabIndex);
+  }
+
+  private void reclaimCollected() {
+    ChunkRef ref;
+    while ((ref = (ChunkRef) collected.poll()) != null) {
+      if (ref.free()) {
+        LOGGER.info("[OffHeap]reclaim unreleased chunk, size={}", ref.sizeClass.chunkSize);
+      }
+    }
+  }
+
+  /**
+   * Getter method for property <tt>usedBytes</tt>.
+   *
+   * @return property value of usedBytes
+   */
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  /**
+   * Getter method for property <tt>fallbackCount</tt>.
+   *
+   * @return property value of fallbackCount, the values kept on heap because the store is full
+   */
+  public long getFallbackCount() {
+    return fallbackCount.get();
+  }
+
+  synchronized int freeSlabNum() {
+    return freeSlabs.size();
+  }
+
+  /**
+   * Getter method for property <tt>allocatedBytes</tt>.
+   *
+   * @return property value of allocatedBytes
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  @Override
+  public String toString() {
+    return "OffHeapSlabStore{capacity="
+        + capacity
+        + ", allocated="
+        + allocatedBytes.get()
+        + ", used="
+        + usedBytes.get()
+        + ", chunks="
+        + refs.size()
+        + ", freeSlabs="
+        + freeSlabNum()
+        + ", fallback="
+        + fallbackCount.get()
+        + "}";
+  }
+
+  private final class SizeClass {
+    final int chunkSize;
+    // the free handles, the high 32 bits is the slab index, the low 32 bits is the offset
+    long[] free = new long[16];
+    int freeNum;
+    // the num of the allocated chunks of the slabs carved by the class
+    final Map<Integer, Integer> liveChunks = new HashMap<>();
+
+    SizeClass(int chunkSize) {
+      this.chunkSize = chunkSize;
+    }
+
+    long allocate() {
+      synchronized (this) {
+        if (freeNum != 0) {
+          final long handle = free[--freeNum];
+          liveChunks.merge((int) (handle >>> 32), 1, Integer::sum);
+          return handle;
+        }
+      }
+      // carve a slab out of lock of the class
+      final int slabIndex = takeSlab();
+      if (slabIndex < 0) {
+        return -1;
+      }
+      final int num = slabSize / chunkSize;
+      synchronized (this) {
+        for (int i = num - 1; i > 0; i--) {
+          push(((long) slabIndex << 32) | ((long) i * chunkSize));
+        }
+        liveChunks.put(slabIndex, 1);
+      }
+      return (long) slabIndex << 32;
+    }
+
+    void release(long handle) {
+      final int slabIndex = (int) (handle >>> 32);
+      synchronized (this) {
+        push(handle);
+        final int live = liveChunks.get(slabIndex) - 1;
+        if (live != 0) {
+          liveChunks.put(slabIndex, live);
+          return;
+        }
+        liveChunks.remove(slabIndex);
+        if (liveChunks.isEmpty()) {
+          // keep the last slab of the class
+          return;
+        }
+        // the slab is empty, drop its chunks from the free list
+        int n = 0;
+        for (int i = 0; i < freeNum; i++) {
+          if ((int) (free[i] >>> 32) != slabIndex) {
+            free[n++] = free[i];
+          }
+        }
+        freeNum = n;
+      }
+      returnSlab(slabIndex);
+    }
+
+    private void push(long handle) {
+      if (freeNum == free.length) {
+        long[] grow = new long[free.length * 2];
+        System.arraycopy(free, 0, grow, 0, freeNum);
+        free = grow;
+      }
+      free[freeNum++] = handle;
+    }
+  }
+
+  private final class ChunkRef extends PhantomReference<Chunk> {
+    final SizeClass sizeClass;
+    final long handle;
+    final AtomicBoolean freed = new AtomicBoolean(false);
+
+    ChunkRef(Chunk chunk, SizeClass sizeClass, long handle, ReferenceQueue<Chunk> queue) {
+      super(chunk, queue);
+      this.sizeClass = sizeClass;
+      this.handle = handle;
+      chunk.ref = this;
+    }
+
+    boolean free() {
+      if (!freed.compareAndSet(false, true)) {
+        return false;
+      }
+      refs.remove(this);
+      clear();
+      sizeClass.release(handle);
+      usedBytes.addAndGet(-sizeClass.chunkSize);
+      return true;
+    }
+  }
+
+  /** the reference counted view of the value in the off-heap chunk, the count starts from one */
+  static final class Chunk {
+    private static final AtomicIntegerFieldUpdater<Chunk> REF_CNT =
+        AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "refCnt");
+
+    private final ByteBuffer slab;
+    private final int offset;
+    private final int length;
+    private volatile int refCnt = 1;
+    private ChunkRef ref;
+
+    private Chunk(ByteBuffer slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /** @return false if the chunk has been released */
+    boolean retain() {
+      for (; ; ) {
+        final int cnt = refCnt;
+        if (cnt <= 0) {
+          return false;
+        }
+        if (REF_CNT.compareAndSet(this, cnt, cnt + 1)) {
+          return true;
+        }
+      }
+    }
+
+    void release() {
+      final int cnt = REF_CNT.decrementAndGet(this);
+      if (cnt == 0) {
+        ref.free();
+      } else if (cnt < 0) {
+        throw new IllegalStateException("chunk released more than retained");
+      }
+    }
+
+    /**
+     * the zero-copy read-only view of the value, only valid while the chunk is retained
+     *
+     * @return ByteBuffer
+     */
+    ByteBuffer view() {
+      ByteBuffer dup = slab.asReadOnlyBuffer();
+      dup.position(offset);
+      dup.limit(offset + length);
+      return dup.slice();
+    }
+
+    /** @return the copy of the value, null if the chunk has been released */
+    byte[] copy() {
+      if (!retain()) {
+        return null;
+      }
+      try {
+        byte[] bytes = new byte[length];
+        view().get(bytes);
+        return bytes;
+      } finally {
+        release();
+      }
+    }
+
+    /** @return true if the value equals the bytes, false if the chunk has been released */
+    boolean contentEquals(byte[] bytes) {
+      if (bytes == null || bytes.length != length || !retain()) {
+        return false;
+      }
+      try {
+        return view().equals(ByteBuffer.wrap(bytes));
+      } finally {
+        release();
+      }
+    }
+
+    int length() {
+      return length;
+    }
+
+    int refCnt() {
+      return refCnt;
+    }
+  }
+}
@@ -18,27 +18,41 @@ package com.alipay.sofa.registry.server.data.cache;
 
 import com.alipay.sofa.registry.common.model.ConnectId;
 import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.PublishSource;
 import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.common.model.ServerDataBox;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.alipay.sofa.registry.util.SystemUtils;
+import java.util.List;
 
 /**
  * @author yuzhi.lyz
  * @version v 0.1 2020-12-02 19:47 yuzhi.lyz Exp $
  */
 public final class PublisherEnvelope {
+  public static final String KEY_COMPACT_ENABLE = "registry.data.publisher.compact";
+
+  // store the publisher in compact form, the Publisher is materialized on read
+  static final boolean COMPACT_ENABLE =
+      Boolean.parseBoolean(SystemUtils.getSystem(KEY_COMPACT_ENABLE, "false"));
+
+  // only one of publisher and compact is not null if pub
   final Publisher publisher;
+  final CompactPublisher compact;
   final ProcessId sessionProcessId;
   final RegisterVersion registerVersion;
   final long tombstoneTimestamp;
 
   private PublisherEnvelope(
       Publisher publisher,
+      CompactPublisher compact,
       ProcessId sessionProcessId,
       RegisterVersion registerVersion,
       long tombstoneTimestamp) {
     this.publisher = publisher;
+    this.compact = compact;
     this.sessionProcessId = sessionProcessId;
     this.registerVersion = registerVersion;
     this.tombstoneTimestamp = tombstoneTimestamp;
@@ -56,11 +70,30 @@ public final class PublisherEnvelope {
     }
   }
 
+  /** the same as of(publisher), but the pub is stored in compact form if possible */
+  static PublisherEnvelope compactOf(
+      Publisher publisher, PublisherGroup owner, OffHeapSlabStore offHeap) {
+    ParaCheckUtil.checkNotNull(publisher.getSessionProcessId(), "publisher.sessionProcessId");
+    if (publisher.getDataType() == StoreData.DataType.PUBLISHER) {
+      CompactPublisher compact = CompactPublisher.pack(owner, publisher, offHeap);
+      if (compact != null) {
+        return new PublisherEnvelope(
+            null,
+            compact,
+            publisher.getSessionProcessId(),
+            publisher.registerVersion(),
+            Long.MAX_VALUE);
+      }
+    }
+    return of(publisher);
+  }
+
   static PublisherEnvelope pubOf(Publisher publisher, ProcessId sessionProcessId) {
     ParaCheckUtil.checkEquals(
         publisher.getDataType(), StoreData.DataType.PUBLISHER, "Publisher.dataType");
     return new PublisherEnvelope(
         publisher,
+        null,
         sessionProcessId,
         publisher.registerVersion(),
         // Long.max means pub never compact
@@ -68,11 +101,15 @@ public final class PublisherEnvelope {
   }
 
   static PublisherEnvelope unpubOf(RegisterVersion version, ProcessId sessionProcessId) {
-    return new PublisherEnvelope(null, sessionProcessId, version, System.currentTimeMillis());
+    return new PublisherEnvelope(null, null, sessionProcessId, version, System.currentTimeMillis());
   }
 
   boolean isPub() {
-    return publisher != null;
+    return publisher != null || compact != null;
+  }
+
+  boolean isCompact() {
+    return compact != null;
   }
 
   public RegisterVersion getVersionIfPub() {
@@ -91,14 +128,57 @@ public final class PublisherEnvelope {
   /**
    * Getter method for property <tt>publisher</tt>.
    *
-   * @return property value of publisher
+   * @return property value of publisher, null if the off-heap value has been released after the
+   *     envelope was replaced, the caller should read the current envelope again
    */
   public Publisher getPublisher() {
+    if (compact != null) {
+      return compact.toPublisher(registerVersion, sessionProcessId);
+    }
     return publisher;
   }
 
+  /**
+   * only for pub
+   *
+   * @return ConnectId
+   */
+  ConnectId connectId() {
+    return compact != null ? compact.connectId() : publisher.connectId();
+  }
+
+  /**
+   * only for pub, avoid materializing the compact publisher
+   *
+   * @return PublishSource
+   */
+  public PublishSource getPublishSource() {
+    return compact != null ? compact.getPublishSource() : publisher.getPublishSource();
+  }
+
+  /**
+   * only for pub
+   *
+   * @return true if the dataList is the same
+   */
+  boolean dataListEquals(List<ServerDataBox> dataList) {
+    if (compact != null) {
+      return compact.dataListEquals(dataList);
+    }
+    return publisher.getDataList() == null
+        ? dataList == null
+        : publisher.getDataList().equals(dataList);
+  }
+
+  /** release the off-heap values, called once after the envelope is removed from the group */
+  void release() {
+    if (compact != null) {
+      compact.release();
+    }
+  }
+
   boolean isConnectId(ConnectId connectId) {
-    return isPub() && publisher.connectId().equals(connectId);
+    return isPub() && connectId().equals(connectId);
   }
 
   @Override
@@ -107,7 +187,7 @@ public final class PublisherEnvelope {
     sb.append("pub=")
         .append(isPub())
         .append(", connectId=")
-        .append(publisher != null ? publisher.connectId() : "null")
+        .append(isPub() ? connectId() : "null")
         .append(", ver=")
         .append(registerVersion)
         .append(", ts=")
@@ -21,8 +21,11 @@ import static com.alipay.sofa.registry.server.data.change.ChangeMetrics.SKIP_SAM
 import com.alipay.sofa.registry.common.model.ConnectId;
 import com.alipay.sofa.registry.common.model.ProcessId;
 import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.dataserver.Datum;
+import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
 import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
+import com.alipay.sofa.registry.common.model.dataserver.IncrementalDatumDigest;
 import com.alipay.sofa.registry.common.model.store.DataInfo;
 import com.alipay.sofa.registry.common.model.store.ProcessIdCache;
 import com.alipay.sofa.registry.common.model.store.Publisher;
@@ -44,6 +47,7 @@ import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.MapUtils;
 
@@ -75,13 +79,47 @@ public final class PublisherGroup {
 
   private final ArrayDeque<Long> recentVersions = new ArrayDeque<>(RECENT_VERSIONS_CAP);
 
+  private final PublisherIndex index;
+
+  // store the pubs in compact form
+  private final boolean compact;
+
+  // store the large values of the compact pubs off heap, null if disabled
+  private final OffHeapSlabStore offHeap;
+
+  // the digest of the pubs, modify with the pubMap under write lock
+  private final IncrementalDatumDigest digest = new IncrementalDatumDigest();
+
+  private final Map<String /*sessionIp*/, IncrementalDatumDigest> sessionDigests =
+      Maps.newHashMapWithExpectedSize(4);
+
   PublisherGroup(String dataInfoId, String dataCenter) {
+    this(dataInfoId, dataCenter, new PublisherIndex());
+  }
+
+  PublisherGroup(String dataInfoId, String dataCenter, PublisherIndex index) {
+    this(dataInfoId, dataCenter, index, PublisherEnvelope.COMPACT_ENABLE);
+  }
+
+  PublisherGroup(String dataInfoId, String dataCenter, PublisherIndex index, boolean compact) {
+    this(dataInfoId, dataCenter, index, compact, OffHeapSlabStore.DEFAULT);
+  }
+
+  PublisherGroup(
+      String dataInfoId,
+      String dataCenter,
+      PublisherIndex index,
+      boolean compact,
+      OffHeapSlabStore offHeap) {
     DataInfo dataInfo = DataInfo.valueOf(dataInfoId);
     this.dataInfoId = WordCache.getWordCache(dataInfoId);
     this.dataCenter = WordCache.getWordCache(dataCenter);
     this.dataId = WordCache.getWordCache(dataInfo.getDataId());
     this.instanceId = WordCache.getWordCache(dataInfo.getInstanceId());
     this.group = WordCache.getWordCache(dataInfo.getGroup());
+    this.index = index;
+    this.compact = compact;
+    this.offHeap = compact ? offHeap : null;
     if (DatumVersionUtil.useConfregVersionGen()) {
       this.version = DatumVersionUtil.confregNextId(0);
     } else {
@@ -101,30 +139,58 @@ public final class PublisherGroup {
     datum.setGroup(group);
     datum.setInstanceId(instanceId);
     long ver;
-    List<Publisher> list = new ArrayList<>(pubMap.size());
+    List<Tuple<String, PublisherEnvelope>> list = new ArrayList<>(pubMap.size());
     lock.readLock().lock();
     datum.setRecentVersions(
         recentVersions.stream().filter(Objects::nonNull).collect(Collectors.toList()));
     try {
       ver = this.version;
-      for (PublisherEnvelope envelope : pubMap.values()) {
-        if (envelope.isPub()) {
-          list.add(envelope.publisher);
+      for (Map.Entry<String, PublisherEnvelope> e : pubMap.entrySet()) {
+        if (e.getValue().isPub()) {
+          list.add(new Tuple<>(e.getKey(), e.getValue()));
         }
       }
     } finally {
       lock.readLock().unlock();
     }
     datum.setVersion(ver);
-    list.forEach(datum::addPublisher);
+    // materialize the compact pubs out of lock, the pub maybe replaced or removed concurrently
+    for (Tuple<String, PublisherEnvelope> t : list) {
+      final Publisher publisher = materialize(t.o1, t.o2);
+      if (publisher != null) {
+        datum.addPublisher(publisher);
+      }
+    }
     return datum;
   }
 
+  /**
+   * materialize the publishers accepted by the filter, the rejected are not materialized
+   *
+   * @param filter filter of the pub envelope
+   * @return List
+   */
+  public List<Publisher> getPublishers(Predicate<PublisherEnvelope> filter) {
+    List<Publisher> list = new ArrayList<>(pubMap.size());
+    for (Map.Entry<String, PublisherEnvelope> e : pubMap.entrySet()) {
+      final PublisherEnvelope envelope = e.getValue();
+      if (!envelope.isPub() || !filter.test(envelope)) {
+        continue;
+      }
+      final Publisher publisher = materialize(e.getKey(), envelope);
+      if (publisher != null) {
+        list.add(publisher);
+      }
+    }
+    return list;
+  }
+
   List<Publisher> getPublishers() {
     List<Publisher> list = new ArrayList<>(pubMap.size());
-    for (PublisherEnvelope envelope : pubMap.values()) {
-      if (envelope.isPub()) {
-        list.add(envelope.publisher);
+    for (Map.Entry<String, PublisherEnvelope> e : pubMap.entrySet()) {
+      final Publisher publisher = materialize(e.getKey(), e.getValue());
+      if (publisher != null) {
+        list.add(publisher);
       }
     }
     return list;
@@ -132,14 +198,36 @@ public final class PublisherGroup {
 
   Map<String, Publisher> getByConnectId(ConnectId connectId) {
     Map<String, Publisher> map = Maps.newHashMap();
-    for (PublisherEnvelope p : pubMap.values()) {
-      if (p.isConnectId(connectId)) {
-        map.put(p.publisher.getRegisterId(), p.publisher);
+    for (Map.Entry<String, PublisherEnvelope> e : pubMap.entrySet()) {
+      if (e.getValue().isConnectId(connectId)) {
+        final Publisher publisher = materialize(e.getKey(), e.getValue());
+        if (publisher != null) {
+          map.put(e.getKey(), publisher);
+        }
       }
     }
     return map;
   }
 
+  public DatumDigest getDigest() {
+    lock.readLock().lock();
+    try {
+      return digest.toDigest();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public DatumDigest getDigest(String sessionIp) {
+    lock.readLock().lock();
+    try {
+      IncrementalDatumDigest sessionDigest = sessionDigests.get(sessionIp);
+      return sessionDigest == null ? null : sessionDigest.toDigest();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
   DatumVersion updateVersion() {
     final boolean useConfreg = DatumVersionUtil.useConfregVersionGen();
     lock.writeLock().lock();
@@ -168,8 +256,8 @@ public final class PublisherGroup {
     PublisherEnvelope exist = pubMap.get(publisher.getRegisterId());
     final RegisterVersion registerVersion = publisher.registerVersion();
     if (exist == null) {
-      PublisherEnvelope envelope = PublisherEnvelope.of(publisher);
-      pubMap.put(publisher.getRegisterId(), envelope);
+      PublisherEnvelope envelope = newEnvelope(publisher);
+      putEnvelope(publisher.getRegisterId(), envelope);
       return envelope.isPub();
     }
 
@@ -193,10 +281,18 @@ public final class PublisherGroup {
           publisher.registerVersion());
       return false;
     }
-    PublisherEnvelope envelope = PublisherEnvelope.of(publisher);
-    pubMap.put(publisher.getRegisterId(), envelope);
+    PublisherEnvelope envelope = newEnvelope(publisher);
+    putEnvelope(publisher.getRegisterId(), envelope);
+    try {
+      return judgeChanged(publisher, exist, envelope);
+    } finally {
+      exist.release();
+    }
+  }
 
-    if (exist.publisher == null) {
+  private boolean judgeChanged(
+      Publisher publisher, PublisherEnvelope exist, PublisherEnvelope envelope) {
+    if (!exist.isPub()) {
       // publisher is null after client_off
       LOGGER.info(
           "[ReplaceEmptyPub] {}, {}, exist={}, add={}, regIsPub={}",
@@ -208,10 +304,7 @@ public final class PublisherGroup {
       return envelope.isPub();
     }
     try {
-      boolean same =
-          exist.publisher.getDataList() == null
-              ? publisher.getDataList() == null
-              : exist.publisher.getDataList().equals(publisher.getDataList());
+      boolean same = exist.dataListEquals(publisher.getDataList());
       if (same) {
         SKIP_SAME_VALUE_COUNTER.inc();
         LOGGER.info(
@@ -236,6 +329,29 @@ public final class PublisherGroup {
     }
   }
 
+  private PublisherEnvelope newEnvelope(Publisher publisher) {
+    return compact
+        ? PublisherEnvelope.compactOf(publisher, this, offHeap)
+        : PublisherEnvelope.of(publisher);
+  }
+
+  /**
+   * materialize the pub without lock, the off-heap values of the envelope maybe released
+   * concurrently after replaced, read the current envelope again
+   *
+   * @return null if not pub
+   */
+  Publisher materialize(String registerId, PublisherEnvelope envelope) {
+    while (envelope != null && envelope.isPub()) {
+      final Publisher publisher = envelope.getPublisher();
+      if (publisher != null) {
+        return publisher;
+      }
+      envelope = pubMap.get(registerId);
+    }
+    return null;
+  }
+
   DatumVersion addPublisher(Publisher publisher) {
     publisher.setSessionProcessId(ProcessIdCache.cache(publisher.getSessionProcessId()));
     lock.writeLock().lock();
@@ -260,7 +376,7 @@ public final class PublisherGroup {
           return null;
         }
         cleanContinues.onClean(size);
-        pubMap.clear();
+        clearEnvelopes();
         return updateVersion();
       } finally {
         lock.writeLock().unlock();
@@ -282,7 +398,7 @@ public final class PublisherGroup {
         if (!cleanContinues.continues()) {
           break;
         }
-        if (pubMap.remove(clean.getKey(), clean.getValue())) {
+        if (removeEnvelope(clean.getKey(), clean.getValue())) {
           cleanContinues.onClean(1);
           modified = true;
         }
@@ -315,15 +431,16 @@ public final class PublisherGroup {
             || existing.registerVersion.orderThan(removedVer)) {
           // sync from local-leader/remote-leader
           if (sessionProcessId == null) {
-            pubMap.remove(registerId);
+            removeEnvelope(registerId, existing);
             modified = true;
             continue;
           }
           if (sessionProcessId.equals(existing.sessionProcessId)) {
             // syn from session, mark unpub with higher registerTimestamp
-            pubMap.put(
-                registerId,
-                PublisherEnvelope.unpubOf(removedVer.incrRegisterTimestamp(), sessionProcessId));
+            putEnvelope(
+                    registerId,
+                    PublisherEnvelope.unpubOf(removedVer.incrRegisterTimestamp(), sessionProcessId))
+                .release();
             modified = true;
           } else {
             LOGGER.warn(
@@ -374,6 +491,56 @@ public final class PublisherGroup {
     }
   }
 
+  /** @return the replaced envelope, the caller should release it after used */
+  private PublisherEnvelope putEnvelope(String registerId, PublisherEnvelope envelope) {
+    PublisherEnvelope exist = pubMap.put(registerId, envelope);
+    onReplace(registerId, exist, envelope);
+    return exist;
+  }
+
+  private boolean removeEnvelope(String registerId, PublisherEnvelope envelope) {
+    if (pubMap.remove(registerId, envelope)) {
+      onReplace(registerId, envelope, null);
+      envelope.release();
+      return true;
+    }
+    return false;
+  }
+
+  private void clearEnvelopes() {
+    List<PublisherEnvelope> removed = new ArrayList<>(pubMap.values());
+    for (Map.Entry<String, PublisherEnvelope> e : pubMap.entrySet()) {
+      index.onReplace(dataInfoId, e.getKey(), e.getValue(), null);
+    }
+    pubMap.clear();
+    removed.forEach(PublisherEnvelope::release);
+    digest.clear();
+    sessionDigests.clear();
+  }
+
+  private void onReplace(String registerId, PublisherEnvelope exist, PublisherEnvelope update) {
+    index.onReplace(dataInfoId, registerId, exist, update);
+    // the tombstone is not in digest, compact without lock only remove the tombstone
+    if (exist != null && exist.isPub()) {
+      digest.remove(registerId, exist.registerVersion);
+      final String sessionIp = exist.sessionProcessId.getHostAddress();
+      IncrementalDatumDigest sessionDigest = sessionDigests.get(sessionIp);
+      if (sessionDigest != null) {
+        sessionDigest.remove(registerId, exist.registerVersion);
+        if (sessionDigest.isEmpty()) {
+          sessionDigests.remove(sessionIp);
+        }
+      }
+    }
+    if (update != null && update.isPub()) {
+      digest.add(registerId, update.registerVersion);
+      sessionDigests
+          .computeIfAbsent(
+              update.sessionProcessId.getHostAddress(), k -> new IncrementalDatumDigest())
+          .add(registerId, update.registerVersion);
+    }
+  }
+
   public int pubSize() {
     return pubMap.size();
   }
@@ -404,7 +571,7 @@ public final class PublisherGroup {
     }
 
     for (Map.Entry<String, PublisherEnvelope> compact : compacts.entrySet()) {
-      if (pubMap.remove(compact.getKey(), compact.getValue())) {
+      if (removeEnvelope(compact.getKey(), compact.getValue())) {
         count++;
       }
     }
@@ -431,7 +598,7 @@ public final class PublisherGroup {
     lock.writeLock().lock();
     try {
       if (pubSize() > 0) {
-        pubMap.clear();
+        clearEnvelopes();
         return updateVersion();
       }
       return null;
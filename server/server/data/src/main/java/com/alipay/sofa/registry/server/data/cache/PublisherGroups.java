@@ -24,14 +24,16 @@ import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
 import com.alipay.sofa.registry.common.model.store.DataInfo;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import org.apache.commons.lang.StringUtils;
-import org.glassfish.jersey.internal.guava.Sets;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -40,6 +42,7 @@ import org.springframework.util.CollectionUtils;
  */
 public final class PublisherGroups {
   private final Map<String, PublisherGroup> publisherGroupMap = Maps.newConcurrentMap();
+  private final PublisherIndex index = new PublisherIndex();
   private final String dataCenter;
 
   PublisherGroups(String dataCenter) {
@@ -98,19 +101,46 @@ public final class PublisherGroups {
   }
 
   Map<String, Publisher> getByConnectId(ConnectId connectId) {
-    Map<String, Publisher> map = Maps.newHashMapWithExpectedSize(64);
-    publisherGroupMap.values().forEach(v -> map.putAll(v.getByConnectId(connectId)));
+    Map<String, String> registerIds = index.getByConnectId(connectId);
+    if (registerIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, Publisher> map = Maps.newHashMapWithExpectedSize(registerIds.size());
+    for (Map.Entry<String, String> e : registerIds.entrySet()) {
+      PublisherGroup group = publisherGroupMap.get(e.getValue());
+      if (group == null) {
+        continue;
+      }
+      PublisherEnvelope envelope = group.pubMap.get(e.getKey());
+      // double check, the index maybe modified concurrently
+      if (envelope != null && envelope.isConnectId(connectId)) {
+        final Publisher publisher = group.materialize(e.getKey(), envelope);
+        if (publisher != null) {
+          map.put(e.getKey(), publisher);
+        }
+      }
+    }
     return map;
   }
 
   PublisherGroup createGroupIfAbsent(String dataInfoId) {
     return publisherGroupMap.computeIfAbsent(
-        dataInfoId, k -> new PublisherGroup(dataInfoId, dataCenter));
+        dataInfoId, k -> new PublisherGroup(dataInfoId, dataCenter, index));
   }
 
   Map<String, DatumVersion> clean(ProcessId sessionProcessId, CleanContinues cleanContinues) {
     Map<String, DatumVersion> versionMap = Maps.newHashMapWithExpectedSize(64);
-    for (PublisherGroup g : publisherGroupMap.values()) {
+    // null sessionProcessId means clean all, otherwise only visit the groups from index
+    // copy the dataInfoIds, the index is modified by clean
+    List<String> dataInfoIds =
+        sessionProcessId == null
+            ? Lists.newArrayList(publisherGroupMap.keySet())
+            : Lists.newArrayList(index.getDataInfoIds(sessionProcessId));
+    for (String dataInfoId : dataInfoIds) {
+      PublisherGroup g = publisherGroupMap.get(dataInfoId);
+      if (g == null) {
+        continue;
+      }
       DatumVersion ver = g.clean(sessionProcessId, cleanContinues);
       if (ver != null) {
         versionMap.put(g.dataInfoId, ver);
@@ -145,9 +175,7 @@ public final class PublisherGroups {
   }
 
   Set<ProcessId> getSessionProcessIds() {
-    Set<ProcessId> ids = Sets.newHashSet();
-    publisherGroupMap.values().forEach(g -> ids.addAll(g.getSessionProcessIds()));
-    return ids;
+    return Sets.newHashSet(index.getSessionProcessIds());
   }
 
   Map<String, Integer> compact(long tombstoneTimestamp) {
@@ -193,7 +221,8 @@ public final class PublisherGroups {
 
   @Override
   public String toString() {
-    return StringFormatter.format("PubGroups{{},size={}}", dataCenter, publisherGroupMap.size());
+    return StringFormatter.format(
+        "PubGroups{{},size={},{}}", dataCenter, publisherGroupMap.size(), index);
   }
 
   public DatumVersion clearPublishers(String dataInfoId) {
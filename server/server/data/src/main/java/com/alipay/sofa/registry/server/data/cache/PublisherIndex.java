@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.common.model.ConnectId;
+import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * reverse index of the pub envelopes in one slot, only the envelope which isPub is indexed, the
+ * tombstone is ignored. all the modifications are called by PublisherGroup under its write lock
+ */
+final class PublisherIndex {
+  // connectId -> registerId -> dataInfoId
+  private final Map<ConnectId, Map<String, String>> connectIdIndex = Maps.newConcurrentMap();
+
+  // sessionProcessId -> dataInfoId -> pubCount
+  private final Map<ProcessId, Map<String, Integer>> sessionProcessIdIndex =
+      Maps.newConcurrentMap();
+
+  void onReplace(
+      String dataInfoId, String registerId, PublisherEnvelope exist, PublisherEnvelope update) {
+    if (exist == update) {
+      return;
+    }
+    if (exist != null && exist.isPub()) {
+      removePub(dataInfoId, registerId, exist);
+    }
+    if (update != null && update.isPub()) {
+      addPub(dataInfoId, registerId, update);
+    }
+  }
+
+  private void addPub(String dataInfoId, String registerId, PublisherEnvelope envelope) {
+    connectIdIndex.compute(
+        envelope.connectId(),
+        (k, m) -> {
+          if (m == null) {
+            m = Maps.newConcurrentMap();
+          }
+          m.put(registerId, dataInfoId);
+          return m;
+        });
+    sessionProcessIdIndex.compute(
+        envelope.sessionProcessId,
+        (k, m) -> {
+          if (m == null) {
+            m = Maps.newConcurrentMap();
+          }
+          m.merge(dataInfoId, 1, Integer::sum);
+          return m;
+        });
+  }
+
+  private void removePub(String dataInfoId, String registerId, PublisherEnvelope envelope) {
+    connectIdIndex.computeIfPresent(
+        envelope.connectId(),
+        (k, m) -> {
+          m.remove(registerId, dataInfoId);
+          return m.isEmpty() ? null : m;
+        });
+    sessionProcessIdIndex.computeIfPresent(
+        envelope.sessionProcessId,
+        (k, m) -> {
+          m.computeIfPresent(dataInfoId, (id, count) -> count <= 1 ? null : count - 1);
+          return m.isEmpty() ? null : m;
+        });
+  }
+
+  Map<String /*registerId*/, String /*dataInfoId*/> getByConnectId(ConnectId connectId) {
+    Map<String, String> m = connectIdIndex.get(connectId);
+    return m == null ? Collections.emptyMap() : Collections.unmodifiableMap(m);
+  }
+
+  Set<String> getDataInfoIds(ProcessId sessionProcessId) {
+    Map<String, Integer> m = sessionProcessIdIndex.get(sessionProcessId);
+    return m == null ? Collections.emptySet() : Collections.unmodifiableSet(m.keySet());
+  }
+
+  Set<ProcessId> getSessionProcessIds() {
+    return Collections.unmodifiableSet(sessionProcessIdIndex.keySet());
+  }
+
+  @Override
+  public String toString() {
+    return StringFormatter.format(
+        "PubIndex{connectIds={},sessionProcessIds={}}",
+        connectIdIndex.size(),
+        sessionProcessIdIndex.size());
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the append only dictionary of the low cardinality strings of the compact pubs, cell and appName.
+ * a string is encoded as the int code, the codes are never reused, so the size is bounded by the
+ * capacity, the string beyond the capacity is not encoded and the caller keeps it inline
+ */
+final class StringDictionary {
+  private static final int INIT_SIZE = 64;
+
+  private final int capacity;
+  private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+  // publish the words by the volatile write, the word is written before its code is visible
+  private volatile String[] words;
+  // guarded by this
+  private int size;
+
+  StringDictionary(int capacity) {
+    ParaCheckUtil.checkIsPositive(capacity, "capacity");
+    this.capacity = capacity;
+    this.words = new String[Math.min(INIT_SIZE, capacity)];
+  }
+
+  /** @return the code of the word, -1 if the dictionary is full */
+  int encode(String word) {
+    Integer code = codes.get(word);
+    if (code != null) {
+      return code;
+    }
+    synchronized (this) {
+      code = codes.get(word);
+      if (code != null) {
+        return code;
+      }
+      if (size >= capacity) {
+        return -1;
+      }
+      String[] w = words;
+      if (size == w.length) {
+        w = Arrays.copyOf(w, (int) Math.min((long) w.length * 2, capacity));
+      }
+      w[size] = word;
+      words = w;
+      codes.put(word, size);
+      return size++;
+    }
+  }
+
+  String decode(int code) {
+    return words[code];
+  }
+
+  synchronized int size() {
+    return size;
+  }
+}
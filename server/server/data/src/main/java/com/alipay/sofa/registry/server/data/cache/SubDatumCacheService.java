@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import com.alipay.sofa.registry.cache.CacheCleaner;
+import com.alipay.sofa.registry.common.model.store.SubDatum;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.alipay.sofa.registry.util.StringUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import io.prometheus.client.Counter;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * cache of the SubDatum responded to session, key by the datum version, encoding and the version of
+ * the compress switch. the version of PublisherGroup is increased when modified, so the entry of
+ * the old version would not be hit after updateVersion and would be evicted by weight or expire,
+ * the same as the entry compressed by the switch before changed. after a change notify, all the
+ * sessions get the same version, the SubDatum only need to build and compress once
+ */
+public class SubDatumCacheService {
+  private static final Counter CACHE_COUNTER =
+      Counter.build()
+          .namespace("data")
+          .subsystem("cache")
+          .name("sub_datum_total")
+          .help("sub datum cache hit or missing")
+          .labelNames("type")
+          .register();
+
+  private static final Counter.Child CACHE_HIT_COUNTER = CACHE_COUNTER.labels("hit");
+  private static final Counter.Child CACHE_MISSING_COUNTER = CACHE_COUNTER.labels("missing");
+
+  @Autowired DataServerConfig dataServerConfig;
+
+  private Cache<Key, SubDatum> cache;
+
+  @PostConstruct
+  public void init() {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(dataServerConfig.getSubDatumCacheMaxWeight())
+            .weigher((Weigher<Key, SubDatum>) (key, value) -> key.size() + value.size())
+            .expireAfterAccess(dataServerConfig.getSubDatumCacheExpireSecs(), TimeUnit.SECONDS)
+            .build();
+    CacheCleaner.autoClean(cache, dataServerConfig.getSubDatumCacheExpireSecs() * 1000L);
+  }
+
+  public SubDatum get(
+      String dataCenter, String dataInfoId, long version, String encoding, long compressVersion) {
+    SubDatum subDatum =
+        cache.getIfPresent(new Key(dataCenter, dataInfoId, version, encoding, compressVersion));
+    if (subDatum != null) {
+      CACHE_HIT_COUNTER.inc();
+    } else {
+      CACHE_MISSING_COUNTER.inc();
+    }
+    return subDatum;
+  }
+
+  public void put(String encoding, long compressVersion, SubDatum subDatum) {
+    cache.put(
+        new Key(
+            subDatum.getDataCenter(),
+            subDatum.getDataInfoId(),
+            subDatum.getVersion(),
+            encoding,
+            compressVersion),
+        subDatum);
+  }
+
+  @VisibleForTesting
+  public long size() {
+    return cache.size();
+  }
+
+  @VisibleForTesting
+  public SubDatumCacheService setDataServerConfig(DataServerConfig dataServerConfig) {
+    this.dataServerConfig = dataServerConfig;
+    return this;
+  }
+
+  private static final class Key {
+    final String dataCenter;
+    final String dataInfoId;
+    final long version;
+    // the encoding of the accept compressor, empty if not compress
+    final String encoding;
+    // the version of the compress switch, the compressMinSize maybe changed
+    final long compressVersion;
+
+    Key(String dataCenter, String dataInfoId, long version, String encoding, long compressVersion) {
+      this.dataCenter = dataCenter;
+      this.dataInfoId = dataInfoId;
+      this.version = version;
+      this.encoding = encoding;
+      this.compressVersion = compressVersion;
+    }
+
+    int size() {
+      return StringUtils.sizeof(dataCenter)
+          + StringUtils.sizeof(dataInfoId)
+          + StringUtils.sizeof(encoding)
+          + 16;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return version == key.version
+          && compressVersion == key.compressVersion
+          && Objects.equals(dataCenter, key.dataCenter)
+          && Objects.equals(dataInfoId, key.dataInfoId)
+          && Objects.equals(encoding, key.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dataCenter, dataInfoId, version, encoding, compressVersion);
+    }
+
+    @Override
+    public String toString() {
+      return StringFormatter.format(
+          "SubDatumKey{{},{},ver={},encode={},compressVer={}}",
+          dataInfoId,
+          dataCenter,
+          version,
+          encoding,
+          compressVersion);
+    }
+  }
+}
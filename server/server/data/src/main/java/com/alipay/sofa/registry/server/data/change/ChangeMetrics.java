@@ -41,6 +41,11 @@ public final class ChangeMetrics {
 
   static final Counter.Child CHANGE_FAIL_COUNTER = CHANGE_COUNTER_.labels("fail");
   static final Counter.Child CHANGE_SUCCESS_COUNTER = CHANGE_COUNTER_.labels("success");
+  // the pending version replaced by newer when async notify
+  static final Counter.Child CHANGE_COALESCE_COUNTER = CHANGE_COUNTER_.labels("coalesce");
+  // the callback of async notify dropped by the full executor
+  static final Counter.Child CHANGE_CALLBACK_DISCARD_COUNTER =
+      CHANGE_COUNTER_.labels("callbackDiscard");
 
   // should not use
   private static final Counter CHANGE_TEMP_COUNTER_ =
@@ -29,25 +29,33 @@ import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.common.model.store.SubDatum;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.remoting.CallbackHandler;
 import com.alipay.sofa.registry.remoting.Channel;
 import com.alipay.sofa.registry.remoting.Server;
 import com.alipay.sofa.registry.remoting.exchange.Exchange;
 import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
 import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
 import com.alipay.sofa.registry.server.shared.util.DatumUtils;
 import com.alipay.sofa.registry.store.api.config.DefaultCommonConfig;
 import com.alipay.sofa.registry.task.FastRejectedExecutionException;
 import com.alipay.sofa.registry.task.KeyedThreadPoolExecutor;
+import com.alipay.sofa.registry.task.MetricsableThreadPoolExecutor;
 import com.alipay.sofa.registry.util.CollectionUtils;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
+import com.alipay.sofa.registry.util.HashedWheel;
 import com.alipay.sofa.registry.util.LoopRunnable;
+import com.alipay.sofa.registry.util.OsUtils;
 import com.alipay.sofa.registry.util.StringFormatter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -60,6 +68,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class DataChangeEventCenter {
   private static final Logger LOGGER = LoggerFactory.getLogger(DataChangeEventCenter.class);
 
+  private static final int RETRY_WHEEL_TICK_MILLIS = 100;
+  private static final int RETRY_WHEEL_TICKS = 512;
+
   @Autowired private DataServerConfig dataServerConfig;
 
   @Autowired private MultiClusterDataServerConfig multiClusterDataServerConfig;
@@ -70,9 +81,20 @@ public class DataChangeEventCenter {
 
   @Autowired private DefaultCommonConfig defaultCommonConfig;
 
+  @Autowired private SlotChangeLogStorage slotChangeLogStorage;
+
   private final Map<String, DataChangeMerger> dataCenter2Changes = Maps.newConcurrentMap();
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
-  private final LinkedList<ChangeNotifierRetry> retryNotifiers = Lists.newLinkedList();
+  private final HashedWheel<ChangeNotifier> retryNotifiers =
+      new HashedWheel<>(RETRY_WHEEL_TICK_MILLIS, RETRY_WHEEL_TICKS);
+
+  // the async notify pipelines, key by the address and notifyPort of session/remote data
+  private final Map<Tuple<String, Integer>, NotifyPipeline> notifyPipelines =
+      Maps.newConcurrentMap();
+  // rejects when full, the rejected callback must release the inFlight of pipeline
+  private final ThreadPoolExecutor notifyCallbackExecutor =
+      MetricsableThreadPoolExecutor.newExecutor(
+          "NotifyCallback", OsUtils.getCpuCount() * 2, 10000, new ThreadPoolExecutor.AbortPolicy());
 
   private final Map<String, Map<String, Datum>> dataCenter2TempChanges = Maps.newConcurrentMap();
   private final ReadWriteLock tempLock = new ReentrantReadWriteLock();
@@ -103,6 +125,11 @@ public class DataChangeEventCenter {
         dataServerConfig.getNotifyTempDataIntervalMillis());
   }
 
+  public void destroy() {
+    notifyCallbackExecutor.shutdown();
+    LOGGER.info("stop DataChange notify callback executor");
+  }
+
   public void onTempPubChange(Publisher publisher, String dataCenter) {
     Map<String, Datum> changes =
         dataCenter2TempChanges.computeIfAbsent(dataCenter, k -> Maps.newConcurrentMap());
@@ -157,16 +184,6 @@ public class DataChangeEventCenter {
     }
   }
 
-  private final class ChangeNotifierRetry {
-    final ChangeNotifier notifier;
-    final long expireTimestamp;
-
-    ChangeNotifierRetry(ChangeNotifier notifier, long expireTimestamp) {
-      this.notifier = notifier;
-      this.expireTimestamp = expireTimestamp;
-    }
-  }
-
   final class ChangeNotifier implements Runnable {
     final Channel channel;
     final int notifyPort;
@@ -175,6 +192,8 @@ public class DataChangeEventCenter {
     final TraceTimes times;
 
     volatile int retryCount;
+    // not null if notify by the async pipeline
+    volatile NotifyPipeline pipeline;
 
     private ChangeNotifier(
         Channel channel,
@@ -210,6 +229,30 @@ public class DataChangeEventCenter {
       }
     }
 
+    void notifyAsync() {
+      try {
+        if (!channel.isConnected()) {
+          CHANGE_FAIL_COUNTER.inc();
+          LOGGER.info("change notify failed, conn is closed, {}", channel);
+          pipeline.release();
+          return;
+        }
+        DataChangeRequest request = new DataChangeRequest(dataCenter, dataInfoIds, times);
+        request.getTimes().setDatumNotifySend(System.currentTimeMillis());
+        Server server = boltExchange.getServer(notifyPort);
+        server.sendCallback(
+            channel,
+            request,
+            new ChangeNotifyCallback(this),
+            dataServerConfig.getRpcTimeoutMillis());
+      } catch (Throwable e) {
+        CHANGE_FAIL_COUNTER.inc();
+        LOGGER.error("failed to notify {}, {}", channel, this, e);
+        pipeline.release();
+        retry(this);
+      }
+    }
+
     int size() {
       int size = 0;
       for (String dataInfoIds : dataInfoIds.keySet()) {
@@ -231,6 +274,189 @@ public class DataChangeEventCenter {
     }
   }
 
+  final class ChangeNotifyCallback implements CallbackHandler {
+    final ChangeNotifier notifier;
+
+    ChangeNotifyCallback(ChangeNotifier notifier) {
+      this.notifier = notifier;
+    }
+
+    @Override
+    public void onCallback(Channel channel, Object message) {
+      notifier.pipeline.release();
+      LOGGER.info("success to notify {}, {}", notifier.channel.getRemoteAddress(), notifier);
+      CHANGE_SUCCESS_COUNTER.inc();
+      notifier.pipeline.trySend();
+    }
+
+    @Override
+    public void onException(Channel channel, Throwable exception) {
+      notifier.pipeline.release();
+      CHANGE_FAIL_COUNTER.inc();
+      LOGGER.error("failed to notify {}, {}", notifier.channel, notifier, exception);
+      retry(notifier);
+      notifier.pipeline.trySend();
+    }
+
+    @Override
+    public Executor getExecutor() {
+      return this::dispatch;
+    }
+
+    void dispatch(Runnable command) {
+      try {
+        notifyCallbackExecutor.execute(command);
+      } catch (RejectedExecutionException e) {
+        // not run the callback in the io thread, drop it and release the inFlight
+        notifier.pipeline.release();
+        CHANGE_CALLBACK_DISCARD_COUNTER.inc();
+        LOGGER.warn("discard notify callback of full, {}", notifier);
+        retry(notifier);
+      }
+    }
+  }
+
+  /**
+   * pipeline of notifying one session(or remote data), at most notifyMaxInFlight requests are
+   * sending. the changes are pending when the requests are full, the newer version replaces the
+   * older of the same dataInfoId, so one request carries all the changes between two responses. the
+   * changes are grouped by the retry count, a retried change never lends its count to a fresh one
+   */
+  final class NotifyPipeline {
+    final int notifyPort;
+    private Channel channel;
+    private int inFlight;
+    private final Map<Tuple<String /*dataCenter*/, Integer /*retryCount*/>, PendingChanges>
+        pendings = Maps.newLinkedHashMap();
+
+    NotifyPipeline(int notifyPort) {
+      this.notifyPort = notifyPort;
+    }
+
+    void offer(ChangeNotifier notifier) {
+      synchronized (this) {
+        if (channel == null || !channel.isConnected()) {
+          channel = notifier.channel;
+        }
+        PendingChanges pending =
+            pendings.computeIfAbsent(
+                Tuple.of(notifier.dataCenter, notifier.retryCount),
+                k -> new PendingChanges(notifier.dataCenter, notifier.times, notifier.retryCount));
+        for (Map.Entry<String, DatumVersion> e : notifier.dataInfoIds.entrySet()) {
+          // a dataInfoId is pending in one group at most, the newer version wins
+          if (removeOlder(notifier.dataCenter, e.getKey(), e.getValue())) {
+            pending.versions.put(e.getKey(), e.getValue());
+          }
+        }
+      }
+      trySend();
+    }
+
+    private boolean removeOlder(String dataCenter, String dataInfoId, DatumVersion version) {
+      for (PendingChanges pending : pendings.values()) {
+        if (!pending.dataCenter.equals(dataCenter)) {
+          continue;
+        }
+        DatumVersion exist = pending.versions.get(dataInfoId);
+        if (exist != null) {
+          CHANGE_COALESCE_COUNTER.inc();
+          if (exist.getValue() >= version.getValue()) {
+            return false;
+          }
+          pending.versions.remove(dataInfoId);
+          return true;
+        }
+      }
+      return true;
+    }
+
+    void trySend() {
+      final List<ChangeNotifier> notifiers = Lists.newArrayList();
+      synchronized (this) {
+        final int maxInFlight = dataServerConfig.getNotifyMaxInFlight();
+        final int maxItems = dataServerConfig.getNotifyMaxItems();
+        final Iterator<Map.Entry<Tuple<String, Integer>, PendingChanges>> it =
+            pendings.entrySet().iterator();
+        while (inFlight < maxInFlight && it.hasNext()) {
+          PendingChanges pending = it.next().getValue();
+          if (pending.versions.isEmpty()) {
+            // all replaced by the newer in other group
+            it.remove();
+            continue;
+          }
+          ChangeNotifier notifier =
+              new ChangeNotifier(
+                  channel, notifyPort, pending.dataCenter, pending.poll(maxItems), pending.times);
+          notifier.retryCount = pending.retryCount;
+          notifier.pipeline = this;
+          if (pending.versions.isEmpty()) {
+            it.remove();
+          }
+          inFlight++;
+          notifiers.add(notifier);
+        }
+      }
+      // send out of the lock, avoid the callback blocking on the lock
+      for (ChangeNotifier notifier : notifiers) {
+        notifier.notifyAsync();
+      }
+    }
+
+    synchronized void release() {
+      inFlight--;
+    }
+
+    synchronized int getInFlight() {
+      return inFlight;
+    }
+
+    synchronized int pendingSize() {
+      int size = 0;
+      for (PendingChanges pending : pendings.values()) {
+        size += pending.versions.size();
+      }
+      return size;
+    }
+  }
+
+  private static final class PendingChanges {
+    final Map<String, DatumVersion> versions = Maps.newHashMap();
+    final String dataCenter;
+    final TraceTimes times;
+    final int retryCount;
+
+    PendingChanges(String dataCenter, TraceTimes times, int retryCount) {
+      this.dataCenter = dataCenter;
+      this.times = times;
+      this.retryCount = retryCount;
+    }
+
+    Map<String, DatumVersion> poll(int maxItems) {
+      if (versions.size() <= maxItems) {
+        Map<String, DatumVersion> ret = Maps.newHashMap(versions);
+        versions.clear();
+        return ret;
+      }
+      Map<String, DatumVersion> ret = Maps.newHashMapWithExpectedSize(maxItems);
+      Iterator<Map.Entry<String, DatumVersion>> it = versions.entrySet().iterator();
+      while (ret.size() < maxItems && it.hasNext()) {
+        Map.Entry<String, DatumVersion> e = it.next();
+        ret.put(e.getKey(), e.getValue());
+        it.remove();
+      }
+      return ret;
+    }
+  }
+
+  NotifyPipeline pipelineOf(String address, int notifyPort) {
+    return notifyPipelines.computeIfAbsent(
+        Tuple.of(address, notifyPort), k -> new NotifyPipeline(notifyPort));
+  }
+
+  private void cleanPipelines(int notifyPort, Set<String> addresses) {
+    notifyPipelines.keySet().removeIf(k -> k.o2 == notifyPort && !addresses.contains(k.o1));
+  }
+
   private void retry(ChangeNotifier notifier) {
     notifier.retryCount++;
     if (notifier.retryCount <= dataServerConfig.getNotifyRetryTimes()) {
@@ -247,30 +473,16 @@ public class DataChangeEventCenter {
     final int maxSize = dataServerConfig.getNotifyRetryQueueSize();
     final long expireTimestamp =
         System.currentTimeMillis() + dataServerConfig.getNotifyRetryBackoffMillis();
-    synchronized (retryNotifiers) {
-      if (retryNotifiers.size() >= maxSize) {
-        // remove first
-        retryNotifiers.removeFirst();
-      }
-      retryNotifiers.add(new ChangeNotifierRetry(retry, expireTimestamp));
+    // drop the oldest if full
+    final ChangeNotifier dropped = retryNotifiers.add(retry, expireTimestamp, maxSize);
+    if (dropped != null) {
+      LOGGER.warn("drop retry of full, {}", dropped);
     }
     return true;
   }
 
   List<ChangeNotifier> getExpires() {
-    final List<ChangeNotifier> expires = Lists.newLinkedList();
-    final long now = System.currentTimeMillis();
-    synchronized (retryNotifiers) {
-      final Iterator<ChangeNotifierRetry> it = retryNotifiers.iterator();
-      while (it.hasNext()) {
-        ChangeNotifierRetry retry = it.next();
-        if (retry.expireTimestamp <= now) {
-          expires.add(retry.notifier);
-          it.remove();
-        }
-      }
-    }
-    return expires;
+    return retryNotifiers.expire(System.currentTimeMillis());
   }
 
   private void notifyTempPub(Channel channel, Datum datum) {
@@ -370,6 +582,10 @@ public class DataChangeEventCenter {
     Server server = boltExchange.getServer(notifyPort);
     Map<String, List<Channel>> channelsMap = server.selectAllAvailableChannelsForHostAddress();
 
+    final boolean async = dataServerConfig.isNotifyAsyncEnable();
+    if (async) {
+      cleanPipelines(notifyPort, channelsMap.keySet());
+    }
     if (channelsMap.isEmpty()) {
       if (errorWhenChannelEmpty) {
         LOGGER.error("{} conn is empty when change", nodeType);
@@ -411,10 +627,15 @@ public class DataChangeEventCenter {
       }
       for (Map.Entry<String, List<Channel>> entry : channelsMap.entrySet()) {
         Channel channel = CollectionUtils.getRandom(entry.getValue());
+        ChangeNotifier notifier =
+            new ChangeNotifier(channel, notifyPort, dataCenter, changes, event.getTraceTimes());
+        if (async) {
+          pipelineOf(entry.getKey(), notifyPort).offer(notifier);
+          CHANGE_COMMIT_COUNTER.inc();
+          continue;
+        }
         try {
-          notifyExecutor.execute(
-              channel.getRemoteAddress(),
-              new ChangeNotifier(channel, notifyPort, dataCenter, changes, event.getTraceTimes()));
+          notifyExecutor.execute(channel.getRemoteAddress(), notifier);
           CHANGE_COMMIT_COUNTER.inc();
         } catch (FastRejectedExecutionException e) {
           CHANGE_SKIP_COUNTER.inc();
@@ -428,10 +649,24 @@ public class DataChangeEventCenter {
     return true;
   }
 
+  void appendChangeLog(List<DataChangeEvent> events) {
+    for (DataChangeEvent event : events) {
+      if (dataServerConfig.isLocalDataCenter(event.getDataCenter())) {
+        slotChangeLogStorage.append(event.getDataInfoIds());
+      }
+    }
+  }
+
   void handleExpire() {
     final List<ChangeNotifier> retries = getExpires();
     // commit retry
     for (ChangeNotifier retry : retries) {
+      if (retry.pipeline != null) {
+        // merge into the pending changes, the newer version is kept
+        retry.pipeline.offer(retry);
+        CHANGE_COMMIT_COUNTER.inc();
+        continue;
+      }
       try {
         notifyExecutor.execute(retry.channel.getRemoteAddress(), retry);
         CHANGE_COMMIT_COUNTER.inc();
@@ -448,6 +683,10 @@ public class DataChangeEventCenter {
             "commit retry notify failed, {}, {}", retry.channel, retry.dataInfoIds.size(), e);
       }
     }
+    // the pending changes maybe left when sending failed
+    for (NotifyPipeline pipeline : notifyPipelines.values()) {
+      pipeline.trySend();
+    }
   }
 
   List<DataChangeEvent> transferChangeEvent(int maxItems) {
@@ -483,6 +722,8 @@ public class DataChangeEventCenter {
         // notify local session
         handleChanges(events, NodeType.SESSION, dataServerConfig.getNotifyPort(), true);
 
+        // the remote data fetches the changes from the log after notified
+        appendChangeLog(events);
         // notify remote data
         handleChanges(
             events,
@@ -570,4 +811,14 @@ public class DataChangeEventCenter {
   public void setDefaultCommonConfig(DefaultCommonConfig defaultCommonConfig) {
     this.defaultCommonConfig = defaultCommonConfig;
   }
+
+  /**
+   * Setter method for property <tt>slotChangeLogStorage</tt>.
+   *
+   * @param slotChangeLogStorage value to be assigned to property slotChangeLogStorage
+   */
+  @VisibleForTesting
+  void setSlotChangeLogStorage(SlotChangeLogStorage slotChangeLogStorage) {
+    this.slotChangeLogStorage = slotChangeLogStorage;
+  }
 }
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.dataserver.handler;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.common.model.dataserver.Datum;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamResult;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncAcceptorRequest;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.remoting.Channel;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.multi.cluster.executor.MultiClusterExecutorManager;
+import com.alipay.sofa.registry.server.data.multi.cluster.loggers.Loggers;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLog;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
+import com.alipay.sofa.registry.server.data.slot.SlotManager;
+import com.alipay.sofa.registry.server.shared.remoting.AbstractServerHandler;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import javax.annotation.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * serve the changes of the slot after the acked sequence of the remote dataCenter, returns the gap
+ * when the sequence is not in the change log, the remote dataCenter falls back to the digest diff
+ */
+public class MultiClusterSlotChangeStreamRequestHandler
+    extends AbstractServerHandler<DataSlotChangeStreamRequest> {
+
+  private static final Logger LOGGER = Loggers.MULTI_CLUSTER_SRV_LOGGER;
+
+  @Resource private DatumStorageDelegate datumStorageDelegate;
+
+  @Autowired private DataServerConfig dataServerConfig;
+
+  @Autowired private MultiClusterDataServerConfig multiClusterDataServerConfig;
+
+  @Autowired private SlotManager slotManager;
+
+  @Autowired private SlotChangeLogStorage slotChangeLogStorage;
+
+  @Autowired private MultiClusterExecutorManager multiClusterExecutorManager;
+
+  @Override
+  public void checkParam(DataSlotChangeStreamRequest request) {
+    ParaCheckUtil.checkNonNegative(request.getSlotId(), "request.slotId");
+    ParaCheckUtil.checkIsPositive(request.getMaxDataInfoIds(), "request.maxDataInfoIds");
+    ParaCheckUtil.checkNotNull(request.getAcceptorManager(), "request.acceptorManager");
+  }
+
+  @Override
+  public Object doHandle(Channel channel, DataSlotChangeStreamRequest request) {
+    try {
+      if (!multiClusterDataServerConfig.isSyncRemoteSlotStreamEnable()) {
+        return new GenericResponse().fillFailed("slot change stream is disable");
+      }
+      slotManager.triggerUpdateSlotTable(request.getSlotTableEpoch());
+      final String dataCenter = dataServerConfig.getLocalDataCenter();
+      final int slotId = request.getSlotId();
+      if (!slotManager.isLeader(dataCenter, slotId)) {
+        LOGGER.warn(
+            "change stream request from {}, not leader of {}",
+            request.getLocalDataCenter(),
+            slotId);
+        return new GenericResponse().fillFailed("not leader of " + slotId);
+      }
+      final Slot slot = slotManager.getSlot(dataCenter, slotId);
+      if (slot == null || slot.getLeaderEpoch() != request.getSlotLeaderEpoch()) {
+        return new GenericResponse()
+            .fillFailed(
+                StringFormatter.format(
+                    "leaderEpoch mismatch of {}, request={}, current={}",
+                    slotId,
+                    request.getSlotLeaderEpoch(),
+                    slot == null ? -1 : slot.getLeaderEpoch()));
+      }
+      final SlotChangeLog log = slotChangeLogStorage.logOf(slotId, slot.getLeaderEpoch());
+      DataSlotChangeStreamResult result = read(log, request);
+      result.setSlotTableEpoch(slotManager.getSlotTableEpoch());
+      if (result.isGap() || !result.getChanges().isEmpty()) {
+        LOGGER.info("[changeStream]{},{},{}", request.getLocalDataCenter(), slotId, result);
+      }
+      return new GenericResponse().fillSucceed(result);
+    } catch (Throwable e) {
+      String msg =
+          StringFormatter.format(
+              "ChangeStream request from {} error for slot {}",
+              request.getLocalDataCenter(),
+              request.getSlotId());
+      LOGGER.error(msg, e);
+      return new GenericResponse().fillFailed(msg);
+    }
+  }
+
+  DataSlotChangeStreamResult read(SlotChangeLog log, DataSlotChangeStreamRequest request) {
+    if (request.getLogId() != log.getLogId()) {
+      return DataSlotChangeStreamResult.gapOf(log.getLogId(), log.getHeadSeq());
+    }
+    // read the log before the publishers, the changes after that are fetched by next request
+    final SlotChangeLog.Changes changes =
+        log.read(request.getAckSeq(), request.getMaxDataInfoIds());
+    if (changes.isGap()) {
+      return DataSlotChangeStreamResult.gapOf(log.getLogId(), changes.getHeadSeq());
+    }
+    return DataSlotChangeStreamResult.changesOf(
+        log.getLogId(),
+        changes.getToSeq(),
+        changes.getHeadSeq(),
+        currentPublishers(changes.getDataInfoIds(), request.getAcceptorManager()));
+  }
+
+  private Map<String, List<Publisher>> currentPublishers(
+      Collection<String> dataInfoIds, SyncSlotAcceptorManager acceptorManager) {
+    final String dataCenter = dataServerConfig.getLocalDataCenter();
+    final Map<String, List<Publisher>> publishers =
+        Maps.newHashMapWithExpectedSize(dataInfoIds.size());
+    for (String dataInfoId : dataInfoIds) {
+      if (!acceptorManager.accept(SyncAcceptorRequest.buildRequest(dataInfoId))) {
+        continue;
+      }
+      final List<Publisher> list = Lists.newArrayList();
+      final Datum datum = datumStorageDelegate.get(dataCenter, dataInfoId);
+      if (datum != null) {
+        for (Publisher p : datum.getPubMap().values()) {
+          if (acceptorManager.accept(
+              SyncAcceptorRequest.buildRequest(dataInfoId, p.getPublishSource()))) {
+            list.add(p);
+          }
+        }
+      }
+      // the empty list means all the publishers are removed
+      publishers.put(dataInfoId, list);
+    }
+    return publishers;
+  }
+
+  @Override
+  protected Node.NodeType getConnectNodeType() {
+    return Node.NodeType.DATA;
+  }
+
+  @Override
+  public Class interest() {
+    return DataSlotChangeStreamRequest.class;
+  }
+
+  @Override
+  public Object buildFailedResponse(String msg) {
+    return new GenericResponse().fillFailed(msg);
+  }
+
+  @Override
+  public Executor getExecutor() {
+    return multiClusterExecutorManager.getRemoteSlotSyncProcessorExecutor();
+  }
+
+  /**
+   * Setter method for property <tt>datumStorageDelegate</tt>.
+   *
+   * @param datumStorageDelegate value to be assigned to property datumStorageDelegate
+   * @return MultiClusterSlotChangeStreamRequestHandler
+   */
+  @VisibleForTesting
+  public MultiClusterSlotChangeStreamRequestHandler setDatumStorageDelegate(
+      DatumStorageDelegate datumStorageDelegate) {
+    this.datumStorageDelegate = datumStorageDelegate;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>dataServerConfig</tt>.
+   *
+   * @param dataServerConfig value to be assigned to property dataServerConfig
+   * @return MultiClusterSlotChangeStreamRequestHandler
+   */
+  @VisibleForTesting
+  public MultiClusterSlotChangeStreamRequestHandler setDataServerConfig(
+      DataServerConfig dataServerConfig) {
+    this.dataServerConfig = dataServerConfig;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>multiClusterDataServerConfig</tt>.
+   *
+   * @param multiClusterDataServerConfig value to be assigned to property
+   *     multiClusterDataServerConfig
+   * @return MultiClusterSlotChangeStreamRequestHandler
+   */
+  @VisibleForTesting
+  public MultiClusterSlotChangeStreamRequestHandler setMultiClusterDataServerConfig(
+      MultiClusterDataServerConfig multiClusterDataServerConfig) {
+    this.multiClusterDataServerConfig = multiClusterDataServerConfig;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>slotManager</tt>.
+   *
+   * @param slotManager value to be assigned to property slotManager
+   * @return MultiClusterSlotChangeStreamRequestHandler
+   */
+  @VisibleForTesting
+  public MultiClusterSlotChangeStreamRequestHandler setSlotManager(SlotManager slotManager) {
+    this.slotManager = slotManager;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>slotChangeLogStorage</tt>.
+   *
+   * @param slotChangeLogStorage value to be assigned to property slotChangeLogStorage
+   * @return MultiClusterSlotChangeStreamRequestHandler
+   */
+  @VisibleForTesting
+  public MultiClusterSlotChangeStreamRequestHandler setSlotChangeLogStorage(
+      SlotChangeLogStorage slotChangeLogStorage) {
+    this.slotChangeLogStorage = slotChangeLogStorage;
+    return this;
+  }
+}
@@ -16,12 +16,15 @@
  */
 package com.alipay.sofa.registry.server.data.multi.cluster.slot;
 
+import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.console.MultiSegmentSyncSwitch;
 import com.alipay.sofa.registry.common.model.constants.MultiValueConstants;
 import com.alipay.sofa.registry.common.model.metaserver.MultiClusterSyncInfo;
 import com.alipay.sofa.registry.common.model.multi.cluster.RemoteSlotTableStatus;
 import com.alipay.sofa.registry.common.model.slot.BaseSlotStatus;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamResult;
 import com.alipay.sofa.registry.common.model.slot.LeaderSlotStatus;
 import com.alipay.sofa.registry.common.model.slot.Slot;
 import com.alipay.sofa.registry.common.model.slot.Slot.Role;
@@ -54,6 +57,7 @@ import com.alipay.sofa.registry.server.data.slot.SyncLeaderTask;
 import com.alipay.sofa.registry.server.shared.remoting.ClientSideExchanger;
 import com.alipay.sofa.registry.store.api.meta.MultiClusterSyncRepository;
 import com.alipay.sofa.registry.task.KeyedTask;
+import com.alipay.sofa.registry.task.TaskErrorSilenceException;
 import com.alipay.sofa.registry.util.AtomicSet;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
 import com.alipay.sofa.registry.util.ParaCheckUtil;
@@ -87,6 +91,9 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
   private static final Logger MULTI_CLUSTER_SLOT_TABLE = Loggers.MULTI_CLUSTER_SLOT_TABLE;
 
   private static final int MAX_DATAINFOID_SYNCING_FAIL_RETRY_SIZE = 1000;
+
+  // the max requests of a stream task, avoid occupying the executor by a hot slot
+  private static final int MAX_STREAM_ROUNDS = 16;
   private static final Logger MULTI_CLUSTER_SYNC_DELTA_LOGGER =
       Loggers.MULTI_CLUSTER_SYNC_DELTA_LOGGER;
 
@@ -469,6 +476,159 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
     }
   }
 
+  /** the position of the change log of the remote slot leader, immutable */
+  static final class StreamCursor {
+    final long leaderEpoch;
+    final long logId;
+    final long ackSeq;
+
+    StreamCursor(long leaderEpoch, long logId, long ackSeq) {
+      this.leaderEpoch = leaderEpoch;
+      this.logId = logId;
+      this.ackSeq = ackSeq;
+    }
+
+    @Override
+    public String toString() {
+      return "StreamCursor{" + "logId=" + logId + ", ackSeq=" + ackSeq + '}';
+    }
+  }
+
+  /**
+   * fetch the changes after the acked sequence from the remote slot leader. the first request
+   * without cursor and the gap both return the head of the log, the cursor is moved to the head and
+   * a digest diff is requested to sync the changes before the head
+   */
+  final class SyncStreamTask implements Runnable {
+    private final String remoteDataCenter;
+    private final long slotTableEpoch;
+    private final Slot slot;
+    private final RemoteSlotStates state;
+    private final SlotDiffSyncer syncer;
+    private final SyncSlotAcceptorManager acceptorManager;
+    private final long startTimestamp = System.currentTimeMillis();
+
+    SyncStreamTask(
+        String remoteDataCenter,
+        long slotTableEpoch,
+        Slot slot,
+        RemoteSlotStates state,
+        SlotDiffSyncer syncer,
+        SyncSlotAcceptorManager acceptorManager) {
+      this.remoteDataCenter = remoteDataCenter;
+      this.slotTableEpoch = slotTableEpoch;
+      this.slot = slot;
+      this.state = state;
+      this.syncer = syncer;
+      this.acceptorManager = acceptorManager;
+    }
+
+    @Override
+    public void run() {
+      boolean success = false;
+      int rounds = 0;
+      int changes = 0;
+      StreamCursor cursor = state.streamCursor;
+      try {
+        boolean more = true;
+        while (more && rounds < MAX_STREAM_ROUNDS && localIsLeader(slot)) {
+          state.streamPending = false;
+          DataSlotChangeStreamResult result = fetch(cursor);
+          rounds++;
+          if (result.isGap()) {
+            StreamCursor head =
+                new StreamCursor(slot.getLeaderEpoch(), result.getLogId(), result.getHeadSeq());
+            if (state.advanceStream(cursor, head)) {
+              // the digest diff must start after the cursor is set
+              state.fullSyncRequested = true;
+            }
+            MULTI_CLUSTER_SYNC_DELTA_LOGGER.info(
+                "[streamGap]remoteDataCenter={}, slotId={}, cursor={}, head={}",
+                remoteDataCenter,
+                slot.getId(),
+                cursor,
+                head);
+            break;
+          }
+          if (!syncer.syncChanges(
+              remoteDataCenter, slot.getId(), slot.getLeader(), result.getChanges())) {
+            throw new RuntimeException(
+                StringFormatter.format("{} apply change stream failed", remoteDataCenter));
+          }
+          changes += result.getChanges().size();
+          StreamCursor next = new StreamCursor(cursor.leaderEpoch, cursor.logId, result.getToSeq());
+          if (!state.advanceStream(cursor, next)) {
+            // the slot leader changed
+            break;
+          }
+          cursor = next;
+          more = result.hasRemain() || state.streamPending;
+        }
+        success = true;
+      } catch (Throwable e) {
+        MULTI_CLUSTER_SYNC_DELTA_LOGGER.error(
+            "[syncStream]remoteDataCenter={}, slotId={}, leader={}, cursor={} failed",
+            remoteDataCenter,
+            slot.getId(),
+            slot.getLeader(),
+            cursor,
+            e);
+        // e.g. the stream is disabled on the remote leader, the notifies are pending again
+        state.failStream(cursor);
+        // rethrow silence exception, notify the task is failed
+        throw TaskErrorSilenceException.INSTANCE;
+      } finally {
+        MULTI_CLUSTER_SYNC_DIGEST_LOGGER.info(
+            "[syncStream]{},{},{},{},rounds={},changes={},cursor={},span={}",
+            success ? 'Y' : 'N',
+            remoteDataCenter,
+            slot.getId(),
+            slot.getLeader(),
+            rounds,
+            changes,
+            cursor,
+            System.currentTimeMillis() - startTimestamp);
+      }
+    }
+
+    private DataSlotChangeStreamResult fetch(StreamCursor cursor) {
+      DataSlotChangeStreamRequest request =
+          new DataSlotChangeStreamRequest(
+              dataServerConfig.getLocalDataCenter(),
+              slotTableEpoch,
+              slot.getId(),
+              slot.getLeaderEpoch(),
+              acceptorManager,
+              cursor == null ? DataSlotChangeStreamRequest.NONE_LOG_ID : cursor.logId,
+              cursor == null ? 0 : cursor.ackSeq,
+              multiClusterDataServerConfig.getSyncRemoteSlotStreamMaxDataInfoIds());
+      GenericResponse<DataSlotChangeStreamResult> resp =
+          (GenericResponse<DataSlotChangeStreamResult>)
+              remoteDataNodeExchanger.requestRaw(slot.getLeader(), request).getResult();
+      if (resp == null || !resp.isSuccess() || resp.getData() == null) {
+        throw new RuntimeException(
+            StringFormatter.format(
+                "{} change stream failed, slotId={}, resp={}",
+                remoteDataCenter,
+                slot.getId(),
+                resp));
+      }
+      return resp.getData();
+    }
+
+    @Override
+    public String toString() {
+      return "SyncStreamTask{"
+          + "remoteDataCenter="
+          + remoteDataCenter
+          + ", slotTableEpoch="
+          + slotTableEpoch
+          + ", slot="
+          + slot
+          + '}';
+    }
+  }
+
   static final class RemoteSlotStates implements ISlotState {
     final String remoteDataCenter;
     final int slotId;
@@ -481,13 +641,19 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
     volatile long lastSuccessDataInfoIdTime = -1L;
     volatile KeyedTask<SyncDataIdTask> syncDataIdTask;
 
+    // the change stream, the cursor is null before the first fetch or after the leader changed
+    volatile StreamCursor streamCursor;
+    volatile boolean streamPending;
+    volatile boolean fullSyncRequested;
+    volatile KeyedTask<SyncStreamTask> syncStreamTask;
+
     RemoteSlotStates(String remoteDataCenter, Slot slot) {
       this.remoteDataCenter = remoteDataCenter;
       this.slotId = slot.getId();
       this.slot = slot;
     }
 
-    void update(Slot update) {
+    synchronized void update(Slot update) {
       ParaCheckUtil.checkEquals(slotId, update.getId(), "slot.id");
       if (slot.getLeaderEpoch() != update.getLeaderEpoch()) {
         this.synced = false;
@@ -499,6 +665,9 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
         this.pendingDataInfoIds.getAndReset();
         this.lastSuccessDataInfoIdTime = -1L;
         this.syncDataIdTask = null;
+
+        // the change log belongs to the leader, fetch the head of the new leader
+        resetStream();
       }
       this.slot = update;
       MULTI_CLUSTER_SLOT_TABLE.info(
@@ -522,6 +691,49 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
       }
     }
 
+    /**
+     * move the cursor if it is not changed by others, and it belongs to the current leader
+     *
+     * @param expect expect
+     * @param update update
+     * @return boolean
+     */
+    synchronized boolean advanceStream(StreamCursor expect, StreamCursor update) {
+      if (streamCursor != expect || slot.getLeaderEpoch() != update.leaderEpoch) {
+        return false;
+      }
+      this.streamCursor = update;
+      return true;
+    }
+
+    /**
+     * drop the cursor after the stream failed, so the notifies are added to pending again. the
+     * changes only marked by streamPending are synced by the requested digest diff. the task is
+     * kept, the stream is retried after the interval of syncing leader
+     *
+     * @param expect the cursor of the failed task
+     */
+    synchronized void failStream(StreamCursor expect) {
+      if (streamCursor == null || streamCursor != expect) {
+        return;
+      }
+      this.streamCursor = null;
+      this.streamPending = false;
+      this.fullSyncRequested = true;
+    }
+
+    synchronized void resetStream() {
+      this.streamCursor = null;
+      this.streamPending = false;
+      this.fullSyncRequested = false;
+      this.syncStreamTask = null;
+    }
+
+    boolean isStreaming() {
+      final KeyedTask<SyncStreamTask> task = syncStreamTask;
+      return streamCursor != null && task != null && !task.isFailed();
+    }
+
     public synchronized void addPending(String dataInfoId) {
       pendingDataInfoIds.add(dataInfoId);
     }
@@ -692,6 +904,8 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
       return;
     }
 
+    final boolean streamEnable = multiClusterDataServerConfig.isSyncRemoteSlotStreamEnable();
+    boolean wakeup = false;
     for (Entry<Integer, Set<String>> entry : slotDataInfoIds.entrySet()) {
       RemoteSlotStates states = storage.slotTableStates.getSlotStates(entry.getKey());
       if (states == null) {
@@ -702,6 +916,17 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
             dataInfoIds);
         continue;
       }
+      if (streamEnable && states.streamCursor != null) {
+        // the changes are fetched from the change log of remote by the cursor
+        states.streamPending = true;
+        wakeup = true;
+        MULTI_CLUSTER_SYNC_DELTA_LOGGER.info(
+            "dataCenter: {}, slotId:{},  data change:{} stream pending.",
+            dataCenter,
+            entry.getKey(),
+            entry.getValue());
+        continue;
+      }
       states.addPending(entry.getValue());
       MULTI_CLUSTER_SYNC_DELTA_LOGGER.info(
           "dataCenter: {}, slotId:{},  data change:{} add to pending.",
@@ -709,6 +934,9 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
           entry.getKey(),
           dataInfoIds);
     }
+    if (wakeup) {
+      watchDog.wakeup();
+    }
   }
 
   private boolean checkSlot(SlotTable cur, SlotTable updating, SlotTable update) {
@@ -800,6 +1028,9 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
   void doSyncRemoteLeader() {
     final int remoteSyncLeaderMs =
         multiClusterDataServerConfig.getSyncRemoteSlotLeaderIntervalSecs() * 1000;
+    final int remoteStreamSyncLeaderMs =
+        multiClusterDataServerConfig.getSyncRemoteSlotStreamIntervalSecs() * 1000;
+    final boolean streamEnable = multiClusterDataServerConfig.isSyncRemoteSlotStreamEnable();
 
     for (Entry<String, RemoteSlotTableStorage> entry : slotTableStorageMap.entrySet()) {
       String remoteDataCenter = entry.getKey();
@@ -810,8 +1041,19 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
       RemoteSlotTableStates states = entry.getValue().slotTableStates;
       for (RemoteSlotStates state : states.slotStates.values()) {
         try {
-          syncRemoteDataIds(remoteDataCenter, state, states.slotTable.getEpoch());
-          syncRemote(remoteDataCenter, state, remoteSyncLeaderMs, states.slotTable.getEpoch());
+          final long slotTableEpoch = states.slotTable.getEpoch();
+          int syncLeaderMs = remoteSyncLeaderMs;
+          if (streamEnable) {
+            syncRemoteStream(remoteDataCenter, state, remoteSyncLeaderMs, slotTableEpoch);
+            if (state.isStreaming()) {
+              // the digest diff is the fallback of the stream
+              syncLeaderMs = Math.max(remoteSyncLeaderMs, remoteStreamSyncLeaderMs);
+            }
+          } else if (state.streamCursor != null) {
+            state.resetStream();
+          }
+          syncRemoteDataIds(remoteDataCenter, state, slotTableEpoch);
+          syncRemote(remoteDataCenter, state, syncLeaderMs, slotTableEpoch);
         } catch (Throwable t) {
           MULTI_CLUSTER_SYNC_ALL_LOGGER.error(
               "[syncRemoteLeader]remoteDataCenter={}, slotId={} sync error.",
@@ -911,6 +1153,43 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
     }
   }
 
+  void syncRemoteStream(
+      String remoteDataCenter,
+      RemoteSlotStates state,
+      int remoteSyncLeaderMs,
+      long slotTableEpoch) {
+    final Slot slot = state.slot;
+    final KeyedTask<SyncStreamTask> syncStreamTask = state.syncStreamTask;
+    if (syncStreamTask != null && !syncStreamTask.isFinished()) {
+      return;
+    }
+    // 1.pending by the change notify, fetch in time;
+    // 2.fetch periodically, resume from the cursor if some notifies are lost, or retry the failure
+    if (!state.streamPending
+        && syncStreamTask != null
+        && System.currentTimeMillis() - syncStreamTask.getCreateTime() < remoteSyncLeaderMs) {
+      return;
+    }
+    final SyncSlotAcceptorManager acceptorManager =
+        multiSyncDataAcceptorManager.getSyncSlotAcceptorManager(remoteDataCenter);
+    if (acceptorManager == null) {
+      return;
+    }
+    SlotDiffSyncer syncer =
+        new SlotDiffSyncer(
+            dataServerConfig,
+            datumStorageDelegate,
+            dataChangeEventCenter,
+            null,
+            acceptorManager,
+            MULTI_CLUSTER_SYNC_DELTA_LOGGER);
+    SyncStreamTask task =
+        new SyncStreamTask(remoteDataCenter, slotTableEpoch, slot, state, syncer, acceptorManager);
+    state.syncStreamTask =
+        multiClusterExecutorManager.getRemoteSyncDataIdExecutor().execute(slot.getId(), task);
+    MultiClusterSlotMetrics.syncAccess(remoteDataCenter, SyncType.SYNC_STREAM);
+  }
+
   void syncRemote(
       String remoteDataCenter,
       RemoteSlotStates state,
@@ -919,7 +1198,14 @@ public class MultiClusterSlotManagerImpl implements MultiClusterSlotManager {
     final Slot slot = state.slot;
     final KeyedTask<SyncLeaderTask> syncRemoteTask = state.syncRemoteTask;
 
-    if (syncRemoteTask == null || syncRemoteTask.isOverAfter(remoteSyncLeaderMs)) {
+    // the gap of stream needs a new digest diff after the running one
+    final boolean requested =
+        state.fullSyncRequested && syncRemoteTask != null && syncRemoteTask.isFinished();
+    if (syncRemoteTask == null || syncRemoteTask.isOverAfter(remoteSyncLeaderMs) || requested) {
+      if (requested) {
+        state.completeSyncRemoteLeaderTask();
+      }
+      state.fullSyncRequested = false;
       SlotDiffSyncer syncer =
           new SlotDiffSyncer(
               dataServerConfig,
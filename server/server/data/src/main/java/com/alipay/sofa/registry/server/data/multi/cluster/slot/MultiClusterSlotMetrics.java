@@ -137,6 +137,8 @@ public class MultiClusterSlotMetrics {
       SYNC_COUNTER.labels(remote, "ALL").inc();
     } else if (syncType == SyncType.SYNC_DELTA) {
       SYNC_COUNTER.labels(remote, "DELTA").inc();
+    } else if (syncType == SyncType.SYNC_STREAM) {
+      SYNC_COUNTER.labels(remote, "STREAM").inc();
     } else {
       throw new IllegalArgumentException("illegal sync type: " + syncType);
     }
@@ -145,6 +147,7 @@ public class MultiClusterSlotMetrics {
   public enum SyncType {
     SYNC_ALL,
     SYNC_DELTA,
+    SYNC_STREAM,
     ;
   }
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.sync.stream;
+
+import com.alipay.sofa.registry.util.DatumVersionUtil;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * the bounded change log of a slot leader, records the changed dataInfoIds with the increasing
+ * sequence. the log is bound to the leaderEpoch of the slot, a new log with another logId is
+ * created when the leader changes, so the sequences of the old log are discarded
+ */
+public final class SlotChangeLog {
+  private final int slotId;
+  private final long leaderEpoch;
+  private final long logId;
+  private final String[] ring;
+  // the sequence of the last entry, the first entry is 1
+  private long headSeq;
+
+  public SlotChangeLog(int slotId, long leaderEpoch, int capacity) {
+    ParaCheckUtil.checkIsPositive(capacity, "capacity");
+    this.slotId = slotId;
+    this.leaderEpoch = leaderEpoch;
+    this.logId = DatumVersionUtil.nextId();
+    this.ring = new String[capacity];
+  }
+
+  public synchronized long append(String dataInfoId) {
+    headSeq++;
+    ring[index(headSeq)] = dataInfoId;
+    return headSeq;
+  }
+
+  /**
+   * read the distinct dataInfoIds after the ackSeq
+   *
+   * @param ackSeq the last applied sequence
+   * @param maxDataInfoIds the max of the distinct dataInfoIds
+   * @return the gap if the entries after ackSeq are truncated or the ackSeq is beyond the head
+   */
+  public synchronized Changes read(long ackSeq, int maxDataInfoIds) {
+    if (ackSeq > headSeq || ackSeq < headSeq - ring.length) {
+      return Changes.gap(headSeq);
+    }
+    final Set<String> dataInfoIds = Sets.newLinkedHashSet();
+    long toSeq = ackSeq;
+    while (toSeq < headSeq) {
+      final String dataInfoId = ring[index(toSeq + 1)];
+      if (dataInfoIds.size() >= maxDataInfoIds && !dataInfoIds.contains(dataInfoId)) {
+        break;
+      }
+      dataInfoIds.add(dataInfoId);
+      toSeq++;
+    }
+    return new Changes(false, toSeq, headSeq, dataInfoIds);
+  }
+
+  private int index(long seq) {
+    return (int) (seq % ring.length);
+  }
+
+  public synchronized long getHeadSeq() {
+    return headSeq;
+  }
+
+  /**
+   * Getter method for property <tt>slotId</tt>.
+   *
+   * @return property value of slotId
+   */
+  public int getSlotId() {
+    return slotId;
+  }
+
+  /**
+   * Getter method for property <tt>leaderEpoch</tt>.
+   *
+   * @return property value of leaderEpoch
+   */
+  public long getLeaderEpoch() {
+    return leaderEpoch;
+  }
+
+  /**
+   * Getter method for property <tt>logId</tt>.
+   *
+   * @return property value of logId
+   */
+  public long getLogId() {
+    return logId;
+  }
+
+  public int capacity() {
+    return ring.length;
+  }
+
+  @Override
+  public String toString() {
+    return "SlotChangeLog{"
+        + "slotId="
+        + slotId
+        + ", leaderEpoch="
+        + leaderEpoch
+        + ", logId="
+        + logId
+        + ", headSeq="
+        + getHeadSeq()
+        + '}';
+  }
+
+  public static final class Changes {
+    final boolean gap;
+    final long toSeq;
+    final long headSeq;
+    final Set<String> dataInfoIds;
+
+    Changes(boolean gap, long toSeq, long headSeq, Set<String> dataInfoIds) {
+      this.gap = gap;
+      this.toSeq = toSeq;
+      this.headSeq = headSeq;
+      this.dataInfoIds = dataInfoIds;
+    }
+
+    static Changes gap(long headSeq) {
+      return new Changes(true, headSeq, headSeq, Collections.emptySet());
+    }
+
+    public boolean isGap() {
+      return gap;
+    }
+
+    public long getToSeq() {
+      return toSeq;
+    }
+
+    public long getHeadSeq() {
+      return headSeq;
+    }
+
+    public Set<String> getDataInfoIds() {
+      return dataInfoIds;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.sync.stream;
+
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.func.SlotFunction;
+import com.alipay.sofa.registry.common.model.slot.func.SlotFunctionRegistry;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
+import com.alipay.sofa.registry.server.data.multi.cluster.loggers.Loggers;
+import com.alipay.sofa.registry.server.data.slot.SlotChangeListener;
+import com.alipay.sofa.registry.server.data.slot.SlotManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * the change logs of the local leader slots, the remote dataCenters fetch the changes after their
+ * acked sequence, instead of the digest diff of the whole slot
+ */
+public class SlotChangeLogStorage {
+  private static final Logger LOGGER = Loggers.MULTI_CLUSTER_SRV_LOGGER;
+
+  @Autowired private DataServerConfig dataServerConfig;
+
+  @Autowired private MultiClusterDataServerConfig multiClusterDataServerConfig;
+
+  @Autowired private SlotManager slotManager;
+
+  private final Map<Integer, SlotChangeLog> logs = Maps.newConcurrentMap();
+
+  private final SlotFunction slotFunction = SlotFunctionRegistry.getFunc();
+
+  private final SlotChangeListener slotChangeListener = new SlotListener();
+
+  /**
+   * record the changes of local dataCenter, must be called before the changes are notified to the
+   * remote dataCenters
+   *
+   * @param dataInfoIds dataInfoIds
+   */
+  public void append(Collection<String> dataInfoIds) {
+    if (!multiClusterDataServerConfig.isSyncRemoteSlotStreamEnable()) {
+      return;
+    }
+    final String dataCenter = dataServerConfig.getLocalDataCenter();
+    for (String dataInfoId : dataInfoIds) {
+      final int slotId = slotFunction.slotOf(dataInfoId);
+      if (!slotManager.isLeader(dataCenter, slotId)) {
+        continue;
+      }
+      final Slot slot = slotManager.getSlot(dataCenter, slotId);
+      if (slot == null) {
+        continue;
+      }
+      logOf(slotId, slot.getLeaderEpoch()).append(dataInfoId);
+    }
+  }
+
+  /**
+   * get the log of the slot, a new log is created if the leaderEpoch changes
+   *
+   * @param slotId slotId
+   * @param leaderEpoch leaderEpoch
+   * @return SlotChangeLog
+   */
+  public SlotChangeLog logOf(int slotId, long leaderEpoch) {
+    return logs.compute(
+        slotId,
+        (k, v) ->
+            v != null && v.getLeaderEpoch() == leaderEpoch
+                ? v
+                : new SlotChangeLog(
+                    slotId,
+                    leaderEpoch,
+                    multiClusterDataServerConfig.getSyncRemoteSlotChangeLogCapacity()));
+  }
+
+  /**
+   * drop the log of the slot which is no longer leader, the listener is registered to the local
+   * slot table updates
+   *
+   * @return SlotChangeListener
+   */
+  public SlotChangeListener getSlotChangeListener() {
+    return slotChangeListener;
+  }
+
+  @VisibleForTesting
+  int logSize() {
+    return logs.size();
+  }
+
+  /**
+   * Setter method for property <tt>dataServerConfig</tt>.
+   *
+   * @param dataServerConfig value to be assigned to property dataServerConfig
+   * @return SlotChangeLogStorage
+   */
+  @VisibleForTesting
+  public SlotChangeLogStorage setDataServerConfig(DataServerConfig dataServerConfig) {
+    this.dataServerConfig = dataServerConfig;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>multiClusterDataServerConfig</tt>.
+   *
+   * @param multiClusterDataServerConfig value to be assigned to property
+   *     multiClusterDataServerConfig
+   * @return SlotChangeLogStorage
+   */
+  @VisibleForTesting
+  public SlotChangeLogStorage setMultiClusterDataServerConfig(
+      MultiClusterDataServerConfig multiClusterDataServerConfig) {
+    this.multiClusterDataServerConfig = multiClusterDataServerConfig;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>slotManager</tt>.
+   *
+   * @param slotManager value to be assigned to property slotManager
+   * @return SlotChangeLogStorage
+   */
+  @VisibleForTesting
+  public SlotChangeLogStorage setSlotManager(SlotManager slotManager) {
+    this.slotManager = slotManager;
+    return this;
+  }
+
+  private final class SlotListener implements SlotChangeListener {
+
+    @Override
+    public void onSlotAdd(String dataCenter, int slotId, Slot.Role role) {
+      if (role != Slot.Role.Leader && logs.remove(slotId) != null) {
+        LOGGER.info("[changeLog]{} remove log of {}, role={}", dataCenter, slotId, role);
+      }
+    }
+
+    @Override
+    public void onSlotRemove(String dataCenter, int slotId, Slot.Role role) {
+      if (logs.remove(slotId) != null) {
+        LOGGER.info("[changeLog]{} remove log of removed {}, role={}", dataCenter, slotId, role);
+      }
+    }
+  }
+}
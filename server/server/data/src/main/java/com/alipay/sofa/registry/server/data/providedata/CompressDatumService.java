@@ -78,6 +78,15 @@ public class CompressDatumService
     return storage.get().compressDatumSwitch;
   }
 
+  /**
+   * the version of the compress switch, changed when the switch is updated
+   *
+   * @return long
+   */
+  public long getSwitchVersion() {
+    return storage.get().getVersion();
+  }
+
   public Compressor getCompressor(SubDatum datum, String[] encodes) {
     if (datum == null) {
       return null;
@@ -93,6 +102,21 @@ public class CompressDatumService
     return CompressUtils.find(encodes);
   }
 
+  /**
+   * the encoding of compressor maybe used for the encodes, the datum is compressed by it only when
+   * the size is larger than compressMinSize
+   *
+   * @param encodes encodes
+   * @return empty if not compress
+   */
+  public String getAcceptEncoding(String[] encodes) {
+    if (!getCompressSwitch().isEnabled()) {
+      return "";
+    }
+    Compressor compressor = CompressUtils.find(encodes);
+    return compressor == null ? "" : compressor.getEncoding();
+  }
+
   protected static class CompressStorage extends SystemDataStorage {
     protected final CompressDatumSwitch compressDatumSwitch;
 
@@ -17,6 +17,7 @@
 package com.alipay.sofa.registry.server.data.pubiterator;
 
 import com.alipay.sofa.registry.common.model.RegisterVersion;
+import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
 import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
 import com.alipay.sofa.registry.common.model.slot.filter.SyncAcceptorRequest;
 import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
@@ -84,8 +85,7 @@ public class DatumBiConsumer {
       // v = null when envelope is unpub
       if (v == null
           || !syncSlotAcceptorManager.accept(
-              SyncAcceptorRequest.buildRequest(
-                  dataInfoId, envelope.getPublisher().getPublishSource()))) {
+              SyncAcceptorRequest.buildRequest(dataInfoId, envelope.getPublishSource()))) {
         return;
       }
 
@@ -111,6 +111,49 @@ public class DatumBiConsumer {
     };
   }
 
+  /**
+   * the digest is maintained by PublisherGroup, could not filter publishers, only used when the
+   * syncSlotAcceptorManager accept all the publishers of the accepted dataInfoId
+   *
+   * @param digests digests
+   * @param syncSlotAcceptorManager syncSlotAcceptorManager
+   * @return BiConsumer
+   */
+  public static BiConsumer<String, PublisherGroup> publisherGroupsDigestBiConsumer(
+      Map<String, DatumDigest> digests, SyncSlotAcceptorManager syncSlotAcceptorManager) {
+    return (dataInfoId, publisherGroup) -> {
+      if (!syncSlotAcceptorManager.accept(SyncAcceptorRequest.buildRequest(dataInfoId))) {
+        return;
+      }
+      digests.put(dataInfoId, publisherGroup.getDigest());
+    };
+  }
+
+  public static BiConsumer<String, PublisherGroup> publisherGroupsDigestBiConsumer(
+      Map<String, DatumDigest> digests,
+      String sessionIp,
+      SyncSlotAcceptorManager syncSlotAcceptorManager) {
+    return (dataInfoId, publisherGroup) -> {
+      if (!syncSlotAcceptorManager.accept(SyncAcceptorRequest.buildRequest(dataInfoId))) {
+        return;
+      }
+      // same as the summary of session, skip the empty
+      DatumDigest digest = publisherGroup.getDigest(sessionIp);
+      if (digest != null) {
+        digests.put(dataInfoId, digest);
+      }
+    };
+  }
+
+  public static BiConsumer<String, PublisherGroup> filterBiConsumer(
+      Set<String> dataInfoIds, BiConsumer<String, PublisherGroup> consumer) {
+    return (dataInfoId, publisherGroup) -> {
+      if (dataInfoIds.contains(dataInfoId)) {
+        consumer.accept(dataInfoId, publisherGroup);
+      }
+    };
+  }
+
   public static BiConsumer<String, PublisherEnvelope> publisherGroupBiConsumer(
       String dataInfoId,
       Map<String, RegisterVersion> publisherVersions,
@@ -120,8 +163,7 @@ public class DatumBiConsumer {
       // v = null when envelope is unpub
       if (v == null
           || !syncSlotAcceptorManager.accept(
-              SyncAcceptorRequest.buildRequest(
-                  dataInfoId, envelope.getPublisher().getPublishSource()))) {
+              SyncAcceptorRequest.buildRequest(dataInfoId, envelope.getPublishSource()))) {
         return;
       }
       publisherVersions.put(registerId, v);
@@ -18,21 +18,26 @@ package com.alipay.sofa.registry.server.data.remoting.dataserver.handler;
 
 import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.common.model.PublisherDigestUtil;
+import com.alipay.sofa.registry.common.model.PublisherUtils;
 import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
+import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestResult;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffUtils;
-import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptAllManager;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.remoting.Channel;
 import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.pubiterator.DatumBiConsumer;
 import com.alipay.sofa.registry.server.data.slot.SlotManager;
 import com.alipay.sofa.registry.server.shared.remoting.AbstractServerHandler;
 import com.alipay.sofa.registry.util.ParaCheckUtil;
 import com.alipay.sofa.registry.util.StringFormatter;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
 import java.util.Map;
 import javax.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,21 +74,21 @@ public abstract class BaseSlotDiffDigestRequestHandler
       }
       slotManager.triggerUpdateSlotTable(request.getSlotTableEpoch());
 
-      // not use acceptorManager to filter in getPublishers() method,
-      // because getPublishers() method only loop dataIndoId, will not loop publishers;
-      Map<String, Map<String, Publisher>> existingPublishers =
-          datumStorageDelegate.getPublishers(
-              dataServerConfig.getLocalDataCenter(), request.getSlotId());
-
-      // use acceptorManager in DataSlotDiffUtils.diffDigestResult,
-      // as it will loop publishers once
-      DataSlotDiffDigestResult result =
-          calcDiffResult(
-              request.getLocalDataCenter(),
-              slotId,
-              request.getDatumDigest(),
-              existingPublishers,
-              request.getAcceptorManager());
+      DataSlotDiffDigestResult result;
+      if (request.isIncrementalDigest()
+          && request.getAcceptorManager() instanceof SyncSlotAcceptAllManager) {
+        // the digest is maintained by PublisherGroup, no need to loop the publishers
+        Map<String, DatumDigest> existingDigests = Maps.newHashMapWithExpectedSize(64);
+        datumStorageDelegate.foreach(
+            dataServerConfig.getLocalDataCenter(),
+            slotId,
+            DatumBiConsumer.publisherGroupsDigestBiConsumer(
+                existingDigests, request.getAcceptorManager()));
+        result = DataSlotDiffUtils.diffDigest(request, existingDigests);
+        DataSlotDiffUtils.logDiffResult(request.getLocalDataCenter(), result, slotId, logger);
+      } else {
+        result = calcDiffResult(request);
+      }
       result.setSlotTableEpoch(slotManager.getSlotTableEpoch());
 
       if (!postCheck(request)) {
@@ -102,15 +107,22 @@ public abstract class BaseSlotDiffDigestRequestHandler
     }
   }
 
-  private DataSlotDiffDigestResult calcDiffResult(
-      String requestDataCenter,
-      int targetSlot,
-      Map<String, DatumDigest> targetDigestMap,
-      Map<String, Map<String, Publisher>> existingPublishers,
-      SyncSlotAcceptorManager acceptorManager) {
+  private DataSlotDiffDigestResult calcDiffResult(DataSlotDiffDigestRequest request) {
+    // not use acceptorManager to filter in getPublishers() method,
+    // because getPublishers() method only loop dataIndoId, will not loop publishers;
+    Map<String, Map<String, Publisher>> existingPublishers =
+        datumStorageDelegate.getPublishers(
+            dataServerConfig.getLocalDataCenter(), request.getSlotId());
+
+    // use acceptorManager in PublisherUtils.getDatumSummary,
+    // as it will loop publishers once
+    Map<String, DatumSummary> existingSummaries =
+        PublisherUtils.getDatumSummary(existingPublishers, request.getAcceptorManager());
     DataSlotDiffDigestResult result =
-        DataSlotDiffUtils.diffDigestResult(targetDigestMap, existingPublishers, acceptorManager);
-    DataSlotDiffUtils.logDiffResult(requestDataCenter, result, targetSlot, logger);
+        DataSlotDiffUtils.diffDigest(
+            request, PublisherDigestUtil.digest(existingSummaries, request.isIncrementalDigest()));
+    DataSlotDiffUtils.logDiffResult(
+        request.getLocalDataCenter(), result, request.getSlotId(), logger);
     return result;
   }
 
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.remoting.dataserver.handler;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotResult;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncAcceptorRequest;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.compress.CompressUtils;
+import com.alipay.sofa.registry.compress.Compressor;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.remoting.Channel;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.PublisherGroup;
+import com.alipay.sofa.registry.server.data.slot.SlotManager;
+import com.alipay.sofa.registry.server.shared.remoting.AbstractServerHandler;
+import com.alipay.sofa.registry.server.shared.util.DatumUtils;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.annotation.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * serve the chunks of whole slot for the bulk sync of followers, the chunks are cut by the order of
+ * dataInfoId, so the follower could resume from the cursor
+ */
+public class SlotFollowerSnapshotRequestHandler
+    extends AbstractServerHandler<DataSlotSnapshotRequest> {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(SlotFollowerSnapshotRequestHandler.class);
+
+  @Resource private DatumStorageDelegate datumStorageDelegate;
+
+  @Autowired private DataServerConfig dataServerConfig;
+
+  @Autowired private SlotManager slotManager;
+
+  @Autowired private ThreadPoolExecutor slotSyncRequestProcessorExecutor;
+
+  @Override
+  public void checkParam(DataSlotSnapshotRequest request) {
+    ParaCheckUtil.checkNonNegative(request.getSlotId(), "request.slotId");
+    ParaCheckUtil.checkIsPositive(request.getMaxPublishers(), "request.maxPublishers");
+    ParaCheckUtil.checkNotNull(request.getAcceptorManager(), "request.acceptorManager");
+  }
+
+  @Override
+  public Object doHandle(Channel channel, DataSlotSnapshotRequest request) {
+    try {
+      slotManager.triggerUpdateSlotTable(request.getSlotTableEpoch());
+      final String dataCenter = dataServerConfig.getLocalDataCenter();
+      final int slotId = request.getSlotId();
+      if (!slotManager.isLeader(dataCenter, slotId)) {
+        LOGGER.warn(
+            "snapshot slot request from {}, not leader of {}",
+            request.getLocalDataCenter(),
+            slotId);
+        return new GenericResponse().fillFailed("not leader of " + slotId);
+      }
+      final Slot slot = slotManager.getSlot(dataCenter, slotId);
+      if (slot == null || slot.getLeaderEpoch() != request.getSlotLeaderEpoch()) {
+        return new GenericResponse()
+            .fillFailed(
+                StringFormatter.format(
+                    "leaderEpoch mismatch of {}, request={}, current={}",
+                    slotId,
+                    request.getSlotLeaderEpoch(),
+                    slot == null ? -1 : slot.getLeaderEpoch()));
+      }
+      // only collect the references of groups, the publishers are materialized by chunk
+      final Map<String, PublisherGroup> groups = Maps.newHashMapWithExpectedSize(256);
+      datumStorageDelegate.foreach(dataCenter, slotId, groups::put);
+      DataSlotSnapshotResult result =
+          snapshot(
+              groups,
+              request.getCursor(),
+              request.getMaxPublishers(),
+              request.getAcceptorManager(),
+              CompressUtils.find(request.getAcceptEncodes()));
+      result.setSlotTableEpoch(slotManager.getSlotTableEpoch());
+      LOGGER.info("[snapshot]{},{},{}", request.getLocalDataCenter(), slotId, result);
+      return new GenericResponse().fillSucceed(result);
+    } catch (Throwable e) {
+      String msg =
+          StringFormatter.format(
+              "SnapshotSlot request from {} error for slot {}",
+              request.getLocalDataCenter(),
+              request.getSlotId());
+      LOGGER.error(msg, e);
+      return new GenericResponse().fillFailed(msg);
+    }
+  }
+
+  static DataSlotSnapshotResult snapshot(
+      Map<String, PublisherGroup> groups,
+      String cursor,
+      int maxPublishers,
+      SyncSlotAcceptorManager acceptorManager,
+      Compressor compressor)
+      throws Exception {
+    final List<String> dataInfoIds = Lists.newArrayList(groups.keySet());
+    Collections.sort(dataInfoIds);
+    int index = 0;
+    if (cursor != null) {
+      index = Collections.binarySearch(dataInfoIds, cursor);
+      // the cursor maybe removed, start at the insertion point
+      index = index >= 0 ? index + 1 : -(index + 1);
+    }
+    final Map<String, List<Publisher>> publishers = Maps.newHashMap();
+    int pubNum = 0;
+    String nextCursor = null;
+    for (; index < dataInfoIds.size(); index++) {
+      final String dataInfoId = dataInfoIds.get(index);
+      final List<Publisher> list =
+          groups
+              .get(dataInfoId)
+              .getPublishers(
+                  envelope ->
+                      acceptorManager.accept(
+                          SyncAcceptorRequest.buildRequest(
+                              dataInfoId, envelope.getPublishSource())));
+      if (!list.isEmpty()) {
+        publishers.put(dataInfoId, list);
+        pubNum += list.size();
+      }
+      if (pubNum >= maxPublishers && index < dataInfoIds.size() - 1) {
+        nextCursor = dataInfoId;
+        break;
+      }
+    }
+    if (compressor == null || publishers.isEmpty()) {
+      return DataSlotSnapshotResult.plainOf(nextCursor, pubNum, publishers);
+    }
+    byte[] data =
+        DatumUtils.serializer.serialize(new DataSlotSnapshotResult.PublisherChunk(publishers));
+    return DataSlotSnapshotResult.zipOf(
+        nextCursor, pubNum, compressor.compress(data), data.length, compressor.getEncoding());
+  }
+
+  @Override
+  protected Node.NodeType getConnectNodeType() {
+    return Node.NodeType.DATA;
+  }
+
+  @Override
+  public Class interest() {
+    return DataSlotSnapshotRequest.class;
+  }
+
+  @Override
+  public Object buildFailedResponse(String msg) {
+    return new GenericResponse().fillFailed(msg);
+  }
+
+  @Override
+  public Executor getExecutor() {
+    return slotSyncRequestProcessorExecutor;
+  }
+
+  /**
+   * Setter method for property <tt>datumStorageDelegate</tt>.
+   *
+   * @param datumStorageDelegate value to be assigned to property datumStorageDelegate
+   * @return SlotFollowerSnapshotRequestHandler
+   */
+  @VisibleForTesting
+  public SlotFollowerSnapshotRequestHandler setDatumStorageDelegate(
+      DatumStorageDelegate datumStorageDelegate) {
+    this.datumStorageDelegate = datumStorageDelegate;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>dataServerConfig</tt>.
+   *
+   * @param dataServerConfig value to be assigned to property dataServerConfig
+   * @return SlotFollowerSnapshotRequestHandler
+   */
+  @VisibleForTesting
+  public SlotFollowerSnapshotRequestHandler setDataServerConfig(DataServerConfig dataServerConfig) {
+    this.dataServerConfig = dataServerConfig;
+    return this;
+  }
+
+  /**
+   * Setter method for property <tt>slotManager</tt>.
+   *
+   * @param slotManager value to be assigned to property slotManager
+   * @return SlotFollowerSnapshotRequestHandler
+   */
+  @VisibleForTesting
+  public SlotFollowerSnapshotRequestHandler setSlotManager(SlotManager slotManager) {
+    this.slotManager = slotManager;
+    return this;
+  }
+}
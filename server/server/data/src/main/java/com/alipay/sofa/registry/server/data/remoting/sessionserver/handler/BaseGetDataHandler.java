@@ -21,15 +21,24 @@ import static com.alipay.sofa.registry.server.data.remoting.sessionserver.handle
 import static com.alipay.sofa.registry.server.data.remoting.sessionserver.handler.HandlerMetrics.GetData.GET_PUBLISHER_COUNTER;
 
 import com.alipay.sofa.registry.common.model.dataserver.Datum;
+import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
+import com.alipay.sofa.registry.common.model.slot.MultiSlotAccessGenericResponse;
 import com.alipay.sofa.registry.common.model.slot.SlotAccess;
 import com.alipay.sofa.registry.common.model.slot.SlotAccessGenericResponse;
+import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
 import com.alipay.sofa.registry.common.model.store.SubDatum;
+import com.alipay.sofa.registry.common.model.store.ZipSubPublisherList;
 import com.alipay.sofa.registry.compress.CompressUtils;
 import com.alipay.sofa.registry.compress.Compressor;
 import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.server.data.cache.SubDatumCacheService;
 import com.alipay.sofa.registry.server.data.providedata.CompressDatumService;
 import com.alipay.sofa.registry.server.shared.util.DatumUtils;
+import com.alipay.sofa.registry.util.StringFormatter;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import javax.annotation.Resource;
@@ -47,6 +56,8 @@ public abstract class BaseGetDataHandler<T> extends AbstractDataHandler<T> {
 
   @Resource private CompressDatumService compressDatumService;
 
+  @Autowired private SubDatumCacheService subDatumCacheService;
+
   @Override
   public Executor getExecutor() {
     return getDataProcessorExecutor;
@@ -65,7 +76,18 @@ public abstract class BaseGetDataHandler<T> extends AbstractDataHandler<T> {
       return buildResponse(false, slotAccessBefore, null, "slotAccess not accept.");
     }
 
-    final Datum datum = datumStorageDelegate.get(dataCenter, dataInfoId);
+    // read the switch version before the compress decision, the entry is never stale
+    final long compressVersion = compressDatumService.getSwitchVersion();
+    final String encoding = compressDatumService.getAcceptEncoding(acceptEncodes);
+    // the datum with the same version is responded to all the sessions after change notify,
+    // reuse the SubDatum which has converted and compressed
+    final DatumVersion version = datumStorageDelegate.getVersion(dataCenter, dataInfoId);
+    final SubDatum cached =
+        version == null
+            ? null
+            : subDatumCacheService.get(
+                dataCenter, dataInfoId, version.getValue(), encoding, compressVersion);
+    final Datum datum = cached == null ? datumStorageDelegate.get(dataCenter, dataInfoId) : null;
     // important. double check the slot access. avoid the case:
     // 1. the slot is leader, the first check pass
     // 2. slot moved and data cleaned
@@ -85,11 +107,53 @@ public abstract class BaseGetDataHandler<T> extends AbstractDataHandler<T> {
 
     GET_DATUM_Y_COUNTER.inc();
 
-    SubDatum zipDatum = zipDatum(dataInfoId, dataCenter, datum, acceptEncodes);
+    SubDatum zipDatum;
+    if (cached != null) {
+      zipDatum = cached;
+      logDatum(dataInfoId, dataCenter, zipDatum, true);
+    } else {
+      zipDatum = zipDatum(dataInfoId, dataCenter, datum, acceptEncodes);
+      if (zipDatum != null) {
+        subDatumCacheService.put(encoding, compressVersion, zipDatum);
+      }
+    }
 
     return buildResponse(true, slotAccessAfter, zipDatum, "");
   }
 
+  protected MultiSlotAccessGenericResponse<MultiSubDatum> processMultiDataCenter(
+      String dataInfoId,
+      Map<String, Long> slotTableEpochs,
+      Map<String, Long> slotLeaderEpochs,
+      String[] acceptEncodes) {
+    int dataCenterSize = slotLeaderEpochs.size();
+
+    boolean success = true;
+    StringBuilder builder = new StringBuilder();
+    Map<String, SlotAccess> slotAccessMap = Maps.newHashMapWithExpectedSize(dataCenterSize);
+    Map<String, SubDatum> datumMap = Maps.newHashMapWithExpectedSize(dataCenterSize);
+    for (Entry<String, Long> entry : slotTableEpochs.entrySet()) {
+      String dataCenter = entry.getKey();
+      SlotAccessGenericResponse<SubDatum> res =
+          processSingleDataCenter(
+              dataCenter,
+              dataInfoId,
+              entry.getValue(),
+              slotLeaderEpochs.get(dataCenter),
+              acceptEncodes);
+
+      if (!res.isSuccess()) {
+        success = false;
+        builder.append(StringFormatter.format("{}:{}.", dataCenter, res.getMessage()));
+      }
+      slotAccessMap.put(dataCenter, res.getSlotAccess());
+      datumMap.put(dataCenter, res.getData());
+    }
+    MultiSubDatum data = new MultiSubDatum(dataInfoId, datumMap);
+
+    return new MultiSlotAccessGenericResponse(success, builder.toString(), data, slotAccessMap);
+  }
+
   private SubDatum zipDatum(
       String dataInfoId, String dataCenter, Datum datum, String[] acceptEncodes) {
     // return SubDatum, it's serdeSize and memoryOverhead much smaller than Datum
@@ -99,22 +163,8 @@ public abstract class BaseGetDataHandler<T> extends AbstractDataHandler<T> {
 
     SubDatum zipDatum = DatumUtils.compressSubDatum(subDatum, compressor);
 
-    String encode = "";
-    if (compressor != null) {
-      encode = compressor.getEncoding();
-    }
-
-    if (subDatum != null) {
-      LOGGER.info(
-          "getD,{},{},{},{},encode={},dataBoxSize={},encodeSize={}",
-          dataInfoId,
-          dataCenter,
-          subDatum.mustGetPublishers().size(),
-          subDatum.getVersion(),
-          CompressUtils.normalizeEncode(encode),
-          zipDatum.getDataBoxBytes(),
-          zipDatum.size());
-      GET_PUBLISHER_COUNTER.inc(subDatum.mustGetPublishers().size());
+    if (zipDatum != null) {
+      logDatum(dataInfoId, dataCenter, zipDatum, false);
     } else {
       LOGGER.info("getNilD,{},{}", dataInfoId, dataCenter);
     }
@@ -122,11 +172,38 @@ public abstract class BaseGetDataHandler<T> extends AbstractDataHandler<T> {
     return zipDatum;
   }
 
+  private void logDatum(String dataInfoId, String dataCenter, SubDatum zipDatum, boolean cached) {
+    final ZipSubPublisherList zip = zipDatum.getZipPublishers();
+    LOGGER.info(
+        "getD,{},{},{},{},encode={},dataBoxSize={},encodeSize={},cache={}",
+        dataInfoId,
+        dataCenter,
+        zipDatum.getPubNum(),
+        zipDatum.getVersion(),
+        CompressUtils.normalizeEncode(zip == null ? "" : zip.getEncoding()),
+        zipDatum.getDataBoxBytes(),
+        zipDatum.size(),
+        cached ? 'Y' : 'N');
+    GET_PUBLISHER_COUNTER.inc(zipDatum.getPubNum());
+  }
+
   private SlotAccessGenericResponse<SubDatum> buildResponse(
       boolean success, SlotAccess slotAccess, SubDatum subDatum, String msg) {
     return new SlotAccessGenericResponse<>(success, msg, slotAccess, subDatum);
   }
 
+  /**
+   * Setter method for property <tt>subDatumCacheService</tt>.
+   *
+   * @param subDatumCacheService value to be assigned to property subDatumCacheService
+   * @return BaseGetDataHandler
+   */
+  @VisibleForTesting
+  public BaseGetDataHandler setSubDatumCacheService(SubDatumCacheService subDatumCacheService) {
+    this.subDatumCacheService = subDatumCacheService;
+    return this;
+  }
+
   /**
    * Getter method for property <tt>compressDatumService</tt>.
    *
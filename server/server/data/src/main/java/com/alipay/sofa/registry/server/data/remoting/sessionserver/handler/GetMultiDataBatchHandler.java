@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.remoting.sessionserver.handler;
+
+import com.alipay.sofa.registry.common.model.CommonResponse;
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.dataserver.GetMultiDataBatchRequest;
+import com.alipay.sofa.registry.common.model.slot.MultiSlotAccessGenericResponse;
+import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
+import com.alipay.sofa.registry.remoting.Channel;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.google.common.collect.Maps;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * get the datum of a batch of dataInfoIds in the same slot, each dataInfoId is responded as the
+ * GetMultiDataRequest
+ */
+public class GetMultiDataBatchHandler extends BaseGetDataHandler<GetMultiDataBatchRequest> {
+
+  @Override
+  public void checkParam(GetMultiDataBatchRequest request) {
+    ParaCheckUtil.checkNotEmpty(request.getDataInfoIds(), "GetMultiDataBatchRequest.dataInfoIds");
+    for (String dataInfoId : request.getDataInfoIds()) {
+      ParaCheckUtil.checkNotBlank(dataInfoId, "GetMultiDataBatchRequest.dataInfoId");
+    }
+    ParaCheckUtil.checkNotEmpty(
+        request.getSlotTableEpochs(), "GetMultiDataBatchRequest.slotTableEpochs");
+    ParaCheckUtil.checkNotEmpty(
+        request.getSlotLeaderEpochs(), "GetMultiDataBatchRequest.slotLeaderEpochs");
+
+    for (Entry<String, Long> entry : request.getSlotTableEpochs().entrySet()) {
+      String dataCenter = entry.getKey();
+      ParaCheckUtil.checkNotNull(entry.getValue(), dataCenter + ".slotTableEpoch");
+      ParaCheckUtil.checkNotNull(
+          request.getSlotLeaderEpochs().get(dataCenter), dataCenter + ".slotLeaderEpoch");
+    }
+
+    checkSessionProcessId(request.getSessionProcessId());
+  }
+
+  /**
+   * return processor request class name
+   *
+   * @return Class
+   */
+  @Override
+  public Class interest() {
+    return GetMultiDataBatchRequest.class;
+  }
+
+  /**
+   * execute
+   *
+   * @param channel channel
+   * @param request request
+   * @return GenericResponse of dataInfoId -> MultiSlotAccessGenericResponse
+   */
+  @Override
+  public GenericResponse<Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>>> doHandle(
+      Channel channel, GetMultiDataBatchRequest request) {
+    processSessionProcessId(channel, request.getSessionProcessId());
+    Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>> responses =
+        Maps.newHashMapWithExpectedSize(request.getDataInfoIds().size());
+    for (String dataInfoId : request.getDataInfoIds()) {
+      responses.put(
+          dataInfoId,
+          processMultiDataCenter(
+              dataInfoId,
+              request.getSlotTableEpochs(),
+              request.getSlotLeaderEpochs(),
+              request.getAcceptEncodes()));
+    }
+    return new GenericResponse<Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>>>()
+        .fillSucceed(responses);
+  }
+
+  @Override
+  public CommonResponse buildFailedResponse(String msg) {
+    return new GenericResponse<>().fillFailed(msg);
+  }
+}
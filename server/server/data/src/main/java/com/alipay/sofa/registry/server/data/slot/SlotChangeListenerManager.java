@@ -17,12 +17,14 @@
 package com.alipay.sofa.registry.server.data.slot;
 
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * @author xiaojian.xj
@@ -36,9 +38,15 @@ public class SlotChangeListenerManager {
 
   @Resource private DatumStorageDelegate datumStorageDelegate;
 
+  @Autowired(required = false)
+  private SlotChangeLogStorage slotChangeLogStorage;
+
   @PostConstruct
   public void init() {
     localSlotChangeListeners.add(datumStorageDelegate.getSlotChangeListener(true));
+    if (slotChangeLogStorage != null) {
+      localSlotChangeListeners.add(slotChangeLogStorage.getSlotChangeListener());
+    }
 
     remoteSlotChangeListeners.add(datumStorageDelegate.getSlotChangeListener(false));
   }
@@ -30,6 +30,9 @@ import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestResult;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffPublisherRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffPublisherResult;
+import com.alipay.sofa.registry.common.model.slot.DataSlotDiffUtils;
+import com.alipay.sofa.registry.common.model.slot.SlotDigestTree;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptAllManager;
 import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.common.model.store.WordCache;
@@ -52,6 +55,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 /**
  * @author yuzhi.lyz
@@ -192,6 +196,49 @@ public final class SlotDiffSyncer {
     return result;
   }
 
+  /**
+   * apply the current publishers of the changed dataInfoIds from the change stream, they are diffed
+   * with the local publishers like a publisher round of the digest diff
+   *
+   * @param syncDataCenter syncDataCenter
+   * @param slotId slotId
+   * @param targetAddress targetAddress
+   * @param changes the empty publishers means all the publishers of the dataInfoId are removed
+   * @return false if apply failed
+   */
+  public boolean syncChanges(
+      String syncDataCenter,
+      int slotId,
+      String targetAddress,
+      Map<String, List<Publisher>> changes) {
+    if (changes.isEmpty()) {
+      return true;
+    }
+    final Map<String, DatumSummary> summaryMap =
+        loadSummaries(syncDataCenter, slotId, null, changes.keySet());
+    final Map<String, Map<String, Publisher>> sourcePublishers =
+        Maps.newHashMapWithExpectedSize(changes.size());
+    for (Map.Entry<String, List<Publisher>> e : changes.entrySet()) {
+      final Map<String, Publisher> publishers =
+          Maps.newHashMapWithExpectedSize(e.getValue().size());
+      for (Publisher publisher : e.getValue()) {
+        publishers.put(publisher.getRegisterId(), publisher);
+      }
+      sourcePublishers.put(e.getKey(), publishers);
+    }
+    DataSlotDiffPublisherResult result =
+        DataSlotDiffUtils.diffPublishersResult(
+            summaryMap.values(), sourcePublishers, Integer.MAX_VALUE, syncSlotAcceptorManager);
+    return processSyncPublisherResp(
+            false,
+            syncDataCenter,
+            slotId,
+            new GenericResponse<DataSlotDiffPublisherResult>().fillSucceed(result),
+            targetAddress,
+            summaryMap)
+        != null;
+  }
+
   boolean syncPublishers(
       String localDataCenter,
       boolean syncLocal,
@@ -263,26 +310,103 @@ public final class SlotDiffSyncer {
       int maxPublishers,
       SyncContinues continues,
       Map<String, DatumSummary> summaryMap) {
+    Map<String, DatumDigest> digestMap = PublisherDigestUtil.digest(summaryMap);
+    return syncDigest(
+        localDataCenter,
+        syncDataCenter,
+        syncLocal,
+        slotId,
+        targetAddress,
+        slotLeaderEpoch,
+        exchanger,
+        slotTableEpoch,
+        summaryTargetIp,
+        maxPublishers,
+        continues,
+        digestMap,
+        false,
+        diffDataInfoIds -> summaryMap);
+  }
+
+  /**
+   * the summaries is only loaded for the diff dataInfoIds when incrementalDigest, the converged
+   * dataInfoIds no need to collect the publisher versions. if the digest tree is enabled, the roots
+   * are compared at first, and only the dataInfoIds in the different buckets are diffed
+   */
+  private boolean syncDigest(
+      String localDataCenter,
+      String syncDataCenter,
+      boolean syncLocal,
+      int slotId,
+      String targetAddress,
+      long slotLeaderEpoch,
+      ClientSideExchanger exchanger,
+      long slotTableEpoch,
+      String summaryTargetIp,
+      int maxPublishers,
+      SyncContinues continues,
+      Map<String, DatumDigest> digestMap,
+      boolean incrementalDigest,
+      Function<Set<String>, Map<String, DatumSummary>> summaryLoader) {
     final boolean syncSession = summaryTargetIp != null;
+    final int bucketNum = dataServerConfig.getSlotSyncDigestTreeBucketNum();
+    Set<Integer> diffBuckets = null;
+    if (incrementalDigest && bucketNum > 0) {
+      DataSlotDiffDigestRequest treeRequest =
+          DataSlotDiffDigestRequest.buildTreeRequest(
+              localDataCenter,
+              slotTableEpoch,
+              slotId,
+              slotLeaderEpoch,
+              SlotDigestTree.build(digestMap, bucketNum),
+              syncSlotAcceptorManager,
+              true);
+      GenericResponse<DataSlotDiffDigestResult> treeResp =
+          (GenericResponse<DataSlotDiffDigestResult>)
+              exchanger.requestRaw(targetAddress, treeRequest).getResult();
+      diffBuckets =
+          processSyncDigestTreeResp(
+              syncLocal, syncDataCenter, slotId, treeResp, targetAddress, bucketNum);
+      if (diffBuckets == null) {
+        return false;
+      }
+      if (diffBuckets.isEmpty()) {
+        // the slot is converged
+        return true;
+      }
+      digestMap = SlotDigestTree.filterBuckets(digestMap, bucketNum, diffBuckets);
+    }
     if (syncSession) {
-      SyncSession.observeSyncSessionId(slotId, summaryMap.size());
+      SyncSession.observeSyncSessionId(slotId, digestMap.size());
     } else if (syncLocal) {
-      SyncLeader.observeSyncLeaderId(slotId, summaryMap.size());
+      SyncLeader.observeSyncLeaderId(slotId, digestMap.size());
     } else {
-      RemoteSyncLeader.observeSyncLeaderId(syncDataCenter, slotId, summaryMap.size());
+      RemoteSyncLeader.observeSyncLeaderId(syncDataCenter, slotId, digestMap.size());
     }
-    Map<String, DatumDigest> digestMap = PublisherDigestUtil.digest(summaryMap);
     DataSlotDiffDigestRequest request =
-        DataSlotDiffDigestRequest.buildRequest(
-            localDataCenter,
-            slotTableEpoch,
-            slotId,
-            slotLeaderEpoch,
-            digestMap,
-            syncSlotAcceptorManager);
+        diffBuckets == null
+            ? DataSlotDiffDigestRequest.buildRequest(
+                localDataCenter,
+                slotTableEpoch,
+                slotId,
+                slotLeaderEpoch,
+                digestMap,
+                syncSlotAcceptorManager,
+                incrementalDigest)
+            : DataSlotDiffDigestRequest.buildBucketsRequest(
+                localDataCenter,
+                slotTableEpoch,
+                slotId,
+                slotLeaderEpoch,
+                digestMap,
+                syncSlotAcceptorManager,
+                incrementalDigest,
+                bucketNum,
+                diffBuckets);
     Response exchangeResp = exchanger.requestRaw(targetAddress, request);
     GenericResponse<DataSlotDiffDigestResult> resp =
         (GenericResponse<DataSlotDiffDigestResult>) exchangeResp.getResult();
+    final Map<String, DatumSummary> summaryMap = summaryLoader.apply(diffDataInfoIds(resp));
     DataSlotDiffDigestResult result =
         processSyncDigestResp(syncLocal, syncDataCenter, slotId, resp, targetAddress, summaryMap);
     if (result == null) {
@@ -307,6 +431,56 @@ public final class SlotDiffSyncer {
         syncSession);
   }
 
+  static Set<String> diffDataInfoIds(GenericResponse<DataSlotDiffDigestResult> resp) {
+    if (resp == null || !resp.isSuccess() || resp.getData() == null) {
+      return Collections.emptySet();
+    }
+    DataSlotDiffDigestResult result = resp.getData();
+    Set<String> dataInfoIds =
+        Sets.newHashSetWithExpectedSize(
+            result.getUpdatedDataInfoIds().size() + result.getRemovedDataInfoIds().size());
+    dataInfoIds.addAll(result.getUpdatedDataInfoIds());
+    dataInfoIds.addAll(result.getRemovedDataInfoIds());
+    return dataInfoIds;
+  }
+
+  boolean useIncrementalDigest() {
+    // the digest of PublisherGroup could not filter publishers
+    return dataServerConfig.isSlotSyncIncrementalDigestEnable()
+        && syncSlotAcceptorManager instanceof SyncSlotAcceptAllManager;
+  }
+
+  private Map<String, DatumSummary> loadSummaries(
+      String dataCenter, int slotId, String sessionIp, Set<String> dataInfoIds) {
+    Map<String, DatumSummary> summaries = Maps.newHashMapWithExpectedSize(dataInfoIds.size());
+    if (!dataInfoIds.isEmpty()) {
+      if (sessionIp == null) {
+        datumStorageDelegate.foreach(
+            dataCenter,
+            slotId,
+            DatumBiConsumer.filterBiConsumer(
+                dataInfoIds,
+                DatumBiConsumer.publisherGroupsBiConsumer(summaries, syncSlotAcceptorManager)));
+      } else {
+        final Map<String, Map<String, DatumSummary>> datumSummary =
+            Maps.newHashMapWithExpectedSize(1);
+        datumStorageDelegate.foreach(
+            dataCenter,
+            slotId,
+            DatumBiConsumer.filterBiConsumer(
+                dataInfoIds,
+                DatumBiConsumer.publisherGroupsBiConsumer(
+                    datumSummary, Collections.singleton(sessionIp), syncSlotAcceptorManager)));
+        summaries.putAll(datumSummary.get(sessionIp));
+      }
+    }
+    // the publishers maybe removed after calc the digest
+    for (String dataInfoId : dataInfoIds) {
+      summaries.computeIfAbsent(dataInfoId, DatumSummary::new);
+    }
+    return summaries;
+  }
+
   static Map<String, DatumSummary> getSummaryForSyncPublishers(
       DataSlotDiffDigestResult result, Map<String, DatumSummary> digestSummaryMap) {
     final Map<String, DatumSummary> newSummaryMap =
@@ -386,6 +560,50 @@ public final class SlotDiffSyncer {
     return result;
   }
 
+  /** @return the different buckets, null if failed */
+  Set<Integer> processSyncDigestTreeResp(
+      boolean syncLocal,
+      String syncDataCenter,
+      int slotId,
+      GenericResponse<DataSlotDiffDigestResult> resp,
+      String targetAddress,
+      int bucketNum) {
+    if (resp == null || !resp.isSuccess()) {
+      DIFF_LOGGER.error(
+          "DiffDigestTreeFailed, syncLocal={}, syncDataCenter={}, slotId={} from {}, resp={}",
+          syncLocal,
+          syncDataCenter,
+          slotId,
+          targetAddress,
+          resp);
+      return null;
+    }
+    DataSlotDiffDigestResult result = resp.getData();
+    final ProcessId sessionProcessId = result.getSessionProcessId();
+    if (sessionProcessId != null) {
+      sessionLeaseManager.renewSession(sessionProcessId);
+    }
+    Set<Integer> diffBuckets = result.getDiffBuckets();
+    if (diffBuckets == null) {
+      // the target is old version and ignore the digest tree, diff all buckets
+      diffBuckets = Sets.newHashSetWithExpectedSize(bucketNum);
+      for (int i = 0; i < bucketNum; i++) {
+        diffBuckets.add(i);
+      }
+    }
+    if (!diffBuckets.isEmpty()) {
+      DIFF_LOGGER.info(
+          "DiffDigestTree, syncLocal={}, syncDataCenter={}, slotId={} from {}, diffBuckets={}/{}",
+          syncLocal ? 'Y' : 'N',
+          syncDataCenter,
+          slotId,
+          targetAddress,
+          diffBuckets.size(),
+          bucketNum);
+    }
+    return diffBuckets;
+  }
+
   private void triggerDataChange(
       boolean syncLocal,
       String syncDataCenter,
@@ -442,6 +660,31 @@ public final class SlotDiffSyncer {
       throws RequestException {
     ParaCheckUtil.checkNotBlank(sessionIp, "sessionIp");
 
+    if (summary == null && useIncrementalDigest()) {
+      final String dataCenter = dataServerConfig.getLocalDataCenter();
+      final Map<String, DatumDigest> digestMap = Maps.newHashMapWithExpectedSize(64);
+      datumStorageDelegate.foreach(
+          dataCenter,
+          slotId,
+          DatumBiConsumer.publisherGroupsDigestBiConsumer(
+              digestMap, sessionIp, syncSlotAcceptorManager));
+      return syncDigest(
+          syncDataCenter,
+          syncDataCenter,
+          true,
+          slotId,
+          sessionIp,
+          slotLeaderEpoch,
+          exchanger,
+          slotTableEpoch,
+          sessionIp,
+          dataServerConfig.getSlotSyncPublisherDigestMaxNum(),
+          continues,
+          digestMap,
+          true,
+          dataInfoIds -> loadSummaries(dataCenter, slotId, sessionIp, dataInfoIds));
+    }
+
     // summary == null means can not assembly summary before(eg:migrating);
     // can not change to CollectionUtils.isEmpty
     if (summary == null) {
@@ -485,6 +728,28 @@ public final class SlotDiffSyncer {
       SyncContinues continues)
       throws RequestException {
     ParaCheckUtil.checkNotBlank(slotLeaderIp, "slotLeaderIp");
+    if (useIncrementalDigest()) {
+      final Map<String, DatumDigest> digestMap = Maps.newHashMap();
+      datumStorageDelegate.foreach(
+          syncDataCenter,
+          slotId,
+          DatumBiConsumer.publisherGroupsDigestBiConsumer(digestMap, syncSlotAcceptorManager));
+      return syncDigest(
+          localDataCenter,
+          syncDataCenter,
+          syncLocal,
+          slotId,
+          slotLeaderIp,
+          slotLeaderEpoch,
+          exchanger,
+          slotTableEpoch,
+          null,
+          dataServerConfig.getSlotSyncPublisherDigestMaxNum(),
+          continues,
+          digestMap,
+          true,
+          dataInfoIds -> loadSummaries(syncDataCenter, slotId, null, dataInfoIds));
+    }
     Map<String, DatumSummary> summaries = Maps.newHashMap();
     datumStorageDelegate.foreach(
         syncDataCenter,
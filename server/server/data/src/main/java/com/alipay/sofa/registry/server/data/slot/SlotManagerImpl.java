@@ -48,6 +48,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.RateLimiter;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -99,6 +100,7 @@ public final class SlotManagerImpl implements SlotManager {
   private KeyedThreadPoolExecutor migrateSessionExecutor;
   private KeyedThreadPoolExecutor syncSessionExecutor;
   private KeyedThreadPoolExecutor syncLeaderExecutor;
+  private RateLimiter slotSyncBulkBandwidth;
 
   /**
    * the sync and migrating may happen parallelly when slot role has modified. make sure the datum
@@ -134,6 +136,9 @@ public final class SlotManagerImpl implements SlotManager {
             "sync-leader",
             dataServerConfig.getSlotFollowerSyncLeaderExecutorThreadSize(),
             dataServerConfig.getSlotFollowerSyncLeaderExecutorQueueSize());
+
+    this.slotSyncBulkBandwidth =
+        RateLimiter.create(dataServerConfig.getSlotSyncBulkBytesPerSecond());
   }
 
   @Override
@@ -598,6 +603,14 @@ public final class SlotManagerImpl implements SlotManager {
       return;
     }
 
+    if (dataServerConfig.isSlotSyncIncrementalDigestEnable()) {
+      // the digest is maintained by PublisherGroup, the syncer only collect summaries of the diff
+      for (String sessionIp : doSyncSet) {
+        syncSession(slotState, sessionIp, null, syncSessionIntervalMs, slotTableEpoch);
+      }
+      return;
+    }
+
     final Map<String, Map<String, DatumSummary>> datumSummary =
         Maps.newHashMapWithExpectedSize(doSyncSet.size());
 
@@ -675,6 +688,7 @@ public final class SlotManagerImpl implements SlotManager {
               slotTableEpoch,
               slot,
               syncer,
+              newSnapshotSyncer(slotState),
               dataNodeExchanger,
               continues,
               SYNC_DIGEST_LOGGER,
@@ -688,6 +702,22 @@ public final class SlotManagerImpl implements SlotManager {
     }
   }
 
+  /**
+   * the follower has not synced the slot from leader yet, it's the takeover of slot, stream the
+   * whole slot instead of diff
+   */
+  private SlotSnapshotSyncer newSnapshotSyncer(SlotState slotState) {
+    if (!dataServerConfig.isSlotSyncBulkEnable() || slotState.lastSuccessLeaderSyncTime > 0) {
+      return null;
+    }
+    return new SlotSnapshotSyncer(
+        dataServerConfig,
+        datumStorageDelegate,
+        syncSlotAcceptAllManager,
+        slotSyncBulkBandwidth,
+        DIFF_LOGGER);
+  }
+
   private KeyedTask<SyncSessionTask> commitSyncSessionTask(
       Slot slot,
       long slotTableEpoch,
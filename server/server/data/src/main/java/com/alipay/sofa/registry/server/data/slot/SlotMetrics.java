@@ -193,6 +193,32 @@ public final class SlotMetrics {
             .labelNames("slot")
             .register();
 
+    private static final Counter SYNC_LEADER_SNAPSHOT_COUNTER =
+        Counter.build()
+            .namespace("data")
+            .subsystem("sync")
+            .name("leader_snapshot_total")
+            .help("count sync leader snapshot chunks")
+            .labelNames("slot")
+            .register();
+
+    private static final Counter SYNC_LEADER_SNAPSHOT_PUB_NUM_COUNTER =
+        Counter.build()
+            .namespace("data")
+            .subsystem("sync")
+            .name("leader_snapshot_pub_num_total")
+            .help("count sync leader snapshot pub's num")
+            .labelNames("slot")
+            .register();
+
+    private static final Counter SYNC_LEADER_SNAPSHOT_BYTES_COUNTER =
+        Counter.build()
+            .namespace("data")
+            .subsystem("sync")
+            .name("leader_snapshot_bytes_total")
+            .help("count sync leader snapshot bytes")
+            .register();
+
     static void observeSyncLeaderId(int slotId, int idNum) {
       final String str = String.valueOf(slotId);
       SYNC_LEADER_ID_COUNTER.labels(str).inc();
@@ -204,5 +230,12 @@ public final class SlotMetrics {
       SYNC_LEADER_PUB_COUNTER.labels(str).inc();
       SYNC_LEADER_PUB_NUM_COUNTER.labels(str).inc(pubNum);
     }
+
+    static void observeSyncLeaderSnapshot(int slotId, int pubNum, int bytes) {
+      final String str = String.valueOf(slotId);
+      SYNC_LEADER_SNAPSHOT_COUNTER.labels(str).inc();
+      SYNC_LEADER_SNAPSHOT_PUB_NUM_COUNTER.labels(str).inc(pubNum);
+      SYNC_LEADER_SNAPSHOT_BYTES_COUNTER.inc(bytes);
+    }
   }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.slot;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotResult;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.common.model.store.WordCache;
+import com.alipay.sofa.registry.compress.CompressUtils;
+import com.alipay.sofa.registry.compress.Compressor;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.shared.remoting.ClientSideExchanger;
+import com.alipay.sofa.registry.server.shared.util.DatumUtils;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.google.common.util.concurrent.RateLimiter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * bulk sync the whole slot from the leader by chunks when the follower has nothing of the slot, the
+ * digest diff is still needed after that to converge the changes during the streaming. the slots
+ * are streamed parallelly by the sync-leader executor, and share the bandwidth of the rateLimiter
+ */
+public final class SlotSnapshotSyncer {
+  private final Logger DIFF_LOGGER;
+  private final DataServerConfig dataServerConfig;
+  private final DatumStorageDelegate datumStorageDelegate;
+  private final SyncSlotAcceptorManager syncSlotAcceptorManager;
+  // permits are bytes
+  private final RateLimiter bandwidth;
+
+  public SlotSnapshotSyncer(
+      DataServerConfig dataServerConfig,
+      DatumStorageDelegate datumStorageDelegate,
+      SyncSlotAcceptorManager syncSlotAcceptorManager,
+      RateLimiter bandwidth,
+      Logger diffLogger) {
+    this.dataServerConfig = dataServerConfig;
+    this.datumStorageDelegate = datumStorageDelegate;
+    this.syncSlotAcceptorManager = syncSlotAcceptorManager;
+    this.bandwidth = bandwidth;
+    this.DIFF_LOGGER = diffLogger;
+  }
+
+  /** @return false if the snapshot breaks by failure, the synced chunks are kept */
+  public boolean syncSnapshot(
+      String localDataCenter,
+      String syncDataCenter,
+      int slotId,
+      String slotLeaderIp,
+      long slotLeaderEpoch,
+      ClientSideExchanger exchanger,
+      long slotTableEpoch,
+      SyncContinues continues) {
+    ParaCheckUtil.checkNotBlank(slotLeaderIp, "slotLeaderIp");
+    final String[] acceptEncodes = dataServerConfig.getSlotSyncBulkAcceptEncodes();
+    final int maxPublishers = dataServerConfig.getSlotSyncBulkChunkPublisherMaxNum();
+    String cursor = null;
+    int chunks = 0;
+    int pubs = 0;
+    long bytes = 0;
+    do {
+      if (!continues.continues()) {
+        DIFF_LOGGER.info("snapshot break, slotId={} from {}", slotId, slotLeaderIp);
+        return true;
+      }
+      DataSlotSnapshotRequest request =
+          new DataSlotSnapshotRequest(
+              localDataCenter,
+              slotTableEpoch,
+              slotId,
+              slotLeaderEpoch,
+              syncSlotAcceptorManager,
+              cursor,
+              maxPublishers,
+              acceptEncodes);
+      GenericResponse<DataSlotSnapshotResult> resp =
+          (GenericResponse<DataSlotSnapshotResult>)
+              exchanger.requestRaw(slotLeaderIp, request).getResult();
+      if (resp == null || !resp.isSuccess() || resp.getData() == null) {
+        DIFF_LOGGER.error(
+            "SnapshotFailed, slotId={} from {}, cursor={}, resp={}",
+            slotId,
+            slotLeaderIp,
+            cursor,
+            resp);
+        return false;
+      }
+      final DataSlotSnapshotResult result = resp.getData();
+      final int byteSize = result.byteSize();
+      // the budget is shared by all slots, wait before applying, it slows down the next request
+      if (byteSize > 0) {
+        bandwidth.acquire(byteSize);
+      }
+      apply(syncDataCenter, result);
+      SlotMetrics.SyncLeader.observeSyncLeaderSnapshot(slotId, result.getPubNum(), byteSize);
+      chunks++;
+      pubs += result.getPubNum();
+      bytes += byteSize;
+      cursor = result.getNextCursor();
+    } while (cursor != null);
+    DIFF_LOGGER.info(
+        "Snapshot, slotId={} from {}, chunks={}, pubs={}, bytes={}",
+        slotId,
+        slotLeaderIp,
+        chunks,
+        pubs,
+        bytes);
+    return true;
+  }
+
+  void apply(String syncDataCenter, DataSlotSnapshotResult result) {
+    for (Map.Entry<String, List<Publisher>> e : decode(result).entrySet()) {
+      final String dataInfoId = WordCache.getWordCache(e.getKey());
+      final List<Publisher> publishers = e.getValue();
+      Publisher.internPublisher(publishers);
+      datumStorageDelegate.putPublisher(syncDataCenter, dataInfoId, publishers);
+    }
+  }
+
+  static Map<String, List<Publisher>> decode(DataSlotSnapshotResult result) {
+    if (!result.isZip()) {
+      return result.getPublishers();
+    }
+    Compressor compressor = CompressUtils.mustGet(result.getEncoding());
+    try {
+      byte[] data = compressor.decompress(result.getZipPublishers(), result.getOriginSize());
+      DataSlotSnapshotResult.PublisherChunk chunk =
+          DatumUtils.serializer.deserialize(data, DataSlotSnapshotResult.PublisherChunk.className);
+      return chunk.getPublishers();
+    } catch (Throwable e) {
+      throw new RuntimeException("decompress slot snapshot failed", e);
+    }
+  }
+}
@@ -37,6 +37,8 @@ public class SyncLeaderTask implements Runnable {
   private final long slotTableEpoch;
   private final Slot slot;
   private final SlotDiffSyncer syncer;
+  // not null means stream the whole slot before the digest diff
+  private final SlotSnapshotSyncer snapshotSyncer;
   private final ClientSideExchanger clientSideExchanger;
   private final SyncContinues continues;
 
@@ -53,6 +55,30 @@ public class SyncLeaderTask implements Runnable {
       SyncContinues continues,
       Logger syncDigestLogger,
       Logger syncErrorLogger) {
+    this(
+        localDataCenter,
+        syncDataCenter,
+        slotTableEpoch,
+        slot,
+        syncer,
+        null,
+        clientSideExchanger,
+        continues,
+        syncDigestLogger,
+        syncErrorLogger);
+  }
+
+  public SyncLeaderTask(
+      String localDataCenter,
+      String syncDataCenter,
+      long slotTableEpoch,
+      Slot slot,
+      SlotDiffSyncer syncer,
+      SlotSnapshotSyncer snapshotSyncer,
+      ClientSideExchanger clientSideExchanger,
+      SyncContinues continues,
+      Logger syncDigestLogger,
+      Logger syncErrorLogger) {
     this.localDataCenter = localDataCenter;
     this.syncDataCenter = syncDataCenter;
     syncLocalDataCenter = StringUtils.equals(localDataCenter, syncDataCenter);
@@ -60,6 +86,7 @@ public class SyncLeaderTask implements Runnable {
     this.slotTableEpoch = slotTableEpoch;
     this.slot = slot;
     this.syncer = syncer;
+    this.snapshotSyncer = snapshotSyncer;
     this.clientSideExchanger = clientSideExchanger;
     this.continues = continues;
 
@@ -71,6 +98,18 @@ public class SyncLeaderTask implements Runnable {
   public void run() {
     boolean success = false;
     try {
+      if (snapshotSyncer != null) {
+        // the failed snapshot is not fatal, the digest diff could sync the remains
+        snapshotSyncer.syncSnapshot(
+            localDataCenter,
+            syncDataCenter,
+            slot.getId(),
+            slot.getLeader(),
+            slot.getLeaderEpoch(),
+            clientSideExchanger,
+            slotTableEpoch,
+            continues);
+      }
       success =
           syncer.syncSlotLeader(
               localDataCenter,
@@ -118,6 +157,8 @@ public class SyncLeaderTask implements Runnable {
         + slotTableEpoch
         + ", slot="
         + slot
+        + ", snapshot="
+        + (snapshotSyncer != null)
         + '}';
   }
 }
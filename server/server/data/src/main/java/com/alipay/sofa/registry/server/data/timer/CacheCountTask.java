@@ -23,6 +23,7 @@ import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.OffHeapSlabStore;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
 import com.alipay.sofa.registry.util.LoopRunnable;
 import com.alipay.sofa.registry.util.NamedThreadFactory;
@@ -91,6 +92,10 @@ public class CacheCountTask {
       int pubCount = pubs.values().stream().mapToInt(p -> p.size()).sum();
       COUNT_LOGGER.info("[Total]{},pubs={},dataIds={}", dataCenter, pubCount, pubs.size());
     }
+    final OffHeapSlabStore offHeap = OffHeapSlabStore.getDefault();
+    if (offHeap != null) {
+      COUNT_LOGGER.info("[OffHeap]{}", offHeap);
+    }
   }
 
   boolean count() {
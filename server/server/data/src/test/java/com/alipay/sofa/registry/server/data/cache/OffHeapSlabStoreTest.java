@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapSlabStoreTest {
+
+  @Test
+  public void testClassIndex() {
+    Assert.assertEquals(0, OffHeapSlabStore.classIndex(1));
+    Assert.assertEquals(0, OffHeapSlabStore.classIndex(64));
+    Assert.assertEquals(1, OffHeapSlabStore.classIndex(65));
+    Assert.assertEquals(1, OffHeapSlabStore.classIndex(128));
+    Assert.assertEquals(2, OffHeapSlabStore.classIndex(129));
+    Assert.assertEquals(4, OffHeapSlabStore.classIndex(1024));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSlabSize() {
+    new OffHeapSlabStore(1024, 64, 1000);
+  }
+
+  @Test
+  public void testAllocate() {
+    OffHeapSlabStore store = new OffHeapSlabStore(4096, 100, 1024);
+    // small than threshold or large than slab
+    Assert.assertNull(store.allocate(new byte[99]));
+    Assert.assertNull(store.allocate(new byte[1025]));
+
+    byte[] bytes = bytes(100, 1);
+    OffHeapSlabStore.Chunk chunk = store.allocate(bytes);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals(100, chunk.length());
+    Assert.assertEquals(1024, store.getAllocatedBytes());
+    Assert.assertEquals(128, store.getUsedBytes());
+    Assert.assertArrayEquals(bytes, chunk.copy());
+    Assert.assertTrue(chunk.contentEquals(bytes));
+    Assert.assertFalse(chunk.contentEquals(bytes(100, 2)));
+    Assert.assertFalse(chunk.contentEquals(new byte[101]));
+
+    ByteBuffer view = chunk.view();
+    Assert.assertTrue(view.isReadOnly());
+    Assert.assertEquals(ByteBuffer.wrap(bytes), view);
+
+    // the chunks in the same slab not overlap
+    OffHeapSlabStore.Chunk chunk2 = store.allocate(bytes(120, 3));
+    Assert.assertEquals(1024, store.getAllocatedBytes());
+    Assert.assertArrayEquals(bytes, chunk.copy());
+    Assert.assertArrayEquals(bytes(120, 3), chunk2.copy());
+
+    // the chunk is reused after released
+    chunk2.release();
+    Assert.assertEquals(128, store.getUsedBytes());
+    Assert.assertNull(chunk2.copy());
+    Assert.assertFalse(chunk2.retain());
+    OffHeapSlabStore.Chunk chunk3 = store.allocate(bytes(128, 4));
+    Assert.assertEquals(1024, store.getAllocatedBytes());
+    Assert.assertArrayEquals(bytes(128, 4), chunk3.copy());
+    Assert.assertArrayEquals(bytes, chunk.copy());
+  }
+
+  @Test
+  public void testCapacity() {
+    OffHeapSlabStore store = new OffHeapSlabStore(2048, 100, 1024);
+    OffHeapSlabStore.Chunk chunk1 = store.allocate(new byte[1024]);
+    OffHeapSlabStore.Chunk chunk2 = store.allocate(new byte[600]);
+    Assert.assertNotNull(chunk1);
+    Assert.assertNotNull(chunk2);
+    // full, the caller keeps the bytes on heap
+    Assert.assertNull(store.allocate(new byte[1000]));
+    Assert.assertNull(store.allocate(new byte[200]));
+    chunk1.release();
+    Assert.assertNotNull(store.allocate(new byte[1000]));
+  }
+
+  @Test
+  public void testReturnSlab() {
+    OffHeapSlabStore store = new OffHeapSlabStore(2048, 64, 1024);
+    // fill the two slabs with the chunks of 64
+    List<OffHeapSlabStore.Chunk> chunks = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      chunks.add(store.allocate(new byte[64]));
+    }
+    Assert.assertEquals(2048, store.getAllocatedBytes());
+    Assert.assertNull(store.allocate(new byte[64]));
+    Assert.assertNull(store.allocate(new byte[1024]));
+    Assert.assertEquals(2, store.getFallbackCount());
+
+    // the empty slab returns to the store, the last slab is kept by the class
+    for (OffHeapSlabStore.Chunk chunk : chunks) {
+      chunk.release();
+    }
+    Assert.assertEquals(1, store.freeSlabNum());
+    Assert.assertEquals(0, store.getUsedBytes());
+
+    // the returned slab is carved by another class
+    OffHeapSlabStore.Chunk large = store.allocate(bytes(1024, 1));
+    Assert.assertNotNull(large);
+    Assert.assertEquals(0, store.freeSlabNum());
+    Assert.assertEquals(2048, store.getAllocatedBytes());
+    Assert.assertArrayEquals(bytes(1024, 1), large.copy());
+    Assert.assertNotNull(store.allocate(new byte[64]));
+    Assert.assertEquals(2, store.getFallbackCount());
+  }
+
+  @Test
+  public void testRetain() {
+    OffHeapSlabStore store = new OffHeapSlabStore(1024, 64, 1024);
+    OffHeapSlabStore.Chunk chunk = store.allocate(new byte[64]);
+    Assert.assertEquals(1, chunk.refCnt());
+    Assert.assertTrue(chunk.retain());
+    chunk.release();
+    Assert.assertEquals(1, chunk.refCnt());
+    Assert.assertNotNull(chunk.copy());
+    chunk.release();
+    Assert.assertEquals(0, chunk.refCnt());
+    Assert.assertEquals(0, store.getUsedBytes());
+    try {
+      chunk.release();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReclaimCollected() throws Exception {
+    OffHeapSlabStore store = new OffHeapSlabStore(1024, 64, 1024);
+    Assert.assertNotNull(store.allocate(new byte[1024]));
+    Assert.assertNull(store.allocate(new byte[1024]));
+    // the unreleased chunk is reclaimed after collected
+    OffHeapSlabStore.Chunk chunk = null;
+    for (int i = 0; i < 50 && chunk == null; i++) {
+      System.gc();
+      Thread.sleep(20);
+      chunk = store.allocate(new byte[1024]);
+    }
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals(1024, store.getUsedBytes());
+  }
+
+  private static byte[] bytes(int size, int v) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) (v + i);
+    }
+    return bytes;
+  }
+}
@@ -18,11 +18,16 @@ package com.alipay.sofa.registry.server.data.cache;
 
 import com.alipay.sofa.registry.common.model.ConnectId;
 import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.PublishSource;
+import com.alipay.sofa.registry.common.model.ServerDataBox;
 import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.common.model.store.URL;
 import com.alipay.sofa.registry.common.model.store.UnPublisher;
 import com.alipay.sofa.registry.server.data.TestBaseUtils;
 import com.alipay.sofa.registry.server.shared.env.ServerEnv;
 import com.alipay.sofa.registry.util.ParaCheckUtil;
+import com.google.common.collect.Lists;
+import java.util.Collections;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -69,4 +74,96 @@ public class PublisherEnvelopeTest {
     Assert.assertFalse(envelope.isConnectId(publisher.connectId()));
     Assert.assertFalse(envelope.isConnectId(ConnectId.of("127.0.0.1:9999", "127.0.0.2:9997")));
   }
+
+  @Test
+  public void testCompact() {
+    Publisher publisher = TestBaseUtils.createTestPublisher("testDataInfoId");
+    publisher.setCell("testCell");
+    publisher.setAppName("testApp");
+    publisher.setClientRegisterTimestamp(1000L);
+    publisher.setPublishSource(PublishSource.DATUM_SYNCER);
+    publisher.setDataList(Lists.newArrayList(new ServerDataBox(new byte[] {1, 2, 3})));
+    PublisherGroup group = new PublisherGroup(publisher.getDataInfoId(), "dc");
+    PublisherEnvelope envelope = PublisherEnvelope.compactOf(publisher, group, null);
+    ParaCheckUtil.checkNotBlank(envelope.toString(), "tostring");
+    Assert.assertTrue(envelope.isCompact());
+    Assert.assertTrue(envelope.isPub());
+    Assert.assertNull(envelope.publisher);
+    Assert.assertEquals(publisher.registerVersion(), envelope.getVersionIfPub());
+    Assert.assertEquals(PublishSource.DATUM_SYNCER, envelope.getPublishSource());
+    Assert.assertTrue(envelope.isConnectId(publisher.connectId()));
+    Assert.assertTrue(envelope.dataListEquals(publisher.getDataList()));
+    Assert.assertFalse(
+        envelope.dataListEquals(Lists.newArrayList(new ServerDataBox(new byte[] {1, 2}))));
+    Assert.assertFalse(envelope.dataListEquals(null));
+
+    Publisher materialized = envelope.getPublisher();
+    Assert.assertNotSame(publisher, materialized);
+    Assert.assertEquals(publisher.toString(), materialized.toString());
+    Assert.assertEquals(publisher.getDataList(), materialized.getDataList());
+    Assert.assertEquals(publisher.getSessionProcessId(), materialized.getSessionProcessId());
+
+    // the box in object could not be packed
+    publisher.setDataList(Lists.newArrayList(new ServerDataBox("testDataBox")));
+    envelope = PublisherEnvelope.compactOf(publisher, group, null);
+    Assert.assertFalse(envelope.isCompact());
+    Assert.assertTrue(publisher == envelope.publisher);
+
+    // unpub has no publisher
+    envelope = PublisherEnvelope.compactOf(UnPublisher.of(publisher), group, null);
+    Assert.assertFalse(envelope.isCompact());
+    Assert.assertFalse(envelope.isPub());
+  }
+
+  @Test
+  public void testCompactPacked() {
+    Publisher publisher = TestBaseUtils.createTestPublisher("testDataInfoId");
+    publisher.setCell(null);
+    publisher.setAppName("testApp");
+    publisher.setClientId("测试-client");
+    publisher.setProcessId("127.0.0.1-1-1");
+    publisher.setClientRegisterTimestamp(-1L);
+    publisher.setAttributes(Collections.singletonMap("k", "v"));
+    publisher.setSourceAddress(new URL(URL.ProtocolType.BOLT, "127.0.0.1", 65535, URL.PROTOBUF));
+    publisher.setTargetAddress(new URL(null, "::1", 9600, null));
+    publisher.setDataList(
+        Lists.newArrayList(new ServerDataBox(new byte[300]), new ServerDataBox(new byte[0])));
+    PublisherGroup group = new PublisherGroup(publisher.getDataInfoId(), "dc");
+    PublisherEnvelope envelope = PublisherEnvelope.compactOf(publisher, group, null);
+    Assert.assertTrue(envelope.isCompact());
+    Assert.assertTrue(envelope.dataListEquals(publisher.getDataList()));
+    Assert.assertFalse(
+        envelope.dataListEquals(Lists.newArrayList(new ServerDataBox(new byte[300]))));
+    Assert.assertEquals(publisher.connectId(), envelope.connectId());
+    // the ipv4 is 4 bytes, appName is the dictionary code
+    Assert.assertTrue(envelope.compact.recordSize() < 300 + 80);
+
+    Publisher materialized = envelope.getPublisher();
+    Assert.assertEquals(publisher.toString(), materialized.toString());
+    Assert.assertEquals(publisher.getClientId(), materialized.getClientId());
+    Assert.assertNull(materialized.getCell());
+    Assert.assertTrue(-1L == materialized.getClientRegisterTimestamp());
+    Assert.assertEquals(publisher.getAttributes(), materialized.getAttributes());
+    Assert.assertEquals(URL.ProtocolType.BOLT, materialized.getSourceAddress().getProtocol());
+    Assert.assertEquals(
+        Byte.valueOf(URL.PROTOBUF), materialized.getSourceAddress().getSerializerIndex());
+    Assert.assertNull(materialized.getTargetAddress().getSerializerIndex());
+    Assert.assertEquals(publisher.getDataList(), materialized.getDataList());
+
+    publisher.setDataList(null);
+    envelope = PublisherEnvelope.compactOf(publisher, group, null);
+    Assert.assertTrue(envelope.dataListEquals(null));
+    Assert.assertNull(envelope.getPublisher().getDataList());
+
+    // the per-process strings are not put into the dictionary
+    final int dictionarySize = CompactPublisher.DICTIONARY.size();
+    publisher.setProcessId("testProcessId-" + System.nanoTime());
+    publisher.setSourceAddress(new URL("10.0.0.255", 12200));
+    envelope = PublisherEnvelope.compactOf(publisher, group, null);
+    Assert.assertEquals(dictionarySize, CompactPublisher.DICTIONARY.size());
+    materialized = envelope.getPublisher();
+    Assert.assertEquals(publisher.getProcessId(), materialized.getProcessId());
+    Assert.assertEquals("10.0.0.255", materialized.getSourceAddress().getIpAddress());
+    Assert.assertEquals(publisher.connectId(), envelope.connectId());
+  }
 }
@@ -18,6 +18,7 @@ package com.alipay.sofa.registry.server.data.cache;
 
 import com.alipay.sofa.registry.common.model.ConnectId;
 import com.alipay.sofa.registry.common.model.ProcessId;
+import com.alipay.sofa.registry.common.model.PublisherDigestUtil;
 import com.alipay.sofa.registry.common.model.RegisterVersion;
 import com.alipay.sofa.registry.common.model.ServerDataBox;
 import com.alipay.sofa.registry.common.model.dataserver.Datum;
@@ -37,6 +38,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -118,6 +121,8 @@ public class PublisherGroupTest {
     Assert.assertNotNull(v);
     Assert.assertEquals(group.getPublishers().size(), 1);
     Assert.assertTrue(group.getPublishers().get(0) == newer);
+    Assert.assertTrue(group.getPublishers(e -> true).get(0) == newer);
+    Assert.assertTrue(group.getPublishers(e -> false).isEmpty());
 
     final ProcessId mockProcessId = new ProcessId("xxx", System.currentTimeMillis(), 1, 1);
     v = group.clean(mockProcessId, CleanContinues.ALWAYS);
@@ -387,4 +392,210 @@ public class PublisherGroupTest {
     Assert.assertEquals(conns.size(), 1);
     Assert.assertEquals(conns.get(newer.getRegisterId()), newer);
   }
+
+  @Test
+  public void testDigest() {
+    final String dataId = "testDataInfoId";
+    Publisher publisher1 = TestBaseUtils.createTestPublisher(dataId);
+    Publisher publisher2 = TestBaseUtils.createTestPublisher(dataId);
+    ProcessId processId2 = new ProcessId("ip2", System.currentTimeMillis(), 100, 200);
+    publisher2.setSessionProcessId(processId2);
+    PublisherGroup group = new PublisherGroup(publisher1.getDataInfoId(), "dc");
+    assertDigest(group);
+    Assert.assertNull(group.getDigest(ServerEnv.IP));
+
+    group.put(Lists.newArrayList(publisher1, publisher2));
+    assertDigest(group);
+    Assert.assertEquals(
+        group.getDigest(ServerEnv.IP),
+        PublisherDigestUtil.incrementalDigest(
+            new DatumSummary(
+                group.dataInfoId,
+                Collections.singletonMap(
+                    publisher1.getRegisterId(), publisher1.registerVersion()))));
+
+    Publisher newer = TestBaseUtils.cloneBase(publisher1);
+    newer.setVersion(publisher1.getVersion() + 1);
+    group.put(Lists.newArrayList(newer));
+    assertDigest(group);
+
+    group.remove(
+        processId2,
+        Collections.singletonMap(publisher2.getRegisterId(), publisher2.registerVersion()));
+    assertDigest(group);
+    Assert.assertNull(group.getDigest(processId2.getHostAddress()));
+    // compact the tombstone not modify the digest
+    Assert.assertEquals(group.compact(Long.MAX_VALUE), 1);
+    assertDigest(group);
+
+    group.clean(null, CleanContinues.ALWAYS);
+    assertDigest(group);
+    Assert.assertNull(group.getDigest(ServerEnv.IP));
+  }
+
+  @Test
+  public void testCompact() {
+    final String dataId = "testDataInfoId";
+    Publisher publisher1 = TestBaseUtils.createTestPublisher(dataId);
+    publisher1.setDataList(Lists.newArrayList(new ServerDataBox(new byte[] {1})));
+    Publisher publisher2 = TestBaseUtils.createTestPublisher(dataId);
+    publisher2.setSourceAddress(new URL("192.168.1.2", 9999));
+    PublisherGroup group =
+        new PublisherGroup(publisher1.getDataInfoId(), "dc", new PublisherIndex(), true);
+    Assert.assertNotNull(group.put(Lists.newArrayList(publisher1, publisher2)));
+    Assert.assertTrue(group.pubMap.get(publisher1.getRegisterId()).isCompact());
+    Assert.assertTrue(group.pubMap.get(publisher2.getRegisterId()).isCompact());
+    assertDigest(group);
+
+    Datum datum = group.toDatum();
+    Assert.assertEquals(2, datum.publisherSize());
+    Assert.assertEquals(
+        publisher1.toString(), datum.getPubMap().get(publisher1.getRegisterId()).toString());
+    Map<String, Publisher> byConnectId = group.getByConnectId(publisher2.connectId());
+    Assert.assertEquals(1, byConnectId.size());
+    Assert.assertEquals(
+        publisher2.registerVersion(),
+        byConnectId.get(publisher2.getRegisterId()).registerVersion());
+
+    // the same dataList with newer version, skip the datum version
+    Publisher newer = TestBaseUtils.cloneBase(publisher1);
+    newer.setDataList(Lists.newArrayList(new ServerDataBox(new byte[] {1})));
+    newer.setVersion(publisher1.getVersion() + 1);
+    Assert.assertNull(group.addPublisher(newer));
+    Assert.assertEquals(
+        newer.registerVersion(), group.pubMap.get(newer.getRegisterId()).registerVersion);
+    newer = TestBaseUtils.cloneBase(newer);
+    newer.setDataList(Lists.newArrayList(new ServerDataBox(new byte[] {2})));
+    newer.setVersion(newer.getVersion() + 1);
+    Assert.assertNotNull(group.addPublisher(newer));
+    assertDigest(group);
+
+    Assert.assertNotNull(
+        group.remove(
+            ServerEnv.PROCESS_ID,
+            Collections.singletonMap(newer.getRegisterId(), newer.registerVersion())));
+    Assert.assertEquals(1, group.getPublishers().size());
+    Assert.assertEquals(1, group.tombstoneNum());
+    assertDigest(group);
+  }
+
+  @Test
+  public void testCompactOffHeap() {
+    final String dataId = "testDataInfoId";
+    OffHeapSlabStore offHeap = new OffHeapSlabStore(64 * 1024, 64, 4096);
+    Publisher publisher1 = TestBaseUtils.createTestPublisher(dataId);
+    publisher1.setDataList(Lists.newArrayList(new ServerDataBox(new byte[100])));
+    Publisher publisher2 = TestBaseUtils.createTestPublisher(dataId);
+    publisher2.setDataList(Lists.newArrayList(new ServerDataBox(new byte[10])));
+    PublisherGroup group =
+        new PublisherGroup(publisher1.getDataInfoId(), "dc", new PublisherIndex(), true, offHeap);
+    Assert.assertNotNull(group.put(Lists.newArrayList(publisher1, publisher2)));
+    // only the large value is off heap
+    Assert.assertEquals(1, group.pubMap.get(publisher1.getRegisterId()).compact.offHeapNum());
+    Assert.assertEquals(0, group.pubMap.get(publisher2.getRegisterId()).compact.offHeapNum());
+    Assert.assertEquals(128, offHeap.getUsedBytes());
+
+    Datum datum = group.toDatum();
+    Assert.assertEquals(
+        publisher1.toString(), datum.getPubMap().get(publisher1.getRegisterId()).toString());
+    Assert.assertArrayEquals(
+        new byte[100],
+        group
+            .getByConnectId(publisher1.connectId())
+            .get(publisher1.getRegisterId())
+            .getDataList()
+            .get(0)
+            .getBytes());
+
+    // the same value with newer version, skip the datum version and release the old value
+    Publisher newer = TestBaseUtils.cloneBase(publisher1);
+    newer.setDataList(Lists.newArrayList(new ServerDataBox(new byte[100])));
+    newer.setVersion(publisher1.getVersion() + 1);
+    PublisherEnvelope exist = group.pubMap.get(publisher1.getRegisterId());
+    Assert.assertNull(group.addPublisher(newer));
+    Assert.assertNull(exist.getPublisher());
+    Assert.assertEquals(128, offHeap.getUsedBytes());
+    Assert.assertNotNull(group.materialize(publisher1.getRegisterId(), exist));
+
+    newer = TestBaseUtils.cloneBase(newer);
+    newer.setDataList(Lists.newArrayList(new ServerDataBox(new byte[200])));
+    newer.setVersion(newer.getVersion() + 1);
+    Assert.assertNotNull(group.addPublisher(newer));
+    Assert.assertEquals(256, offHeap.getUsedBytes());
+    assertDigest(group);
+
+    Assert.assertNotNull(
+        group.remove(
+            ServerEnv.PROCESS_ID,
+            Collections.singletonMap(newer.getRegisterId(), newer.registerVersion())));
+    Assert.assertEquals(0, offHeap.getUsedBytes());
+    Assert.assertNull(group.materialize(newer.getRegisterId(), exist));
+
+    group.addPublisher(publisher1);
+    Assert.assertEquals(0, offHeap.getUsedBytes());
+    newer = TestBaseUtils.cloneBase(newer);
+    newer.setDataList(Lists.newArrayList(new ServerDataBox(new byte[100])));
+    newer.setVersion(newer.getVersion() + 10);
+    Assert.assertNotNull(group.addPublisher(newer));
+    Assert.assertEquals(128, offHeap.getUsedBytes());
+    Assert.assertNotNull(group.clearPublishers());
+    Assert.assertEquals(0, offHeap.getUsedBytes());
+  }
+
+  @Test
+  public void testCompactOffHeapConcurrentReplace() throws Exception {
+    final String dataId = "testDataInfoId";
+    OffHeapSlabStore offHeap = new OffHeapSlabStore(1024 * 1024, 64, 4096);
+    List<Publisher> publishers = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      Publisher publisher = TestBaseUtils.createTestPublisher(dataId);
+      publisher.setDataList(Lists.newArrayList(new ServerDataBox(new byte[100])));
+      publishers.add(publisher);
+    }
+    PublisherGroup group =
+        new PublisherGroup(
+            publishers.get(0).getDataInfoId(), "dc", new PublisherIndex(), true, offHeap);
+    group.put(publishers);
+
+    AtomicBoolean stop = new AtomicBoolean(false);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread replacer =
+        new Thread(
+            () -> {
+              try {
+                long version = publishers.get(0).getVersion();
+                while (!stop.get()) {
+                  version++;
+                  for (Publisher publisher : publishers) {
+                    Publisher newer = TestBaseUtils.cloneBase(publisher);
+                    newer.setDataList(
+                        Lists.newArrayList(new ServerDataBox(new byte[100 + (int) (version % 2)])));
+                    newer.setVersion(version);
+                    group.addPublisher(newer);
+                  }
+                }
+              } catch (Throwable t) {
+                error.set(t);
+              }
+            });
+    replacer.start();
+    try {
+      for (int i = 0; i < 2000; i++) {
+        Datum datum = group.toDatum();
+        Assert.assertEquals(publishers.size(), datum.getPubMap().size());
+      }
+    } finally {
+      stop.set(true);
+      replacer.join();
+    }
+    Assert.assertNull(error.get());
+  }
+
+  private static void assertDigest(PublisherGroup group) {
+    Map<String, DatumSummary> summaries = Maps.newHashMap();
+    DatumBiConsumer.publisherGroupsBiConsumer(summaries, ACCEPT_ALL)
+        .accept(group.dataInfoId, group);
+    Assert.assertEquals(
+        group.getDigest(), PublisherDigestUtil.incrementalDigest(summaries.get(group.dataInfoId)));
+  }
 }
@@ -443,6 +443,61 @@ public class PublisherGroupsTest {
     Assert.assertEquals(publishers.get(publisher3.getDataInfoId()).size(), 0);
   }
 
+  @Test
+  public void testIndex() {
+    PublisherGroups groups = new PublisherGroups(testDc);
+    Publisher publisher1 = TestBaseUtils.createTestPublisher(testDataId);
+    Publisher publisher2 = TestBaseUtils.createTestPublisher(testDataId + "-2");
+    Publisher publisher3 = TestBaseUtils.createTestPublisher(testDataId + "-3");
+    ProcessId processId3 = new ProcessId("ip3", System.currentTimeMillis(), 100, 200);
+    publisher3.setSessionProcessId(processId3);
+    publisher3.setSourceAddress(URL.valueOf("ip3:1000"));
+
+    groups.put(publisher1.getDataInfoId(), Lists.newArrayList(publisher1));
+    groups.put(publisher2.getDataInfoId(), Lists.newArrayList(publisher2));
+    groups.put(publisher3.getDataInfoId(), Lists.newArrayList(publisher3));
+
+    Assert.assertEquals(groups.getByConnectId(publisher1.connectId()).size(), 2);
+    Assert.assertEquals(groups.getByConnectId(publisher3.connectId()).size(), 1);
+    Assert.assertEquals(
+        groups.getSessionProcessIds(),
+        Sets.newHashSet(publisher1.getSessionProcessId(), processId3));
+
+    // unpub by session, the tombstone is not indexed
+    DatumVersion v =
+        groups.remove(
+            publisher2.getDataInfoId(),
+            publisher2.getSessionProcessId(),
+            Collections.singletonMap(publisher2.getRegisterId(), publisher2.registerVersion()));
+    Assert.assertNotNull(v);
+    Map<String, Publisher> publisherMap = groups.getByConnectId(publisher1.connectId());
+    Assert.assertEquals(publisherMap.size(), 1);
+    Assert.assertEquals(publisherMap.get(publisher1.getRegisterId()), publisher1);
+    Assert.assertEquals(groups.compact(Long.MAX_VALUE).size(), 1);
+    Assert.assertEquals(groups.getByConnectId(publisher1.connectId()).size(), 1);
+
+    // replace with newer version, the value is same but the connectId changed
+    Publisher publisher4 = TestBaseUtils.cloneBase(publisher1);
+    publisher4.setVersion(publisher1.getVersion() + 1);
+    publisher4.setSourceAddress(URL.valueOf("ip4:1000"));
+    groups.put(publisher4.getDataInfoId(), Lists.newArrayList(publisher4));
+    Assert.assertTrue(groups.getByConnectId(publisher1.connectId()).isEmpty());
+    Assert.assertEquals(
+        groups.getByConnectId(publisher4.connectId()).get(publisher4.getRegisterId()), publisher4);
+
+    // clean by sessionProcessId only touch the groups of the session
+    Map<String, DatumVersion> map = groups.clean(processId3, CleanContinues.ALWAYS);
+    Assert.assertEquals(map.keySet(), Sets.newHashSet(publisher3.getDataInfoId()));
+    Assert.assertTrue(groups.getByConnectId(publisher3.connectId()).isEmpty());
+    Assert.assertEquals(
+        groups.getSessionProcessIds(), Sets.newHashSet(publisher4.getSessionProcessId()));
+
+    v = groups.clearPublishers(publisher4.getDataInfoId());
+    Assert.assertNotNull(v);
+    Assert.assertTrue(groups.getByConnectId(publisher4.connectId()).isEmpty());
+    Assert.assertTrue(groups.getSessionProcessIds().isEmpty());
+  }
+
   private void assertEmpty(PublisherGroups groups, String dataInfoId) {
     Assert.assertNull(groups.getDatum(dataInfoId));
     Assert.assertNull(groups.getVersion(dataInfoId));
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringDictionaryTest {
+
+  @Test
+  public void testEncode() {
+    StringDictionary dictionary = new StringDictionary(100);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(i, dictionary.encode("word" + i));
+    }
+    Assert.assertEquals(100, dictionary.size());
+    // the same code for the same word
+    Assert.assertEquals(10, dictionary.encode("word10"));
+    Assert.assertEquals("word99", dictionary.decode(99));
+    // full, the caller keeps the word inline
+    Assert.assertEquals(-1, dictionary.encode("word100"));
+    Assert.assertEquals(100, dictionary.size());
+  }
+}
@@ -21,7 +21,9 @@ import static com.alipay.sofa.registry.server.data.change.ChangeMetrics.*;
 import com.alipay.sofa.registry.common.model.Node.NodeType;
 import com.alipay.sofa.registry.common.model.dataserver.Datum;
 import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
+import com.alipay.sofa.registry.common.model.sessionserver.DataChangeRequest;
 import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.remoting.CallbackHandler;
 import com.alipay.sofa.registry.remoting.Channel;
 import com.alipay.sofa.registry.remoting.Server;
 import com.alipay.sofa.registry.remoting.bolt.exchange.BoltExchange;
@@ -30,6 +32,7 @@ import com.alipay.sofa.registry.server.data.TestBaseUtils;
 import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
 import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
 import com.alipay.sofa.registry.store.api.config.DefaultCommonConfig;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -38,6 +41,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -60,6 +64,8 @@ public class DataChangeEventCenterTest {
     center.setDatumDelegate(datumStorageDelegate);
     center.setMultiClusterDataServerConfig(multiClusterDataServerConfig);
     center.setDefaultCommonConfig(defaultCommonConfig);
+    center.setSlotChangeLogStorage(
+        new SlotChangeLogStorage().setMultiClusterDataServerConfig(multiClusterDataServerConfig));
     dataServerConfig.setNotifyIntervalMillis(100);
   }
 
@@ -401,4 +407,164 @@ public class DataChangeEventCenterTest {
     Mockito.verify(server, Mockito.times(10))
         .sendSync(Mockito.anyObject(), Mockito.anyObject(), Mockito.anyInt());
   }
+
+  @Test
+  public void testAsyncNotify() {
+    setCenter();
+    dataServerConfig.setNotifyAsyncEnable(true);
+    dataServerConfig.setNotifyMaxInFlight(1);
+    dataServerConfig.setNotifyRetryBackoffMillis(0);
+    Exchange exchange = Mockito.mock(Exchange.class);
+    Server server = Mockito.mock(Server.class);
+    Mockito.when(exchange.getServer(Mockito.anyInt())).thenReturn(server);
+    center.setExchange(exchange);
+    List<DataChangeRequest> requests = Lists.newArrayList();
+    List<CallbackHandler> callbacks = Lists.newArrayList();
+    Mockito.doAnswer(
+            invocation -> {
+              requests.add((DataChangeRequest) invocation.getArguments()[1]);
+              callbacks.add((CallbackHandler) invocation.getArguments()[2]);
+              return null;
+            })
+        .when(server)
+        .sendCallback(
+            Mockito.anyObject(), Mockito.anyObject(), Mockito.anyObject(), Mockito.anyInt());
+
+    TestBaseUtils.MockBlotChannel channel = TestBaseUtils.newChannel(9620, "localhost", 1000);
+    DataChangeEventCenter.NotifyPipeline pipeline =
+        center.pipelineOf("localhost", dataServerConfig.getNotifyPort());
+    pipeline.offer(newNotifier(channel, "a", 1));
+    Assert.assertEquals(1, requests.size());
+    Assert.assertEquals(1, pipeline.getInFlight());
+
+    // in flight is full, coalesce the pending changes
+    pipeline.offer(newNotifier(channel, "a", 2));
+    pipeline.offer(newNotifier(channel, "a", 3));
+    pipeline.offer(newNotifier(channel, "b", 1));
+    Assert.assertEquals(1, requests.size());
+    Assert.assertEquals(2, pipeline.pendingSize());
+
+    double spre = CHANGE_SUCCESS_COUNTER.get();
+    callbacks.get(0).onCallback(channel, null);
+    Assert.assertTrue(CHANGE_SUCCESS_COUNTER.get() == (spre + 1));
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(0, pipeline.pendingSize());
+    Map<String, DatumVersion> versions = requests.get(1).getDataInfoIds();
+    Assert.assertEquals(2, versions.size());
+    Assert.assertEquals(3, versions.get("a").getValue());
+    Assert.assertEquals(1, versions.get("b").getValue());
+
+    // failed, retry by the pipeline
+    double fpre = CHANGE_FAIL_COUNTER.get();
+    callbacks.get(1).onException(channel, new Exception());
+    Assert.assertTrue(CHANGE_FAIL_COUNTER.get() == (fpre + 1));
+    Assert.assertEquals(0, pipeline.getInFlight());
+    center.handleExpire();
+    Assert.assertEquals(3, requests.size());
+    Assert.assertEquals(versions, requests.get(2).getDataInfoIds());
+    Assert.assertEquals(1, pipeline.getInFlight());
+
+    // channel closed
+    callbacks.get(2).onCallback(channel, null);
+    channel.setActive(false);
+    pipeline.offer(newNotifier(channel, "c", 1));
+    Assert.assertEquals(3, requests.size());
+    Assert.assertEquals(0, pipeline.getInFlight());
+  }
+
+  @Test
+  public void testAsyncNotifyRetrySeparated() {
+    setCenter();
+    dataServerConfig.setNotifyAsyncEnable(true);
+    dataServerConfig.setNotifyMaxInFlight(1);
+    List<DataChangeRequest> requests = Lists.newArrayList();
+    List<CallbackHandler> callbacks = Lists.newArrayList();
+    mockSendCallback(requests, callbacks);
+
+    TestBaseUtils.MockBlotChannel channel = TestBaseUtils.newChannel(9620, "localhost", 1000);
+    DataChangeEventCenter.NotifyPipeline pipeline =
+        center.pipelineOf("localhost", dataServerConfig.getNotifyPort());
+    pipeline.offer(newNotifier(channel, "a", 1));
+    Assert.assertEquals(1, pipeline.getInFlight());
+
+    // the retried changes not lend the retry count to the fresh changes
+    DataChangeEventCenter.ChangeNotifier retried = newNotifier(channel, "b", 1);
+    retried.retryCount = 2;
+    pipeline.offer(retried);
+    retried = newNotifier(channel, "c", 1);
+    retried.retryCount = 2;
+    pipeline.offer(retried);
+    pipeline.offer(newNotifier(channel, "d", 1));
+    // the newer fresh version replaces the retried one
+    pipeline.offer(newNotifier(channel, "c", 2));
+    Assert.assertEquals(3, pipeline.pendingSize());
+
+    callbacks.get(0).onCallback(channel, null);
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(Collections.singleton("b"), requests.get(1).getDataInfoIds().keySet());
+    Assert.assertEquals(2, notifierOf(callbacks.get(1)).retryCount);
+
+    callbacks.get(1).onCallback(channel, null);
+    Assert.assertEquals(3, requests.size());
+    Map<String, DatumVersion> versions = requests.get(2).getDataInfoIds();
+    Assert.assertEquals(2, versions.size());
+    Assert.assertEquals(2, versions.get("c").getValue());
+    Assert.assertEquals(1, versions.get("d").getValue());
+    Assert.assertEquals(0, notifierOf(callbacks.get(2)).retryCount);
+    Assert.assertEquals(0, pipeline.pendingSize());
+  }
+
+  @Test
+  public void testAsyncNotifyCallbackDiscard() {
+    setCenter();
+    dataServerConfig.setNotifyAsyncEnable(true);
+    dataServerConfig.setNotifyMaxInFlight(1);
+    List<DataChangeRequest> requests = Lists.newArrayList();
+    List<CallbackHandler> callbacks = Lists.newArrayList();
+    mockSendCallback(requests, callbacks);
+
+    TestBaseUtils.MockBlotChannel channel = TestBaseUtils.newChannel(9620, "localhost", 1000);
+    DataChangeEventCenter.NotifyPipeline pipeline =
+        center.pipelineOf("localhost", dataServerConfig.getNotifyPort());
+    pipeline.offer(newNotifier(channel, "a", 1));
+    Assert.assertEquals(1, pipeline.getInFlight());
+
+    // the executor rejects the callback, not run it in the caller
+    center.destroy();
+    double pre = CHANGE_CALLBACK_DISCARD_COUNTER.get();
+    AtomicBoolean run = new AtomicBoolean();
+    callbacks.get(0).getExecutor().execute(() -> run.set(true));
+    Assert.assertFalse(run.get());
+    Assert.assertTrue(CHANGE_CALLBACK_DISCARD_COUNTER.get() == (pre + 1));
+    Assert.assertEquals(0, pipeline.getInFlight());
+  }
+
+  private void mockSendCallback(List<DataChangeRequest> requests, List<CallbackHandler> callbacks) {
+    Exchange exchange = Mockito.mock(Exchange.class);
+    Server server = Mockito.mock(Server.class);
+    Mockito.when(exchange.getServer(Mockito.anyInt())).thenReturn(server);
+    center.setExchange(exchange);
+    Mockito.doAnswer(
+            invocation -> {
+              requests.add((DataChangeRequest) invocation.getArguments()[1]);
+              callbacks.add((CallbackHandler) invocation.getArguments()[2]);
+              return null;
+            })
+        .when(server)
+        .sendCallback(
+            Mockito.anyObject(), Mockito.anyObject(), Mockito.anyObject(), Mockito.anyInt());
+  }
+
+  private static DataChangeEventCenter.ChangeNotifier notifierOf(CallbackHandler callback) {
+    return ((DataChangeEventCenter.ChangeNotifyCallback) callback).notifier;
+  }
+
+  private DataChangeEventCenter.ChangeNotifier newNotifier(
+      Channel channel, String dataInfoId, long version) {
+    return center.newChangeNotifier(
+        channel,
+        dataServerConfig.getNotifyPort(),
+        DC,
+        Collections.singletonMap(dataInfoId, new DatumVersion(version)));
+  }
 }
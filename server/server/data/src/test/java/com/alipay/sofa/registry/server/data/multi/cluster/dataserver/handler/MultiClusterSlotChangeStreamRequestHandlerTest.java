@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.dataserver.handler;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamResult;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfigBean;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLogStorage;
+import com.alipay.sofa.registry.server.data.slot.SlotManager;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MultiClusterSlotChangeStreamRequestHandlerTest {
+
+  private static final String DC = "DC";
+  private static final String REMOTE = "REMOTE";
+  private static final SyncSlotAcceptorManager ACCEPT_ALL = request -> true;
+  private static final int SLOT_ID = 10;
+  private static final long LEADER_EPOCH = 100;
+
+  private MultiClusterSlotChangeStreamRequestHandler handler;
+  private MultiClusterDataServerConfigBean multiConfig;
+  private SlotManager slotManager;
+  private DatumStorageDelegate datumStorageDelegate;
+  private SlotChangeLogStorage slotChangeLogStorage;
+
+  @Before
+  public void before() {
+    DataServerConfig dataServerConfig = TestBaseUtils.newDataConfig(DC);
+    multiConfig = new MultiClusterDataServerConfigBean();
+    multiConfig.setSyncRemoteSlotStreamEnable(true);
+    slotManager = mock(SlotManager.class);
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(true);
+    when(slotManager.getSlot(anyString(), anyInt()))
+        .thenReturn(new Slot(SLOT_ID, "leader", LEADER_EPOCH, Collections.emptyList()));
+    datumStorageDelegate = TestBaseUtils.newLocalDatumDelegate(DC, true);
+    slotChangeLogStorage =
+        new SlotChangeLogStorage()
+            .setDataServerConfig(dataServerConfig)
+            .setMultiClusterDataServerConfig(multiConfig)
+            .setSlotManager(slotManager);
+    handler =
+        new MultiClusterSlotChangeStreamRequestHandler()
+            .setDataServerConfig(dataServerConfig)
+            .setMultiClusterDataServerConfig(multiConfig)
+            .setSlotManager(slotManager)
+            .setDatumStorageDelegate(datumStorageDelegate)
+            .setSlotChangeLogStorage(slotChangeLogStorage);
+  }
+
+  private static DataSlotChangeStreamRequest request(long logId, long ackSeq, int max) {
+    return new DataSlotChangeStreamRequest(
+        REMOTE, 1, SLOT_ID, LEADER_EPOCH, ACCEPT_ALL, logId, ackSeq, max);
+  }
+
+  private DataSlotChangeStreamResult handle(DataSlotChangeStreamRequest request) {
+    GenericResponse<DataSlotChangeStreamResult> resp =
+        (GenericResponse<DataSlotChangeStreamResult>) handler.doHandle(null, request);
+    Assert.assertTrue(resp.isSuccess());
+    return resp.getData();
+  }
+
+  @Test
+  public void testFail() {
+    multiConfig.setSyncRemoteSlotStreamEnable(false);
+    DataSlotChangeStreamRequest request = request(DataSlotChangeStreamRequest.NONE_LOG_ID, 0, 10);
+    Assert.assertFalse(((GenericResponse) handler.doHandle(null, request)).isSuccess());
+
+    multiConfig.setSyncRemoteSlotStreamEnable(true);
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(false);
+    Assert.assertFalse(((GenericResponse) handler.doHandle(null, request)).isSuccess());
+
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(true);
+    when(slotManager.getSlot(anyString(), anyInt()))
+        .thenReturn(new Slot(SLOT_ID, "leader", LEADER_EPOCH + 1, Collections.emptyList()));
+    Assert.assertFalse(((GenericResponse) handler.doHandle(null, request)).isSuccess());
+  }
+
+  @Test
+  public void testStream() {
+    // no cursor, return the head
+    DataSlotChangeStreamResult result =
+        handle(request(DataSlotChangeStreamRequest.NONE_LOG_ID, 0, 10));
+    Assert.assertTrue(result.isGap());
+    final long logId = result.getLogId();
+    Assert.assertEquals(0, result.getHeadSeq());
+
+    List<Publisher> updates = TestBaseUtils.createTestPublishers(SLOT_ID, 2);
+    for (Publisher p : updates) {
+      datumStorageDelegate.putPublisher(DC, p);
+    }
+    final String updateId = updates.get(0).getDataInfoId();
+    final String removeId = "removed-" + updateId;
+    // the slot of dataInfoId is not checked by the log
+    slotChangeLogStorage.logOf(SLOT_ID, LEADER_EPOCH).append(updateId);
+    slotChangeLogStorage.logOf(SLOT_ID, LEADER_EPOCH).append(removeId);
+    slotChangeLogStorage.logOf(SLOT_ID, LEADER_EPOCH).append(updateId);
+
+    result = handle(request(logId, 0, 1));
+    Assert.assertFalse(result.isGap());
+    Assert.assertTrue(result.hasRemain());
+    Assert.assertEquals(1, result.getToSeq());
+    Assert.assertEquals(3, result.getHeadSeq());
+    Assert.assertEquals(
+        Sets.newHashSet(updates), Sets.newHashSet(result.getChanges().get(updateId)));
+
+    result = handle(request(logId, result.getToSeq(), 10));
+    Assert.assertFalse(result.hasRemain());
+    Assert.assertEquals(3, result.getToSeq());
+    Assert.assertEquals(2, result.getChanges().size());
+    Assert.assertTrue(result.getChanges().get(removeId).isEmpty());
+
+    // resume from the ack after disconnect
+    result = handle(request(logId, 2, 10));
+    Assert.assertEquals(Collections.singleton(updateId), result.getChanges().keySet());
+
+    // another log
+    result = handle(request(logId + 1, 3, 10));
+    Assert.assertTrue(result.isGap());
+    Assert.assertEquals(logId, result.getLogId());
+    Assert.assertEquals(3, result.getHeadSeq());
+  }
+}
@@ -16,26 +16,35 @@
  */
 package com.alipay.sofa.registry.server.data.multi.cluster.slot;
 
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.console.MultiSegmentSyncSwitch;
 import com.alipay.sofa.registry.common.model.metaserver.MultiClusterSyncInfo;
 import com.alipay.sofa.registry.common.model.multi.cluster.DataCenterMetadata;
 import com.alipay.sofa.registry.common.model.multi.cluster.RemoteSlotTableStatus;
 import com.alipay.sofa.registry.common.model.slot.BaseSlotStatus;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotChangeStreamResult;
 import com.alipay.sofa.registry.common.model.slot.Slot;
 import com.alipay.sofa.registry.common.model.slot.Slot.Role;
 import com.alipay.sofa.registry.common.model.slot.SlotAccess;
 import com.alipay.sofa.registry.common.model.slot.SlotTable;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.exception.UnSupportOperationException;
+import com.alipay.sofa.registry.remoting.exchange.message.Response;
 import com.alipay.sofa.registry.server.data.TestBaseUtils;
 import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
+import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfigBean;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
 import com.alipay.sofa.registry.server.data.change.DataChangeEventCenter;
+import com.alipay.sofa.registry.server.data.multi.cluster.exchanger.RemoteDataNodeExchanger;
 import com.alipay.sofa.registry.server.data.multi.cluster.executor.MultiClusterExecutorManager;
+import com.alipay.sofa.registry.server.data.multi.cluster.slot.MultiClusterSlotManagerImpl.RemoteSlotStates;
 import com.alipay.sofa.registry.server.data.multi.cluster.slot.MultiClusterSlotManagerImpl.RemoteSlotTableStates;
 import com.alipay.sofa.registry.server.data.multi.cluster.sync.info.FetchMultiSyncService;
 import com.alipay.sofa.registry.server.data.slot.SlotChangeListenerManager;
@@ -55,6 +64,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -743,6 +754,122 @@ public class MultiClusterSlotManagerImplTest {
     Assert.assertEquals(0, pendingSize);
   }
 
+  @Test
+  public void testSyncRemoteStream() throws Exception {
+    MockMultiClusterSlotManagerImpl mock =
+        mockMultiClusterSlotManagerImpl(10, false, false, Collections.EMPTY_SET);
+    MultiClusterSlotManagerImpl multiClusterSlotManager = mock.multiClusterSlotManager;
+    SlotManagerImpl slotManager = mock.slotManager;
+    MultiClusterDataServerConfigBean config = new MultiClusterDataServerConfigBean();
+    config.setSyncRemoteSlotStreamEnable(true);
+    multiClusterSlotManager.setMultiClusterDataServerConfig(config);
+
+    Publisher pub0 = TestBaseUtils.createTestPublishers(0, 1).get(0);
+    MultiSegmentSyncSwitch syncSwitch =
+        TestBaseUtils.newMultiSegmentSyncSwitchWithDataInfoIds(
+            REMOTE_DATACENTER, Sets.newHashSet(pub0.getDataInfoId()));
+    multiClusterSlotManager.setMultiSyncDataAcceptorManager(
+        TestBaseUtils.newMultiSyncDataAcceptorManager(syncSwitch));
+    FetchMultiSyncService fetchMultiSyncService = new FetchMultiSyncService();
+    fetchMultiSyncService.setSyncMap(Collections.singletonMap(REMOTE_DATACENTER, syncSwitch));
+    multiClusterSlotManager.setFetchMultiSyncService(fetchMultiSyncService);
+
+    // the log of remote: logId=7, head=3 at first, then has pub0 in (3,5]
+    final long logId = 7;
+    final AtomicInteger streams = new AtomicInteger();
+    final AtomicBoolean remoteDisabled = new AtomicBoolean();
+    RemoteDataNodeExchanger exchanger = mock(RemoteDataNodeExchanger.class);
+    when(exchanger.requestRaw(anyString(), anyObject()))
+        .thenAnswer(
+            invocation -> {
+              Object request = invocation.getArguments()[1];
+              Response response = mock(Response.class);
+              if (!(request instanceof DataSlotChangeStreamRequest)) {
+                when(response.getResult()).thenReturn(new GenericResponse().fillFailed("mock"));
+                return response;
+              }
+              streams.incrementAndGet();
+              if (remoteDisabled.get()) {
+                when(response.getResult())
+                    .thenReturn(new GenericResponse().fillFailed("slot change stream is disable"));
+                return response;
+              }
+              DataSlotChangeStreamRequest req = (DataSlotChangeStreamRequest) request;
+              DataSlotChangeStreamResult result =
+                  req.getLogId() != logId
+                      ? DataSlotChangeStreamResult.gapOf(logId, 3)
+                      : DataSlotChangeStreamResult.changesOf(
+                          logId,
+                          5,
+                          5,
+                          Collections.singletonMap(
+                              pub0.getDataInfoId(), Collections.singletonList(pub0)));
+              when(response.getResult()).thenReturn(new GenericResponse().fillSucceed(result));
+              return response;
+            });
+    multiClusterSlotManager.setRemoteDataNodeExchanger(exchanger);
+
+    SlotTable slotTable = newTable_0_1(1, 1);
+    Assert.assertTrue(slotManager.updateSlotTable(slotTable));
+    multiClusterSlotManager.updateSlotTable(
+        Collections.singletonMap(
+            REMOTE_DATACENTER, RemoteSlotTableStatus.upgrade(slotTable, dataCenterMetadata)));
+    slotManager.processUpdating();
+    ConcurrentUtils.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+
+    RemoteSlotTableStates slotTableStates =
+        multiClusterSlotManager.getSlotTableStorage(REMOTE_DATACENTER).getSlotTableStates();
+    RemoteSlotStates state = slotTableStates.slotStates.get(0);
+    // the gap moves the cursor to the head
+    Assert.assertTrue(state.syncStreamTask.isSuccess());
+    Assert.assertEquals(logId, state.streamCursor.logId);
+    Assert.assertEquals(3, state.streamCursor.ackSeq);
+    Assert.assertTrue(state.isStreaming());
+
+    // the notify is fetched by the stream, not pending the dataInfoIds
+    multiClusterSlotManager.dataChangeNotify(
+        REMOTE_DATACENTER, Sets.newHashSet(pub0.getDataInfoId()));
+    Assert.assertTrue(state.pendingDataInfoIds.get().isEmpty());
+    ConcurrentUtils.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+    Assert.assertTrue(state.syncStreamTask.isSuccess());
+    Assert.assertEquals(5, state.streamCursor.ackSeq);
+    Assert.assertFalse(state.streamPending);
+    Assert.assertEquals(
+        pub0,
+        ((DatumStorageDelegate) mock.mockSync.syncer.getDatumStorageDelegate())
+            .get(REMOTE_DATACENTER, pub0.getDataInfoId())
+            .getPubMap()
+            .get(pub0.getRegisterId()));
+
+    // the stream is disabled on the remote leader, the notifies are pending again
+    remoteDisabled.set(true);
+    multiClusterSlotManager.dataChangeNotify(
+        REMOTE_DATACENTER, Sets.newHashSet(pub0.getDataInfoId()));
+    ConcurrentUtils.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+    Assert.assertTrue(state.syncStreamTask.isFailed());
+    Assert.assertNull(state.streamCursor);
+    Assert.assertFalse(state.isStreaming());
+    multiClusterSlotManager.dataChangeNotify(
+        REMOTE_DATACENTER, Sets.newHashSet(pub0.getDataInfoId()));
+    Assert.assertFalse(state.streamPending);
+    remoteDisabled.set(false);
+
+    // the leader changes, fetch the head of the new leader
+    state.update(createSelfLeader(0, 2));
+    Assert.assertNull(state.streamCursor);
+    Assert.assertFalse(state.isStreaming());
+
+    // disable
+    config.setSyncRemoteSlotStreamEnable(false);
+    int count = streams.get();
+    ConcurrentUtils.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+    multiClusterSlotManager.dataChangeNotify(
+        REMOTE_DATACENTER, Sets.newHashSet(pub0.getDataInfoId()));
+    ConcurrentUtils.sleepUninterruptibly(300, TimeUnit.MILLISECONDS);
+    Assert.assertNull(slotTableStates.slotStates.get(1).streamCursor);
+    Assert.assertTrue(streams.get() <= count + 1);
+  }
+
   @Test
   public void testSyncRemoteDataInfoIdsMaxAndNoRetry() {
     MockMultiClusterSlotManagerImpl mock =
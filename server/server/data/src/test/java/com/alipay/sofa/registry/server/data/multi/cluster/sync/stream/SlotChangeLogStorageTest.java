@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.sync.stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.server.data.bootstrap.MultiClusterDataServerConfig;
+import com.alipay.sofa.registry.server.data.slot.SlotChangeListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotChangeLogStorageTest {
+
+  @Test
+  public void testDropLogOnLeaderLost() {
+    MultiClusterDataServerConfig config = mock(MultiClusterDataServerConfig.class);
+    when(config.getSyncRemoteSlotChangeLogCapacity()).thenReturn(8);
+    SlotChangeLogStorage storage =
+        new SlotChangeLogStorage().setMultiClusterDataServerConfig(config);
+    storage.logOf(1, 100).append("a");
+    storage.logOf(2, 100).append("b");
+    Assert.assertEquals(2, storage.logSize());
+
+    SlotChangeListener listener = storage.getSlotChangeListener();
+    // still leader, keep the log
+    listener.onSlotAdd("dc", 1, Slot.Role.Leader);
+    Assert.assertEquals(1, storage.logOf(1, 100).getHeadSeq());
+
+    // become follower
+    listener.onSlotAdd("dc", 1, Slot.Role.Follower);
+    Assert.assertEquals(1, storage.logSize());
+
+    // the slot is migrated out
+    listener.onSlotRemove("dc", 2, Slot.Role.Leader);
+    Assert.assertEquals(0, storage.logSize());
+  }
+}
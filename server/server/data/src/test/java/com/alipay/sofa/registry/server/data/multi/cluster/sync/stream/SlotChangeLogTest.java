@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.multi.cluster.sync.stream;
+
+import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.multi.cluster.sync.stream.SlotChangeLog.Changes;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotChangeLogTest {
+
+  @Test
+  public void testRead() {
+    SlotChangeLog log = new SlotChangeLog(1, 100, 8);
+    Changes changes = log.read(0, 10);
+    Assert.assertFalse(changes.isGap());
+    Assert.assertEquals(0, changes.getToSeq());
+    Assert.assertTrue(changes.getDataInfoIds().isEmpty());
+
+    log.append("a");
+    log.append("b");
+    log.append("a");
+    Assert.assertEquals(3, log.getHeadSeq());
+    changes = log.read(0, 10);
+    Assert.assertEquals(3, changes.getToSeq());
+    Assert.assertEquals(3, changes.getHeadSeq());
+    Assert.assertEquals(Lists.newArrayList("a", "b"), Lists.newArrayList(changes.getDataInfoIds()));
+
+    changes = log.read(2, 10);
+    Assert.assertEquals(3, changes.getToSeq());
+    Assert.assertEquals(Lists.newArrayList("a"), Lists.newArrayList(changes.getDataInfoIds()));
+
+    // the ack is the head
+    changes = log.read(3, 10);
+    Assert.assertFalse(changes.isGap());
+    Assert.assertTrue(changes.getDataInfoIds().isEmpty());
+  }
+
+  @Test
+  public void testReadMax() {
+    SlotChangeLog log = new SlotChangeLog(1, 100, 8);
+    log.append("a");
+    log.append("b");
+    log.append("a");
+    log.append("c");
+    log.append("b");
+    // the duplicate dataInfoIds does not count
+    Changes changes = log.read(0, 2);
+    Assert.assertEquals(3, changes.getToSeq());
+    Assert.assertEquals(5, changes.getHeadSeq());
+    Assert.assertEquals(Lists.newArrayList("a", "b"), Lists.newArrayList(changes.getDataInfoIds()));
+
+    changes = log.read(changes.getToSeq(), 2);
+    Assert.assertEquals(5, changes.getToSeq());
+    Assert.assertEquals(Lists.newArrayList("c", "b"), Lists.newArrayList(changes.getDataInfoIds()));
+  }
+
+  @Test
+  public void testGap() {
+    SlotChangeLog log = new SlotChangeLog(1, 100, 4);
+    for (int i = 0; i < 6; i++) {
+      log.append("d" + i);
+    }
+    // the seq 1,2 are truncated
+    Assert.assertTrue(log.read(0, 10).isGap());
+    Assert.assertTrue(log.read(1, 10).isGap());
+    Changes changes = log.read(2, 10);
+    Assert.assertFalse(changes.isGap());
+    Assert.assertEquals(
+        Lists.newArrayList("d2", "d3", "d4", "d5"), Lists.newArrayList(changes.getDataInfoIds()));
+
+    // beyond the head
+    changes = log.read(7, 10);
+    Assert.assertTrue(changes.isGap());
+    Assert.assertEquals(6, changes.getHeadSeq());
+  }
+
+  @Test
+  public void testLogOf() {
+    SlotChangeLogStorage storage = new SlotChangeLogStorage();
+    storage.setMultiClusterDataServerConfig(TestBaseUtils.newMultiDataConfig());
+    SlotChangeLog log = storage.logOf(1, 100);
+    Assert.assertSame(log, storage.logOf(1, 100));
+    // the leader changes
+    SlotChangeLog log2 = storage.logOf(1, 101);
+    Assert.assertNotSame(log, log2);
+    Assert.assertNotEquals(log.getLogId(), log2.getLogId());
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.remoting.dataserver.handler;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotRequest;
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotResult;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.compress.CompressConstants;
+import com.alipay.sofa.registry.compress.CompressUtils;
+import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.PublisherGroup;
+import com.alipay.sofa.registry.server.data.slot.SlotManager;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotFollowerSnapshotRequestHandlerTest {
+  private static final String DC = "testDc";
+  private static final SyncSlotAcceptorManager ACCEPT_ALL = request -> true;
+
+  @Test
+  public void testCheckParam() {
+    SlotFollowerSnapshotRequestHandler handler = newHandler();
+    TestBaseUtils.assertException(
+        IllegalArgumentException.class, () -> handler.checkParam(request(-1, null, 10)));
+    TestBaseUtils.assertException(
+        IllegalArgumentException.class, () -> handler.checkParam(request(1, null, 0)));
+    handler.checkParam(request(1, null, 10));
+    Assert.assertEquals(handler.interest(), DataSlotSnapshotRequest.class);
+    Assert.assertEquals(handler.getConnectNodeType(), Node.NodeType.DATA);
+    Assert.assertFalse(((GenericResponse) handler.buildFailedResponse("msg")).isSuccess());
+  }
+
+  @Test
+  public void testHandle() {
+    SlotFollowerSnapshotRequestHandler handler = newHandler();
+    DatumStorageDelegate delegate = TestBaseUtils.newLocalDatumDelegate(DC, true);
+    handler.setDatumStorageDelegate(delegate);
+    for (int i = 0; i < 5; i++) {
+      for (Publisher p : TestBaseUtils.createTestPublishers(1, 3)) {
+        delegate.putPublisher(DC, p);
+      }
+    }
+    SlotManager slotManager = mock(SlotManager.class);
+    handler.setSlotManager(slotManager);
+    // not leader
+    GenericResponse resp = (GenericResponse) handler.doHandle(null, request(1, null, 4));
+    Assert.assertFalse(resp.isSuccess());
+
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(true);
+    when(slotManager.getSlot(anyString(), anyInt()))
+        .thenReturn(new Slot(1, "leader", 2, Collections.emptyList()));
+    // leaderEpoch mismatch
+    resp = (GenericResponse) handler.doHandle(null, request(1, null, 4));
+    Assert.assertFalse(resp.isSuccess());
+
+    when(slotManager.getSlot(anyString(), anyInt()))
+        .thenReturn(new Slot(1, "leader", 1, Collections.emptyList()));
+    List<String> dataInfoIds = Lists.newArrayList();
+    int pubNum = 0;
+    int chunks = 0;
+    String cursor = null;
+    do {
+      resp = (GenericResponse) handler.doHandle(null, request(1, cursor, 4));
+      Assert.assertTrue(resp.isSuccess());
+      DataSlotSnapshotResult result = (DataSlotSnapshotResult) resp.getData();
+      Assert.assertFalse(result.isZip());
+      Assert.assertEquals(result.getPubNum(), result.getPublishers().size() * 3);
+      List<String> ids = Lists.newArrayList(result.getPublishers().keySet());
+      Collections.sort(ids);
+      dataInfoIds.addAll(ids);
+      pubNum += result.getPubNum();
+      cursor = result.getNextCursor();
+      chunks++;
+    } while (cursor != null);
+    Assert.assertEquals(3, chunks);
+    Assert.assertEquals(15, pubNum);
+    Assert.assertEquals(5, dataInfoIds.size());
+    List<String> sorted = Lists.newArrayList(dataInfoIds);
+    Collections.sort(sorted);
+    Assert.assertEquals(sorted, dataInfoIds);
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    Map<String, PublisherGroup> publishers = Collections.emptyMap();
+    DataSlotSnapshotResult result =
+        SlotFollowerSnapshotRequestHandler.snapshot(publishers, null, 10, ACCEPT_ALL, null);
+    Assert.assertFalse(result.hasRemain());
+    Assert.assertEquals(0, result.getPubNum());
+
+    DatumStorageDelegate delegate = TestBaseUtils.newLocalDatumDelegate(DC, true);
+    List<Publisher> pubs = TestBaseUtils.createTestPublishers(1, 10);
+    pubs.forEach(p -> delegate.putPublisher(DC, p));
+    publishers = Maps.newHashMap();
+    delegate.foreach(DC, 1, publishers::put);
+    result =
+        SlotFollowerSnapshotRequestHandler.snapshot(
+            publishers, null, 1, ACCEPT_ALL, CompressUtils.mustGet(CompressConstants.encodingZstd));
+    // the dataInfoId is not split
+    Assert.assertFalse(result.hasRemain());
+    Assert.assertTrue(result.isZip());
+    Assert.assertEquals(10, result.getPubNum());
+    Assert.assertEquals(CompressConstants.encodingZstd, result.getEncoding());
+    Assert.assertTrue(result.getOriginSize() > 0);
+
+    // the cursor is the last one
+    result =
+        SlotFollowerSnapshotRequestHandler.snapshot(
+            publishers, pubs.get(0).getDataInfoId(), 1, ACCEPT_ALL, null);
+    Assert.assertEquals(0, result.getPubNum());
+    // the cursor not exists, start at the insertion point
+    result = SlotFollowerSnapshotRequestHandler.snapshot(publishers, "", 1, ACCEPT_ALL, null);
+    Assert.assertEquals(10, result.getPubNum());
+    result = SlotFollowerSnapshotRequestHandler.snapshot(publishers, "", 1, request -> false, null);
+    Assert.assertEquals(0, result.getPubNum());
+  }
+
+  private static SlotFollowerSnapshotRequestHandler newHandler() {
+    SlotFollowerSnapshotRequestHandler handler = new SlotFollowerSnapshotRequestHandler();
+    handler
+        .setSlotManager(mock(SlotManager.class))
+        .setDatumStorageDelegate(TestBaseUtils.newLocalDatumDelegate(DC, true))
+        .setDataServerConfig(TestBaseUtils.newDataConfig(DC));
+    return handler;
+  }
+
+  private static DataSlotSnapshotRequest request(int slotId, String cursor, int max) {
+    return new DataSlotSnapshotRequest(DC, 1, slotId, 1, ACCEPT_ALL, cursor, max, null);
+  }
+}
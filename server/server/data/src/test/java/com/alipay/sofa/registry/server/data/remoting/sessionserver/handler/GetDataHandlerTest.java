@@ -19,7 +19,9 @@ package com.alipay.sofa.registry.server.data.remoting.sessionserver.handler;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import com.alipay.sofa.registry.common.model.Node;
@@ -30,6 +32,7 @@ import com.alipay.sofa.registry.common.model.store.SubDatum;
 import com.alipay.sofa.registry.remoting.ChannelHandler;
 import com.alipay.sofa.registry.server.data.TestBaseUtils;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.SubDatumCacheService;
 import com.alipay.sofa.registry.server.data.change.DataChangeEventCenter;
 import com.alipay.sofa.registry.server.data.lease.SessionLeaseManager;
 import com.alipay.sofa.registry.server.data.providedata.CompressDatumService;
@@ -71,7 +74,7 @@ public class GetDataHandlerTest {
     handler.sessionLeaseManager = new SessionLeaseManager();
     SlotAccessorDelegate slotManager = mock(SlotAccessorDelegate.class);
     DatumStorageDelegate datumStorageDelegate = TestBaseUtils.newLocalDatumDelegate("testDc", true);
-    CompressDatumService compressDatumService = new CompressDatumService();
+    CompressDatumService compressDatumService = spy(new CompressDatumService());
 
     handler
         .setSlotAccessor(slotManager)
@@ -79,6 +82,10 @@ public class GetDataHandlerTest {
         .setDataChangeEventCenter(new DataChangeEventCenter())
         .setDataServerConfig(TestBaseUtils.newDataConfig("testDc"));
     handler.setCompressDatumService(compressDatumService);
+    SubDatumCacheService subDatumCacheService =
+        new SubDatumCacheService().setDataServerConfig(TestBaseUtils.newDataConfig("testDc"));
+    subDatumCacheService.init();
+    handler.setSubDatumCacheService(subDatumCacheService);
 
     return handler;
   }
@@ -127,6 +134,26 @@ public class GetDataHandlerTest {
     Assert.assertEquals(
         subDatum.mustGetPublishers().get(0).getRegisterTimestamp(), pub.getRegisterTimestamp());
     Assert.assertEquals(subDatum.mustGetPublishers().get(0).getVersion(), pub.getVersion());
+
+    // the same version, hit the cache
+    resp = (SlotAccessGenericResponse) handler.doHandle(channel, request);
+    Assert.assertTrue(resp.isSuccess());
+    Assert.assertTrue(subDatum == resp.getData());
+
+    // the compress switch changed, rebuild the datum
+    doReturn(100L).when(handler.getCompressDatumService()).getSwitchVersion();
+    resp = (SlotAccessGenericResponse) handler.doHandle(channel, request);
+    Assert.assertTrue(resp.isSuccess());
+    Assert.assertTrue(subDatum != resp.getData());
+    Assert.assertEquals(subDatum.getVersion(), ((SubDatum) resp.getData()).getVersion());
+
+    // version updated, rebuild the datum
+    handler.getDatumStorageDelegate().updateVersion("testDc", pub.getDataInfoId());
+    resp = (SlotAccessGenericResponse) handler.doHandle(channel, request);
+    Assert.assertTrue(resp.isSuccess());
+    SubDatum updated = (SubDatum) resp.getData();
+    Assert.assertTrue(updated.getVersion() > subDatum.getVersion());
+    Assert.assertEquals(updated.mustGetPublishers().size(), 1);
   }
 
   @Test
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.remoting.sessionserver.handler;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.dataserver.GetMultiDataBatchRequest;
+import com.alipay.sofa.registry.common.model.slot.MultiSlotAccessGenericResponse;
+import com.alipay.sofa.registry.common.model.store.DataInfo;
+import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.cache.SubDatumCacheService;
+import com.alipay.sofa.registry.server.data.change.DataChangeEventCenter;
+import com.alipay.sofa.registry.server.data.lease.SessionLeaseManager;
+import com.alipay.sofa.registry.server.data.providedata.CompressDatumService;
+import com.alipay.sofa.registry.server.data.slot.SlotAccessorDelegate;
+import com.alipay.sofa.registry.server.shared.env.ServerEnv;
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GetMultiDataBatchHandlerTest {
+  private static final String NOT_EXIST = DataInfo.toDataInfoId("notExist", "instance", "group");
+  private static final String NOT_ACCEPT = DataInfo.toDataInfoId("notAccept", "instance", "group");
+
+  @Test
+  public void testCheckParam() {
+    GetMultiDataBatchHandler handler = newHandler();
+    Assert.assertEquals(handler.interest(), GetMultiDataBatchRequest.class);
+    Assert.assertFalse(((GenericResponse) handler.buildFailedResponse("msg")).isSuccess());
+    TestBaseUtils.assertException(
+        IllegalArgumentException.class, () -> handler.checkParam(request(Collections.emptyList())));
+    TestBaseUtils.assertException(
+        IllegalArgumentException.class,
+        () -> handler.checkParam(request(Lists.newArrayList("xx", ""))));
+    TestBaseUtils.assertException(
+        IllegalArgumentException.class,
+        () ->
+            handler.checkParam(
+                new GetMultiDataBatchRequest(
+                    ServerEnv.PROCESS_ID,
+                    1,
+                    Lists.newArrayList("xx"),
+                    null,
+                    Collections.singletonMap("testDc", 10L),
+                    Collections.emptyMap())));
+    handler.checkParam(request(Lists.newArrayList("xx", "yy")));
+  }
+
+  @Test
+  public void testHandle() {
+    GetMultiDataBatchHandler handler = newHandler();
+    TestBaseUtils.MockBlotChannel channel = TestBaseUtils.newChannel(9620, "localhost", 8888);
+    Publisher pub = TestBaseUtils.createTestPublishers(1, 1).get(0);
+    handler.getDatumStorageDelegate().putPublisher("testDc", pub);
+
+    // the second dataInfoId is not accepted
+    when(handler
+            .getSlotAccessorDelegate()
+            .checkSlotAccess(anyString(), anyInt(), anyLong(), anyLong()))
+        .thenReturn(TestBaseUtils.accept());
+    when(handler.getSlotAccessorDelegate().slotOf(NOT_ACCEPT)).thenReturn(2);
+    when(handler
+            .getSlotAccessorDelegate()
+            .checkSlotAccess(anyString(), eq(2), anyLong(), anyLong()))
+        .thenReturn(TestBaseUtils.moved());
+    GetMultiDataBatchRequest request =
+        request(Lists.newArrayList(pub.getDataInfoId(), NOT_EXIST, NOT_ACCEPT));
+    GenericResponse<Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>>> resp =
+        handler.doHandle(channel, request);
+    Assert.assertTrue(resp.isSuccess());
+    Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>> datums = resp.getData();
+    Assert.assertEquals(3, datums.size());
+
+    MultiSlotAccessGenericResponse<MultiSubDatum> datum = datums.get(pub.getDataInfoId());
+    Assert.assertTrue(datum.isSuccess());
+    Assert.assertEquals(
+        pub.getRegisterId(),
+        datum.getData().getSubDatum("testDc").mustGetPublishers().get(0).getRegisterId());
+
+    datum = datums.get(NOT_EXIST);
+    Assert.assertTrue(datum.isSuccess());
+    Assert.assertNull(datum.getData().getSubDatum("testDc"));
+
+    datum = datums.get(NOT_ACCEPT);
+    Assert.assertFalse(datum.isSuccess());
+  }
+
+  private GetMultiDataBatchHandler newHandler() {
+    GetMultiDataBatchHandler handler = new GetMultiDataBatchHandler();
+    handler.sessionLeaseManager = new SessionLeaseManager();
+    SlotAccessorDelegate slotManager = mock(SlotAccessorDelegate.class);
+    DatumStorageDelegate datumStorageDelegate = TestBaseUtils.newLocalDatumDelegate("testDc", true);
+    handler
+        .setSlotAccessor(slotManager)
+        .setDatumStorageDelegate(datumStorageDelegate)
+        .setDataChangeEventCenter(new DataChangeEventCenter())
+        .setDataServerConfig(TestBaseUtils.newDataConfig("testDc"));
+    handler.setCompressDatumService(new CompressDatumService());
+    SubDatumCacheService subDatumCacheService =
+        new SubDatumCacheService().setDataServerConfig(TestBaseUtils.newDataConfig("testDc"));
+    subDatumCacheService.init();
+    handler.setSubDatumCacheService(subDatumCacheService);
+    return handler;
+  }
+
+  private static GetMultiDataBatchRequest request(List<String> dataInfoIds) {
+    return new GetMultiDataBatchRequest(
+        ServerEnv.PROCESS_ID,
+        1,
+        dataInfoIds,
+        null,
+        Collections.singletonMap("testDc", 10L),
+        Collections.singletonMap("testDc", 10L));
+  }
+}
@@ -18,21 +18,26 @@ package com.alipay.sofa.registry.server.data.slot;
 
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.alipay.sofa.registry.common.model.GenericResponse;
+import com.alipay.sofa.registry.common.model.PublisherDigestUtil;
 import com.alipay.sofa.registry.common.model.dataserver.Datum;
 import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestResult;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffPublisherRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffPublisherResult;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptAllManager;
 import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptorManager;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.remoting.exchange.message.Response;
 import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
 import com.alipay.sofa.registry.server.data.cache.DatumStorage;
 import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
 import com.alipay.sofa.registry.server.data.change.DataChangeEventCenter;
@@ -42,6 +47,7 @@ import com.alipay.sofa.registry.server.data.remoting.DataNodeExchanger;
 import com.alipay.sofa.registry.server.data.remoting.SessionNodeExchanger;
 import com.alipay.sofa.registry.server.shared.env.ServerEnv;
 import com.alipay.sofa.registry.server.shared.remoting.ClientSideExchanger;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -50,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 
 public class SlotDiffSyncerTest {
@@ -214,6 +221,42 @@ public class SlotDiffSyncerTest {
     Assert.assertTrue(datum3_3.getVersion() > datum3.getVersion());
   }
 
+  @Test
+  public void testSyncChanges() {
+    SlotDiffSyncer syncer = newSyncer();
+    Assert.assertTrue(syncer.syncChanges(DATACENTER, 10, null, Collections.emptyMap()));
+
+    DatumStorage storage = syncer.getDatumStorageDelegate();
+    List<Publisher> updates = TestBaseUtils.createTestPublishers(10, 2);
+    List<Publisher> removes = TestBaseUtils.createTestPublishers(10, 2);
+    List<Publisher> sames = TestBaseUtils.createTestPublishers(10, 1);
+    for (Publisher p : Iterables.concat(updates, removes, sames)) {
+      storage.putPublisher(DATACENTER, p);
+    }
+    final String updateId = updates.get(0).getDataInfoId();
+    final String removeId = removes.get(0).getDataInfoId();
+    final String sameId = sames.get(0).getDataInfoId();
+    final long sameVersion = storage.get(DATACENTER, sameId).getVersion();
+
+    // the first is updated, the second is removed, and a new one is added
+    Publisher updated = TestBaseUtils.cloneBase(updates.get(0));
+    updated.setVersion(updated.getVersion() + 1);
+    Publisher added = TestBaseUtils.createTestPublisher(updates.get(0).getDataId());
+    Map<String, List<Publisher>> changes = Maps.newHashMap();
+    changes.put(updateId, Lists.newArrayList(updated, added));
+    changes.put(removeId, Collections.emptyList());
+    changes.put(sameId, Lists.newArrayList(sames));
+    Assert.assertTrue(syncer.syncChanges(DATACENTER, 10, null, changes));
+
+    Map<String, Publisher> pubs = storage.get(DATACENTER, updateId).getPubMap();
+    Assert.assertEquals(2, pubs.size());
+    Assert.assertEquals(updated, pubs.get(updated.getRegisterId()));
+    Assert.assertEquals(added, pubs.get(added.getRegisterId()));
+    Assert.assertFalse(pubs.containsKey(updates.get(1).getRegisterId()));
+    Assert.assertEquals(0, storage.get(DATACENTER, removeId).publisherSize());
+    Assert.assertEquals(sameVersion, storage.get(DATACENTER, sameId).getVersion());
+  }
+
   @Test
   public void testSyncSession() {
 
@@ -479,6 +522,111 @@ public class SlotDiffSyncerTest {
     Assert.assertEquals(datum4.getPubMap().get(p4.get(1).getRegisterId()), p4.get(1));
   }
 
+  @Test
+  public void testSyncLeaderIncrementalDigest() {
+    DatumStorageDelegate delegate = TestBaseUtils.newLocalDatumDelegate(DATACENTER, true);
+    DataServerConfig config = TestBaseUtils.newDataConfig(DATACENTER);
+    config.setSlotSyncIncrementalDigestEnable(true);
+    SlotDiffSyncer syncer =
+        new SlotDiffSyncer(
+            config,
+            delegate,
+            new DataChangeEventCenter(),
+            new SessionLeaseManager(),
+            new SyncSlotAcceptAllManager(),
+            LOGGER);
+    Assert.assertTrue(syncer.useIncrementalDigest());
+
+    List<Publisher> p1 = TestBaseUtils.createTestPublishers(10, 3);
+    List<Publisher> p2 = TestBaseUtils.createTestPublishers(10, 2);
+    delegate.putPublisher(DATACENTER, p1.get(0).getDataInfoId(), p1);
+    delegate.putPublisher(DATACENTER, p2.get(0).getDataInfoId(), p2);
+    Map<String, DatumSummary> summaryMap = Maps.newHashMap();
+    delegate.foreach(
+        DATACENTER, 10, DatumBiConsumer.publisherGroupsBiConsumer(summaryMap, ACCEPT_ALL));
+
+    // remove p2.all, the summary of p2 is loaded after diff
+    GenericResponse digestResp =
+        newDigestResp(
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.singletonList(p2.get(0).getDataInfoId()));
+    DataNodeExchanger exchanger =
+        mockExchange(
+            DataNodeExchanger.class, digestResp, DataSlotDiffDigestRequest.class, null, null);
+    Assert.assertTrue(
+        syncer.syncSlotLeader(
+            DATACENTER, DATACENTER, true, 10, ServerEnv.IP, 10, exchanger, 10, TRUE));
+
+    ArgumentCaptor<DataSlotDiffDigestRequest> captor =
+        ArgumentCaptor.forClass(DataSlotDiffDigestRequest.class);
+    verify(exchanger).requestRaw(anyString(), captor.capture());
+    DataSlotDiffDigestRequest request = captor.getValue();
+    Assert.assertTrue(request.isIncrementalDigest());
+    Assert.assertEquals(request.getDatumDigest(), PublisherDigestUtil.digest(summaryMap, true));
+
+    Assert.assertEquals(delegate.get(DATACENTER, p1.get(0).getDataInfoId()).publisherSize(), 3);
+    Assert.assertEquals(delegate.get(DATACENTER, p2.get(0).getDataInfoId()).publisherSize(), 0);
+  }
+
+  @Test
+  public void testSyncLeaderDigestTree() {
+    DatumStorageDelegate delegate = TestBaseUtils.newLocalDatumDelegate(DATACENTER, true);
+    DataServerConfig config = TestBaseUtils.newDataConfig(DATACENTER);
+    config.setSlotSyncIncrementalDigestEnable(true);
+    config.setSlotSyncDigestTreeBucketNum(16);
+    SlotDiffSyncer syncer =
+        new SlotDiffSyncer(
+            config,
+            delegate,
+            new DataChangeEventCenter(),
+            new SessionLeaseManager(),
+            new SyncSlotAcceptAllManager(),
+            LOGGER);
+
+    List<Publisher> p1 = TestBaseUtils.createTestPublishers(10, 3);
+    List<Publisher> p2 = TestBaseUtils.createTestPublishers(10, 2);
+    delegate.putPublisher(DATACENTER, p1.get(0).getDataInfoId(), p1);
+    delegate.putPublisher(DATACENTER, p2.get(0).getDataInfoId(), p2);
+
+    // converged, only compare the root
+    GenericResponse<DataSlotDiffDigestResult> treeResp = new GenericResponse<>();
+    treeResp.fillSucceed(DataSlotDiffDigestResult.diffBuckets(Sets.newHashSet()));
+    DataNodeExchanger exchanger =
+        mockExchange(
+            DataNodeExchanger.class, treeResp, DataSlotDiffDigestRequest.class, null, null);
+    Assert.assertTrue(
+        syncer.syncSlotLeader(
+            DATACENTER, DATACENTER, true, 10, ServerEnv.IP, 10, exchanger, 10, TRUE));
+    ArgumentCaptor<DataSlotDiffDigestRequest> captor =
+        ArgumentCaptor.forClass(DataSlotDiffDigestRequest.class);
+    verify(exchanger, times(1)).requestRaw(anyString(), captor.capture());
+    Assert.assertNotNull(captor.getValue().getDigestTree());
+    Assert.assertTrue(captor.getValue().getDatumDigest().isEmpty());
+
+    // the target not support digest tree, diff all the buckets
+    GenericResponse digestResp =
+        newDigestResp(
+            Collections.emptyList(),
+            Collections.emptyList(),
+            Collections.singletonList(p2.get(0).getDataInfoId()));
+    exchanger =
+        mockExchange(
+            DataNodeExchanger.class, digestResp, DataSlotDiffDigestRequest.class, null, null);
+    Assert.assertTrue(
+        syncer.syncSlotLeader(
+            DATACENTER, DATACENTER, true, 10, ServerEnv.IP, 10, exchanger, 10, TRUE));
+    captor = ArgumentCaptor.forClass(DataSlotDiffDigestRequest.class);
+    verify(exchanger, times(2)).requestRaw(anyString(), captor.capture());
+    DataSlotDiffDigestRequest request = captor.getAllValues().get(1);
+    Assert.assertNull(request.getDigestTree());
+    Assert.assertEquals(request.getDigestBuckets().size(), 16);
+    Assert.assertEquals(request.getDatumDigest().size(), 2);
+
+    Assert.assertEquals(delegate.get(DATACENTER, p1.get(0).getDataInfoId()).publisherSize(), 3);
+    Assert.assertEquals(delegate.get(DATACENTER, p2.get(0).getDataInfoId()).publisherSize(), 0);
+  }
+
   private static <T extends ClientSideExchanger> T mockExchange(
       Class<T> c, Object result1, Class reqClazz1, Object result2, Class reqClazz2) {
     T exchanger = mock(c);
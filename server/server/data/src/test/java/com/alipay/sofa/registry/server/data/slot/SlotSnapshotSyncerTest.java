@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.data.slot;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.alipay.sofa.registry.common.model.slot.DataSlotSnapshotRequest;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.filter.SyncSlotAcceptAllManager;
+import com.alipay.sofa.registry.common.model.store.Publisher;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.remoting.exchange.message.Response;
+import com.alipay.sofa.registry.server.data.TestBaseUtils;
+import com.alipay.sofa.registry.server.data.bootstrap.DataServerConfig;
+import com.alipay.sofa.registry.server.data.cache.DatumStorageDelegate;
+import com.alipay.sofa.registry.server.data.remoting.DataNodeExchanger;
+import com.alipay.sofa.registry.server.data.remoting.dataserver.handler.SlotFollowerSnapshotRequestHandler;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.RateLimiter;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlotSnapshotSyncerTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlotSnapshotSyncerTest.class);
+
+  private static final String DATACENTER = "testdc";
+
+  @Test
+  public void testSyncSnapshot() {
+    testSyncSnapshot(new String[] {"zstd"});
+    testSyncSnapshot(new String[0]);
+  }
+
+  private void testSyncSnapshot(String[] acceptEncodes) {
+    DatumStorageDelegate leader = TestBaseUtils.newLocalDatumDelegate(DATACENTER, true);
+    List<Publisher> publishers = Lists.newArrayList();
+    for (int i = 0; i < 6; i++) {
+      publishers.addAll(TestBaseUtils.createTestPublishers(1, 5));
+    }
+    publishers.forEach(p -> leader.putPublisher(DATACENTER, p));
+
+    SlotManager slotManager = mock(SlotManager.class);
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(true);
+    when(slotManager.getSlot(anyString(), anyInt()))
+        .thenReturn(new Slot(1, "leader", 1, Collections.emptyList()));
+    SlotFollowerSnapshotRequestHandler handler = new SlotFollowerSnapshotRequestHandler();
+    handler
+        .setSlotManager(slotManager)
+        .setDatumStorageDelegate(leader)
+        .setDataServerConfig(TestBaseUtils.newDataConfig(DATACENTER));
+
+    DataNodeExchanger exchanger = mock(DataNodeExchanger.class);
+    when(exchanger.requestRaw(anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              Object resp =
+                  handler.doHandle(null, (DataSlotSnapshotRequest) invocation.getArguments()[1]);
+              return (Response) () -> resp;
+            });
+
+    DataServerConfig config = TestBaseUtils.newDataConfig(DATACENTER);
+    config.setSlotSyncBulkChunkPublisherMaxNum(7);
+    config.setSlotSyncBulkAcceptEncodes(acceptEncodes);
+    DatumStorageDelegate follower = TestBaseUtils.newLocalDatumDelegate(DATACENTER, true);
+    SlotSnapshotSyncer syncer =
+        new SlotSnapshotSyncer(
+            config,
+            follower,
+            new SyncSlotAcceptAllManager(),
+            RateLimiter.create(1024 * 1024),
+            LOGGER);
+    Assert.assertTrue(
+        syncer.syncSnapshot(DATACENTER, DATACENTER, 1, "leader", 1, exchanger, 1, () -> true));
+    for (Publisher p : publishers) {
+      Publisher synced =
+          follower.get(DATACENTER, p.getDataInfoId()).getPubMap().get(p.getRegisterId());
+      Assert.assertEquals(p.registerVersion(), synced.registerVersion());
+    }
+    Assert.assertEquals(
+        leader.getPublishers(DATACENTER, 1).size(), follower.getPublishers(DATACENTER, 1).size());
+
+    // break
+    Assert.assertTrue(
+        syncer.syncSnapshot(DATACENTER, DATACENTER, 1, "leader", 1, exchanger, 1, () -> false));
+    // not leader
+    when(slotManager.isLeader(anyString(), anyInt())).thenReturn(false);
+    Assert.assertFalse(
+        syncer.syncSnapshot(DATACENTER, DATACENTER, 1, "leader", 1, exchanger, 1, () -> true));
+  }
+}
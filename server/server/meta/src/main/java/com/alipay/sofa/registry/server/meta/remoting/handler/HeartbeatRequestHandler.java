@@ -28,6 +28,7 @@ import com.alipay.sofa.registry.common.model.multi.cluster.DataCenterMetadata;
 import com.alipay.sofa.registry.common.model.multi.cluster.RemoteSlotTableStatus;
 import com.alipay.sofa.registry.common.model.slot.SlotConfig;
 import com.alipay.sofa.registry.common.model.slot.SlotTable;
+import com.alipay.sofa.registry.common.model.slot.SlotTableDelta;
 import com.alipay.sofa.registry.exception.MetaLeaderNotWarmupException;
 import com.alipay.sofa.registry.exception.SofaRegistryMetaLeaderException;
 import com.alipay.sofa.registry.log.Logger;
@@ -106,6 +107,12 @@ public class HeartbeatRequestHandler extends BaseMetaServerHandler<HeartbeatRequ
         case SESSION:
         case DATA:
           Map<String, RemoteSlotTableStatus> remoteSlotTableStatus = calculateStatus(heartbeat);
+          if (heartbeat.isConditional()) {
+            response =
+                conditionalResponse(
+                    heartbeat, metaServerInfo, slotTable, sessionMetaInfo, remoteSlotTableStatus);
+            break;
+          }
           response =
               new BaseHeartBeatResponse(
                   true,
@@ -157,6 +164,41 @@ public class HeartbeatRequestHandler extends BaseMetaServerHandler<HeartbeatRequ
     }
   }
 
+  /**
+   * the meta nodes and the session nodes are omitted if not changed, the slot table is responded as
+   * the delta from the slot table in the heartbeat
+   */
+  BaseHeartBeatResponse conditionalResponse(
+      HeartbeatRequest<Node> heartbeat,
+      VersionedList<MetaNode> metaServerInfo,
+      SlotTable slotTable,
+      VersionedList<SessionNode> sessionMetaInfo,
+      Map<String, RemoteSlotTableStatus> remoteSlotTableStatus) {
+    SlotTableDelta slotTableDelta = null;
+    final SlotTable nodeSlotTable = heartbeat.getSlotTable();
+    if (nodeSlotTable != null && nodeSlotTable.getEpoch() <= slotTable.getEpoch()) {
+      SlotTableDelta delta = SlotTableDelta.diff(nodeSlotTable, slotTable);
+      // too many slots changed, respond the full slot table
+      if (delta.size() * 2 <= slotTable.getSlotNum()) {
+        slotTableDelta = delta;
+      }
+    }
+    final boolean metaNodesChanged = heartbeat.getMetaServerEpoch() != metaServerInfo.getEpoch();
+    final boolean sessionNodesChanged =
+        heartbeat.getSessionServerEpoch() != sessionMetaInfo.getEpoch()
+            || heartbeat.getSessionNodesDigest()
+                != BaseHeartBeatResponse.sessionNodesDigest(sessionMetaInfo.getClusterMembers());
+    return new BaseHeartBeatResponse(
+        true,
+        metaNodesChanged ? metaServerInfo : null,
+        slotTableDelta == null ? slotTable : null,
+        slotTableDelta,
+        sessionNodesChanged ? sessionMetaInfo : null,
+        metaLeaderService.getLeader(),
+        metaLeaderService.getLeaderEpoch(),
+        remoteSlotTableStatus);
+  }
+
   @SuppressWarnings("unchecked")
   private void onHeartbeat(HeartbeatRequest heartbeat, Channel channel) {
     new DefaultHeartbeatListener(nodeConfig.getLocalDataCenter(), channel).onHeartbeat(heartbeat);
@@ -20,9 +20,15 @@ import static org.mockito.Mockito.*;
 
 import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.common.model.metaserver.cluster.VersionedList;
+import com.alipay.sofa.registry.common.model.metaserver.inter.heartbeat.BaseHeartBeatResponse;
 import com.alipay.sofa.registry.common.model.metaserver.inter.heartbeat.HeartbeatRequest;
 import com.alipay.sofa.registry.common.model.metaserver.nodes.DataNode;
+import com.alipay.sofa.registry.common.model.metaserver.nodes.MetaNode;
+import com.alipay.sofa.registry.common.model.metaserver.nodes.SessionNode;
+import com.alipay.sofa.registry.common.model.slot.Slot;
 import com.alipay.sofa.registry.common.model.slot.SlotConfig;
+import com.alipay.sofa.registry.common.model.slot.SlotTable;
 import com.alipay.sofa.registry.remoting.Channel;
 import com.alipay.sofa.registry.server.meta.AbstractMetaServerTestBase;
 import com.alipay.sofa.registry.server.meta.MetaLeaderService;
@@ -32,7 +38,10 @@ import com.alipay.sofa.registry.server.meta.lease.session.SessionServerManager;
 import com.alipay.sofa.registry.server.meta.metaserver.impl.DefaultCurrentDcMetaServer;
 import com.alipay.sofa.registry.server.meta.multi.cluster.MultiClusterSlotTableSyncer;
 import com.alipay.sofa.registry.server.meta.slot.manager.DefaultSlotManager;
+import com.alipay.sofa.registry.server.shared.env.ServerEnv;
+import com.google.common.collect.Lists;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 import org.junit.Assert;
 import org.junit.Before;
@@ -151,6 +160,70 @@ public class HeartbeatRequestHandlerTest extends AbstractMetaServerTestBase {
     verify(channel, times(3)).close();
   }
 
+  @Test
+  public void testConditional() throws TimeoutException, InterruptedException {
+    makeMetaLeader();
+    SlotTable slotTable = randomSlotTable(randomDataNodes(3));
+    when(currentDcMetaServer.getSlotTable()).thenReturn(slotTable);
+    VersionedList<MetaNode> metaNodes =
+        new VersionedList<>(10, Lists.newArrayList(new MetaNode(randomURL(randomIp()), getDc())));
+    VersionedList<SessionNode> sessionNodes =
+        new VersionedList<>(
+            20,
+            Lists.newArrayList(
+                new SessionNode(randomURL(randomIp()), getDc(), ServerEnv.PROCESS_ID, 1)));
+    when(currentDcMetaServer.getClusterMeta()).thenReturn(metaNodes);
+    when(sessionServerManager.getSessionServerMetaInfo()).thenReturn(sessionNodes);
+
+    // unchanged, only the empty slot table delta
+    HeartbeatRequest<Node> heartbeat =
+        newHeartbeat(slotTable)
+            .setConditional(
+                10, 20, BaseHeartBeatResponse.sessionNodesDigest(sessionNodes.getClusterMembers()));
+    BaseHeartBeatResponse response =
+        ((GenericResponse<BaseHeartBeatResponse>) handler.doHandle(channel, heartbeat)).getData();
+    Assert.assertNull(response.getSlotTable());
+    Assert.assertEquals(0, response.getSlotTableDelta().size());
+    response.fillOmitted(slotTable, response);
+    Assert.assertEquals(slotTable, response.getSlotTable());
+
+    // the session weight changed without epoch, the slot table is older
+    List<Slot> slots = slotTable.getSlots();
+    slots.remove(0);
+    SlotTable older = new SlotTable(slotTable.getEpoch() - 1, slots);
+    heartbeat = newHeartbeat(older).setConditional(10, 20, 0);
+    response =
+        ((GenericResponse<BaseHeartBeatResponse>) handler.doHandle(channel, heartbeat)).getData();
+    Assert.assertEquals(1, response.getSlotTableDelta().size());
+    Assert.assertEquals(sessionNodes.getEpoch(), response.getSessionServerEpoch());
+    BaseHeartBeatResponse last =
+        new BaseHeartBeatResponse(
+            true, metaNodes, older, VersionedList.EMPTY, "leader", 1, Collections.emptyMap());
+    response.fillOmitted(older, last);
+    Assert.assertEquals(slotTable, response.getSlotTable());
+    Assert.assertEquals(metaNodes.getClusterMembers(), response.getMetaNodes());
+
+    // not conditional, respond all
+    response =
+        ((GenericResponse<BaseHeartBeatResponse>) handler.doHandle(channel, newHeartbeat(older)))
+            .getData();
+    Assert.assertEquals(slotTable, response.getSlotTable());
+    Assert.assertNull(response.getSlotTableDelta());
+    Assert.assertEquals(metaNodes.getClusterMembers(), response.getMetaNodes());
+  }
+
+  private HeartbeatRequest<Node> newHeartbeat(SlotTable slotTable) {
+    return new HeartbeatRequest<Node>(
+            new DataNode(randomURL(randomIp()), getDc()),
+            slotTable.getEpoch(),
+            getDc(),
+            System.currentTimeMillis(),
+            new SlotConfig.SlotBasicInfo(
+                SlotConfig.SLOT_NUM, SlotConfig.SLOT_REPLICAS, SlotConfig.FUNC),
+            Collections.emptyMap())
+        .setSlotTable(slotTable);
+  }
+
   @Test
   public void testInterest() {
     Assert.assertEquals(HeartbeatRequest.class, handler.interest());
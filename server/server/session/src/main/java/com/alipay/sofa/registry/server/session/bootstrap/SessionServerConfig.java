@@ -54,10 +54,20 @@ public interface SessionServerConfig extends ServerShareConfig {
 
   int getScanSubscriberIntervalMillis();
 
+  boolean isScanSubscriberIncrementalEnable();
+
+  int getScanSubscriberFullSweepRounds();
+
   int getClientNodeExchangeTimeoutMillis();
 
   int getClientNodePushConcurrencyLevel();
 
+  boolean isPushAdaptiveConcurrencyEnable();
+
+  int getPushClientMaxInFlight();
+
+  int getPushClientLatencyTargetMillis();
+
   int getDataNodeExchangeTimeoutMillis();
 
   int getDataNodeExchangeForFetchDatumTimeoutMillis();
@@ -132,8 +142,24 @@ public interface SessionServerConfig extends ServerShareConfig {
 
   int getDataNodeMaxBatchSize();
 
+  boolean isDataNodeFetchBatchEnable();
+
+  int getDataNodeFetchBatchWindowMillis();
+
+  int getDataNodeFetchBatchMaxSize();
+
   double getAccessLimitRate();
 
+  boolean isAccessLimitFairEnable();
+
+  double getAccessLimitClientIpRatio();
+
+  double getAccessLimitAppRatio();
+
+  String getAccessLimitAppWeights();
+
+  int getAccessLimitBucketMaxSize();
+
   int getDataClientConnNum();
 
   int getDataNotifyClientConnNum();
@@ -164,6 +190,16 @@ public interface SessionServerConfig extends ServerShareConfig {
 
   int getCacheDatumExpireSecs();
 
+  int getPushDataCacheMaxWeight();
+
+  int getPushDataCacheExpireSecs();
+
+  boolean isPushDeltaEnable();
+
+  int getPushDeltaBaseCacheMaxWeight();
+
+  int getPushDeltaBaseCacheExpireSecs();
+
   int getHeartbeatCacheCheckerInitialDelaySecs();
 
   int getHeartbeatCacheCheckerSecs();
@@ -110,6 +110,15 @@ public class SessionServerConfigBean implements SessionServerConfig {
 
   private int clientNodeExchangeTimeoutMillis = 2000;
   private int clientNodePushConcurrencyLevel = 1;
+
+  /** limit the in-flight pushes of one client by AIMD of the push rt */
+  private volatile boolean pushAdaptiveConcurrencyEnable = false;
+
+  private volatile int pushClientMaxInFlight = 16;
+
+  /** the push slower than it decreases the in-flight limit */
+  private volatile int pushClientLatencyTargetMillis = 500;
+
   private int dataNodeExchangeTimeoutMillis = 3000;
 
   private int dataNodeExchangeForFetchDatumTimeoutMillis = 5000;
@@ -140,10 +149,35 @@ public class SessionServerConfigBean implements SessionServerConfig {
 
   private int dataNodeMaxBatchSize = 100;
 
+  // coalesce the concurrent datum fetches of the same slot into one request
+  private volatile boolean dataNodeFetchBatchEnable = false;
+
+  private volatile int dataNodeFetchBatchWindowMillis = 2;
+
+  private volatile int dataNodeFetchBatchMaxSize = 64;
+
   private int scanSubscriberIntervalMillis = 1000 * 5;
 
+  // only scan the subscribers of the dirty dataInfoIds, and full sweep every n rounds
+  private volatile boolean scanSubscriberIncrementalEnable = false;
+
+  private int scanSubscriberFullSweepRounds = 12;
+
   private double accessLimitRate = 30000.0;
 
+  private volatile boolean accessLimitFairEnable = false;
+
+  /** the rate of one client ip, ratio of accessLimitRate */
+  private volatile double accessLimitClientIpRatio = 0.1;
+
+  /** the rate of one app with weight 1, ratio of accessLimitRate */
+  private volatile double accessLimitAppRatio = 0.3;
+
+  /** config weights of apps, format: app1:2;app2:0.5, default weight is 1, 0 means no app limit */
+  private volatile String accessLimitAppWeights = "";
+
+  private int accessLimitBucketMaxSize = 100000;
+
   private String sessionServerRegion;
 
   private String sessionServerDataCenter;
@@ -173,6 +207,16 @@ public class SessionServerConfigBean implements SessionServerConfig {
 
   private int cacheDatumExpireSecs = 5;
 
+  private int pushDataCacheMaxWeight = 1024 * 1024 * 128;
+
+  private int pushDataCacheExpireSecs = 5;
+
+  private volatile boolean pushDeltaEnable = false;
+
+  private int pushDeltaBaseCacheMaxWeight = 1024 * 1024 * 64;
+
+  private int pushDeltaBaseCacheExpireSecs = 60;
+
   // metadata config start
 
   private int heartbeatCacheCheckerInitialDelaySecs = 60;
@@ -727,6 +771,160 @@ public class SessionServerConfigBean implements SessionServerConfig {
     this.accessLimitRate = accessLimitRate;
   }
 
+  /**
+   * Getter method for property <tt>pushAdaptiveConcurrencyEnable</tt>.
+   *
+   * @return property value of pushAdaptiveConcurrencyEnable
+   */
+  @Override
+  public boolean isPushAdaptiveConcurrencyEnable() {
+    return pushAdaptiveConcurrencyEnable;
+  }
+
+  /**
+   * Setter method for property <tt>pushAdaptiveConcurrencyEnable</tt>.
+   *
+   * @param pushAdaptiveConcurrencyEnable value to be assigned to property
+   *     pushAdaptiveConcurrencyEnable
+   */
+  public void setPushAdaptiveConcurrencyEnable(boolean pushAdaptiveConcurrencyEnable) {
+    this.pushAdaptiveConcurrencyEnable = pushAdaptiveConcurrencyEnable;
+  }
+
+  /**
+   * Getter method for property <tt>pushClientMaxInFlight</tt>.
+   *
+   * @return property value of pushClientMaxInFlight
+   */
+  @Override
+  public int getPushClientMaxInFlight() {
+    return pushClientMaxInFlight;
+  }
+
+  /**
+   * Setter method for property <tt>pushClientMaxInFlight</tt>.
+   *
+   * @param pushClientMaxInFlight value to be assigned to property pushClientMaxInFlight
+   */
+  public void setPushClientMaxInFlight(int pushClientMaxInFlight) {
+    this.pushClientMaxInFlight = pushClientMaxInFlight;
+  }
+
+  /**
+   * Getter method for property <tt>pushClientLatencyTargetMillis</tt>.
+   *
+   * @return property value of pushClientLatencyTargetMillis
+   */
+  @Override
+  public int getPushClientLatencyTargetMillis() {
+    return pushClientLatencyTargetMillis;
+  }
+
+  /**
+   * Setter method for property <tt>pushClientLatencyTargetMillis</tt>.
+   *
+   * @param pushClientLatencyTargetMillis value to be assigned to property
+   *     pushClientLatencyTargetMillis
+   */
+  public void setPushClientLatencyTargetMillis(int pushClientLatencyTargetMillis) {
+    this.pushClientLatencyTargetMillis = pushClientLatencyTargetMillis;
+  }
+
+  /**
+   * Getter method for property <tt>accessLimitFairEnable</tt>.
+   *
+   * @return property value of accessLimitFairEnable
+   */
+  @Override
+  public boolean isAccessLimitFairEnable() {
+    return accessLimitFairEnable;
+  }
+
+  /**
+   * Setter method for property <tt>accessLimitFairEnable</tt>.
+   *
+   * @param accessLimitFairEnable value to be assigned to property accessLimitFairEnable
+   */
+  public void setAccessLimitFairEnable(boolean accessLimitFairEnable) {
+    this.accessLimitFairEnable = accessLimitFairEnable;
+  }
+
+  /**
+   * Getter method for property <tt>accessLimitClientIpRatio</tt>.
+   *
+   * @return property value of accessLimitClientIpRatio
+   */
+  @Override
+  public double getAccessLimitClientIpRatio() {
+    return accessLimitClientIpRatio;
+  }
+
+  /**
+   * Setter method for property <tt>accessLimitClientIpRatio</tt>.
+   *
+   * @param accessLimitClientIpRatio value to be assigned to property accessLimitClientIpRatio
+   */
+  public void setAccessLimitClientIpRatio(double accessLimitClientIpRatio) {
+    this.accessLimitClientIpRatio = accessLimitClientIpRatio;
+  }
+
+  /**
+   * Getter method for property <tt>accessLimitAppRatio</tt>.
+   *
+   * @return property value of accessLimitAppRatio
+   */
+  @Override
+  public double getAccessLimitAppRatio() {
+    return accessLimitAppRatio;
+  }
+
+  /**
+   * Setter method for property <tt>accessLimitAppRatio</tt>.
+   *
+   * @param accessLimitAppRatio value to be assigned to property accessLimitAppRatio
+   */
+  public void setAccessLimitAppRatio(double accessLimitAppRatio) {
+    this.accessLimitAppRatio = accessLimitAppRatio;
+  }
+
+  /**
+   * Getter method for property <tt>accessLimitAppWeights</tt>.
+   *
+   * @return property value of accessLimitAppWeights
+   */
+  @Override
+  public String getAccessLimitAppWeights() {
+    return accessLimitAppWeights;
+  }
+
+  /**
+   * Setter method for property <tt>accessLimitAppWeights</tt>.
+   *
+   * @param accessLimitAppWeights value to be assigned to property accessLimitAppWeights
+   */
+  public void setAccessLimitAppWeights(String accessLimitAppWeights) {
+    this.accessLimitAppWeights = accessLimitAppWeights;
+  }
+
+  /**
+   * Getter method for property <tt>accessLimitBucketMaxSize</tt>.
+   *
+   * @return property value of accessLimitBucketMaxSize
+   */
+  @Override
+  public int getAccessLimitBucketMaxSize() {
+    return accessLimitBucketMaxSize;
+  }
+
+  /**
+   * Setter method for property <tt>accessLimitBucketMaxSize</tt>.
+   *
+   * @param accessLimitBucketMaxSize value to be assigned to property accessLimitBucketMaxSize
+   */
+  public void setAccessLimitBucketMaxSize(int accessLimitBucketMaxSize) {
+    this.accessLimitBucketMaxSize = accessLimitBucketMaxSize;
+  }
+
   /**
    * Getter method for property <tt>dataClientConnNum</tt>.
    *
@@ -874,6 +1072,46 @@ public class SessionServerConfigBean implements SessionServerConfig {
     this.scanSubscriberIntervalMillis = scanSubscriberIntervalMillis;
   }
 
+  /**
+   * Getter method for property <tt>scanSubscriberIncrementalEnable</tt>.
+   *
+   * @return property value of scanSubscriberIncrementalEnable
+   */
+  @Override
+  public boolean isScanSubscriberIncrementalEnable() {
+    return scanSubscriberIncrementalEnable;
+  }
+
+  /**
+   * Setter method for property <tt>scanSubscriberIncrementalEnable</tt>.
+   *
+   * @param scanSubscriberIncrementalEnable value to be assigned to property
+   *     scanSubscriberIncrementalEnable
+   */
+  public void setScanSubscriberIncrementalEnable(boolean scanSubscriberIncrementalEnable) {
+    this.scanSubscriberIncrementalEnable = scanSubscriberIncrementalEnable;
+  }
+
+  /**
+   * Getter method for property <tt>scanSubscriberFullSweepRounds</tt>.
+   *
+   * @return property value of scanSubscriberFullSweepRounds
+   */
+  @Override
+  public int getScanSubscriberFullSweepRounds() {
+    return scanSubscriberFullSweepRounds;
+  }
+
+  /**
+   * Setter method for property <tt>scanSubscriberFullSweepRounds</tt>.
+   *
+   * @param scanSubscriberFullSweepRounds value to be assigned to property
+   *     scanSubscriberFullSweepRounds
+   */
+  public void setScanSubscriberFullSweepRounds(int scanSubscriberFullSweepRounds) {
+    this.scanSubscriberFullSweepRounds = scanSubscriberFullSweepRounds;
+  }
+
   public int getSlotSyncMaxBufferSize() {
     return slotSyncMaxBufferSize;
   }
@@ -958,6 +1196,33 @@ public class SessionServerConfigBean implements SessionServerConfig {
     this.dataNodeMaxBatchSize = dataNodeMaxBatchSize;
   }
 
+  @Override
+  public boolean isDataNodeFetchBatchEnable() {
+    return dataNodeFetchBatchEnable;
+  }
+
+  public void setDataNodeFetchBatchEnable(boolean dataNodeFetchBatchEnable) {
+    this.dataNodeFetchBatchEnable = dataNodeFetchBatchEnable;
+  }
+
+  @Override
+  public int getDataNodeFetchBatchWindowMillis() {
+    return dataNodeFetchBatchWindowMillis;
+  }
+
+  public void setDataNodeFetchBatchWindowMillis(int dataNodeFetchBatchWindowMillis) {
+    this.dataNodeFetchBatchWindowMillis = dataNodeFetchBatchWindowMillis;
+  }
+
+  @Override
+  public int getDataNodeFetchBatchMaxSize() {
+    return dataNodeFetchBatchMaxSize;
+  }
+
+  public void setDataNodeFetchBatchMaxSize(int dataNodeFetchBatchMaxSize) {
+    this.dataNodeFetchBatchMaxSize = dataNodeFetchBatchMaxSize;
+  }
+
   @Override
   public int getCacheCountIntervalSecs() {
     return cacheCountIntervalSecs;
@@ -985,6 +1250,102 @@ public class SessionServerConfigBean implements SessionServerConfig {
     this.cacheDatumExpireSecs = cacheDatumExpireSecs;
   }
 
+  /**
+   * Getter method for property <tt>pushDataCacheMaxWeight</tt>.
+   *
+   * @return property value of pushDataCacheMaxWeight
+   */
+  @Override
+  public int getPushDataCacheMaxWeight() {
+    return pushDataCacheMaxWeight;
+  }
+
+  /**
+   * Setter method for property <tt>pushDataCacheMaxWeight</tt>.
+   *
+   * @param pushDataCacheMaxWeight value to be assigned to property pushDataCacheMaxWeight
+   */
+  public void setPushDataCacheMaxWeight(int pushDataCacheMaxWeight) {
+    this.pushDataCacheMaxWeight = pushDataCacheMaxWeight;
+  }
+
+  /**
+   * Getter method for property <tt>pushDataCacheExpireSecs</tt>.
+   *
+   * @return property value of pushDataCacheExpireSecs
+   */
+  @Override
+  public int getPushDataCacheExpireSecs() {
+    return pushDataCacheExpireSecs;
+  }
+
+  /**
+   * Setter method for property <tt>pushDataCacheExpireSecs</tt>.
+   *
+   * @param pushDataCacheExpireSecs value to be assigned to property pushDataCacheExpireSecs
+   */
+  public void setPushDataCacheExpireSecs(int pushDataCacheExpireSecs) {
+    this.pushDataCacheExpireSecs = pushDataCacheExpireSecs;
+  }
+
+  /**
+   * Getter method for property <tt>pushDeltaEnable</tt>.
+   *
+   * @return property value of pushDeltaEnable
+   */
+  @Override
+  public boolean isPushDeltaEnable() {
+    return pushDeltaEnable;
+  }
+
+  /**
+   * Setter method for property <tt>pushDeltaEnable</tt>.
+   *
+   * @param pushDeltaEnable value to be assigned to property pushDeltaEnable
+   */
+  public void setPushDeltaEnable(boolean pushDeltaEnable) {
+    this.pushDeltaEnable = pushDeltaEnable;
+  }
+
+  /**
+   * Getter method for property <tt>pushDeltaBaseCacheMaxWeight</tt>.
+   *
+   * @return property value of pushDeltaBaseCacheMaxWeight
+   */
+  @Override
+  public int getPushDeltaBaseCacheMaxWeight() {
+    return pushDeltaBaseCacheMaxWeight;
+  }
+
+  /**
+   * Setter method for property <tt>pushDeltaBaseCacheMaxWeight</tt>.
+   *
+   * @param pushDeltaBaseCacheMaxWeight value to be assigned to property pushDeltaBaseCacheMaxWeight
+   */
+  public void setPushDeltaBaseCacheMaxWeight(int pushDeltaBaseCacheMaxWeight) {
+    this.pushDeltaBaseCacheMaxWeight = pushDeltaBaseCacheMaxWeight;
+  }
+
+  /**
+   * Getter method for property <tt>pushDeltaBaseCacheExpireSecs</tt>.
+   *
+   * @return property value of pushDeltaBaseCacheExpireSecs
+   */
+  @Override
+  public int getPushDeltaBaseCacheExpireSecs() {
+    return pushDeltaBaseCacheExpireSecs;
+  }
+
+  /**
+   * Setter method for property <tt>pushDeltaBaseCacheExpireSecs</tt>.
+   *
+   * @param pushDeltaBaseCacheExpireSecs value to be assigned to property
+   *     pushDeltaBaseCacheExpireSecs
+   */
+  public void setPushDeltaBaseCacheExpireSecs(int pushDeltaBaseCacheExpireSecs) {
+    this.pushDeltaBaseCacheExpireSecs = pushDeltaBaseCacheExpireSecs;
+  }
+
   @Override
   public int getSyncSessionIOLowWaterMark() {
     return syncSessionIOLowWaterMark;
@@ -29,6 +29,7 @@ import com.alipay.sofa.registry.server.session.acceptor.WriteDataAcceptorImpl;
 import com.alipay.sofa.registry.server.session.cache.CacheGenerator;
 import com.alipay.sofa.registry.server.session.cache.CacheService;
 import com.alipay.sofa.registry.server.session.cache.DatumCacheGenerator;
+import com.alipay.sofa.registry.server.session.cache.DatumFetchBatcher;
 import com.alipay.sofa.registry.server.session.cache.SessionDatumCacheService;
 import com.alipay.sofa.registry.server.session.circuit.breaker.CircuitBreakerService;
 import com.alipay.sofa.registry.server.session.circuit.breaker.DefaultCircuitBreakerService;
@@ -204,6 +205,7 @@ public class SessionServerConfiguration {
       Collection<AbstractServerHandler> list = new ArrayList<>();
       list.add(publisherHandler());
       list.add(subscriberHandler());
+      list.add(batchRegisterHandler());
       list.add(watcherHandler());
       list.add(clientNodeConnectionHandler());
       list.add(syncConfigHandler());
@@ -255,6 +257,11 @@ public class SessionServerConfiguration {
       return new SubscriberHandler();
     }
 
+    @Bean
+    public AbstractServerHandler batchRegisterHandler() {
+      return new BatchRegisterHandler();
+    }
+
     @Bean
     public AbstractServerHandler watcherHandler() {
       return new WatcherHandler();
@@ -611,6 +618,11 @@ public class SessionServerConfiguration {
       return new DatumCacheGenerator();
     }
 
+    @Bean
+    public DatumFetchBatcher datumFetchBatcher() {
+      return new DatumFetchBatcher();
+    }
+
     @Bean
     public MetadataCacheRegistry metadataCacheRegistry() {
       return new MetadataCacheRegistry();
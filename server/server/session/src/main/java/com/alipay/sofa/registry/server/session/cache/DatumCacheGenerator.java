@@ -35,6 +35,10 @@ public class DatumCacheGenerator implements CacheGenerator {
   /** DataNode service */
   @Autowired DataNodeService dataNodeService;
 
+  /** coalesce the concurrent fetches, null means fetch one by one */
+  @Autowired(required = false)
+  DatumFetchBatcher datumFetchBatcher;
+
   @Override
   public Value generatePayload(Key key) {
     EntityType entityType = key.getEntityType();
@@ -46,7 +50,10 @@ public class DatumCacheGenerator implements CacheGenerator {
       ParaCheckUtil.checkNotEmpty(dataCenters, "dataCenter");
       ParaCheckUtil.checkNotBlank(dataInfoId, "dataInfoId");
       final long now = System.currentTimeMillis();
-      MultiSubDatum datum = dataNodeService.fetch(dataInfoId, dataCenters);
+      MultiSubDatum datum =
+          datumFetchBatcher != null
+              ? datumFetchBatcher.fetch(dataInfoId, dataCenters)
+              : dataNodeService.fetch(dataInfoId, dataCenters);
       final long span = System.currentTimeMillis() - now;
       if (datum == null || CollectionUtils.isEmpty(datum.getDatumMap())) {
         LOGGER.info("loadNil,{},{},span={}", dataInfoId, dataCenters, span);
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.cache;
+
+import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
+import com.alipay.sofa.registry.server.session.node.service.DataNodeService;
+import com.alipay.sofa.registry.server.session.slot.SlotTableCache;
+import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * coalesce the concurrent datum fetches of the same slot into one request. the first fetcher of a
+ * slot is the leader of the batch, it waits a short window for the others, then fetches the whole
+ * batch in its thread and completes the waiters. the fetches of the same dataInfoId in the batch
+ * share one result. the dataInfoIds failed in the batch are fetched by their own callers, so the
+ * error is the same as the fetch without batch. the data node failed the whole batch (e.g. not
+ * support the batch) is fetched without batch for a while
+ */
+public class DatumFetchBatcher {
+  private static final Logger LOGGER = LoggerFactory.getLogger("CACHE-GEN");
+
+  private static final long BATCH_DISABLE_MILLIS = 60 * 1000;
+
+  // complete the waiter with it, the waiter fetches by itself
+  private static final RuntimeException FETCH_BY_SELF = new RuntimeException("fetch by self");
+
+  @Autowired DataNodeService dataNodeService;
+
+  @Autowired SlotTableCache slotTableCache;
+
+  @Autowired SessionServerConfig sessionServerConfig;
+
+  private final Map<BatchKey, Batch> pendings = Maps.newConcurrentMap();
+
+  // the data nodes failed the whole batch, key is the address, value is the timestamp to retry
+  // batch
+  private final Map<String, Long> batchDisabledNodes = Maps.newConcurrentMap();
+
+  public MultiSubDatum fetch(String dataInfoId, Set<String> dataCenters) {
+    if (!sessionServerConfig.isDataNodeFetchBatchEnable()) {
+      return dataNodeService.fetch(dataInfoId, dataCenters);
+    }
+    final int slotId = slotTableCache.slotOf(dataInfoId);
+    if (isBatchDisabled(slotId)) {
+      return dataNodeService.fetch(dataInfoId, dataCenters);
+    }
+    final BatchKey key = new BatchKey(slotId, dataCenters);
+    for (; ; ) {
+      final Batch batch = new Batch(key);
+      final Batch exist = pendings.putIfAbsent(key, batch);
+      if (exist == null) {
+        // the leader of the batch
+        final CompletableFuture<MultiSubDatum> future =
+            batch.join(dataInfoId, sessionServerConfig.getDataNodeFetchBatchMaxSize());
+        batch.await(sessionServerConfig.getDataNodeFetchBatchWindowMillis());
+        pendings.remove(key, batch);
+        fetch(batch);
+        return get(future, dataInfoId, dataCenters);
+      }
+      final CompletableFuture<MultiSubDatum> future =
+          exist.join(dataInfoId, sessionServerConfig.getDataNodeFetchBatchMaxSize());
+      if (future != null) {
+        return get(future, dataInfoId, dataCenters);
+      }
+      // the batch is closed, start a new one
+      pendings.remove(key, exist);
+    }
+  }
+
+  @VisibleForTesting
+  void fetch(Batch batch) {
+    final Map<String, CompletableFuture<MultiSubDatum>> futures = batch.futures;
+    if (futures.size() == 1) {
+      // one dataInfoId in the batch, fetch as before
+      futures.values().forEach(f -> f.completeExceptionally(FETCH_BY_SELF));
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    Map<String, MultiSubDatum> datums = Collections.emptyMap();
+    try {
+      datums =
+          dataNodeService.fetch(
+              batch.key.slotId, Lists.newArrayList(futures.keySet()), batch.key.dataCenters);
+    } catch (Throwable e) {
+      final String leader = leaderOf(batch.key.slotId);
+      if (leader != null) {
+        batchDisabledNodes.put(leader, now + BATCH_DISABLE_MILLIS);
+      }
+      LOGGER.error(
+          "loadBatchFail,{},{},{},size={}",
+          batch.key.slotId,
+          leader,
+          batch.key.dataCenters,
+          futures.size(),
+          e);
+    }
+    int fails = 0;
+    for (Map.Entry<String, CompletableFuture<MultiSubDatum>> e : futures.entrySet()) {
+      if (datums.containsKey(e.getKey())) {
+        e.getValue().complete(datums.get(e.getKey()));
+      } else {
+        // not wait for the others in the leader thread, the waiter fetches by itself
+        e.getValue().completeExceptionally(FETCH_BY_SELF);
+        fails++;
+      }
+    }
+    LOGGER.info(
+        "loadBatch,{},{},size={},fail={},span={}",
+        batch.key.slotId,
+        batch.key.dataCenters,
+        futures.size(),
+        fails,
+        System.currentTimeMillis() - now);
+  }
+
+  private boolean isBatchDisabled(int slotId) {
+    if (batchDisabledNodes.isEmpty()) {
+      return false;
+    }
+    final String leader = leaderOf(slotId);
+    if (leader == null) {
+      return false;
+    }
+    final Long until = batchDisabledNodes.get(leader);
+    if (until == null) {
+      return false;
+    }
+    if (until > System.currentTimeMillis()) {
+      return true;
+    }
+    batchDisabledNodes.remove(leader, until);
+    return false;
+  }
+
+  private String leaderOf(int slotId) {
+    return slotTableCache.getLeader(sessionServerConfig.getSessionServerDataCenter(), slotId);
+  }
+
+  private MultiSubDatum get(
+      CompletableFuture<MultiSubDatum> future, String dataInfoId, Set<String> dataCenters) {
+    try {
+      return future.get(
+          sessionServerConfig.getDataNodeExchangeForFetchDatumTimeoutMillis()
+              + sessionServerConfig.getDataNodeFetchBatchWindowMillis(),
+          TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause == FETCH_BY_SELF) {
+        return dataNodeService.fetch(dataInfoId, dataCenters);
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException(cause);
+    } catch (InterruptedException | TimeoutException e) {
+      throw new RuntimeException(
+          StringFormatter.format("wait batch fetch fail, dataInfoId={}", dataInfoId), e);
+    }
+  }
+
+  @VisibleForTesting
+  int pendingSize() {
+    return pendings.size();
+  }
+
+  static final class BatchKey {
+    final int slotId;
+    final Set<String> dataCenters;
+
+    BatchKey(int slotId, Set<String> dataCenters) {
+      this.slotId = slotId;
+      this.dataCenters = dataCenters;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof BatchKey)) {
+        return false;
+      }
+      BatchKey that = (BatchKey) o;
+      return slotId == that.slotId && Objects.equals(dataCenters, that.dataCenters);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(slotId, dataCenters);
+    }
+  }
+
+  static final class Batch {
+    final BatchKey key;
+    final Map<String, CompletableFuture<MultiSubDatum>> futures = Maps.newLinkedHashMap();
+    boolean closed;
+
+    Batch(BatchKey key) {
+      this.key = key;
+    }
+
+    /** @return null if the batch is closed */
+    synchronized CompletableFuture<MultiSubDatum> join(String dataInfoId, int maxSize) {
+      if (closed) {
+        return null;
+      }
+      CompletableFuture<MultiSubDatum> future =
+          futures.computeIfAbsent(dataInfoId, k -> new CompletableFuture<>());
+      if (futures.size() >= maxSize) {
+        closed = true;
+        notifyAll();
+      }
+      return future;
+    }
+
+    /** wait the window or the batch is full, then close the batch */
+    synchronized void await(long windowMillis) {
+      final long deadline = System.currentTimeMillis() + windowMillis;
+      long remain = windowMillis;
+      while (!closed && remain > 0) {
+        try {
+          wait(remain);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        remain = deadline - System.currentTimeMillis();
+      }
+      closed = true;
+    }
+  }
+}
@@ -94,6 +94,104 @@ public final class ReceivedDataConverter {
         receivedData, Collections.singletonMap(receivedData.getSegment(), dataCenterPushInfo));
   }
 
+  /**
+   * build the delta of the publishers from base to unzipDatum, the data contains the added or
+   * modified publishers and the removedData contains the removed or modified publishers of base.
+   * the dataCount and the DataCenterPushInfo are still the count of the full unzipDatum
+   *
+   * @param base the datum pushed to the subscribers last time
+   * @param unzipDatum the datum
+   * @param scope the scope
+   * @param subscriberRegisterIdList the subscriber register id list
+   * @param regionLocal the region local
+   * @param localDataCenter localDataCenter
+   * @param pushdataPredicate pushdataPredicate
+   * @return received data with baseVersion
+   */
+  public static PushData<ReceivedData> getReceivedDeltaData(
+      SubDatum base,
+      MultiSubDatum unzipDatum,
+      ScopeEnum scope,
+      List<String> subscriberRegisterIdList,
+      String regionLocal,
+      String localDataCenter,
+      Predicate<String> pushdataPredicate) {
+    unzipDatum.mustUnzipped();
+    ParaCheckUtil.checkEquals(
+        unzipDatum.dataCenters(),
+        Collections.singleton(localDataCenter),
+        "getReceivedDeltaData.dataCenter");
+    SubDatum subDatum = unzipDatum.getSubDatum(localDataCenter);
+    ParaCheckUtil.checkEquals(
+        base.getDataCenter(), localDataCenter, "getReceivedDeltaData.baseDataCenter");
+
+    ReceivedData receivedData = new ReceivedData();
+    receivedData.setDataId(unzipDatum.getDataId());
+    receivedData.setGroup(unzipDatum.getGroup());
+    receivedData.setInstanceId(unzipDatum.getInstanceId());
+    receivedData.setSubscriberRegistIds(subscriberRegisterIdList);
+    receivedData.setScope(scope.name());
+    receivedData.setLocalZone(regionLocal);
+    receivedData.setSegment(localDataCenter);
+    receivedData.setVersion(subDatum.getVersion());
+    receivedData.setBaseVersion(base.getVersion());
+
+    final List<SubPublisher> basePublishers = base.mustGetPublishers();
+    final Map<String, SubPublisher> baseMap =
+        Maps.newHashMapWithExpectedSize(basePublishers.size());
+    for (SubPublisher publisher : basePublishers) {
+      baseMap.put(publisher.getRegisterId(), publisher);
+    }
+    final List<SubPublisher> added = Lists.newArrayList();
+    for (SubPublisher publisher : subDatum.mustGetPublishers()) {
+      SubPublisher exist = baseMap.remove(publisher.getRegisterId());
+      if (exist != null && isSamePublisher(exist, publisher)) {
+        continue;
+      }
+      if (exist != null) {
+        // modified, remove the old one and add the new one
+        baseMap.put(exist.getRegisterId(), exist);
+      }
+      added.add(publisher);
+    }
+    // the rest of baseMap are removed or modified
+    receivedData.setData(swizzData(added, pushdataPredicate));
+    receivedData.setRemovedData(swizzData(Lists.newArrayList(baseMap.values()), pushdataPredicate));
+
+    Map<String, Integer> pushDataCount = countData(subDatum, pushdataPredicate);
+    int dataCount = 0;
+    for (Integer count : pushDataCount.values()) {
+      dataCount += count;
+    }
+    receivedData.setDataCount(pushDataCount);
+    DataCenterPushInfo dataCenterPushInfo =
+        new DataCenterPushInfo(
+            localDataCenter,
+            subDatum.getVersion(),
+            new SegmentPushInfo(localDataCenter, dataCount));
+    return new PushData<>(
+        receivedData, Collections.singletonMap(receivedData.getSegment(), dataCenterPushInfo));
+  }
+
+  private static boolean isSamePublisher(SubPublisher exist, SubPublisher publisher) {
+    return exist.getVersion() == publisher.getVersion()
+        && exist.getRegisterTimestamp() == publisher.getRegisterTimestamp();
+  }
+
+  private static Map<String /*zone*/, Integer> countData(
+      SubDatum subDatum, Predicate<String> pushdataPredicate) {
+    Map<String, Integer> counts = Maps.newHashMap();
+    for (SubPublisher publisher : subDatum.mustGetPublishers()) {
+      String region = publisher.getCell();
+      if (pushdataPredicate != null && pushdataPredicate.test(region)) {
+        continue;
+      }
+      List<ServerDataBox> datas = publisher.getDataList();
+      counts.merge(region, datas == null ? 0 : datas.size(), Integer::sum);
+    }
+    return counts;
+  }
+
   public static PushData<MultiReceivedData> getMultiReceivedData(
       MultiSubDatum unzipDatum,
       ScopeEnum scope,
@@ -269,8 +367,12 @@ public final class ReceivedDataConverter {
 
   private static Map<String /*zone*/, List<DataBox>> swizzData(
       SubDatum subDatum, Predicate<String> pushdataPredicate) {
+    return swizzData(subDatum.mustGetPublishers(), pushdataPredicate);
+  }
+
+  private static Map<String /*zone*/, List<DataBox>> swizzData(
+      List<SubPublisher> publishers, Predicate<String> pushdataPredicate) {
     Map<String /*zone*/, List<DataBox>> swizzMap = new HashMap<>();
-    List<SubPublisher> publishers = subDatum.mustGetPublishers();
     if (publishers.isEmpty()) {
       return Collections.EMPTY_MAP;
     }
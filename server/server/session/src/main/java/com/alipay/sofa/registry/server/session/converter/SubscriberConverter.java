@@ -62,6 +62,7 @@ public final class SubscriberConverter {
           subscriber.setClientVersion(ClientVersion.StoreData);
           subscriber.internAcceptEncoding(source.getAcceptEncoding());
           subscriber.setAcceptMulti(source.acceptMulti());
+          subscriber.setAcceptDelta(source.acceptDelta());
 
           DataInfo dataInfo =
               new DataInfo(source.getInstanceId(), source.getDataId(), source.getGroup());
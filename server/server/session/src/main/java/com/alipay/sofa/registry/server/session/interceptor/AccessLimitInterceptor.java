@@ -17,8 +17,10 @@
 package com.alipay.sofa.registry.server.session.interceptor;
 
 import com.alipay.sofa.registry.common.model.store.BaseInfo;
+import com.alipay.sofa.registry.common.model.store.URL;
 import com.alipay.sofa.registry.exception.InterceptorExecutionException;
 import com.alipay.sofa.registry.server.session.limit.AccessLimitService;
+import com.alipay.sofa.registry.server.session.limit.AccessLimitType;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /** Access limit interceptor impl. */
@@ -30,9 +32,17 @@ public class AccessLimitInterceptor implements Interceptor {
   public boolean process(RegisterInvokeData registerInvokeData)
       throws InterceptorExecutionException {
     BaseInfo baseInfo = (BaseInfo) registerInvokeData.getStoreData();
-    if (!accessLimitService.tryAcquire()) {
+    final URL sourceAddress = baseInfo.getSourceAddress();
+    final AccessLimitType limitType =
+        accessLimitService.tryAcquire(
+            sourceAddress == null ? null : sourceAddress.getIpAddress(), baseInfo.getAppName());
+    if (limitType != null) {
       throw new InterceptorExecutionException(
-          "Register access limit for session server!dataInfoId="
+          "Register access limit for session server!type="
+              + limitType
+              + ",app="
+              + baseInfo.getAppName()
+              + ",dataInfoId="
               + baseInfo.getDataInfoId()
               + ",connectId="
               + baseInfo.getSourceAddress());
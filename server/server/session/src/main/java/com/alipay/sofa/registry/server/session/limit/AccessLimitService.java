@@ -22,4 +22,14 @@ package com.alipay.sofa.registry.server.session.limit;
  */
 public interface AccessLimitService {
   boolean tryAcquire();
+
+  /**
+   * acquire the buckets of client ip, app and global in order, a rejected level does not consume
+   * the permits of the levels after it
+   *
+   * @param clientIp the ip of client, skip the client ip bucket if empty
+   * @param appName the app of client, skip the app bucket if empty
+   * @return null if acquired, otherwise the level which rejects
+   */
+  AccessLimitType tryAcquire(String clientIp, String appName);
 }
@@ -16,23 +16,199 @@
  */
 package com.alipay.sofa.registry.server.session.limit;
 
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import io.prometheus.client.Counter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.StringUtils;
 
 /**
  * @author shangyu.wh
  * @version 1.0: AccessLimitServiceImpl.java, v 0.1 2019-08-26 20:37 shangyu.wh Exp $
  */
 public class AccessLimitServiceImpl implements AccessLimitService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AccessLimitServiceImpl.class);
 
-  private RateLimiter rateLimiter;
+  private static final Counter LIMIT_COUNTER =
+      Counter.build()
+          .namespace("session")
+          .subsystem("access")
+          .name("limit_total")
+          .labelNames("type")
+          .help("register rejected by access limit")
+          .register();
+
+  private static final Counter.Child LIMIT_CLIENT_IP_COUNTER =
+      LIMIT_COUNTER.labels(AccessLimitType.CLIENT_IP.name());
+  private static final Counter.Child LIMIT_APP_COUNTER =
+      LIMIT_COUNTER.labels(AccessLimitType.APP.name());
+  private static final Counter.Child LIMIT_GLOBAL_COUNTER =
+      LIMIT_COUNTER.labels(AccessLimitType.GLOBAL.name());
+
+  private final SessionServerConfig sessionServerConfig;
+
+  private volatile TokenBucket globalBucket;
+
+  // the idle buckets are full, evict them to bound the memory, so a new bucket of key starts full
+  private final Cache<String, TokenBucket> clientIpBuckets;
+  private final Cache<String, TokenBucket> appBuckets;
+
+  private volatile AppWeights appWeights = new AppWeights("", Collections.emptyMap());
 
   public AccessLimitServiceImpl(SessionServerConfig sessionServerConfig) {
-    rateLimiter = RateLimiter.create(sessionServerConfig.getAccessLimitRate());
+    this.sessionServerConfig = sessionServerConfig;
+    // starts empty like RateLimiter, no burst of the reconnecting clients after restart
+    this.globalBucket =
+        new TokenBucket(sessionServerConfig.getAccessLimitRate(), System.nanoTime(), false);
+    this.clientIpBuckets = newBuckets(sessionServerConfig.getAccessLimitBucketMaxSize());
+    this.appBuckets = newBuckets(sessionServerConfig.getAccessLimitBucketMaxSize());
+  }
+
+  private static Cache<String, TokenBucket> newBuckets(int maxSize) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(10, TimeUnit.SECONDS)
+        .build();
   }
 
   @Override
   public boolean tryAcquire() {
-    return rateLimiter.tryAcquire();
+    return tryAcquireGlobal(System.nanoTime());
+  }
+
+  private boolean tryAcquireGlobal(long now) {
+    final double rate = sessionServerConfig.getAccessLimitRate();
+    TokenBucket bucket = globalBucket;
+    if (Double.compare(bucket.getPermitsPerSecond(), rate) != 0) {
+      // the rate is changed by config, starts empty, no burst of the new rate
+      bucket = new TokenBucket(rate, now, false);
+      globalBucket = bucket;
+    }
+    return bucket.tryAcquire(now);
+  }
+
+  @Override
+  public AccessLimitType tryAcquire(String clientIp, String appName) {
+    return tryAcquire(clientIp, appName, System.nanoTime());
+  }
+
+  @VisibleForTesting
+  AccessLimitType tryAcquire(String clientIp, String appName, long now) {
+    TokenBucket clientIpBucket = null;
+    TokenBucket appBucket = null;
+    if (sessionServerConfig.isAccessLimitFairEnable()) {
+      final double globalRate = sessionServerConfig.getAccessLimitRate();
+      clientIpBucket =
+          bucketOf(
+              clientIpBuckets,
+              clientIp,
+              globalRate * sessionServerConfig.getAccessLimitClientIpRatio(),
+              now);
+      if (clientIpBucket != null && !clientIpBucket.tryAcquire(now)) {
+        LIMIT_CLIENT_IP_COUNTER.inc();
+        return AccessLimitType.CLIENT_IP;
+      }
+      appBucket =
+          bucketOf(
+              appBuckets,
+              appName,
+              globalRate * sessionServerConfig.getAccessLimitAppRatio() * appWeight(appName),
+              now);
+      if (appBucket != null && !appBucket.tryAcquire(now)) {
+        // the register is rejected, give back the permits of the previous levels
+        refund(clientIpBucket);
+        LIMIT_APP_COUNTER.inc();
+        return AccessLimitType.APP;
+      }
+    }
+    if (!tryAcquireGlobal(now)) {
+      refund(clientIpBucket);
+      refund(appBucket);
+      LIMIT_GLOBAL_COUNTER.inc();
+      return AccessLimitType.GLOBAL;
+    }
+    return null;
+  }
+
+  private static void refund(TokenBucket bucket) {
+    if (bucket != null) {
+      bucket.refund();
+    }
+  }
+
+  /** @return null if the key is not limited */
+  static TokenBucket bucketOf(
+      Cache<String, TokenBucket> buckets, String key, double permitsPerSecond, long now) {
+    if (StringUtils.isEmpty(key) || permitsPerSecond <= 0) {
+      return null;
+    }
+    TokenBucket bucket = buckets.getIfPresent(key);
+    if (bucket == null) {
+      bucket = new TokenBucket(permitsPerSecond, now, true);
+      TokenBucket exist = buckets.asMap().putIfAbsent(key, bucket);
+      if (exist != null) {
+        bucket = exist;
+      }
+    } else if (Double.compare(bucket.getPermitsPerSecond(), permitsPerSecond) != 0) {
+      // the rate is changed by config, starts empty, no burst of the new rate
+      bucket = new TokenBucket(permitsPerSecond, now, false);
+      buckets.put(key, bucket);
+    }
+    return bucket;
+  }
+
+  double appWeight(String appName) {
+    final String config = sessionServerConfig.getAccessLimitAppWeights();
+    AppWeights weights = appWeights;
+    if (!StringUtils.equals(weights.config, config)) {
+      weights = new AppWeights(config, parseAppWeights(config));
+      appWeights = weights;
+    }
+    Double weight = weights.weights.get(appName);
+    return weight == null ? 1.0 : weight;
+  }
+
+  static Map<String, Double> parseAppWeights(String config) {
+    Map<String, Double> weights = Maps.newHashMap();
+    if (StringUtils.isBlank(config)) {
+      return weights;
+    }
+    for (String str : config.split(";")) {
+      str = str.trim();
+      if (str.length() == 0) {
+        continue;
+      }
+      int idx = str.lastIndexOf(':');
+      try {
+        if (idx <= 0) {
+          throw new IllegalArgumentException("missing weight");
+        }
+        double weight = Double.parseDouble(str.substring(idx + 1).trim());
+        if (weight < 0) {
+          throw new IllegalArgumentException("negative weight");
+        }
+        weights.put(str.substring(0, idx).trim(), weight);
+      } catch (Throwable e) {
+        LOGGER.error("illegal access limit app weight: {}", str, e);
+      }
+    }
+    return weights;
+  }
+
+  private static final class AppWeights {
+    final String config;
+    final Map<String, Double> weights;
+
+    AppWeights(String config, Map<String, Double> weights) {
+      this.config = config;
+      this.weights = weights;
+    }
   }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * lock-free token bucket based on GCRA, the state is only the theoretical arrival time of the next
+ * permit, so an acquire is a single CAS and the bucket could be shared by the io threads without
+ * lock. the burst is the permits of one second, same as the smooth bursty RateLimiter. an empty
+ * bucket admits one permit at once and then one per interval like RateLimiter, a full one admits
+ * the burst at once
+ */
+public final class TokenBucket {
+  private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double permitsPerSecond;
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final AtomicLong theoreticalArrivalNanos;
+
+  /**
+   * @param permitsPerSecond permitsPerSecond
+   * @param nowNanos nowNanos
+   * @param full start with the burst, otherwise start empty
+   */
+  public TokenBucket(double permitsPerSecond, long nowNanos, boolean full) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+    }
+    this.permitsPerSecond = permitsPerSecond;
+    this.intervalNanos = Math.max(1, (long) (ONE_SECOND_NANOS / permitsPerSecond));
+    this.burstNanos = Math.max(intervalNanos, ONE_SECOND_NANOS);
+    this.theoreticalArrivalNanos =
+        new AtomicLong(full ? nowNanos : nowNanos + burstNanos - intervalNanos);
+  }
+
+  public boolean tryAcquire(long nowNanos) {
+    for (; ; ) {
+      final long tat = theoreticalArrivalNanos.get();
+      // the bucket is full if idle for a long time
+      final long next = (tat - nowNanos < 0 ? nowNanos : tat) + intervalNanos;
+      if (next - nowNanos > burstNanos) {
+        return false;
+      }
+      if (theoreticalArrivalNanos.compareAndSet(tat, next)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * give back a permit acquired by tryAcquire, e.g. the later level of the admission rejects. the
+   * bucket never exceeds the burst, the arrival time before now is the same as full
+   */
+  public void refund() {
+    theoreticalArrivalNanos.addAndGet(-intervalNanos);
+  }
+
+  /**
+   * Getter method for property <tt>permitsPerSecond</tt>.
+   *
+   * @return property value of permitsPerSecond
+   */
+  public double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+}
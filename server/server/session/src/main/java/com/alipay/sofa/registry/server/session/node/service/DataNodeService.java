@@ -21,6 +21,7 @@ import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
 import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
 import com.alipay.sofa.registry.common.model.store.Publisher;
 import com.alipay.sofa.registry.remoting.exchange.ExchangeCallback;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -65,4 +66,14 @@ public interface DataNodeService {
    * @return MultiSubDatum
    */
   MultiSubDatum fetch(String dataInfoId, Set<String> dataCenters);
+
+  /**
+   * fetch the publisher data of a batch of dataInfoIds in the same slot by one request
+   *
+   * @param slotId slotId
+   * @param dataInfoIds dataInfoIds
+   * @param dataCenters dataCenters
+   * @return dataInfoId -> MultiSubDatum, the dataInfoIds failed in the batch are absent
+   */
+  Map<String, MultiSubDatum> fetch(int slotId, List<String> dataInfoIds, Set<String> dataCenters);
 }
@@ -18,6 +18,7 @@ package com.alipay.sofa.registry.server.session.node.service;
 
 import com.alipay.sofa.registry.common.model.ClientOffPublishers;
 import com.alipay.sofa.registry.common.model.CommonResponse;
+import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.dataserver.*;
 import com.alipay.sofa.registry.common.model.slot.MultiSlotAccessGenericResponse;
 import com.alipay.sofa.registry.common.model.slot.Slot;
@@ -262,6 +263,93 @@ public class DataNodeServiceImpl implements DataNodeService {
     }
   }
 
+  @Override
+  public Map<String, MultiSubDatum> fetch(
+      int slotId, List<String> dataInfoIds, Set<String> dataCenters) {
+    final Slot localSlot = getSlot(sessionServerConfig.getSessionServerDataCenter(), slotId);
+    String dataNodeIp = localSlot.getLeader();
+
+    Map<String, Long> slotTableEpochs = Maps.newHashMapWithExpectedSize(dataCenters.size());
+    Map<String, Long> slotLeaderEpochs = Maps.newHashMapWithExpectedSize(dataCenters.size());
+    for (String dataCenter : dataCenters) {
+      final Slot slot = getSlot(dataCenter, slotId);
+      slotTableEpochs.put(dataCenter, slotTableCache.getEpoch(dataCenter));
+      slotLeaderEpochs.put(dataCenter, slot.getLeaderEpoch());
+    }
+    try {
+      GetMultiDataBatchRequest batchRequest =
+          new GetMultiDataBatchRequest(
+              ServerEnv.PROCESS_ID,
+              slotId,
+              dataInfoIds,
+              CompressConstants.defaultCompressEncodes,
+              slotTableEpochs,
+              slotLeaderEpochs);
+
+      Request<GetMultiDataBatchRequest> request =
+          new Request<GetMultiDataBatchRequest>() {
+
+            @Override
+            public GetMultiDataBatchRequest getRequestBody() {
+              return batchRequest;
+            }
+
+            @Override
+            public URL getRequestUrl() {
+              return getUrl(localSlot);
+            }
+
+            @Override
+            public Integer getTimeout() {
+              return sessionServerConfig.getDataNodeExchangeForFetchDatumTimeoutMillis();
+            }
+          };
+
+      Response response = dataNodeExchanger.request(request);
+      GenericResponse<Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>>> genericResponse =
+          (GenericResponse<Map<String, MultiSlotAccessGenericResponse<MultiSubDatum>>>)
+              response.getResult();
+      if (!genericResponse.isSuccess()) {
+        throw new RuntimeException(
+            StringFormatter.format(
+                "GetMultiDataBatch got fail response {}, {}, slotId={}, size={}, msg:{}",
+                dataNodeIp,
+                dataCenters,
+                slotId,
+                dataInfoIds.size(),
+                genericResponse.getMessage()));
+      }
+      // the value maybe null if the datum not exist
+      Map<String, MultiSubDatum> datums = new HashMap<>(dataInfoIds.size());
+      for (Map.Entry<String, MultiSlotAccessGenericResponse<MultiSubDatum>> e :
+          genericResponse.getData().entrySet()) {
+        final MultiSlotAccessGenericResponse<MultiSubDatum> resp = e.getValue();
+        if (!resp.isSuccess()) {
+          LOGGER.warn(
+              "GetMultiDataBatch got fail {}, {}, {}, slotId={} msg:{}",
+              dataNodeIp,
+              e.getKey(),
+              dataCenters,
+              slotId,
+              resp.getMessage());
+          continue;
+        }
+        final MultiSubDatum datum = resp.getData();
+        datums.put(e.getKey(), datum == null ? null : MultiSubDatum.intern(datum));
+      }
+      return datums;
+    } catch (RequestException e) {
+      throw new RuntimeException(
+          StringFormatter.format(
+              "GetMultiDataBatch fail {}, {}, slotId={}, size={}",
+              dataNodeIp,
+              dataCenters,
+              slotId,
+              dataInfoIds.size()),
+          e);
+    }
+  }
+
   private CommonResponse sendRequest(Request request) throws RequestException {
     Response response = dataNodeExchanger.request(request);
     Object result = response.getResult();
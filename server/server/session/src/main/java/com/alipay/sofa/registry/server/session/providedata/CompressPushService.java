@@ -92,6 +92,10 @@ public class CompressPushService
     return CompressUtils.find(acceptEncodes, compressPushSwitch.getForbidEncodes());
   }
 
+  public boolean isCompressEnabled(String clientIp) {
+    return compressEnabled(getCompressSwitch(), clientIp);
+  }
+
   private static boolean compressEnabled(CompressPushSwitch compressPushSwitch, String clientIp) {
     if (compressPushSwitch.isEnabled()) {
       return true;
@@ -20,11 +20,11 @@ import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
+import com.alipay.sofa.registry.util.HashedWheel;
 import com.alipay.sofa.registry.util.StringFormatter;
 import com.alipay.sofa.registry.util.WakeUpLoopRunnable;
 import com.google.common.collect.Maps;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.ArrayDeque;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -112,8 +112,14 @@ public class ChangeProcessor {
   }
 
   static final class Worker extends WakeUpLoopRunnable {
-    // task sorted by expire probably
-    final LinkedHashMap<ChangeKey, ChangeTask> tasks = Maps.newLinkedHashMap();
+    static final int WHEEL_TICK_MILLIS = 10;
+    static final int WHEEL_TICKS = 512;
+
+    final Map<ChangeKey, ChangeTask> tasks = Maps.newHashMap();
+    // the tasks are hashed by expire, the replaced tasks are skipped when expired
+    final HashedWheel<ChangeTask> wheel = new HashedWheel<>(WHEEL_TICK_MILLIS, WHEEL_TICKS);
+    // the expired tasks not yet executed, guarded by tasks
+    final ArrayDeque<ChangeTask> expires = new ArrayDeque<>();
 
     public void setChangeTaskWorkDelay(PushEfficiencyImproveConfig pushEfficiencyImproveConfig) {
       this.changeDebouncingMillis = pushEfficiencyImproveConfig.getChangeDebouncingMillis();
@@ -145,6 +151,7 @@ public class ChangeProcessor {
         if (exist == null) {
           task.expireDeadlineTimestamp = now + changeDebouncingMaxMillis;
           tasks.put(key, task);
+          wheel.add(task, task.expireTimestamp, Integer.MAX_VALUE);
           return true;
         }
 
@@ -158,9 +165,8 @@ public class ChangeProcessor {
           task.expireDeadlineTimestamp = exist.expireDeadlineTimestamp;
           // merge change, merge tracetimes
           task.changeCtx.addTraceTime(exist.changeCtx.getFirstTimes());
-          // tasks is linkedMap, must remove the exist first, then enqueue in the tail
-          tasks.remove(key);
           tasks.put(key, task);
+          wheel.add(task, task.expireTimestamp, Integer.MAX_VALUE);
         } else {
           // reach deadline, could not requeue, use exist.expire as newTask.expire
           exist.changeCtx.setExpectDatumVersion(task.changeCtx.getExpectDatumVersion());
@@ -173,16 +179,15 @@ public class ChangeProcessor {
     ChangeTask getExpire() {
       final long now = System.currentTimeMillis();
       synchronized (tasks) {
-        if (tasks.isEmpty()) {
-          return null;
-        }
-        Iterator<ChangeTask> it = tasks.values().iterator();
-        final ChangeTask first = it.next();
-        if (first.expireTimestamp <= now) {
-          it.remove();
-          return first;
+        if (expires.isEmpty()) {
+          for (ChangeTask task : wheel.expire(now)) {
+            // the task maybe replaced
+            if (tasks.remove(task.key, task)) {
+              expires.add(task);
+            }
+          }
         }
-        return null;
+        return expires.poll();
       }
     }
 
@@ -123,6 +123,7 @@ public class FirePushService {
 
   public boolean fireOnPushEmpty(Subscriber subscriber, String dataCenter, long version) {
     long pushVersion = subscriber.markPushEmpty(dataCenter, version);
+    subscriberStore.markDirty(subscriber.getDataInfoId());
 
     SubDatum emptyDatum = DatumUtils.newEmptySubDatum(subscriber, dataCenter, pushVersion);
     final long now = System.currentTimeMillis();
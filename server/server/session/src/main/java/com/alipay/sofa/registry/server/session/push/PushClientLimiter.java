@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.push;
+
+import com.google.common.collect.Lists;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the in-flight pushes limit of each client, adjusted by AIMD: a push finished within the latency
+ * target increases the limit by 1/limit (about +1 per round trip), a slow or failed push halves it.
+ * the smoothed client io span of the pushes is used as the delay of the deferred pushes
+ */
+public final class PushClientLimiter {
+  private static final int MIN_LIMIT = 1;
+  // the weight of the new sample in the smoothed span, same as the srtt of tcp
+  private static final double SPAN_ALPHA = 0.125;
+
+  final Map<InetSocketAddress, Window> windows = new ConcurrentHashMap<>(1024);
+
+  /** @return the acquired window, null if the in-flight pushes reach the limit */
+  public Window tryAcquire(InetSocketAddress addr, int maxLimit, long now) {
+    final Window window = windows.computeIfAbsent(addr, k -> new Window(maxLimit));
+    window.lastAccessTimestamp = now;
+    for (; ; ) {
+      final int inFlight = window.inFlight.get();
+      if (inFlight >= window.limit(maxLimit)) {
+        window.deferred.increment();
+        return null;
+      }
+      if (window.inFlight.compareAndSet(inFlight, inFlight + 1)) {
+        return window;
+      }
+    }
+  }
+
+  public long getSmoothedSpanMillis(InetSocketAddress addr) {
+    final Window window = windows.get(addr);
+    return window == null ? 0 : window.smoothedSpanMillis;
+  }
+
+  /** remove the idle windows, the removed window is full when it is recreated */
+  public int cleanIdle(long now, long idleMillis) {
+    int count = 0;
+    for (Map.Entry<InetSocketAddress, Window> e : windows.entrySet()) {
+      final Window window = e.getValue();
+      if (window.inFlight.get() <= 0 && now - window.lastAccessTimestamp > idleMillis) {
+        if (windows.remove(e.getKey(), window)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /** @return the stats of the clients which have deferred pushes since last call */
+  public List<ClientStats> deferredClientsThenReset() {
+    List<ClientStats> stats = Lists.newArrayList();
+    for (Map.Entry<InetSocketAddress, Window> e : windows.entrySet()) {
+      final Window window = e.getValue();
+      final long deferred = window.deferred.sumThenReset();
+      if (deferred > 0) {
+        stats.add(
+            new ClientStats(
+                e.getKey(),
+                window.inFlight.get(),
+                window.limit,
+                window.smoothedSpanMillis,
+                deferred));
+      }
+    }
+    return stats;
+  }
+
+  public int inFlightCount() {
+    int count = 0;
+    for (Window window : windows.values()) {
+      count += Math.max(0, window.inFlight.get());
+    }
+    return count;
+  }
+
+  public int size() {
+    return windows.size();
+  }
+
+  public static final class Window {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final LongAdder deferred = new LongAdder();
+    volatile double limit;
+    volatile long smoothedSpanMillis;
+    volatile long lastAccessTimestamp;
+
+    Window(int maxLimit) {
+      this.limit = Math.max(MIN_LIMIT, maxLimit);
+    }
+
+    /**
+     * @param spanMillis the client io span of the push
+     * @param success the push is finished successfully
+     * @param latencyTargetMillis the push slower than it is treated as congestion
+     * @param maxLimit max limit
+     */
+    public void release(long spanMillis, boolean success, int latencyTargetMillis, int maxLimit) {
+      inFlight.decrementAndGet();
+      onFinish(spanMillis, success && spanMillis <= latencyTargetMillis, maxLimit);
+    }
+
+    /** release without adjusting the limit, e.g. the channel is closed */
+    public void release() {
+      inFlight.decrementAndGet();
+    }
+
+    int limit(int maxLimit) {
+      return Math.max(MIN_LIMIT, Math.min((int) limit, maxLimit));
+    }
+
+    synchronized void onFinish(long spanMillis, boolean increase, int maxLimit) {
+      if (spanMillis >= 0) {
+        smoothedSpanMillis =
+            smoothedSpanMillis == 0
+                ? spanMillis
+                : (long) (smoothedSpanMillis * (1 - SPAN_ALPHA) + spanMillis * SPAN_ALPHA);
+      }
+      final double l = limit;
+      if (increase) {
+        limit = Math.min(maxLimit, l + 1.0 / l);
+      } else {
+        limit = Math.max(MIN_LIMIT, l / 2);
+      }
+    }
+  }
+
+  public static final class ClientStats {
+    public final InetSocketAddress addr;
+    public final int inFlight;
+    public final double limit;
+    public final long smoothedSpanMillis;
+    public final long deferred;
+
+    ClientStats(
+        InetSocketAddress addr,
+        int inFlight,
+        double limit,
+        long smoothedSpanMillis,
+        long deferred) {
+      this.addr = addr;
+      this.inFlight = inFlight;
+      this.limit = limit;
+      this.smoothedSpanMillis = smoothedSpanMillis;
+      this.deferred = deferred;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s,inFlight=%d,limit=%.1f,span=%d,deferred=%d",
+          addr, inFlight, limit, smoothedSpanMillis, deferred);
+    }
+  }
+}
@@ -16,17 +16,26 @@
  */
 package com.alipay.sofa.registry.server.session.push;
 
+import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.PUSH_DATA_CACHE_HIT_COUNTER;
+import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.PUSH_DATA_CACHE_MISS_COUNTER;
+import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.PUSH_DELTA_COUNTER_DELTA;
+import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.PUSH_DELTA_COUNTER_NO_BASE;
+import static com.alipay.sofa.registry.util.StringUtils.sizeof;
+
+import com.alipay.sofa.registry.cache.CacheCleaner;
 import com.alipay.sofa.registry.common.model.DataCenterPushInfo;
 import com.alipay.sofa.registry.common.model.SegmentPushInfo;
 import com.alipay.sofa.registry.common.model.SubscriberUtils;
 import com.alipay.sofa.registry.common.model.client.pb.MultiReceivedDataPb;
 import com.alipay.sofa.registry.common.model.client.pb.MultiSegmentDataPb;
 import com.alipay.sofa.registry.common.model.client.pb.ReceivedDataPb;
+import com.alipay.sofa.registry.common.model.metaserver.CompressPushSwitch;
 import com.alipay.sofa.registry.common.model.store.*;
 import com.alipay.sofa.registry.core.model.DataBox;
 import com.alipay.sofa.registry.core.model.MultiReceivedData;
 import com.alipay.sofa.registry.core.model.ReceivedConfigData;
 import com.alipay.sofa.registry.core.model.ReceivedData;
+import com.alipay.sofa.registry.core.model.ScopeEnum;
 import com.alipay.sofa.registry.exception.SofaRegistryRuntimeException;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
 import com.alipay.sofa.registry.server.session.converter.ReceivedDataConverter;
@@ -37,10 +46,18 @@ import com.alipay.sofa.registry.server.session.predicate.ZonePredicate;
 import com.alipay.sofa.registry.server.session.providedata.CompressPushService;
 import com.alipay.sofa.registry.util.ParaCheckUtil;
 import com.alipay.sofa.registry.util.StringFormatter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.protobuf.AbstractMessage;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
@@ -53,7 +70,53 @@ public class PushDataGenerator {
 
   @Autowired DataCenterMetadataCache dataCenterMetadataCache;
 
+  // the pb payloads are shared by the subscribers which get the same datum, only the registerIds
+  // are different
+  private Cache<PushDataKey, PushData> pushDataCache;
+
+  // the datums pushed to the delta capable subscribers, used as the base of the next delta push
+  private Cache<DeltaBaseKey, SubDatum> deltaBaseCache;
+
+  @PostConstruct
+  public void init() {
+    if (sessionServerConfig.getPushDeltaBaseCacheMaxWeight() > 0) {
+      this.deltaBaseCache =
+          CacheBuilder.newBuilder()
+              .maximumWeight(sessionServerConfig.getPushDeltaBaseCacheMaxWeight())
+              .weigher((Weigher<DeltaBaseKey, SubDatum>) (key, value) -> key.size() + value.size())
+              .expireAfterAccess(
+                  sessionServerConfig.getPushDeltaBaseCacheExpireSecs(), TimeUnit.SECONDS)
+              .build();
+      CacheCleaner.autoClean(
+          deltaBaseCache, sessionServerConfig.getPushDeltaBaseCacheExpireSecs() * 1000L);
+    }
+    if (sessionServerConfig.getPushDataCacheMaxWeight() <= 0) {
+      return;
+    }
+    this.pushDataCache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(sessionServerConfig.getPushDataCacheMaxWeight())
+            .weigher(
+                (Weigher<PushDataKey, PushData>)
+                    (key, value) ->
+                        key.size() + ((AbstractMessage) value.getPayload()).getSerializedSize())
+            .expireAfterWrite(sessionServerConfig.getPushDataCacheExpireSecs(), TimeUnit.SECONDS)
+            .build();
+    CacheCleaner.autoClean(pushDataCache, 10);
+  }
+
   public PushData createPushData(MultiSubDatum unzipDatum, Map<String, Subscriber> subscriberMap) {
+    return createPushData(unzipDatum, subscriberMap, false);
+  }
+
+  /**
+   * @param unzipDatum unzipDatum
+   * @param subscriberMap subscriberMap
+   * @param allowDelta if true, try to push the delta from the last pushed version
+   * @return PushData
+   */
+  public PushData createPushData(
+      MultiSubDatum unzipDatum, Map<String, Subscriber> subscriberMap, boolean allowDelta) {
     unzipDatum.mustUnzipped();
     if (subscriberMap.size() > 1) {
       SubscriberUtils.getAndAssertHasSameScope(subscriberMap.values());
@@ -66,24 +129,186 @@ public class PushDataGenerator {
     final Subscriber subscriber = subscriberMap.values().iterator().next();
     String clientCell = sessionServerConfig.getClientCell(subscriber.getCell());
 
+    final List<String> subscriberRegisterIdList = Lists.newArrayList(subscriberMap.keySet());
+    if (isDeltaCapable(unzipDatum, subscriberMap.values(), subscriber)) {
+      final SubDatum target =
+          unzipDatum.getSubDatum(sessionServerConfig.getSessionServerDataCenter());
+      deltaBaseCache.put(new DeltaBaseKey(target), target);
+      if (allowDelta) {
+        PushData deltaPushData =
+            createDeltaPushData(
+                unzipDatum, target, clientCell, subscriberRegisterIdList, subscriberMap.values());
+        if (deltaPushData != null) {
+          return deltaPushData;
+        }
+      }
+    }
+    final PushDataKey key = cacheKeyOf(unzipDatum, clientCell, subscriber);
+    if (key != null) {
+      PushData cached = pushDataCache.getIfPresent(key);
+      if (cached != null) {
+        PUSH_DATA_CACHE_HIT_COUNTER.inc();
+        return copyOf(cached, subscriberRegisterIdList);
+      }
+      PUSH_DATA_CACHE_MISS_COUNTER.inc();
+    }
+
     CompressorGetter compressorGetter =
         (Map<String, List<DataBox>> data) ->
             compressPushService.getCompressor(
                 data, subscriber.getAcceptEncodes(), subscriber.getSourceAddress().getIpAddress());
+    PushData pushData;
+    if (subscriber.acceptMulti()) {
+      pushData =
+          createMultiReceivePushData(
+              unzipDatum, clientCell, subscriberRegisterIdList, subscriber, compressorGetter);
+    } else {
+      pushData =
+          createReceivePushData(
+              unzipDatum, clientCell, subscriberRegisterIdList, subscriber, compressorGetter);
+    }
+    if (key != null) {
+      // the DataCenterPushInfo would be modified by the push task, cache a copy
+      pushDataCache.put(
+          key, new PushData<>(pushData.getPayload(), copyOf(pushData.getDataCenterPushInfo())));
+    }
+    return pushData;
+  }
+
+  private boolean isDeltaCapable(
+      MultiSubDatum unzipDatum, Collection<Subscriber> subscribers, Subscriber subscriber) {
+    if (deltaBaseCache == null || !sessionServerConfig.isPushDeltaEnable()) {
+      return false;
+    }
+    // only the hessian ReceivedData of local dataCenter supports delta
     if (subscriber.acceptMulti()) {
-      return createMultiReceivePushData(
-          unzipDatum,
-          clientCell,
-          Lists.newArrayList(subscriberMap.keySet()),
-          subscriber,
-          compressorGetter);
-    }
-    return createReceivePushData(
-        unzipDatum,
+      return false;
+    }
+    final Byte serializerIndex = subscriber.getSourceAddress().getSerializerIndex();
+    if (serializerIndex != null && URL.PROTOBUF == serializerIndex) {
+      return false;
+    }
+    final String dataCenter = sessionServerConfig.getSessionServerDataCenter();
+    if (!unzipDatum.dataCenters().equals(Collections.singleton(dataCenter))) {
+      return false;
+    }
+    // the version of the empty datum is generated by session, maybe conflict with the datum
+    if (unzipDatum.getSubDatum(dataCenter).getPubNum() == 0) {
+      return false;
+    }
+    for (Subscriber s : subscribers) {
+      if (!s.acceptDelta()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private PushData createDeltaPushData(
+      MultiSubDatum unzipDatum,
+      SubDatum target,
+      String clientCell,
+      List<String> subscriberRegisterIdList,
+      Collection<Subscriber> subscribers) {
+    final String dataCenter = target.getDataCenter();
+    final Subscriber subscriber = subscribers.iterator().next();
+    final long baseVersion = subscriber.getPushedVersion(dataCenter);
+    if (baseVersion <= 0 || baseVersion >= target.getVersion()) {
+      return null;
+    }
+    // the subscribers in one task must have the same base
+    for (Subscriber s : subscribers) {
+      if (s.getPushedVersion(dataCenter) != baseVersion
+          || s.getPushedNum(dataCenter) <= 0
+          || s.isMarkedPushEmpty(dataCenter)) {
+        return null;
+      }
+    }
+    final SubDatum base =
+        deltaBaseCache.getIfPresent(
+            new DeltaBaseKey(dataCenter, target.getDataInfoId(), baseVersion));
+    if (base == null) {
+      PUSH_DELTA_COUNTER_NO_BASE.inc();
+      return null;
+    }
+    Predicate<String> pushDataPredicate =
+        ZonePredicate.pushDataPredicate(
+            unzipDatum.getDataId(), clientCell, subscriber.getScope(), sessionServerConfig);
+    PushData<ReceivedData> pushData =
+        ReceivedDataConverter.getReceivedDeltaData(
+            base,
+            unzipDatum,
+            subscriber.getScope(),
+            subscriberRegisterIdList,
+            clientCell,
+            dataCenter,
+            pushDataPredicate);
+    PUSH_DELTA_COUNTER_DELTA.inc();
+    return pushData;
+  }
+
+  public static boolean isDeltaPush(PushData pushData) {
+    final Object payload = pushData.getPayload();
+    return payload instanceof ReceivedData && ((ReceivedData) payload).getBaseVersion() != null;
+  }
+
+  private PushDataKey cacheKeyOf(
+      MultiSubDatum unzipDatum, String clientCell, Subscriber subscriber) {
+    if (pushDataCache == null) {
+      return null;
+    }
+    final Byte serializerIndex = subscriber.getSourceAddress().getSerializerIndex();
+    if (serializerIndex == null || URL.PROTOBUF != serializerIndex) {
+      return null;
+    }
+    for (SubDatum subDatum : unzipDatum.getDatumMap().values()) {
+      // the version of the empty datum is generated by session, maybe conflict with the datum
+      if (subDatum.getPubNum() == 0) {
+        return null;
+      }
+    }
+    return new PushDataKey(
+        unzipDatum.getDataInfoId(),
+        unzipDatum.getVersion(),
+        subscriber.getScope(),
         clientCell,
-        Lists.newArrayList(subscriberMap.keySet()),
-        subscriber,
-        compressorGetter);
+        subscriber.acceptMulti(),
+        subscriber.getAcceptEncodes(),
+        compressPushService.getCompressSwitch(),
+        compressPushService.isCompressEnabled(subscriber.getSourceAddress().getIpAddress()));
+  }
+
+  private static PushData copyOf(PushData cached, List<String> subscriberRegisterIdList) {
+    Object payload = cached.getPayload();
+    if (payload instanceof MultiReceivedDataPb) {
+      payload =
+          ((MultiReceivedDataPb) payload)
+              .toBuilder()
+              .clearSubscriberRegistIds()
+              .addAllSubscriberRegistIds(subscriberRegisterIdList)
+              .build();
+    } else {
+      payload =
+          ((ReceivedDataPb) payload)
+              .toBuilder()
+              .clearSubscriberRegistIds()
+              .addAllSubscriberRegistIds(subscriberRegisterIdList)
+              .build();
+    }
+    return new PushData<>(payload, copyOf(cached.getDataCenterPushInfo()));
+  }
+
+  private static Map<String, DataCenterPushInfo> copyOf(
+      Map<String, DataCenterPushInfo> dataCenterPushInfos) {
+    Map<String, DataCenterPushInfo> ret =
+        Maps.newHashMapWithExpectedSize(dataCenterPushInfos.size());
+    for (Entry<String, DataCenterPushInfo> e : dataCenterPushInfos.entrySet()) {
+      ret.put(
+          e.getKey(),
+          new DataCenterPushInfo(
+              e.getValue().getPushVersion(), Maps.newHashMap(e.getValue().getSegmentPushInfos())));
+    }
+    return ret;
   }
 
   private PushData createMultiReceivePushData(
@@ -194,4 +419,118 @@ public class PushDataGenerator {
         Collections.singletonMap(dataCenter, new SegmentPushInfo(dataCenter, 1)));
     return new PushData(o, Collections.singletonMap(dataCenter, dataCenterPushInfo));
   }
+
+  @VisibleForTesting
+  long pushDataCacheSize() {
+    return pushDataCache == null ? 0 : pushDataCache.size();
+  }
+
+  @VisibleForTesting
+  long deltaBaseCacheSize() {
+    return deltaBaseCache == null ? 0 : deltaBaseCache.size();
+  }
+
+  private static final class DeltaBaseKey {
+    final String dataCenter;
+    final String dataInfoId;
+    final long version;
+
+    DeltaBaseKey(SubDatum subDatum) {
+      this(subDatum.getDataCenter(), subDatum.getDataInfoId(), subDatum.getVersion());
+    }
+
+    DeltaBaseKey(String dataCenter, String dataInfoId, long version) {
+      this.dataCenter = dataCenter;
+      this.dataInfoId = dataInfoId;
+      this.version = version;
+    }
+
+    int size() {
+      return sizeof(dataCenter) + sizeof(dataInfoId) + 8;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DeltaBaseKey that = (DeltaBaseKey) o;
+      return version == that.version
+          && Objects.equals(dataCenter, that.dataCenter)
+          && Objects.equals(dataInfoId, that.dataInfoId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dataCenter, dataInfoId, version);
+    }
+  }
+
+  private static final class PushDataKey {
+    final String dataInfoId;
+    final Map<String, Long> versions;
+    final ScopeEnum scope;
+    final String clientCell;
+    final boolean acceptMulti;
+    final List<String> acceptEncodes;
+    // the switch is replaced when updated
+    final CompressPushSwitch compressSwitch;
+    final boolean compressEnabled;
+
+    PushDataKey(
+        String dataInfoId,
+        Map<String, Long> versions,
+        ScopeEnum scope,
+        String clientCell,
+        boolean acceptMulti,
+        String[] acceptEncodes,
+        CompressPushSwitch compressSwitch,
+        boolean compressEnabled) {
+      this.dataInfoId = dataInfoId;
+      this.versions = versions;
+      this.scope = scope;
+      this.clientCell = clientCell;
+      this.acceptMulti = acceptMulti;
+      this.acceptEncodes =
+          acceptEncodes == null ? Collections.emptyList() : Arrays.asList(acceptEncodes);
+      this.compressSwitch = compressSwitch;
+      this.compressEnabled = compressEnabled;
+    }
+
+    int size() {
+      int size = sizeof(dataInfoId) + sizeof(clientCell) + versions.size() * 32 + 16;
+      for (String encode : acceptEncodes) {
+        size += sizeof(encode);
+      }
+      return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PushDataKey that = (PushDataKey) o;
+      return acceptMulti == that.acceptMulti
+          && compressEnabled == that.compressEnabled
+          && compressSwitch == that.compressSwitch
+          && scope == that.scope
+          && Objects.equals(dataInfoId, that.dataInfoId)
+          && Objects.equals(versions, that.versions)
+          && Objects.equals(clientCell, that.clientCell)
+          && Objects.equals(acceptEncodes, that.acceptEncodes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          dataInfoId, versions, scope, clientCell, acceptMulti, acceptEncodes, compressEnabled);
+    }
+  }
 }
@@ -17,6 +17,7 @@
 package com.alipay.sofa.registry.server.session.push;
 
 import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 
 public final class PushMetrics {
@@ -93,6 +94,47 @@ public final class PushMetrics {
     static final Counter.Child BUFFER_NEW_COUNTER = BUFFER_COUNTER.labels("new");
     static final Counter.Child BUFFER_SKIP_COUNTER = BUFFER_COUNTER.labels("skip");
 
+    static final Counter BUFFER_FULL_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("buffer_full_total")
+            .help("buffer rejected by full lane")
+            .labelNames("lane")
+            .register();
+
+    static final Counter BUFFER_DISPATCH_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("buffer_dispatch_total")
+            .help("buffer dispatch count")
+            .labelNames("lane")
+            .register();
+
+    private static final Counter PUSH_DATA_CACHE_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("data_cache_total")
+            .help("push data cache")
+            .labelNames("hit")
+            .register();
+    static final Counter.Child PUSH_DATA_CACHE_HIT_COUNTER = PUSH_DATA_CACHE_COUNTER.labels("Y");
+    static final Counter.Child PUSH_DATA_CACHE_MISS_COUNTER = PUSH_DATA_CACHE_COUNTER.labels("N");
+
+    private static final Counter PUSH_DELTA_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("delta_total")
+            .help("push data by delta or full")
+            .labelNames("type")
+            .register();
+    static final Counter.Child PUSH_DELTA_COUNTER_DELTA = PUSH_DELTA_COUNTER.labels("delta");
+    // delta capable, but the base is missing
+    static final Counter.Child PUSH_DELTA_COUNTER_NO_BASE = PUSH_DELTA_COUNTER.labels("noBase");
+
     static final Counter COMMIT_COUNTER =
         Counter.build()
             .namespace("session")
@@ -117,6 +159,45 @@ public final class PushMetrics {
             .help("retry count")
             .labelNames("reason")
             .register();
+
+    static final Counter PUSH_DEFER_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("defer_total")
+            .help("defer count")
+            .labelNames("reason")
+            .register();
+
+    static final Counter PUSH_DELTA_REJECT_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("delta_reject_total")
+            .help("delta rejected by client count")
+            .register();
+
+    static final Counter PUSH_CALLBACK_DISCARD_COUNTER =
+        Counter.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("callback_discard_total")
+            .help("push callback discard count")
+            .register();
+
+    private static final Gauge PUSH_CLIENT_LIMITER_GAUGE =
+        Gauge.build()
+            .namespace("session")
+            .subsystem("push")
+            .name("client_limiter")
+            .help("the in-flight pushes and the clients of the client limiter")
+            .labelNames("type")
+            .register();
+    static final Gauge.Child PUSH_CLIENT_INFLIGHT_GAUGE =
+        PUSH_CLIENT_LIMITER_GAUGE.labels("inflight");
+    static final Gauge.Child PUSH_CLIENT_WINDOW_GAUGE = PUSH_CLIENT_LIMITER_GAUGE.labels("clients");
+    static final Gauge.Child PUSH_CLIENT_DEFERRED_GAUGE =
+        PUSH_CLIENT_LIMITER_GAUGE.labels("deferredClients");
     private static final Histogram PUSH_DELAY_HISTOGRAM =
         Histogram.build()
             .linearBuckets(0, 1000, 15)
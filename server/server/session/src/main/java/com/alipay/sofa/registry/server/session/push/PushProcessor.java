@@ -24,6 +24,7 @@ import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
 import com.alipay.sofa.registry.common.model.store.PushData;
 import com.alipay.sofa.registry.common.model.store.Subscriber;
+import com.alipay.sofa.registry.core.model.Result;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.remoting.CallbackHandler;
 import com.alipay.sofa.registry.remoting.Channel;
@@ -32,6 +33,7 @@ import com.alipay.sofa.registry.remoting.exchange.RequestChannelClosedException;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
 import com.alipay.sofa.registry.server.session.circuit.breaker.CircuitBreakerService;
 import com.alipay.sofa.registry.server.session.node.service.ClientNodeService;
+import com.alipay.sofa.registry.server.session.store.SubscriberStore;
 import com.alipay.sofa.registry.server.shared.util.DatumUtils;
 import com.alipay.sofa.registry.task.KeyedThreadPoolExecutor;
 import com.alipay.sofa.registry.task.MetricsableThreadPoolExecutor;
@@ -59,6 +61,8 @@ public class PushProcessor {
   final Map<PushTask.PushingTaskKey, PushRecord> pushingRecords =
       new ConcurrentHashMap<>(1024 * 16);
 
+  final PushClientLimiter clientLimiter = new PushClientLimiter();
+
   @Autowired protected SessionServerConfig sessionServerConfig;
 
   @Autowired protected PushSwitchService pushSwitchService;
@@ -69,11 +73,17 @@ public class PushProcessor {
 
   @Autowired protected CircuitBreakerService circuitBreakerService;;
 
+  @Autowired protected SubscriberStore subscriberStore;
+
   private int pushDataTaskDebouncingMillis = 500;
   private PushEfficiencyImproveConfig pushEfficiencyImproveConfig;
 
   final Cleaner cleaner = new Cleaner();
 
+  private static final int MIN_DEFER_MILLIS = 100;
+  private static final int CLIENT_WINDOW_IDLE_MILLIS = 60 * 1000;
+  private static final int MAX_LOG_DEFERRED_CLIENTS = 32;
+
   final RejectedDiscardHandler discardHandler = new RejectedDiscardHandler();
   private final ThreadPoolExecutor pushCallbackExecutor =
       MetricsableThreadPoolExecutor.newExecutor(
@@ -141,12 +151,15 @@ public class PushProcessor {
     @Override
     public void runUnthrowable() {
       int cleans = cleanPushingTaskRunTooLong();
+      final long discards = discardHandler.getDiscardCountThenReset();
+      PUSH_CALLBACK_DISCARD_COUNTER.inc(discards);
       LOGGER.info(
           "cleans={}, callbackDiscardCounter={}, buffer={}, pushing={}",
           cleans,
-          discardHandler.getDiscardCountThenReset(),
+          discards,
           taskBuffer.size(),
           pushingRecords.size());
+      watchClientLimiter();
     }
 
     @Override
@@ -155,6 +168,29 @@ public class PushProcessor {
     }
   }
 
+  void watchClientLimiter() {
+    final int idles =
+        clientLimiter.cleanIdle(System.currentTimeMillis(), CLIENT_WINDOW_IDLE_MILLIS);
+    final List<PushClientLimiter.ClientStats> deferredClients =
+        clientLimiter.deferredClientsThenReset();
+    PUSH_CLIENT_INFLIGHT_GAUGE.set(clientLimiter.inFlightCount());
+    PUSH_CLIENT_WINDOW_GAUGE.set(clientLimiter.size());
+    PUSH_CLIENT_DEFERRED_GAUGE.set(deferredClients.size());
+    if (deferredClients.isEmpty()) {
+      return;
+    }
+    // the slowest clients first
+    deferredClients.sort((a, b) -> Long.compare(b.deferred, a.deferred));
+    for (int i = 0; i < deferredClients.size() && i < MAX_LOG_DEFERRED_CLIENTS; i++) {
+      LOGGER.info("[pushDeferred]{}", deferredClients.get(i));
+    }
+    LOGGER.info(
+        "clientLimiter, clients={}, deferredClients={}, idles={}",
+        clientLimiter.size(),
+        deferredClients.size(),
+        idles);
+  }
+
   private int getPushingMaxSpanMillis() {
     return sessionServerConfig.getClientNodeExchangeTimeoutMillis() * 3;
   }
@@ -183,6 +219,7 @@ public class PushProcessor {
       // force to remove the prev task
       final boolean cleaned = pushingRecords.remove(pushingTaskKey, task);
       if (cleaned) {
+        releaseClientWindow(task, false);
         for (DataCenterPushInfo value : task.dataCenterPushInfos.values()) {
           value.setPushVersion(0L);
         }
@@ -223,7 +260,12 @@ public class PushProcessor {
       return true;
     }
     // task after the prev, but prev.pushClient not callback, retry
-    retry(task, RetryReason.Waiting);
+    if (sessionServerConfig.isPushAdaptiveConcurrencyEnable()) {
+      // wait for the prev without counting as retry, the newer tasks merge it in the buffer
+      defer(task, RetryReason.Waiting);
+    } else {
+      retry(task, RetryReason.Waiting);
+    }
     return false;
   }
 
@@ -257,6 +299,7 @@ public class PushProcessor {
     for (Subscriber subscriber : subs) {
       subscriber.checkAndUpdateCtx(task.datum.getVersion(), task.getDataCenterPushCount());
     }
+    subscriberStore.markDirty(task.subscriber.getDataInfoId());
     PUSH_EMPTY_SKIP_COUNTER.inc();
     LOGGER.info(
         "[pushEmptySkip]{},{},{}", task.taskID, task.pushingTaskKey, task.datum.getVersion());
@@ -267,6 +310,7 @@ public class PushProcessor {
     Waiting,
     Error,
     Overflow,
+    Throttled,
   }
 
   // some groupId not need to retry
@@ -297,6 +341,69 @@ public class PushProcessor {
     return false;
   }
 
+  boolean defer(PushTask task, RetryReason reason) {
+    if (!causeContinue(task)) {
+      return false;
+    }
+    task.deferCount++;
+    // wait about a round trip of the client
+    final long deferMillis =
+        Math.min(
+            Math.max(
+                clientLimiter.getSmoothedSpanMillis(task.pushingTaskKey.addr), MIN_DEFER_MILLIS),
+            sessionServerConfig.getClientNodeExchangeTimeoutMillis());
+    task.expireAfter(deferMillis);
+    PUSH_DEFER_COUNTER.labels(reason.name()).inc();
+    final boolean buffed = taskBuffer.buffer(task);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "[defer]{},{},{},reason={},defer={},buffed={}",
+          task.taskID,
+          task.pushingTaskKey,
+          task.datum.getVersion(),
+          reason,
+          task.deferCount,
+          buffed);
+    }
+    return buffed;
+  }
+
+  boolean pushFull(PushTask task, String rejectMsg) {
+    if (!causeContinue(task)) {
+      return false;
+    }
+    task.forceFull = true;
+    task.expireAfter(0);
+    PUSH_DELTA_REJECT_COUNTER.inc();
+    final boolean buffed = taskBuffer.bufferWakeUp(task);
+    LOGGER.info(
+        "[deltaRejected]{},{},{},msg={},buffed={}",
+        task.taskID,
+        task.pushingTaskKey,
+        task.datum.getVersion(),
+        rejectMsg,
+        buffed);
+    return buffed;
+  }
+
+  PushClientLimiter.Window acquireClientWindow(PushTask task) {
+    return clientLimiter.tryAcquire(
+        task.pushingTaskKey.addr,
+        sessionServerConfig.getPushClientMaxInFlight(),
+        System.currentTimeMillis());
+  }
+
+  void releaseClientWindow(PushRecord record, boolean success) {
+    if (record == null || record.window == null) {
+      return;
+    }
+    record.window.release(
+        System.currentTimeMillis() - record.trace.getPushStartTimestamp(),
+        success,
+        sessionServerConfig.getPushClientLatencyTargetMillis(),
+        sessionServerConfig.getPushClientMaxInFlight());
+  }
+
   // check push empty, some group maybe could not tolerate push empty
   protected boolean interruptOnPushEmpty(
       MultiSubDatum datum,
@@ -323,27 +430,57 @@ public class PushProcessor {
         return false;
       }
 
-      final PushData pushData = task.createPushData();
-      task.setDataCenterPushInfos(pushData.getDataCenterPushInfo());
-
-      if (interruptOnPushEmpty(
-          task.datum, pushData, task.trace.pushCause, task.subscriber, task.pushingTaskKey.addr)) {
-        return false;
+      PushClientLimiter.Window window = null;
+      if (sessionServerConfig.isPushAdaptiveConcurrencyEnable()) {
+        window = acquireClientWindow(task);
+        if (window == null) {
+          // the client is slow, defer the push and merge the newer tasks
+          defer(task, RetryReason.Throttled);
+          return false;
+        }
       }
+      boolean pushing = false;
+      final PushData pushData;
+      try {
+        pushData = task.createPushData();
+        task.setDataCenterPushInfos(pushData.getDataCenterPushInfo());
+
+        if (interruptOnPushEmpty(
+            task.datum,
+            pushData,
+            task.trace.pushCause,
+            task.subscriber,
+            task.pushingTaskKey.addr)) {
+          return false;
+        }
 
-      // double check
-      if (!causeContinue(task)) {
-        return false;
-      }
-      // check push empty can skip (last push is also empty)
-      if (checkSkipPushEmptyAndUpdateVersion(task)) {
-        return false;
-      }
+        // double check
+        if (!causeContinue(task)) {
+          return false;
+        }
+        // check push empty can skip (last push is also empty)
+        if (checkSkipPushEmptyAndUpdateVersion(task)) {
+          return false;
+        }
 
-      pushingRecords.put(
-          task.pushingTaskKey,
-          new PushRecord(
-              task.trace, task.taskID, task.retryCount, pushData.getDataCenterPushInfo()));
+        final PushRecord prev =
+            pushingRecords.put(
+                task.pushingTaskKey,
+                new PushRecord(
+                    task.trace,
+                    task.taskID,
+                    task.retryCount,
+                    pushData.getDataCenterPushInfo(),
+                    window));
+        // the window is owned by the record now
+        pushing = true;
+        // the prev is replaced, never callback by the record
+        releaseClientWindow(prev, false);
+      } finally {
+        if (!pushing && window != null) {
+          window.release();
+        }
+      }
       clientNodeService.pushWithCallback(
           pushData.getPayload(), task.subscriber.getSourceAddress(), new PushClientCallback(task));
       PUSH_CLIENT_ING_COUNTER.inc();
@@ -362,8 +499,11 @@ public class PushProcessor {
 
   void handleDoPushException(PushTask task, Throwable e) {
     // try to delete self
-    pushingRecords.remove(task.pushingTaskKey);
+    final PushRecord record = pushingRecords.remove(task.pushingTaskKey);
     if (e instanceof RequestChannelClosedException) {
+      if (record != null && record.window != null) {
+        record.window.release();
+      }
       task.trace.finishPush(
           PushTrace.PushStatus.ChanClosed,
           task.taskID,
@@ -374,6 +514,7 @@ public class PushProcessor {
           "[PushChanClosed]taskId={}, {}, {}", task.taskID, task.pushingTaskKey, e.getMessage());
       return;
     }
+    releaseClientWindow(record, false);
 
     // record push exception
     if (circuitBreakerRecordWhenDoPushError(
@@ -414,8 +555,14 @@ public class PushProcessor {
     }
 
     protected PushData createPushData() {
-      return pushDataGenerator.createPushData(
-          DatumUtils.decompressMultiSubDatum(datum), subscriberMap);
+      // the retry always pushes the full data
+      PushData pushData =
+          pushDataGenerator.createPushData(
+              DatumUtils.decompressMultiSubDatum(datum),
+              subscriberMap,
+              !forceFull && retryCount == 0);
+      this.deltaPush = PushDataGenerator.isDeltaPush(pushData);
+      return pushData;
     }
 
     @Override
@@ -453,7 +600,17 @@ public class PushProcessor {
 
     @Override
     public void onCallback(Channel channel, Object message) {
-      pushingRecords.remove(pushTask.pushingTaskKey);
+      if (pushTask.deltaPush && message instanceof Result && !((Result) message).isSuccess()) {
+        // the client rejects the delta, the base is not matched, push the full data at once
+        final PushRecord record = pushingRecords.remove(pushTask.pushingTaskKey);
+        if (record != null && record.window != null) {
+          // the client is healthy, not adjust the window
+          record.window.release();
+        }
+        pushFull(pushTask, ((Result) message).getMessage());
+        return;
+      }
+      releaseClientWindow(pushingRecords.remove(pushTask.pushingTaskKey), true);
       for (Subscriber subscriber : pushTask.subscriberMap.values()) {
         if (!circuitBreakerService.onPushSuccess(
             pushTask.datum.getVersion(), pushTask.getDataCenterPushCount(), subscriber)) {
@@ -463,6 +620,8 @@ public class PushProcessor {
               pushTask.pushingTaskKey);
         }
       }
+      // the pushed version has changed, rescan it
+      subscriberStore.markDirty(pushTask.subscriber.getDataInfoId());
       this.pushTask.trace.finishPush(
           PushTrace.PushStatus.OK,
           pushTask.taskID,
@@ -472,10 +631,15 @@ public class PushProcessor {
 
     @Override
     public void onException(Channel channel, Throwable exception) {
-      pushingRecords.remove(pushTask.pushingTaskKey);
+      final PushRecord record = pushingRecords.remove(pushTask.pushingTaskKey);
 
       boolean needRecord = true;
       final boolean channelConnected = channel.isConnected();
+      if (channelConnected) {
+        releaseClientWindow(record, false);
+      } else if (record != null && record.window != null) {
+        record.window.release();
+      }
       if (channelConnected) {
         retry(pushTask, RetryReason.Error);
       }
@@ -537,17 +701,22 @@ public class PushProcessor {
     final TraceID taskID;
     final int retryCount;
 
+    // the acquired window of client limiter, null if not limited
+    final PushClientLimiter.Window window;
+
     private Map<String, DataCenterPushInfo> dataCenterPushInfos;
 
     PushRecord(
         PushTrace pushTrace,
         TraceID taskID,
         int retryCount,
-        Map<String, DataCenterPushInfo> dataCenterPushInfos) {
+        Map<String, DataCenterPushInfo> dataCenterPushInfos,
+        PushClientLimiter.Window window) {
       this.trace = pushTrace;
       this.taskID = taskID;
       this.retryCount = retryCount;
       this.dataCenterPushInfos = dataCenterPushInfos;
+      this.window = window;
     }
   }
 }
@@ -45,6 +45,12 @@ public abstract class PushTask {
   protected final PushTrace trace;
 
   protected int retryCount;
+  // deferred by the backpressure of client, not count as retry
+  protected int deferCount;
+  // the pushData is the delta from the last pushed version
+  protected volatile boolean deltaPush;
+  // the client has rejected the delta, push the full data next time
+  protected volatile boolean forceFull;
   private Map<String, DataCenterPushInfo> dataCenterPushInfos;
 
   protected PushTask(
@@ -77,6 +83,11 @@ public abstract class PushTask {
     this.expireTimestamp = System.currentTimeMillis() + intervalMs;
   }
 
+  /** the retried or deferred task waits until expired even if the cause is noDelay */
+  boolean noDelay() {
+    return trace.pushCause.pushType.noDelay && retryCount == 0 && deferCount == 0;
+  }
+
   public boolean hasPushed() {
     if (subscriberMap.size() == 1) {
       return subscriber.hasPushed();
@@ -21,6 +21,7 @@ import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.*;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
+import com.alipay.sofa.registry.util.HashedWheel;
 import com.alipay.sofa.registry.util.StringFormatter;
 import com.alipay.sofa.registry.util.SystemUtils;
 import com.alipay.sofa.registry.util.WakeUpLoopRunnable;
@@ -30,12 +31,57 @@ import com.google.common.collect.Sets;
 import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class PushTaskBuffer {
   private static final Logger LOGGER = LoggerFactory.getLogger(PushTaskBuffer.class);
   private static final String KEY_MAX_BUFFERED_SIZE = "registry.session.push_task.max_buffered";
   private static final int MAX_BUFFERED_SIZE =
       SystemUtils.getSystemInteger(KEY_MAX_BUFFERED_SIZE, 10000);
+  private static final String KEY_MAX_DISPATCH_SIZE = "registry.session.push_task.max_dispatch";
+  // the max commits of a worker in one round, the rest are dispatched in the next round
+  private static final int MAX_DISPATCH_SIZE =
+      SystemUtils.getSystemInteger(KEY_MAX_DISPATCH_SIZE, 2000);
+
+  /**
+   * the tasks are buffered in separate lanes with own capacity and waiting, so the registration and
+   * push empty are not rejected or blocked by a big fan-out of data change. the ready tasks of
+   * lanes are dispatched by deficit round robin weighted by quantum
+   */
+  enum Lane {
+    REG(5000, 4, 50),
+    EMPTY(5000, 2, 50),
+    // the waiting is set by setPushTaskWorkWaitingMillis
+    CHANGE(MAX_BUFFERED_SIZE, 1, 200),
+    ;
+
+    final int capacity;
+    final int quantum;
+    final int waitingMillis;
+
+    Lane(int capacity, int quantum, int waitingMillis) {
+      final String prefix = "registry.session.push_task." + name().toLowerCase() + ".";
+      this.capacity = SystemUtils.getSystemInteger(prefix + "max_buffered", capacity);
+      this.quantum = SystemUtils.getSystemInteger(prefix + "quantum", quantum);
+      this.waitingMillis = SystemUtils.getSystemInteger(prefix + "waiting_millis", waitingMillis);
+    }
+
+    static Lane of(PushTask task) {
+      switch (task.trace.pushCause.pushType) {
+        case Reg:
+          return REG;
+        case Empty:
+          return EMPTY;
+        default:
+          return CHANGE;
+      }
+    }
+  }
+
+  private static final Lane[] LANES = Lane.values();
+
+  static final int WHEEL_TICK_MILLIS = 10;
+  static final int WHEEL_TICKS = 512;
 
   final BufferWorker[] workers;
   private PushEfficiencyImproveConfig pushEfficiencyImproveConfig;
@@ -69,11 +115,15 @@ public final class PushTaskBuffer {
   boolean buffer(PushTask pushTask) {
     final BufferTaskKey key = bufferTaskKey(pushTask);
     final BufferWorker worker = workerOf(key);
-    if (worker.bufferMap.size() >= MAX_BUFFERED_SIZE) {
+    final Lane lane = Lane.of(pushTask);
+    if (worker.laneSize(lane) >= lane.capacity) {
+      BUFFER_FULL_COUNTER.labels(lane.name()).inc();
       return false;
     }
     if (worker.bufferMap.putIfAbsent(key, pushTask) == null) {
       // fast path
+      worker.laneSizes[lane.ordinal()].incrementAndGet();
+      worker.schedule(key, pushTask);
       wakeup(worker, pushTask);
       BUFFER_NEW_COUNTER.inc();
       return true;
@@ -84,6 +134,8 @@ public final class PushTaskBuffer {
       if (prev == null) {
         if (worker.bufferMap.putIfAbsent(key, pushTask) == null) {
           // prev has remove at this time
+          worker.laneSizes[lane.ordinal()].incrementAndGet();
+          worker.schedule(key, pushTask);
           wakeup(worker, pushTask);
           BUFFER_NEW_COUNTER.inc();
           return true;
@@ -94,6 +146,12 @@ public final class PushTaskBuffer {
           // update the expireTimestamp as prev's, avoid the push block by the continues fire
           pushTask.expireTimestamp = prev.expireTimestamp;
           if (worker.bufferMap.replace(key, prev, pushTask)) {
+            final Lane prevLane = Lane.of(prev);
+            if (prevLane != lane) {
+              worker.laneSizes[prevLane.ordinal()].decrementAndGet();
+              worker.laneSizes[lane.ordinal()].incrementAndGet();
+            }
+            worker.schedule(key, pushTask);
             wakeup(worker, pushTask);
             BUFFER_REPLACE_COUNTER.inc();
             return true;
@@ -120,19 +178,35 @@ public final class PushTaskBuffer {
   }
 
   private void wakeup(BufferWorker worker, PushTask pushTask) {
-    if (pushTask.trace.pushCause.pushType.noDelay) {
+    if (pushTask.noDelay()) {
       worker.wakeup();
     }
   }
 
   final class BufferWorker extends WakeUpLoopRunnable {
     final Map<BufferTaskKey, PushTask> bufferMap = new ConcurrentHashMap<>(4096);
+    // the approximate size of each lane
+    final AtomicInteger[] laneSizes = new AtomicInteger[LANES.length];
+    // the buffered tasks are hashed by expire, the replaced tasks are skipped when expired
+    final HashedWheel<Map.Entry<BufferTaskKey, PushTask>> wheel =
+        new HashedWheel<>(WHEEL_TICK_MILLIS, WHEEL_TICKS);
+    // the expired tasks not yet dispatched and the deficits, only accessed by the worker thread
+    final ArrayDeque<Map.Entry<BufferTaskKey, PushTask>>[] readyLanes =
+        new ArrayDeque[LANES.length];
+    final int[] deficits = new int[LANES.length];
+
+    BufferWorker() {
+      for (int i = 0; i < LANES.length; i++) {
+        laneSizes[i] = new AtomicInteger();
+        readyLanes[i] = new ArrayDeque<>();
+      }
+    }
 
     public void setWaitingMillis(int waitingMillis) {
       this.waitingMillis = waitingMillis;
     }
 
-    private int waitingMillis = 200;
+    private int waitingMillis = Lane.CHANGE.waitingMillis;
 
     @Override
     public void runUnthrowable() {
@@ -141,35 +215,92 @@ public final class PushTaskBuffer {
 
     @Override
     public int getWaitingMillis() {
-      return waitingMillis;
+      int millis = waitingMillis;
+      for (Lane lane : LANES) {
+        if (lane != Lane.CHANGE && laneSize(lane) > 0) {
+          millis = Math.min(millis, lane.waitingMillis);
+        }
+      }
+      return millis;
     }
 
-    private List<PushTask> transferAndMerge() {
-      if (bufferMap.isEmpty()) {
-        return Collections.emptyList();
-      }
-      List<PushTask> pending = Lists.newArrayListWithCapacity(1024);
+    int laneSize(Lane lane) {
+      return laneSizes[lane.ordinal()].get();
+    }
+
+    void schedule(BufferTaskKey key, PushTask task) {
+      // no delay, expire in the current tick
+      final long deadline = task.noDelay() ? 0 : task.expireTimestamp;
+      wheel.add(new AbstractMap.SimpleImmutableEntry<>(key, task), deadline, Integer.MAX_VALUE);
+    }
+
+    /** move the expired tasks to the ready lanes, the cost is independent of the buffered size */
+    int transfer() {
       final long now = System.currentTimeMillis();
-      for (Map.Entry<BufferTaskKey, PushTask> e : bufferMap.entrySet()) {
+      int count = 0;
+      for (Map.Entry<BufferTaskKey, PushTask> e : wheel.expire(now)) {
         final PushTask task = e.getValue();
-        // no delay or expire, push immediately
-        if (task.trace.pushCause.pushType.noDelay || task.expireTimestamp <= now) {
-          pending.add(task);
-          // the task maybe update
-          bufferMap.remove(e.getKey(), task);
+        if (bufferMap.get(e.getKey()) != task) {
+          // replaced or dispatched
+          continue;
+        }
+        if (!task.noDelay() && task.expireTimestamp > now) {
+          // the expire of a buffered task is updated, wait again
+          wheel.add(e, task.expireTimestamp, Integer.MAX_VALUE);
+          continue;
         }
+        readyLanes[Lane.of(task).ordinal()].add(e);
+        count++;
+      }
+      return count;
+    }
+
+    /** @return the ready tasks removed from the buffer by deficit round robin of lanes */
+    List<PushTask> dispatch(int max) {
+      List<PushTask> pending = Lists.newArrayList();
+      boolean remains = true;
+      while (remains && pending.size() < max) {
+        remains = false;
+        for (Lane lane : LANES) {
+          final int i = lane.ordinal();
+          final ArrayDeque<Map.Entry<BufferTaskKey, PushTask>> ready = readyLanes[i];
+          if (ready.isEmpty()) {
+            // an empty lane could not save the deficit
+            deficits[i] = 0;
+            continue;
+          }
+          deficits[i] += lane.quantum;
+          while (deficits[i] > 0 && !ready.isEmpty() && pending.size() < max) {
+            final Map.Entry<BufferTaskKey, PushTask> e = ready.poll();
+            // the task maybe update
+            if (bufferMap.remove(e.getKey(), e.getValue())) {
+              deficits[i]--;
+              laneSizes[i].decrementAndGet();
+              pending.add(e.getValue());
+              BUFFER_DISPATCH_COUNTER.labels(lane.name()).inc();
+            }
+          }
+          remains |= !ready.isEmpty();
+        }
+      }
+      if (remains) {
+        // the rest are dispatched in the next round without waiting
+        wakeup();
       }
       return pending;
     }
   }
 
   int watchBuffer(BufferWorker worker) {
-    int bufferedSize = worker.bufferMap.size();
-    if (bufferedSize >= MAX_BUFFERED_SIZE) {
-      LOGGER.warn("arrived max buffered size: buffered={}", bufferedSize);
+    for (Lane lane : LANES) {
+      final int bufferedSize = worker.laneSize(lane);
+      if (bufferedSize >= lane.capacity) {
+        LOGGER.warn("arrived max buffered size: lane={}, buffered={}", lane, bufferedSize);
+      }
     }
 
-    List<PushTask> pending = worker.transferAndMerge();
+    worker.transfer();
+    List<PushTask> pending = worker.dispatch(MAX_DISPATCH_SIZE);
     int count = 0;
     for (PushTask task : pending) {
       if (task.commit()) {
@@ -357,10 +357,18 @@ public class SessionRegistry implements Registry {
     dataCenters.addAll(metadataCacheRegistry.getPushEnableDataCenters());
 
     final long start = System.currentTimeMillis();
-    SelectSubscriber selectSubscriber = subscriberStore.selectSubscribers(dataCenters);
+    final boolean incremental = sessionServerConfig.isScanSubscriberIncrementalEnable();
+    final boolean fullSweep =
+        !incremental
+            || round % Math.max(1, sessionServerConfig.getScanSubscriberFullSweepRounds()) == 0;
+    SelectSubscriber selectSubscriber =
+        incremental
+            ? subscriberStore.selectSubscribers(dataCenters, fullSweep)
+            : subscriberStore.selectSubscribers(dataCenters);
     SCAN_VER_LOGGER.info(
-        "[select]round={}, regMultiSize={}, span={}",
+        "[select]round={}, full={}, regMultiSize={}, span={}",
         round,
+        fullSweep ? 'Y' : 'N',
         selectSubscriber.toRegisterMulti.size(),
         System.currentTimeMillis() - start);
 
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.remoting.handler;
+
+import com.alipay.sofa.registry.core.model.BaseRegister;
+import com.alipay.sofa.registry.core.model.BatchRegisterRequest;
+import com.alipay.sofa.registry.core.model.BatchRegisterResponse;
+import com.alipay.sofa.registry.core.model.PublisherRegister;
+import com.alipay.sofa.registry.core.model.RegisterResponse;
+import com.alipay.sofa.registry.core.model.ScopeEnum;
+import com.alipay.sofa.registry.core.model.SubscriberRegister;
+import com.alipay.sofa.registry.log.Logger;
+import com.alipay.sofa.registry.log.LoggerFactory;
+import com.alipay.sofa.registry.remoting.Channel;
+import com.alipay.sofa.registry.server.session.strategy.PublisherHandlerStrategy;
+import com.alipay.sofa.registry.server.session.strategy.SubscriberHandlerStrategy;
+import com.alipay.sofa.registry.util.ParaCheckUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Handles the publisher/subscriber registers batched by the client, each register is processed as
+ * {@link PublisherHandler}/{@link SubscriberHandler} does and fails on its own.
+ */
+public class BatchRegisterHandler extends AbstractClientDataRequestHandler<BatchRegisterRequest> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchRegisterHandler.class);
+
+  @Autowired PublisherHandlerStrategy publisherHandlerStrategy;
+
+  @Autowired SubscriberHandlerStrategy subscriberHandlerStrategy;
+
+  @Override
+  public void checkParam(BatchRegisterRequest request) {
+    ParaCheckUtil.checkNotNull(request.getRegisters(), "registers");
+  }
+
+  @Override
+  public Object doHandle(Channel channel, BatchRegisterRequest request) {
+    BatchRegisterResponse response = new BatchRegisterResponse();
+    for (BaseRegister register : request.getRegisters()) {
+      response.addResponse(handleRegister(channel, register));
+    }
+    return response;
+  }
+
+  private RegisterResponse handleRegister(Channel channel, BaseRegister register) {
+    RegisterResponse registerResponse = new RegisterResponse();
+    try {
+      if (register instanceof PublisherRegister) {
+        publisherHandlerStrategy.handlePublisherRegister(
+            channel, (PublisherRegister) register, registerResponse);
+      } else if (register instanceof SubscriberRegister) {
+        SubscriberRegister subscriberRegister = (SubscriberRegister) register;
+        if (subscriberRegister.acceptMulti()) {
+          ParaCheckUtil.checkEquals(
+              subscriberRegister.getScope(), ScopeEnum.global.name(), "scope");
+        }
+        subscriberHandlerStrategy.handleSubscriberRegister(
+            channel, subscriberRegister, registerResponse);
+      } else {
+        registerResponse.setSuccess(false);
+        registerResponse.setMessage("unsupported register in batch: " + register);
+      }
+    } catch (Throwable e) {
+      LOGGER.error("[BatchRegister] handle register failed, {}", register, e);
+      registerResponse.setSuccess(false);
+      registerResponse.setMessage(e.getMessage());
+    }
+    if (register != null && registerResponse.getRegistId() == null) {
+      registerResponse.setRegistId(register.getRegistId());
+    }
+    return registerResponse;
+  }
+
+  @Override
+  public Class interest() {
+    return BatchRegisterRequest.class;
+  }
+}
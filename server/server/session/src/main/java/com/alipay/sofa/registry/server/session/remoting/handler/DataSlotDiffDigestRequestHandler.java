@@ -18,7 +18,9 @@ package com.alipay.sofa.registry.server.session.remoting.handler;
 
 import com.alipay.sofa.registry.common.model.GenericResponse;
 import com.alipay.sofa.registry.common.model.Node;
-import com.alipay.sofa.registry.common.model.dataserver.DatumDigest;
+import com.alipay.sofa.registry.common.model.PublisherDigestUtil;
+import com.alipay.sofa.registry.common.model.PublisherUtils;
+import com.alipay.sofa.registry.common.model.dataserver.DatumSummary;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestRequest;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffDigestResult;
 import com.alipay.sofa.registry.common.model.slot.DataSlotDiffUtils;
@@ -77,12 +79,7 @@ public class DataSlotDiffDigestRequestHandler
         }
       }
 
-      DataSlotDiffDigestResult result =
-          calcDiffResult(
-              request.getLocalDataCenter(),
-              request.getSlotId(),
-              request.getDatumDigest(),
-              existingPublishers);
+      DataSlotDiffDigestResult result = calcDiffResult(request, existingPublishers);
       result.setSlotTableEpoch(slotTableCache.getEpoch(request.getLocalDataCenter()));
       result.setSessionProcessId(ServerEnv.PROCESS_ID);
       return new GenericResponse().fillSucceed(result);
@@ -100,14 +97,14 @@ public class DataSlotDiffDigestRequestHandler
   }
 
   private DataSlotDiffDigestResult calcDiffResult(
-      String requestDataCenter,
-      int targetSlot,
-      Map<String, DatumDigest> digestMap,
-      Map<String, Map<String, Publisher>> existingPublishers) {
-
+      DataSlotDiffDigestRequest request, Map<String, Map<String, Publisher>> existingPublishers) {
+    Map<String, DatumSummary> existingSummaries =
+        PublisherUtils.getDatumSummary(existingPublishers, syncSlotAcceptAllManager);
     DataSlotDiffDigestResult result =
-        DataSlotDiffUtils.diffDigestResult(digestMap, existingPublishers, syncSlotAcceptAllManager);
-    DataSlotDiffUtils.logDiffResult(requestDataCenter, result, targetSlot, LOGGER);
+        DataSlotDiffUtils.diffDigest(
+            request, PublisherDigestUtil.digest(existingSummaries, request.isIncrementalDigest()));
+    DataSlotDiffUtils.logDiffResult(
+        request.getLocalDataCenter(), result, request.getSlotId(), LOGGER);
     return result;
   }
 
@@ -17,6 +17,7 @@
 package com.alipay.sofa.registry.server.session.store;
 
 import com.alipay.sofa.registry.common.model.ConnectId;
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import com.alipay.sofa.registry.server.session.store.engine.StoreEngine;
 import java.util.ArrayList;
@@ -28,19 +29,37 @@ import java.util.function.BiConsumer;
 public abstract class AbstractClientStore<T extends StoreData<String>> implements ClientStore<T> {
 
   protected final StoreEngine<T> storeEngine;
-  private final ConnectDataIndexer connectDataIndexer =
-      new ConnectDataIndexer(getClass().getName());
+  private final ConnectDataIndexer connectDataIndexer;
 
   public AbstractClientStore(StoreEngine<T> storeEngine) {
     this.storeEngine = storeEngine;
+    this.connectDataIndexer = new ConnectDataIndexer(getClass().getName(), storeEngine);
   }
 
   @Override
   public boolean add(T storeData) {
+    final ConnectId connectId = storeData.connectId();
+    final DataPos pos = new DataPos(storeData.getDataInfoId(), storeData.getId());
     return connectDataIndexer.add(
-        storeData.connectId(),
-        new DataPos(storeData.getDataInfoId(), storeData.getId()),
-        () -> storeEngine.putIfAbsent(storeData).getKey());
+        connectId,
+        pos,
+        () -> {
+          Tuple<Boolean, T> ret = storeEngine.putIfAbsent(storeData);
+          if (ret.o1) {
+            // a concurrent delete(connectId) may see the data absent and remove the index as stale
+            // before the put, insert again, the set is idempotent
+            connectDataIndexer.add(connectId, pos);
+            // replace the exist with other connectId, remove the index of the exist
+            T exist = ret.o2;
+            if (exist != null && !connectId.equals(exist.connectId())) {
+              connectDataIndexer.remove(exist.connectId(), pos);
+            }
+          } else if (!connectId.equals(ret.o2.connectId())) {
+            // add conflict, the exist is newer, remove the index of the input
+            connectDataIndexer.remove(connectId, pos);
+          }
+          return ret.o1;
+        });
   }
 
   @Override
@@ -50,7 +69,11 @@ public abstract class AbstractClientStore<T extends StoreData<String>> implement
 
   @Override
   public T delete(String dataInfoId, String registerId) {
-    return storeEngine.delete(dataInfoId, registerId);
+    T deleted = storeEngine.delete(dataInfoId, registerId);
+    if (deleted != null) {
+      connectDataIndexer.remove(deleted.connectId(), new DataPos(dataInfoId, registerId));
+    }
+    return deleted;
   }
 
   @Override
@@ -90,9 +113,12 @@ public abstract class AbstractClientStore<T extends StoreData<String>> implement
       String registerId = pos.getRegisterId();
       T storeData = storeEngine.get(dataInfoId, registerId);
       if (storeData == null || !storeData.connectId().equals(connectId)) {
+        // stale index, the data has been deleted or replaced by other connectId
+        connectDataIndexer.remove(connectId, pos);
         continue;
       }
       if (storeEngine.delete(storeData)) {
+        connectDataIndexer.remove(connectId, pos);
         result.add(storeData);
       }
     }
@@ -110,12 +136,19 @@ public abstract class AbstractClientStore<T extends StoreData<String>> implement
   }
 
   static class ConnectDataIndexer extends DataIndexer<ConnectId, DataPos> {
+    private final StoreEngine<? extends StoreData<String>> storeEngine;
 
-    public ConnectDataIndexer(String name) {
+    public ConnectDataIndexer(String name, StoreEngine<? extends StoreData<String>> storeEngine) {
       super(name);
+      this.storeEngine = storeEngine;
     }
 
     @Override
-    protected void dataStoreForEach(BiConsumer<ConnectId, DataPos> consumer) {}
+    protected void dataStoreForEach(BiConsumer<ConnectId, DataPos> consumer) {
+      for (StoreData<String> storeData : storeEngine.getAll()) {
+        consumer.accept(
+            storeData.connectId(), new DataPos(storeData.getDataInfoId(), storeData.getId()));
+      }
+    }
   }
 }
@@ -16,12 +16,12 @@
  */
 package com.alipay.sofa.registry.server.session.store;
 
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import javafx.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +46,11 @@ public class ClientsGroup<T extends StoreData<String>> {
     return clients.size();
   }
 
-  public Pair<Boolean, T> putIfAbsent(T storeData) {
+  public Tuple<Boolean, T> putIfAbsent(T storeData) {
     String registerId = storeData.getId();
     StoreData<?> exist = clients.putIfAbsent(registerId, storeData);
     if (exist == null) {
-      return new Pair<>(true, null);
+      return new Tuple<>(true, null);
     }
 
     for (; ; ) {
@@ -58,7 +58,7 @@ public class ClientsGroup<T extends StoreData<String>> {
       if (existing == null) {
         if (clients.putIfAbsent(registerId, storeData) == null) {
           System.out.println(">>>>>>>>>>" + System.currentTimeMillis() + " add: " + registerId);
-          return new Pair<>(true, null);
+          return new Tuple<>(true, null);
         }
       } else {
         if (!existing.registerVersion().orderThan(storeData.registerVersion())) {
@@ -70,11 +70,11 @@ public class ClientsGroup<T extends StoreData<String>> {
               existing.getRegisterTimestamp(),
               storeData.registerVersion(),
               storeData.getRegisterTimestamp());
-          return new Pair<>(false, existing);
+          return new Tuple<>(false, existing);
         }
         if (clients.replace(registerId, existing, storeData)) {
           System.out.println(">>>>>>>>>>" + System.currentTimeMillis() + " add: " + registerId);
-          return new Pair<>(true, existing);
+          return new Tuple<>(true, existing);
         }
       }
     }
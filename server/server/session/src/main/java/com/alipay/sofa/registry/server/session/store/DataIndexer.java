@@ -20,9 +20,9 @@ import com.alipay.sofa.registry.concurrent.UnThrowableCallable;
 import com.alipay.sofa.registry.log.Logger;
 import com.alipay.sofa.registry.log.LoggerFactory;
 import com.alipay.sofa.registry.util.ConcurrentUtils;
+import com.alipay.sofa.registry.util.SystemUtils;
 import com.alipay.sofa.registry.util.WakeUpLoopRunnable;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Sets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
@@ -30,13 +30,23 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
+/**
+ * index of the store data, maintained exactly by add/remove. the periodic rebuild is only a
+ * consistency check to repair the index, disabled by default
+ */
 public abstract class DataIndexer<K, V> {
   private static final Logger LOG = LoggerFactory.getLogger("SRV-CONNECT");
+  private static final String KEY_CHECK_ENABLE = "registry.session.indexer.check_enable";
+  private static final boolean CHECK_ENABLE =
+      Boolean.parseBoolean(SystemUtils.getSystem(KEY_CHECK_ENABLE, "false"));
+  // most of the keys has a few values, keep the per key set compact
+  private static final int VALUE_SET_INIT_SIZE = 4;
 
   private volatile Map<K, Set<V>> index = new ConcurrentHashMap<>(1024);
   private volatile Map<K, Set<V>> tempIndex = new ConcurrentHashMap<>(1024);
   private volatile Term lastTerm = new Term();
   private volatile boolean doubleWrite = false;
+  private volatile boolean forceRefresh = false;
 
   private final IndexerRefresher indexerRefresher = new IndexerRefresher();
 
@@ -58,16 +68,64 @@ public abstract class DataIndexer<K, V> {
     }
   }
 
+  public void add(K key, V val) {
+    Term term = lastTerm;
+    term.start.incrementAndGet();
+    try {
+      if (doubleWrite) {
+        insert(tempIndex, key, val);
+      }
+      insert(index, key, val);
+    } finally {
+      term.done.incrementAndGet();
+    }
+  }
+
+  public void remove(K key, V val) {
+    Term term = lastTerm;
+    term.start.incrementAndGet();
+    try {
+      if (doubleWrite) {
+        delete(tempIndex, key, val);
+      }
+      delete(index, key, val);
+    } finally {
+      term.done.incrementAndGet();
+    }
+  }
+
   private void insert(Map<K, Set<V>> d, K key, V val) {
-    d.computeIfAbsent(key, k -> Sets.newConcurrentHashSet()).add(val);
+    // modify the set in compute, avoid adding to a set which has been removed from the map
+    d.compute(
+        key,
+        (k, s) -> {
+          if (s == null) {
+            s = Collections.newSetFromMap(new ConcurrentHashMap<>(VALUE_SET_INIT_SIZE));
+          }
+          s.add(val);
+          return s;
+        });
   }
 
+  private void delete(Map<K, Set<V>> d, K key, V val) {
+    d.computeIfPresent(
+        key,
+        (k, s) -> {
+          s.remove(val);
+          return s.isEmpty() ? null : s;
+        });
+  }
+
+  /**
+   * @param key key
+   * @return read-only and weakly consistent view of the values
+   */
   public Set<V> queryByKey(K key) {
     Set<V> s = index.get(key);
     if (s == null) {
       return Collections.emptySet();
     }
-    return new HashSet<>(s);
+    return Collections.unmodifiableSet(s);
   }
 
   public Set<K> getKeys() {
@@ -90,19 +148,32 @@ public abstract class DataIndexer<K, V> {
           (key, val) -> {
             insert(tempIndex, key, val);
           });
+      final int staleKeys = countStaleKeys(index, tempIndex);
       LOG.info(
-          "index refresh finished waitSpan={}ms, buildSpan={}ms, indexSize={}",
+          "index refresh finished waitSpan={}ms, buildSpan={}ms, indexSize={}, staleKeys={}",
           waitTime - startTime,
           System.currentTimeMillis() - waitTime,
-          tempIndex.size());
+          tempIndex.size(),
+          staleKeys);
       index = tempIndex;
     } finally {
       doubleWrite = false;
     }
   }
 
+  private int countStaleKeys(Map<K, Set<V>> current, Map<K, Set<V>> rebuild) {
+    int count = 0;
+    for (Map.Entry<K, Set<V>> e : current.entrySet()) {
+      if (!e.getValue().equals(rebuild.get(e.getKey()))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   @VisibleForTesting
   public void triggerRefresh() {
+    forceRefresh = true;
     indexerRefresher.wakeup();
   }
 
@@ -133,6 +204,10 @@ public abstract class DataIndexer<K, V> {
 
     @Override
     public void runUnthrowable() {
+      if (!CHECK_ENABLE && !forceRefresh) {
+        return;
+      }
+      forceRefresh = false;
       refresh();
     }
 
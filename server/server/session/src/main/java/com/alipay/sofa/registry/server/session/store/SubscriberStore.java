@@ -44,6 +44,23 @@ public interface SubscriberStore extends ClientStore<Subscriber> {
 
   SessionRegistry.SelectSubscriber selectSubscribers(Set<String> dataCenters);
 
+  /**
+   * Select subscriber incrementally, only the subscribers of the dirty dataInfoIds are checked, the
+   * versions of the others are the same as the last select.
+   *
+   * @param dataCenters target data centers
+   * @param fullSweep check all the subscribers and rebuild the versions
+   * @return SelectSubscriber
+   */
+  SessionRegistry.SelectSubscriber selectSubscribers(Set<String> dataCenters, boolean fullSweep);
+
+  /**
+   * Mark the subscribers of the dataInfoId has changed, used by incremental select.
+   *
+   * @param dataInfoId data id
+   */
+  void markDirty(String dataInfoId);
+
   /**
    * Check if there is subscriber that interest the data and has correct version.
    *
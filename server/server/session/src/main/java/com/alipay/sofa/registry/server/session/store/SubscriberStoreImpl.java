@@ -16,14 +16,19 @@
  */
 package com.alipay.sofa.registry.server.session.store;
 
+import com.alipay.sofa.registry.common.model.ConnectId;
 import com.alipay.sofa.registry.common.model.dataserver.DatumVersion;
 import com.alipay.sofa.registry.common.model.store.Subscriber;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
 import com.alipay.sofa.registry.server.session.registry.SessionRegistry;
 import com.alipay.sofa.registry.server.session.store.engine.SimpleMemoryStoreEngine;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +40,14 @@ public class SubscriberStoreImpl extends AbstractClientStore<Subscriber>
 
   private final SessionServerConfig sessionServerConfig;
 
+  // for incremental scan, the dataInfoIds which subscribers has changed since last scan
+  private final Set<String> dirtyDataInfoIds = Sets.newConcurrentHashSet();
+
+  // for incremental scan, dataInfoId -> dataCenter -> max pushed version
+  private final Map<String, Map<String, DatumVersion>> scanVersions = Maps.newHashMap();
+
+  private Set<String> scanDataCenters = Collections.emptySet();
+
   public SubscriberStoreImpl(SessionServerConfig sessionServerConfig) {
     super(new SimpleMemoryStoreEngine<>(1024 * 16));
     this.sessionServerConfig = sessionServerConfig;
@@ -45,8 +58,75 @@ public class SubscriberStoreImpl extends AbstractClientStore<Subscriber>
     return storeEngine.filter(group, limit);
   }
 
+  @Override
+  public boolean add(Subscriber storeData) {
+    boolean added = super.add(storeData);
+    markDirty(storeData.getDataInfoId());
+    return added;
+  }
+
+  @Override
+  public Subscriber delete(String dataInfoId, String registerId) {
+    Subscriber deleted = super.delete(dataInfoId, registerId);
+    markDirty(dataInfoId);
+    return deleted;
+  }
+
+  @Override
+  public Collection<Subscriber> delete(ConnectId connectId) {
+    Collection<Subscriber> deleted = super.delete(connectId);
+    for (Subscriber subscriber : deleted) {
+      markDirty(subscriber.getDataInfoId());
+    }
+    return deleted;
+  }
+
+  @Override
+  public void markDirty(String dataInfoId) {
+    if (sessionServerConfig.isScanSubscriberIncrementalEnable()) {
+      dirtyDataInfoIds.add(dataInfoId);
+    }
+  }
+
   @Override
   public SessionRegistry.SelectSubscriber selectSubscribers(Set<String> dataCenters) {
+    synchronized (this) {
+      // the incremental scan is disabled, drop the versions, it would be rebuilt when enabled
+      scanDataCenters = Collections.emptySet();
+      scanVersions.clear();
+      dirtyDataInfoIds.clear();
+    }
+    return doSelectSubscribers(dataCenters, getNonEmptyDataInfoId(), null);
+  }
+
+  @Override
+  public synchronized SessionRegistry.SelectSubscriber selectSubscribers(
+      Set<String> dataCenters, boolean fullSweep) {
+    Collection<String> dataInfoIds;
+    if (fullSweep || !scanDataCenters.equals(dataCenters)) {
+      // clear before select, the dataInfoIds marked after clear would be selected in next round
+      dirtyDataInfoIds.clear();
+      scanVersions.clear();
+      scanDataCenters = Sets.newHashSet(dataCenters);
+      dataInfoIds = getNonEmptyDataInfoId();
+    } else {
+      dataInfoIds = Lists.newArrayListWithCapacity(dirtyDataInfoIds.size());
+      for (Iterator<String> it = dirtyDataInfoIds.iterator(); it.hasNext(); ) {
+        dataInfoIds.add(it.next());
+        it.remove();
+      }
+    }
+    return doSelectSubscribers(dataCenters, dataInfoIds, scanVersions);
+  }
+
+  /**
+   * @param cachedVersions not null means incremental, the versions of the selected dataInfoIds is
+   *     updated to it, and the result contains the versions of all cached dataInfoIds
+   */
+  private SessionRegistry.SelectSubscriber doSelectSubscribers(
+      Set<String> dataCenters,
+      Collection<String> dataInfoIds,
+      Map<String, Map<String, DatumVersion>> cachedVersions) {
     final String localDataCenter = sessionServerConfig.getSessionServerDataCenter();
 
     final Map<String, Map<String, DatumVersion>> versions = new HashMap<>();
@@ -58,21 +138,23 @@ public class SubscriberStoreImpl extends AbstractClientStore<Subscriber>
       toPushEmptySubscribers.put(dataCenter, Lists.newArrayListWithCapacity(256));
     }
 
-    Collection<String> dataInfoIdCollection = getNonEmptyDataInfoId();
-    if (dataInfoIdCollection == null || dataInfoIdCollection.isEmpty()) {
-      return new SessionRegistry.SelectSubscriber(
-          versions, toPushEmptySubscribers, toRegisterMultiSubscribers);
+    if (dataInfoIds == null) {
+      dataInfoIds = Collections.emptyList();
     }
 
-    for (String dataInfoId : dataInfoIdCollection) {
+    for (String dataInfoId : dataInfoIds) {
       Collection<Subscriber> subscribers = getByDataInfoId(dataInfoId);
       if (CollectionUtils.isEmpty(subscribers)) {
+        if (cachedVersions != null) {
+          cachedVersions.remove(dataInfoId);
+        }
         continue;
       }
-
+      boolean pending = false;
       for (Subscriber sub : subscribers) {
         if (!sub.hasPushed()) {
           toRegisterMultiSubscribers.add(sub);
+          pending = true;
           continue;
         }
         for (String dataCenter : dataCenters) {
@@ -88,6 +170,7 @@ public class SubscriberStoreImpl extends AbstractClientStore<Subscriber>
           if (sub.isMarkedPushEmpty(dataCenter)) {
             if (sub.needPushEmpty(dataCenter)) {
               pushEmpty.add(sub);
+              pending = true;
             }
             continue;
           }
@@ -98,11 +181,43 @@ public class SubscriberStoreImpl extends AbstractClientStore<Subscriber>
           }
         }
       }
+      if (cachedVersions != null) {
+        updateCachedVersions(cachedVersions, dataInfoId, versions);
+        if (pending) {
+          // the register or push empty has not finished, check it in next round
+          dirtyDataInfoIds.add(dataInfoId);
+        }
+      }
+    }
+    if (cachedVersions != null) {
+      for (Map.Entry<String, Map<String, DatumVersion>> e : cachedVersions.entrySet()) {
+        for (Map.Entry<String, DatumVersion> dataCenterVersion : e.getValue().entrySet()) {
+          versions.get(dataCenterVersion.getKey()).put(e.getKey(), dataCenterVersion.getValue());
+        }
+      }
     }
     return new SessionRegistry.SelectSubscriber(
         versions, toPushEmptySubscribers, toRegisterMultiSubscribers);
   }
 
+  private static void updateCachedVersions(
+      Map<String, Map<String, DatumVersion>> cachedVersions,
+      String dataInfoId,
+      Map<String, Map<String, DatumVersion>> versions) {
+    Map<String, DatumVersion> dataCenterVersions = Maps.newHashMapWithExpectedSize(2);
+    for (Map.Entry<String, Map<String, DatumVersion>> e : versions.entrySet()) {
+      DatumVersion v = e.getValue().get(dataInfoId);
+      if (v != null) {
+        dataCenterVersions.put(e.getKey(), v);
+      }
+    }
+    if (dataCenterVersions.isEmpty()) {
+      cachedVersions.remove(dataInfoId);
+    } else {
+      cachedVersions.put(dataInfoId, dataCenterVersions);
+    }
+  }
+
   @Override
   public InterestVersionCheck checkInterestVersion(
       String dataCenter, String datumDataInfoId, long version) {
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.registry.server.session.store.engine;
 
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.DataInfo;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import com.alipay.sofa.registry.server.session.store.ClientsGroup;
@@ -25,7 +26,6 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import javafx.util.Pair;
 
 /** StoreEngine implemented based on HashMap. */
 public class SimpleMemoryStoreEngine<T extends StoreData<String>> implements StoreEngine<T> {
@@ -37,7 +37,7 @@ public class SimpleMemoryStoreEngine<T extends StoreData<String>> implements Sto
   }
 
   @Override
-  public Pair<Boolean, T> putIfAbsent(T storeData) {
+  public Tuple<Boolean, T> putIfAbsent(T storeData) {
     String dataInfoId = storeData.getDataInfoId();
     ClientsGroup<T> clientsGroup =
         groups.computeIfAbsent(dataInfoId, s -> new ClientsGroup<>(dataInfoId, 128));
@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.registry.server.session.store.engine;
 
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import java.util.Collection;
 import java.util.Collections;
@@ -24,7 +25,6 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import javafx.util.Pair;
 
 /**
  * Combine a series of SimpleMemoryStoreEngine and map and store StoreData according to a certain
@@ -46,7 +46,7 @@ public class SlotMemoryStoreEngine<T extends StoreData<String>> implements SlotS
   }
 
   @Override
-  public Pair<Boolean, T> putIfAbsent(T storeData) {
+  public Tuple<Boolean, T> putIfAbsent(T storeData) {
     SimpleMemoryStoreEngine<T> storeEngine = getOrCreateStore(storeData.getDataInfoId());
     return storeEngine.putIfAbsent(storeData);
   }
@@ -16,10 +16,10 @@
  */
 package com.alipay.sofa.registry.server.session.store.engine;
 
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.StoreData;
 import java.util.Collection;
 import java.util.Map;
-import javafx.util.Pair;
 
 /** Engine for storing StoreData. */
 public interface StoreEngine<T extends StoreData<String>> {
@@ -38,7 +38,7 @@ public interface StoreEngine<T extends StoreData<String>> {
    * @param storeData new value
    * @return whether the put operation is successful and the previous value
    */
-  Pair<Boolean, T> putIfAbsent(T storeData);
+  Tuple<Boolean, T> putIfAbsent(T storeData);
 
   /**
    * Returns the value to which the specified key is mapped, or null if this map contains no mapping
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.cache;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+
+import com.alipay.sofa.registry.common.model.store.DataInfo;
+import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
+import com.alipay.sofa.registry.server.session.TestUtils;
+import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfigBean;
+import com.alipay.sofa.registry.server.session.node.service.DataNodeService;
+import com.alipay.sofa.registry.server.session.slot.SlotTableCache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class DatumFetchBatcherTest {
+  private static final Set<String> DATA_CENTERS = Collections.singleton("testDc");
+
+  private DatumFetchBatcher batcher;
+  private SessionServerConfigBean config;
+
+  @Before
+  public void before() {
+    batcher = new DatumFetchBatcher();
+    config = TestUtils.newSessionConfig("testDc");
+    config.setDataNodeFetchBatchEnable(true);
+    config.setDataNodeFetchBatchWindowMillis(200);
+    config.setDataNodeFetchBatchMaxSize(4);
+    batcher.sessionServerConfig = config;
+    batcher.slotTableCache = Mockito.mock(SlotTableCache.class);
+    Mockito.when(batcher.slotTableCache.slotOf(anyString())).thenReturn(1);
+    batcher.dataNodeService = Mockito.mock(DataNodeService.class);
+    Mockito.when(batcher.dataNodeService.fetch(anyString(), anySetOf(String.class)))
+        .thenAnswer(invocation -> datum(invocation.getArgumentAt(0, String.class)));
+  }
+
+  @Test
+  public void testDisable() {
+    config.setDataNodeFetchBatchEnable(false);
+    Assert.assertEquals("a", dataIdOf(batcher.fetch("a", DATA_CENTERS)));
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1)).fetch("a", DATA_CENTERS);
+    Assert.assertEquals(0, batcher.pendingSize());
+  }
+
+  @Test
+  public void testSingle() {
+    config.setDataNodeFetchBatchWindowMillis(1);
+    Assert.assertEquals("a", dataIdOf(batcher.fetch("a", DATA_CENTERS)));
+    // one dataInfoId in the batch, fetch as before
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1)).fetch("a", DATA_CENTERS);
+    Mockito.verify(batcher.dataNodeService, Mockito.times(0))
+        .fetch(anyInt(), anyListOf(String.class), anySetOf(String.class));
+    Assert.assertEquals(0, batcher.pendingSize());
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    Mockito.when(
+            batcher.dataNodeService.fetch(
+                anyInt(), anyListOf(String.class), anySetOf(String.class)))
+        .thenAnswer(
+            invocation -> {
+              List<String> dataInfoIds = invocation.getArgumentAt(1, List.class);
+              Map<String, MultiSubDatum> datums = Maps.newHashMap();
+              for (String dataInfoId : dataInfoIds) {
+                // c failed in the batch, d not exist
+                if (dataInfoId.equals("c")) {
+                  continue;
+                }
+                datums.put(dataInfoId, dataInfoId.equals("d") ? null : datum(dataInfoId));
+              }
+              return datums;
+            });
+    // the same dataInfoId share one fetch
+    config.setDataNodeFetchBatchMaxSize(10);
+    List<String> dataInfoIds = Lists.newArrayList("a", "b", "a", "c", "d");
+    List<Future<MultiSubDatum>> futures = fetchConcurrently(dataInfoIds);
+    for (int i = 0; i < dataInfoIds.size(); i++) {
+      final MultiSubDatum datum = futures.get(i).get();
+      if (dataInfoIds.get(i).equals("d")) {
+        Assert.assertNull(datum);
+      } else {
+        Assert.assertEquals(dataInfoIds.get(i), dataIdOf(datum));
+      }
+    }
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1))
+        .fetch(Mockito.eq(1), captor.capture(), Mockito.eq(DATA_CENTERS));
+    Assert.assertEquals(Sets.newHashSet("a", "b", "c", "d"), Sets.newHashSet(captor.getValue()));
+    // the failed one is fetched by one
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1)).fetch("c", DATA_CENTERS);
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1))
+        .fetch(anyString(), anySetOf(String.class));
+    Assert.assertEquals(0, batcher.pendingSize());
+  }
+
+  @Test
+  public void testBatchFull() throws Exception {
+    // the batch is fetched once full, not wait the window
+    config.setDataNodeFetchBatchWindowMillis(10000);
+    config.setDataNodeFetchBatchMaxSize(2);
+    Mockito.when(
+            batcher.dataNodeService.fetch(
+                anyInt(), anyListOf(String.class), anySetOf(String.class)))
+        .thenAnswer(
+            invocation -> {
+              Map<String, MultiSubDatum> datums = Maps.newHashMap();
+              for (Object dataInfoId : invocation.getArgumentAt(1, List.class)) {
+                datums.put((String) dataInfoId, datum((String) dataInfoId));
+              }
+              return datums;
+            });
+    final long start = System.currentTimeMillis();
+    List<Future<MultiSubDatum>> futures = fetchConcurrently(Lists.newArrayList("a", "b"));
+    Assert.assertEquals("a", dataIdOf(futures.get(0).get()));
+    Assert.assertEquals("b", dataIdOf(futures.get(1).get()));
+    Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    Assert.assertEquals(0, batcher.pendingSize());
+  }
+
+  @Test
+  public void testBatchFail() throws Exception {
+    Mockito.when(batcher.slotTableCache.getLeader(anyString(), anyInt())).thenReturn("leader");
+    Mockito.when(
+            batcher.dataNodeService.fetch(
+                anyInt(), anyListOf(String.class), anySetOf(String.class)))
+        .thenThrow(new RuntimeException("unsupported"));
+    Mockito.doThrow(new IllegalStateException("b"))
+        .when(batcher.dataNodeService)
+        .fetch(Mockito.eq("b"), anySetOf(String.class));
+    List<Future<MultiSubDatum>> futures = fetchConcurrently(Lists.newArrayList("a", "b"));
+    Assert.assertEquals("a", dataIdOf(futures.get(0).get()));
+    try {
+      futures.get(1).get();
+      Assert.fail();
+    } catch (Exception e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    // each caller fetches by itself
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1)).fetch("a", DATA_CENTERS);
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1)).fetch("b", DATA_CENTERS);
+
+    // the data node failed the batch, not batch for a while
+    futures = fetchConcurrently(Lists.newArrayList("a", "c"));
+    Assert.assertEquals("a", dataIdOf(futures.get(0).get()));
+    Assert.assertEquals("c", dataIdOf(futures.get(1).get()));
+    Mockito.verify(batcher.dataNodeService, Mockito.times(1))
+        .fetch(anyInt(), anyListOf(String.class), anySetOf(String.class));
+    Assert.assertEquals(0, batcher.pendingSize());
+  }
+
+  private List<Future<MultiSubDatum>> fetchConcurrently(List<String> dataInfoIds) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(dataInfoIds.size());
+    CountDownLatch latch = new CountDownLatch(1);
+    List<Future<MultiSubDatum>> futures = Lists.newArrayList();
+    for (String dataInfoId : dataInfoIds) {
+      futures.add(
+          executor.submit(
+              () -> {
+                latch.await();
+                return batcher.fetch(dataInfoId, Sets.newHashSet(DATA_CENTERS));
+              }));
+    }
+    latch.countDown();
+    executor.shutdown();
+    return futures;
+  }
+
+  private static MultiSubDatum datum(String dataId) {
+    return new MultiSubDatum(
+        DataInfo.toDataInfoId(dataId, "instance", "group"), Collections.emptyMap());
+  }
+
+  private static String dataIdOf(MultiSubDatum datum) {
+    return DataInfo.valueOf(datum.getDataInfoId()).getDataId();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.limit;
+
+import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfigBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccessLimitServiceImplTest {
+
+  private static SessionServerConfigBean newConfig() {
+    SessionServerConfigBean config = new SessionServerConfigBean(null);
+    config.setAccessLimitRate(100);
+    config.setAccessLimitFairEnable(true);
+    config.setAccessLimitClientIpRatio(0.1);
+    config.setAccessLimitAppRatio(0.3);
+    return config;
+  }
+
+  // the global bucket starts empty, it is full after one second
+  private static long fullGlobalNanos() {
+    return System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+  }
+
+  @Test
+  public void testClientIpLimit() {
+    AccessLimitServiceImpl service = new AccessLimitServiceImpl(newConfig());
+    final long now = fullGlobalNanos();
+    // ip rate is 10, the noisy ip is throttled
+    int acquired = 0;
+    for (int i = 0; i < 100; i++) {
+      AccessLimitType type = service.tryAcquire("1.1.1.1", "app" + i, now);
+      if (type == null) {
+        acquired++;
+      } else {
+        Assert.assertEquals(AccessLimitType.CLIENT_IP, type);
+      }
+    }
+    Assert.assertTrue(acquired <= 11);
+    // other ip is not affected
+    Assert.assertNull(service.tryAcquire("2.2.2.2", "app", now));
+  }
+
+  @Test
+  public void testAppLimit() {
+    SessionServerConfigBean config = newConfig();
+    config.setAccessLimitAppWeights("weightApp:2; noLimitApp:0");
+    AccessLimitServiceImpl service = new AccessLimitServiceImpl(config);
+    final long now = fullGlobalNanos();
+    // app rate is 30
+    int acquired = 0;
+    for (int i = 0; i < 60; i++) {
+      AccessLimitType type = service.tryAcquire("1.1.1." + i, "app", now);
+      if (type == null) {
+        acquired++;
+      } else {
+        Assert.assertEquals(AccessLimitType.APP, type);
+      }
+    }
+    Assert.assertTrue(acquired <= 31);
+    Assert.assertTrue(acquired >= 29);
+
+    // weighted app rate is 60
+    acquired = 0;
+    for (int i = 0; i < 60; i++) {
+      if (service.tryAcquire("2.2.2." + i, "weightApp", now) == null) {
+        acquired++;
+      }
+    }
+    Assert.assertTrue(acquired >= 40);
+  }
+
+  @Test
+  public void testGlobalLimit() {
+    SessionServerConfigBean config = newConfig();
+    config.setAccessLimitFairEnable(false);
+    AccessLimitServiceImpl service = new AccessLimitServiceImpl(config);
+    final long now = fullGlobalNanos();
+    // the fair limit is disabled, only the global
+    int limited = 0;
+    for (int i = 0; i < 300; i++) {
+      AccessLimitType type = service.tryAcquire("1.1.1.1", "app", now);
+      if (type != null) {
+        Assert.assertEquals(AccessLimitType.GLOBAL, type);
+        limited++;
+      }
+    }
+    Assert.assertTrue(limited > 0);
+  }
+
+  @Test
+  public void testRateChange() {
+    SessionServerConfigBean config = newConfig();
+    AccessLimitServiceImpl service = new AccessLimitServiceImpl(config);
+    final long now = fullGlobalNanos();
+    for (int i = 0; i < 20; i++) {
+      service.tryAcquire("1.1.1.1", null, now);
+    }
+    Assert.assertEquals(AccessLimitType.CLIENT_IP, service.tryAcquire("1.1.1.1", null, now));
+    // the bucket is rebuilt by the new rate
+    config.setAccessLimitClientIpRatio(0.2);
+    Assert.assertNull(service.tryAcquire("1.1.1.1", null, now));
+  }
+
+  @Test
+  public void testRefund() {
+    SessionServerConfigBean config = newConfig();
+    config.setAccessLimitAppWeights("smallApp:0.1");
+    AccessLimitServiceImpl service = new AccessLimitServiceImpl(config);
+    final long now = fullGlobalNanos();
+    // the app rate is 3, the rejected registers give back the permits of the ip
+    int acquired = 0;
+    for (int i = 0; i < 10; i++) {
+      AccessLimitType type = service.tryAcquire("1.1.1.1", "smallApp", now);
+      if (type == null) {
+        acquired++;
+      } else {
+        Assert.assertEquals(AccessLimitType.APP, type);
+      }
+    }
+    Assert.assertEquals(3, acquired);
+    // the ip rate is 10, 7 permits left
+    for (int i = 0; i < 7; i++) {
+      Assert.assertNull(service.tryAcquire("1.1.1.1", "app", now));
+    }
+    Assert.assertEquals(AccessLimitType.CLIENT_IP, service.tryAcquire("1.1.1.1", "app", now));
+  }
+
+  @Test
+  public void testParseAppWeights() {
+    Map<String, Double> weights =
+        AccessLimitServiceImpl.parseAppWeights(" a:2;b : 0.5;;c;d:x;e:-1;f:0 ");
+    Assert.assertEquals(3, weights.size());
+    Assert.assertEquals(2.0, weights.get("a"), 0);
+    Assert.assertEquals(0.5, weights.get("b"), 0);
+    Assert.assertEquals(0.0, weights.get("f"), 0);
+    Assert.assertTrue(AccessLimitServiceImpl.parseAppWeights("").isEmpty());
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.limit;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+  @Test
+  public void testAcquire() {
+    final long now = 1000;
+    TokenBucket bucket = new TokenBucket(10, now, true);
+    // burst of one second
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(bucket.tryAcquire(now));
+    }
+    Assert.assertFalse(bucket.tryAcquire(now));
+
+    // one permit per 100ms
+    Assert.assertFalse(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(99)));
+    Assert.assertTrue(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    Assert.assertFalse(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+
+    // idle for a long time, the bucket is full but not more than burst
+    final long later = now + TimeUnit.SECONDS.toNanos(100);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(bucket.tryAcquire(later));
+    }
+    Assert.assertFalse(bucket.tryAcquire(later));
+  }
+
+  @Test
+  public void testNegativeNanoTime() {
+    final long now = Long.MIN_VALUE + 10;
+    TokenBucket bucket = new TokenBucket(1, now, true);
+    Assert.assertTrue(bucket.tryAcquire(now));
+    Assert.assertFalse(bucket.tryAcquire(now));
+    Assert.assertTrue(bucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Test
+  public void testStartEmpty() {
+    final long now = 1000;
+    TokenBucket bucket = new TokenBucket(10, now, false);
+    // one permit at once like RateLimiter, no burst
+    Assert.assertTrue(bucket.tryAcquire(now));
+    Assert.assertFalse(bucket.tryAcquire(now));
+    Assert.assertTrue(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    Assert.assertFalse(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+
+    // filled after idle
+    final long later = now + TimeUnit.SECONDS.toNanos(2);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(bucket.tryAcquire(later));
+    }
+    Assert.assertFalse(bucket.tryAcquire(later));
+  }
+
+  @Test
+  public void testRefund() {
+    final long now = 1000;
+    TokenBucket bucket = new TokenBucket(10, now, true);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(bucket.tryAcquire(now));
+    }
+    Assert.assertFalse(bucket.tryAcquire(now));
+    bucket.refund();
+    Assert.assertTrue(bucket.tryAcquire(now));
+    Assert.assertFalse(bucket.tryAcquire(now));
+
+    // the refund of a full bucket does not exceed the burst
+    final long later = now + TimeUnit.SECONDS.toNanos(100);
+    bucket.refund();
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(bucket.tryAcquire(later));
+    }
+    Assert.assertFalse(bucket.tryAcquire(later));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalRate() {
+    new TokenBucket(0, 0, true);
+  }
+}
@@ -89,6 +89,33 @@ public class ChangeProcessorTest {
     verify(handler, times(1)).onChange(anyString(), anyObject());
   }
 
+  @Test
+  public void testExpireOrder() throws Exception {
+    ChangeProcessor.Worker worker = new ChangeProcessor.Worker(1000, 3000);
+    ChangeProcessor.ChangeHandler handler = mock(ChangeProcessor.ChangeHandler.class);
+    ChangeProcessor.ChangeKey key1 =
+        new ChangeProcessor.ChangeKey(Collections.singleton(dataCenter), dataInfoId + "1");
+    ChangeProcessor.ChangeKey key2 =
+        new ChangeProcessor.ChangeKey(Collections.singleton(dataCenter), dataInfoId + "2");
+    Assert.assertTrue(
+        worker.commitChange(
+            key1,
+            handler,
+            new TriggerPushContext(dataCenter, 1000, null, System.currentTimeMillis())));
+    // the debouncing is decreased, the later task expires first
+    worker.changeDebouncingMillis = 0;
+    Assert.assertTrue(
+        worker.commitChange(
+            key2,
+            handler,
+            new TriggerPushContext(dataCenter, 1000, null, System.currentTimeMillis())));
+    Thread.sleep(ChangeProcessor.Worker.WHEEL_TICK_MILLIS);
+    ChangeProcessor.ChangeTask task = worker.getExpire();
+    Assert.assertEquals(key2, task.key);
+    Assert.assertNull(worker.getExpire());
+    Assert.assertNotNull(worker.get(key1));
+  }
+
   @Test
   public void testInit() throws Exception {
     ChangeProcessor processor = new ChangeProcessor();
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.push;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PushClientLimiterTest {
+  private final InetSocketAddress addr = new InetSocketAddress("192.168.1.1", 1234);
+
+  @Test
+  public void testAcquire() {
+    PushClientLimiter limiter = new PushClientLimiter();
+    PushClientLimiter.Window w1 = limiter.tryAcquire(addr, 2, 1000);
+    PushClientLimiter.Window w2 = limiter.tryAcquire(addr, 2, 1000);
+    Assert.assertNotNull(w1);
+    Assert.assertSame(w1, w2);
+    Assert.assertNull(limiter.tryAcquire(addr, 2, 1000));
+    Assert.assertEquals(2, limiter.inFlightCount());
+    // other client is not affected
+    Assert.assertNotNull(limiter.tryAcquire(new InetSocketAddress("192.168.1.2", 1234), 2, 1000));
+
+    w1.release();
+    Assert.assertNotNull(limiter.tryAcquire(addr, 2, 1000));
+
+    List<PushClientLimiter.ClientStats> stats = limiter.deferredClientsThenReset();
+    Assert.assertEquals(1, stats.size());
+    Assert.assertEquals(addr, stats.get(0).addr);
+    Assert.assertEquals(1, stats.get(0).deferred);
+    Assert.assertTrue(stats.get(0).toString(), stats.get(0).toString().contains("deferred=1"));
+    Assert.assertTrue(limiter.deferredClientsThenReset().isEmpty());
+  }
+
+  @Test
+  public void testAIMD() {
+    PushClientLimiter limiter = new PushClientLimiter();
+    PushClientLimiter.Window window = limiter.tryAcquire(addr, 8, 1000);
+    Assert.assertEquals(8, window.limit(8));
+
+    // slow, multiplicative decrease
+    window.release(600, true, 500, 8);
+    Assert.assertEquals(4, window.limit(8));
+    Assert.assertEquals(600, limiter.getSmoothedSpanMillis(addr));
+    // fail, multiplicative decrease
+    limiter.tryAcquire(addr, 8, 1000);
+    window.release(100, false, 500, 8);
+    Assert.assertEquals(2, window.limit(8));
+    Assert.assertEquals(537, limiter.getSmoothedSpanMillis(addr));
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire(addr, 8, 1000);
+      window.release(1000, false, 500, 8);
+    }
+    // not less than 1
+    Assert.assertEquals(1, window.limit(8));
+
+    // fast, additive increase about 1 per round
+    limiter.tryAcquire(addr, 8, 1000);
+    window.release(10, true, 500, 8);
+    Assert.assertEquals(2, window.limit(8));
+    limiter.tryAcquire(addr, 8, 1000);
+    window.release(10, true, 500, 8);
+    Assert.assertEquals(2, window.limit(8));
+    limiter.tryAcquire(addr, 8, 1000);
+    window.release(10, true, 500, 8);
+    Assert.assertEquals(2, window.limit(8));
+    limiter.tryAcquire(addr, 8, 1000);
+    window.release(10, true, 500, 8);
+    Assert.assertEquals(3, window.limit(8));
+    for (int i = 0; i < 100; i++) {
+      limiter.tryAcquire(addr, 8, 1000);
+      window.release(10, true, 500, 8);
+    }
+    // not more than max
+    Assert.assertEquals(8, window.limit(8));
+    Assert.assertEquals(4, window.limit(4));
+    Assert.assertEquals(0, limiter.inFlightCount());
+  }
+
+  @Test
+  public void testCleanIdle() {
+    PushClientLimiter limiter = new PushClientLimiter();
+    PushClientLimiter.Window window = limiter.tryAcquire(addr, 2, 1000);
+    Assert.assertEquals(0, limiter.cleanIdle(2000, 100));
+    Assert.assertEquals(1, limiter.size());
+    window.release();
+    Assert.assertEquals(0, limiter.cleanIdle(1050, 100));
+    Assert.assertEquals(1, limiter.cleanIdle(2000, 100));
+    Assert.assertEquals(0, limiter.size());
+    Assert.assertEquals(0, limiter.getSmoothedSpanMillis(addr));
+  }
+}
@@ -19,6 +19,8 @@ package com.alipay.sofa.registry.server.session.push;
 import static org.mockito.Mockito.*;
 
 import com.alipay.sofa.registry.common.model.DataCenterPushInfo;
+import com.alipay.sofa.registry.common.model.PublishSource;
+import com.alipay.sofa.registry.common.model.ServerDataBox;
 import com.alipay.sofa.registry.common.model.client.pb.ReceivedConfigDataPb;
 import com.alipay.sofa.registry.common.model.client.pb.ReceivedDataPb;
 import com.alipay.sofa.registry.common.model.metaserver.CompressPushSwitch;
@@ -29,12 +31,14 @@ import com.alipay.sofa.registry.core.model.ReceivedConfigData;
 import com.alipay.sofa.registry.core.model.ReceivedData;
 import com.alipay.sofa.registry.core.model.ScopeEnum;
 import com.alipay.sofa.registry.server.session.TestUtils;
+import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfigBean;
 import com.alipay.sofa.registry.server.session.converter.ReceivedDataConverter;
 import com.alipay.sofa.registry.server.session.providedata.CompressPushService;
 import com.alipay.sofa.registry.server.shared.util.DatumUtils;
 import com.alipay.sofa.registry.util.DatumVersionUtil;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.assertj.core.util.Sets;
@@ -177,4 +181,144 @@ public class PushDataGeneratorTest {
     Assert.assertNotEquals(0, pushData.getPayload().getBody().size());
     Assert.assertNotEquals(0, pushData.getPayload().getOriginBodySize());
   }
+
+  @Test
+  public void testPushDataCache() {
+    PushDataGenerator generator = new PushDataGenerator();
+    generator.sessionServerConfig = TestUtils.newSessionConfig("testDc", zone);
+    generator.compressPushService = spy(new CompressPushService());
+    CompressPushSwitch compressPushSwitch = new CompressPushSwitch();
+    compressPushSwitch.setEnabled(true);
+    when(generator.compressPushService.getCompressSwitch()).thenReturn(compressPushSwitch);
+    generator.init();
+    Subscriber sub1 = TestUtils.newZonePbSubscriber(zone);
+    Subscriber sub2 = TestUtils.newZonePbSubscriber(zone);
+    sub1.internAcceptEncoding("zstd");
+    sub2.internAcceptEncoding("zstd");
+    List<SubPublisher> list = Lists.newArrayListWithExpectedSize(10000);
+    for (int i = 0; i < 10000; i++) {
+      list.add(TestUtils.newSubPublisher(10, 20, "TESTZONE"));
+    }
+    SubDatum subDatum = TestUtils.newSubDatum("testDc", "testDataId", 200, list);
+    PushData<ReceivedDataPb> pushData1 =
+        generator.createPushData(
+            MultiSubDatum.of(subDatum), Collections.singletonMap(sub1.getRegisterId(), sub1));
+    Assert.assertEquals(1, generator.pushDataCacheSize());
+
+    PushData<ReceivedDataPb> pushData2 =
+        generator.createPushData(
+            MultiSubDatum.of(subDatum), Collections.singletonMap(sub2.getRegisterId(), sub2));
+    Assert.assertEquals(1, generator.pushDataCacheSize());
+    // the body is shared, only the registerIds are different
+    Assert.assertSame(pushData1.getPayload().getBody(), pushData2.getPayload().getBody());
+    Assert.assertEquals(
+        Lists.newArrayList(sub1.getRegisterId()),
+        pushData1.getPayload().getSubscriberRegistIdsList());
+    Assert.assertEquals(
+        Lists.newArrayList(sub2.getRegisterId()),
+        pushData2.getPayload().getSubscriberRegistIdsList());
+    Assert.assertNotSame(
+        pushData1.getDataCenterPushInfo().get("testDc"),
+        pushData2.getDataCenterPushInfo().get("testDc"));
+    Assert.assertEquals(
+        pushData1.getDataCenterPushInfo().get("testDc").getEncodeSize(),
+        pushData2.getDataCenterPushInfo().get("testDc").getEncodeSize());
+
+    // new version
+    SubDatum subDatum2 = TestUtils.newSubDatum("testDc", "testDataId", 201, list);
+    generator.createPushData(
+        MultiSubDatum.of(subDatum2), Collections.singletonMap(sub2.getRegisterId(), sub2));
+    Assert.assertEquals(2, generator.pushDataCacheSize());
+
+    // not pb, not cache
+    Subscriber sub3 = TestUtils.newZoneSubscriber(zone);
+    generator.createPushData(
+        MultiSubDatum.of(subDatum2), Collections.singletonMap(sub3.getRegisterId(), sub3));
+    Assert.assertEquals(2, generator.pushDataCacheSize());
+  }
+
+  @Test
+  public void testDeltaPush() {
+    PushDataGenerator generator = new PushDataGenerator();
+    generator.sessionServerConfig = TestUtils.newSessionConfig("testDc", zone);
+    ((SessionServerConfigBean) generator.sessionServerConfig).setPushDeltaEnable(true);
+    generator.compressPushService = new CompressPushService();
+    generator.init();
+    // the client cell is the region of session
+    final String cell = generator.sessionServerConfig.getSessionServerRegion();
+
+    Subscriber sub1 = TestUtils.newZoneSubscriber(zone);
+    sub1.setAcceptDelta(true);
+    SubPublisher p1 = TestUtils.newSubPublisher(10, 20, cell);
+    SubPublisher p2 = TestUtils.newSubPublisher(10, 20, cell);
+    SubPublisher p3 = TestUtils.newSubPublisher(10, 20, cell);
+    SubDatum base =
+        TestUtils.newSubDatum("testDc", "testDataId", 200, Lists.newArrayList(p1, p2, p3));
+
+    // not pushed before, full data
+    PushData<ReceivedData> pushData =
+        generator.createPushData(
+            MultiSubDatum.of(base), Collections.singletonMap(sub1.getRegisterId(), sub1), true);
+    Assert.assertFalse(PushDataGenerator.isDeltaPush(pushData));
+    Assert.assertEquals(1, generator.deltaBaseCacheSize());
+    sub1.checkAndUpdateCtx(
+        Collections.singletonMap("testDc", 200L), Collections.singletonMap("testDc", 3));
+
+    // p2 is modified, p3 is removed and p4 is added
+    SubPublisher p2New =
+        new SubPublisher(
+            p2.getRegisterId(),
+            cell,
+            Lists.newArrayList(new ServerDataBox("testDataBoxNew")),
+            "testClient",
+            11,
+            "192.168.0.1:8888",
+            20,
+            PublishSource.CLIENT);
+    SubPublisher p4 = TestUtils.newSubPublisher(10, 20, cell);
+    SubDatum target =
+        TestUtils.newSubDatum("testDc", "testDataId", 201, Lists.newArrayList(p1, p2New, p4));
+    pushData =
+        generator.createPushData(
+            MultiSubDatum.of(target), Collections.singletonMap(sub1.getRegisterId(), sub1), true);
+    Assert.assertTrue(PushDataGenerator.isDeltaPush(pushData));
+    ReceivedData delta = pushData.getPayload();
+    Assert.assertEquals(200L, delta.getBaseVersion().longValue());
+    Assert.assertEquals(201L, delta.getVersion().longValue());
+    Assert.assertEquals(2, delta.getData().get(cell).size());
+    Assert.assertEquals(2, delta.getRemovedData().get(cell).size());
+    Assert.assertEquals(3, delta.getDataCount().get(cell).intValue());
+    Assert.assertEquals(
+        3,
+        pushData
+            .getDataCenterPushInfo()
+            .get("testDc")
+            .getSegmentPushInfos()
+            .get("testDc")
+            .getDataCount());
+    Assert.assertEquals(2, generator.deltaBaseCacheSize());
+
+    // retry, full data
+    pushData =
+        generator.createPushData(
+            MultiSubDatum.of(target), Collections.singletonMap(sub1.getRegisterId(), sub1), false);
+    Assert.assertFalse(PushDataGenerator.isDeltaPush(pushData));
+    Assert.assertEquals(3, pushData.getPayload().getData().get(cell).size());
+
+    // the subscribers have different base, full data
+    Subscriber sub2 = TestUtils.newZoneSubscriber(zone);
+    sub2.setAcceptDelta(true);
+    Map<String, Subscriber> subscriberMap = Maps.newHashMap();
+    subscriberMap.put(sub1.getRegisterId(), sub1);
+    subscriberMap.put(sub2.getRegisterId(), sub2);
+    pushData = generator.createPushData(MultiSubDatum.of(target), subscriberMap, true);
+    Assert.assertFalse(PushDataGenerator.isDeltaPush(pushData));
+
+    // delta disable
+    ((SessionServerConfigBean) generator.sessionServerConfig).setPushDeltaEnable(false);
+    pushData =
+        generator.createPushData(
+            MultiSubDatum.of(target), Collections.singletonMap(sub1.getRegisterId(), sub1), true);
+    Assert.assertFalse(PushDataGenerator.isDeltaPush(pushData));
+  }
 }
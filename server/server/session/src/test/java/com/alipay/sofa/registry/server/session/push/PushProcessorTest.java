@@ -18,14 +18,18 @@ package com.alipay.sofa.registry.server.session.push;
 
 import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.BUFFER_REPLACE_COUNTER;
 import static com.alipay.sofa.registry.server.session.push.PushMetrics.Push.BUFFER_SKIP_COUNTER;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.alipay.remoting.rpc.exception.InvokeTimeoutException;
 import com.alipay.sofa.registry.common.model.store.BaseInfo;
 import com.alipay.sofa.registry.common.model.store.MultiSubDatum;
 import com.alipay.sofa.registry.common.model.store.SubDatum;
 import com.alipay.sofa.registry.common.model.store.Subscriber;
+import com.alipay.sofa.registry.core.model.Result;
 import com.alipay.sofa.registry.net.NetUtil;
 import com.alipay.sofa.registry.remoting.ChannelOverflowException;
 import com.alipay.sofa.registry.remoting.exchange.RequestChannelClosedException;
@@ -34,6 +38,7 @@ import com.alipay.sofa.registry.server.session.TestUtils;
 import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfigBean;
 import com.alipay.sofa.registry.server.session.circuit.breaker.CircuitBreakerService;
 import com.alipay.sofa.registry.server.session.node.service.ClientNodeService;
+import com.alipay.sofa.registry.server.session.store.SubscriberStore;
 import com.alipay.sofa.registry.task.RejectedDiscardHandler;
 import com.alipay.sofa.registry.util.BackOffTimes;
 import java.util.Collections;
@@ -162,8 +167,10 @@ public class PushProcessorTest {
 
     task = worker.bufferMap.values().iterator().next();
     Assert.assertEquals(task.trace.pushCause.pushType, PushType.Sub);
-    // make task expire
-    task.expireTimestamp = System.currentTimeMillis();
+    // wait task expire
+    Thread.sleep(
+        Math.max(0, task.expireTimestamp - System.currentTimeMillis())
+            + PushTaskBuffer.WHEEL_TICK_MILLIS);
 
     Assert.assertEquals(processor.taskBuffer.watchBuffer(worker), 1);
     Assert.assertEquals(processor.taskBuffer.watchBuffer(worker), 0);
@@ -411,12 +418,80 @@ public class PushProcessorTest {
     Assert.assertEquals(100, subscriber.getPushedVersion(datum.getDataCenter()));
   }
 
+  @Test
+  public void testClientLimiter() throws Exception {
+    PushProcessor processor = newProcessor();
+    SessionServerConfigBean config = (SessionServerConfigBean) processor.sessionServerConfig;
+    config.setPushAdaptiveConcurrencyEnable(true);
+    config.setPushClientMaxInFlight(1);
+    final PushTaskBuffer.BufferWorker worker = processor.taskBuffer.workers[0];
+
+    TriggerPushContext ctx =
+        new TriggerPushContext("testDc", 100, null, System.currentTimeMillis());
+    PushCause pushCause =
+        new PushCause(
+            ctx, PushType.Reg, Collections.singletonMap(dataCenter, System.currentTimeMillis()));
+    Subscriber subscriber1 = TestUtils.newZoneSubscriber(dataId + "1", zone);
+    Subscriber subscriber2 = TestUtils.newZoneSubscriber(dataId + "2", zone);
+    processor.firePush(
+        pushCause,
+        NetUtil.getLocalSocketAddress(),
+        Collections.singletonMap(subscriber1.getRegisterId(), subscriber1),
+        MultiSubDatum.of(
+            TestUtils.newSubDatum(
+                dataCenter, subscriber1.getDataId(), 100, Collections.emptyList())));
+    PushTask task1 = worker.bufferMap.values().iterator().next();
+    worker.bufferMap.clear();
+    processor.firePush(
+        pushCause,
+        NetUtil.getLocalSocketAddress(),
+        Collections.singletonMap(subscriber2.getRegisterId(), subscriber2),
+        MultiSubDatum.of(
+            TestUtils.newSubDatum(
+                dataCenter, subscriber2.getDataId(), 100, Collections.emptyList())));
+    PushTask task2 = worker.bufferMap.values().iterator().next();
+    worker.bufferMap.clear();
+
+    Assert.assertTrue(processor.doPush(task1));
+    Assert.assertEquals(1, processor.clientLimiter.inFlightCount());
+    // the client reaches the in-flight limit, deferred without counting retry
+    Assert.assertFalse(processor.doPush(task2));
+    Assert.assertEquals(1, worker.bufferMap.size());
+    Assert.assertEquals(0, task2.retryCount);
+    Assert.assertEquals(1, task2.deferCount);
+    Assert.assertFalse(task2.noDelay());
+    Assert.assertTrue(task2.expireTimestamp > System.currentTimeMillis());
+    worker.bufferMap.clear();
+
+    // the prev of the same key is not callback, deferred
+    Assert.assertFalse(processor.doPush(task1));
+    Assert.assertEquals(1, worker.bufferMap.size());
+    Assert.assertEquals(0, task1.retryCount);
+    worker.bufferMap.clear();
+
+    processor.new PushClientCallback(task1).onCallback(null, null);
+    Assert.assertEquals(0, processor.clientLimiter.inFlightCount());
+    Assert.assertTrue(processor.doPush(task2));
+    Assert.assertEquals(1, processor.clientLimiter.inFlightCount());
+    processor.handleDoPushException(task2, new RequestChannelClosedException("test"));
+    Assert.assertEquals(0, processor.clientLimiter.inFlightCount());
+
+    // the record run too long is cleaned
+    Assert.assertTrue(processor.doPush(task2));
+    config.setClientNodeExchangeTimeoutMillis(0);
+    Thread.sleep(1);
+    Assert.assertEquals(1, processor.cleanPushingTaskRunTooLong());
+    Assert.assertEquals(0, processor.clientLimiter.inFlightCount());
+    processor.watchClientLimiter();
+  }
+
   private PushProcessor newProcessor() {
     PushProcessor processor = new PushProcessor();
     SessionServerConfigBean config = TestUtils.newSessionConfig(dataCenter);
     config.setPushTaskBufferBucketSize(1);
     processor.sessionServerConfig = config;
     processor.clientNodeService = mock(ClientNodeService.class);
+    processor.subscriberStore = mock(SubscriberStore.class);
     processor.pushSwitchService = TestUtils.newPushSwitchService(config);
 
     processor
@@ -469,6 +544,49 @@ public class PushProcessorTest {
     Assert.assertEquals(0, subscriber.getPushedVersion(datum.getDataCenter()));
   }
 
+  @Test
+  public void testDeltaRejected() throws Exception {
+    PushProcessor processor = newProcessor();
+    final PushTaskBuffer.BufferWorker worker = processor.taskBuffer.workers[0];
+    TriggerPushContext ctx =
+        new TriggerPushContext("testDc", 100, null, System.currentTimeMillis());
+    PushCause pushCause =
+        new PushCause(
+            ctx, PushType.Reg, Collections.singletonMap(dataCenter, System.currentTimeMillis()));
+    Subscriber subscriber = TestUtils.newZoneSubscriber(dataId, zone);
+    SubDatum datum =
+        TestUtils.newSubDatum(dataCenter, subscriber.getDataId(), 100, Collections.emptyList());
+
+    processor.firePush(
+        pushCause,
+        NetUtil.getLocalSocketAddress(),
+        Collections.singletonMap(subscriber.getRegisterId(), subscriber),
+        MultiSubDatum.of(datum));
+
+    PushTask task = worker.bufferMap.values().iterator().next();
+    processor.doPush(task);
+    Thread.sleep(1);
+    Assert.assertEquals(processor.pushingRecords.size(), 1);
+    task.deltaPush = true;
+    PushProcessor.PushClientCallback callback = processor.new PushClientCallback(task);
+    TestUtils.MockBlotChannel channel = TestUtils.newChannel(9600, "192.168.1.1", 1234);
+    Result result = new Result();
+    result.setSuccess(false);
+    // rejected by client, not update the pushed version
+    callback.onCallback(channel, result);
+    Assert.assertEquals(processor.pushingRecords.size(), 0);
+    Assert.assertEquals(0, subscriber.getPushedVersion(datum.getDataCenter()));
+    // not a failure, re-buffered as a full push without consuming the retry
+    Assert.assertTrue(task.forceFull);
+    Assert.assertEquals(0, task.retryCount);
+    Assert.assertTrue(worker.bufferMap.containsValue(task));
+    verify(processor.circuitBreakerService, times(0)).onPushFail(any(), any());
+
+    result.setSuccess(true);
+    callback.onCallback(channel, result);
+    Assert.assertEquals(100, subscriber.getPushedVersion(datum.getDataCenter()));
+  }
+
   @Test
   public void testClean() {
     PushProcessor processor = newProcessor();
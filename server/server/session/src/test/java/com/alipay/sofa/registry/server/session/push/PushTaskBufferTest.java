@@ -22,8 +22,10 @@ import com.alipay.sofa.registry.common.model.store.SubDatum;
 import com.alipay.sofa.registry.common.model.store.Subscriber;
 import com.alipay.sofa.registry.net.NetUtil;
 import com.alipay.sofa.registry.server.session.TestUtils;
+import com.google.common.collect.Lists;
 import java.net.InetSocketAddress;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
@@ -64,6 +66,99 @@ public class PushTaskBufferTest {
     Assert.assertTrue(buffer.buffer(task1));
   }
 
+  @Test
+  public void testLanes() {
+    PushTaskBuffer buffer = new PushTaskBuffer(1);
+    buffer.suspend();
+    PushTaskBuffer.BufferWorker worker = buffer.workers[0];
+    Subscriber sub0 = TestUtils.newZoneSubscriber("sub0", "region");
+    Assert.assertTrue(buffer.buffer(newTask(PushType.Sub, sub0, 100)));
+    for (int i = 1; i < 8; i++) {
+      Assert.assertTrue(buffer.buffer(newTask(PushType.Sub, newSubscriber("sub" + i), 100)));
+    }
+    for (int i = 0; i < 4; i++) {
+      Assert.assertTrue(buffer.buffer(newTask(PushType.Reg, newSubscriber("reg" + i), 100)));
+    }
+    for (int i = 0; i < 2; i++) {
+      Assert.assertTrue(buffer.buffer(newTask(PushType.Empty, newSubscriber("empty" + i), 100)));
+    }
+    Assert.assertEquals(8, worker.laneSize(PushTaskBuffer.Lane.CHANGE));
+    Assert.assertEquals(4, worker.laneSize(PushTaskBuffer.Lane.REG));
+    Assert.assertEquals(2, worker.laneSize(PushTaskBuffer.Lane.EMPTY));
+    // the reg lane is not empty, waiting less
+    Assert.assertEquals(PushTaskBuffer.Lane.REG.waitingMillis, worker.getWaitingMillis());
+
+    // replaced by the task of other lane with the same key
+    Assert.assertTrue(buffer.buffer(newTask(PushType.Reg, sub0, 101)));
+    Assert.assertEquals(7, worker.laneSize(PushTaskBuffer.Lane.CHANGE));
+    Assert.assertEquals(5, worker.laneSize(PushTaskBuffer.Lane.REG));
+    Assert.assertEquals(14, buffer.size());
+    Assert.assertEquals(14, worker.bufferMap.size());
+
+    // the lanes are dispatched by the quantum
+    // the replaced task is skipped
+    Assert.assertEquals(14, worker.transfer());
+    List<PushTask> pending = worker.dispatch(7);
+    Assert.assertEquals(7, pending.size());
+    Assert.assertEquals(
+        Lists.newArrayList(
+            PushType.Reg,
+            PushType.Reg,
+            PushType.Reg,
+            PushType.Reg,
+            PushType.Empty,
+            PushType.Empty,
+            PushType.Sub),
+        pushTypes(pending));
+    Assert.assertEquals(7, buffer.size());
+
+    Assert.assertEquals(0, worker.transfer());
+    pending = worker.dispatch(100);
+    Assert.assertEquals(
+        Lists.newArrayList(
+            PushType.Reg,
+            PushType.Sub,
+            PushType.Sub,
+            PushType.Sub,
+            PushType.Sub,
+            PushType.Sub,
+            PushType.Sub),
+        pushTypes(pending));
+    Assert.assertEquals(0, buffer.size());
+    for (PushTaskBuffer.Lane lane : PushTaskBuffer.Lane.values()) {
+      Assert.assertEquals(0, worker.laneSize(lane));
+    }
+    Assert.assertEquals(PushTaskBuffer.Lane.CHANGE.waitingMillis, worker.getWaitingMillis());
+  }
+
+  private static List<PushType> pushTypes(List<PushTask> tasks) {
+    List<PushType> types = Lists.newArrayList();
+    for (PushTask task : tasks) {
+      types.add(task.trace.pushCause.pushType);
+    }
+    return types;
+  }
+
+  private static Subscriber newSubscriber(String dataId) {
+    return TestUtils.newZoneSubscriber(dataId, "region");
+  }
+
+  private static MockTask newTask(PushType pushType, Subscriber subscriber, long version) {
+    SubDatum datum =
+        TestUtils.newSubDatum(subscriber.getDataId(), version, Collections.emptyList());
+    MockTask task =
+        new MockTask(
+            new PushCause(
+                null,
+                pushType,
+                Collections.singletonMap(datum.getDataCenter(), System.currentTimeMillis())),
+            NetUtil.getLocalSocketAddress(),
+            Collections.singletonMap(subscriber.getRegisterId(), subscriber),
+            datum);
+    task.expireTimestamp = 1;
+    return task;
+  }
+
   private static final class MockTask extends PushTask {
 
     MockTask(
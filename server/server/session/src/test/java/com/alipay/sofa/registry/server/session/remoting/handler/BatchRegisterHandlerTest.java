@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.registry.server.session.remoting.handler;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.alipay.sofa.registry.common.model.Node;
+import com.alipay.sofa.registry.core.model.BatchRegisterRequest;
+import com.alipay.sofa.registry.core.model.BatchRegisterResponse;
+import com.alipay.sofa.registry.core.model.ConfiguratorRegister;
+import com.alipay.sofa.registry.core.model.PublisherRegister;
+import com.alipay.sofa.registry.core.model.RegisterResponse;
+import com.alipay.sofa.registry.core.model.ScopeEnum;
+import com.alipay.sofa.registry.core.model.SubscriberRegister;
+import com.alipay.sofa.registry.remoting.ChannelHandler;
+import com.alipay.sofa.registry.server.session.TestUtils;
+import com.alipay.sofa.registry.server.session.bootstrap.ExecutorManager;
+import com.alipay.sofa.registry.server.session.strategy.PublisherHandlerStrategy;
+import com.alipay.sofa.registry.server.session.strategy.SubscriberHandlerStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchRegisterHandlerTest {
+
+  private BatchRegisterHandler newHandler() {
+    BatchRegisterHandler handler = new BatchRegisterHandler();
+    handler.executorManager = new ExecutorManager(TestUtils.newSessionConfig("testDc"));
+    Assert.assertNotNull(handler.getExecutor());
+    Assert.assertEquals(handler.interest(), BatchRegisterRequest.class);
+    Assert.assertEquals(handler.getConnectNodeType(), Node.NodeType.CLIENT);
+    Assert.assertEquals(handler.getType(), ChannelHandler.HandlerType.PROCESSER);
+    Assert.assertEquals(handler.getInvokeType(), ChannelHandler.InvokeType.SYNC);
+    handler.publisherHandlerStrategy = mock(PublisherHandlerStrategy.class);
+    handler.subscriberHandlerStrategy = mock(SubscriberHandlerStrategy.class);
+    return handler;
+  }
+
+  @Test
+  public void testHandle() {
+    BatchRegisterHandler handler = newHandler();
+    doAnswer(
+            invocation -> {
+              RegisterResponse response = (RegisterResponse) invocation.getArguments()[2];
+              response.setSuccess(true);
+              response.setVersion(10);
+              return null;
+            })
+        .when(handler.publisherHandlerStrategy)
+        .handlePublisherRegister(anyObject(), anyObject(), any());
+    doThrow(new RuntimeException("mock error"))
+        .when(handler.subscriberHandlerStrategy)
+        .handleSubscriberRegister(anyObject(), anyObject(), any());
+
+    BatchRegisterRequest request = new BatchRegisterRequest();
+    request.addRegister(publisher("pub"));
+    request.addRegister(subscriber("sub", ScopeEnum.zone));
+    SubscriberRegister multi = subscriber("multi", ScopeEnum.zone);
+    multi.setAcceptMulti(true);
+    request.addRegister(multi);
+    ConfiguratorRegister configurator = new ConfiguratorRegister();
+    configurator.setRegistId("cfg");
+    request.addRegister(configurator);
+    handler.checkParam(request);
+
+    BatchRegisterResponse response = (BatchRegisterResponse) handler.doHandle(null, request);
+    Assert.assertEquals(4, response.getResponses().size());
+    RegisterResponse pub = response.getResponses().get(0);
+    Assert.assertTrue(pub.isSuccess());
+    Assert.assertEquals(10, pub.getVersion());
+    Assert.assertEquals("pub", pub.getRegistId());
+    // each register fails on its own
+    for (int i = 1; i < 4; i++) {
+      Assert.assertFalse(response.getResponses().get(i).isSuccess());
+    }
+    Assert.assertEquals("sub", response.getResponses().get(1).getRegistId());
+    Assert.assertEquals("multi", response.getResponses().get(2).getRegistId());
+    Assert.assertEquals("cfg", response.getResponses().get(3).getRegistId());
+
+    verify(handler.publisherHandlerStrategy, times(1))
+        .handlePublisherRegister(anyObject(), anyObject(), any());
+    // the illegal scope of multi is rejected before the strategy
+    verify(handler.subscriberHandlerStrategy, times(1))
+        .handleSubscriberRegister(anyObject(), anyObject(), any());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testCheckParam() {
+    BatchRegisterRequest request = new BatchRegisterRequest();
+    request.setRegisters(null);
+    newHandler().checkParam(request);
+  }
+
+  private static PublisherRegister publisher(String registId) {
+    PublisherRegister register = new PublisherRegister();
+    register.setRegistId(registId);
+    return register;
+  }
+
+  private static SubscriberRegister subscriber(String registId, ScopeEnum scope) {
+    SubscriberRegister register = new SubscriberRegister();
+    register.setRegistId(registId);
+    register.setScope(scope.name());
+    return register;
+  }
+}
@@ -36,6 +36,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Assert;
 import org.junit.Test;
@@ -194,6 +195,54 @@ public class DataCacheTest extends BaseTest {
     Assert.assertFalse(getCachePub(publisherStore, "192.168.1.9:8000_127.0.0.1:34567"));
   }
 
+  @Test
+  public void testDelRemoveIndex() {
+    SlotTableCache slotTableCache = mock(SlotTableCache.class);
+    PublisherStore publisherStore = new PublisherStoreImpl(slotTableCache);
+    doReturn(0).when(slotTableCache).slotOf(anyString());
+    String dataId = "dataid";
+    ConnectId connectId = ConnectId.parse("192.168.1.2:9000_127.0.0.1:34567");
+    ConnectId otherConnectId = ConnectId.parse("192.168.1.9:8000_127.0.0.1:34567");
+    for (int i = 0; i < 10; i++) {
+      publisherStore.add(getPub(dataId, null, null));
+    }
+    publisherStore.add(getPub(dataId, "XXXX", new URL("192.168.1.9", 8000)));
+    Assert.assertEquals(2, publisherStore.getAllConnectId().size());
+
+    // delete by registerId, the key is removed after the last pub deleted
+    publisherStore.delete(DataInfo.toDataInfoId(dataId, "instance2", "rpc"), "XXXX");
+    Assert.assertFalse(publisherStore.getAllConnectId().contains(otherConnectId));
+
+    // delete by connectId
+    Assert.assertEquals(10, publisherStore.delete(connectId).size());
+    Assert.assertTrue(publisherStore.getAllConnectId().isEmpty());
+    Assert.assertTrue(publisherStore.getByConnectId(connectId).isEmpty());
+  }
+
+  @Test
+  public void testAddRaceDeleteByConnectId() {
+    SlotTableCache slotTableCache = mock(SlotTableCache.class);
+    PublisherStore publisherStore = new PublisherStoreImpl(slotTableCache);
+    ConnectId connectId = ConnectId.parse("192.168.1.2:9000_127.0.0.1:34567");
+    AtomicBoolean deleted = new AtomicBoolean();
+    // the slotOf is called before the put, delete the connectId between the index and the put
+    doAnswer(
+            invocation -> {
+              if (deleted.compareAndSet(false, true)) {
+                Assert.assertTrue(publisherStore.delete(connectId).isEmpty());
+              }
+              return 0;
+            })
+        .when(slotTableCache)
+        .slotOf(anyString());
+    Publisher publisher = getPub("dataid", null, null);
+    Assert.assertTrue(publisherStore.add(publisher));
+    Assert.assertTrue(deleted.get());
+    Assert.assertEquals(publisher, publisherStore.getByConnectId(connectId).iterator().next());
+    Assert.assertEquals(1, publisherStore.delete(connectId).size());
+    Assert.assertTrue(publisherStore.getAllConnectId().isEmpty());
+  }
+
   private boolean getCachePub(PublisherStore publisherStore, String connectId) {
     Collection<Publisher> publishers = publisherStore.getByConnectId(ConnectId.parse(connectId));
     return publishers != null && !publishers.isEmpty();
@@ -25,6 +25,7 @@ import com.alipay.sofa.registry.server.session.bootstrap.SessionServerConfig;
 import com.alipay.sofa.registry.server.session.registry.SessionRegistry;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -157,4 +158,61 @@ public class SubscriberStoreTest {
     check = subscriberStore.checkInterestVersion("localDataCenter", dataInfoId, 0);
     Assert.assertEquals(SubscriberStore.InterestVersionCheck.Interested, check);
   }
+
+  @Test
+  public void testSelectSubscribersIncremental() {
+    final String dataCenter = "localDataCenter";
+    SessionServerConfig sessionServerConfig = Mockito.mock(SessionServerConfig.class);
+    Mockito.when(sessionServerConfig.getSessionServerDataCenter()).thenReturn(dataCenter);
+    Mockito.when(sessionServerConfig.isScanSubscriberIncrementalEnable()).thenReturn(true);
+    SubscriberStoreImpl subscriberStore = new SubscriberStoreImpl(sessionServerConfig);
+    Set<String> dataCenters = Collections.singleton(dataCenter);
+
+    Subscriber subscriber = newSubscriber("dataInfoId", "registerId");
+    subscriber.checkAndUpdateCtx(
+        Collections.singletonMap(dataCenter, 100L), Collections.singletonMap(dataCenter, 1));
+    subscriberStore.add(subscriber);
+
+    SessionRegistry.SelectSubscriber result = subscriberStore.selectSubscribers(dataCenters, true);
+    Assert.assertEquals(100, result.getVersions().get(dataCenter).get("dataInfoId").getValue());
+
+    // not marked, use the versions of last select
+    subscriber.checkAndUpdateCtx(
+        Collections.singletonMap(dataCenter, 200L), Collections.singletonMap(dataCenter, 1));
+    result = subscriberStore.selectSubscribers(dataCenters, false);
+    Assert.assertEquals(100, result.getVersions().get(dataCenter).get("dataInfoId").getValue());
+
+    subscriberStore.markDirty("dataInfoId");
+    result = subscriberStore.selectSubscribers(dataCenters, false);
+    Assert.assertEquals(200, result.getVersions().get(dataCenter).get("dataInfoId").getValue());
+
+    // not pushed, select until pushed
+    Subscriber subscriber00 = newSubscriber("dataInfoId00", "registerId00");
+    subscriberStore.add(subscriber00);
+    result = subscriberStore.selectSubscribers(dataCenters, false);
+    Assert.assertEquals(result.getToRegisterMulti(), Collections.singletonList(subscriber00));
+    result = subscriberStore.selectSubscribers(dataCenters, false);
+    Assert.assertEquals(result.getToRegisterMulti(), Collections.singletonList(subscriber00));
+    Assert.assertEquals(1, result.getVersions().get(dataCenter).size());
+
+    subscriberStore.delete("dataInfoId", "registerId");
+    result = subscriberStore.selectSubscribers(dataCenters, false);
+    Assert.assertTrue(result.getVersions().get(dataCenter).isEmpty());
+
+    // the full select drops the versions of incremental
+    result = subscriberStore.selectSubscribers(dataCenters);
+    Assert.assertEquals(result.getToRegisterMulti(), Collections.singletonList(subscriber00));
+  }
+
+  private static Subscriber newSubscriber(String dataInfoId, String registerId) {
+    Subscriber subscriber = new Subscriber();
+    subscriber.setDataInfoId(dataInfoId);
+    subscriber.setRegisterId(registerId);
+    subscriber.setScope(ScopeEnum.global);
+    subscriber.setVersion(1L);
+    subscriber.setClientRegisterTimestamp(System.currentTimeMillis());
+    subscriber.setSourceAddress(new URL("192.168.1.2", 9000));
+    subscriber.setTargetAddress(new URL("127.0.0.1", 34567));
+    return subscriber;
+  }
 }
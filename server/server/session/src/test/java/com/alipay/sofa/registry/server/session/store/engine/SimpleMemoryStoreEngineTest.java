@@ -16,9 +16,9 @@
  */
 package com.alipay.sofa.registry.server.session.store.engine;
 
+import com.alipay.sofa.registry.common.model.Tuple;
 import com.alipay.sofa.registry.common.model.store.Watcher;
 import java.util.Collection;
-import javafx.util.Pair;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -40,13 +40,13 @@ public class SimpleMemoryStoreEngineTest {
     watcher.setRegisterId(registerId);
     watcher.setVersion(1L);
     watcher.setClientRegisterTimestamp(time);
-    Pair<Boolean, Watcher> pair = storeEngine.putIfAbsent(watcher);
-    Assert.assertTrue(pair.getKey());
-    Assert.assertNull(pair.getValue());
+    Tuple<Boolean, Watcher> pair = storeEngine.putIfAbsent(watcher);
+    Assert.assertTrue(pair.o1);
+    Assert.assertNull(pair.o2);
     // 重复添加，且版本相同的情况则添加失败，返回的Watcher是已经存在的Watcher
     pair = storeEngine.putIfAbsent(watcher);
-    Assert.assertFalse(pair.getKey());
-    Assert.assertEquals(watcher, pair.getValue());
+    Assert.assertFalse(pair.o1);
+    Assert.assertEquals(watcher, pair.o2);
     // 重复添加，提升版本好，能添加成功
     Watcher watcher1 = new Watcher();
     watcher1.setDataInfoId(dataInfoId);
@@ -54,8 +54,8 @@ public class SimpleMemoryStoreEngineTest {
     watcher1.setVersion(2L);
     watcher1.setClientRegisterTimestamp(time);
     pair = storeEngine.putIfAbsent(watcher1);
-    Assert.assertTrue(pair.getKey());
-    Assert.assertEquals(watcher, pair.getValue());
+    Assert.assertTrue(pair.o1);
+    Assert.assertEquals(watcher, pair.o2);
 
     // get出来是最新添加的Watcher
     Watcher watcher2 = storeEngine.get(dataInfoId, registerId);
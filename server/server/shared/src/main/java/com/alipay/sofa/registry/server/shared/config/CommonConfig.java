@@ -46,6 +46,10 @@ public class CommonConfig {
   @Value("#{PropertySplitter.list('${nodes.localSegmentRegions:}')}")
   private Set<String> localSegmentRegions;
 
+  /** request the conditional heartbeat response, the meta omits the unchanged parts */
+  @Value("${nodes.heartbeat.conditional.enable:false}")
+  private volatile boolean heartbeatConditionalEnable;
+
   /**
    * Getter method for property <tt>metaNode</tt>.
    *
@@ -91,6 +95,24 @@ public class CommonConfig {
     return localRegion;
   }
 
+  /**
+   * Getter method for property <tt>heartbeatConditionalEnable</tt>.
+   *
+   * @return property value of heartbeatConditionalEnable
+   */
+  public boolean isHeartbeatConditionalEnable() {
+    return heartbeatConditionalEnable;
+  }
+
+  /**
+   * Setter method for property <tt>heartbeatConditionalEnable</tt>.
+   *
+   * @param heartbeatConditionalEnable value to be assigned to property heartbeatConditionalEnable
+   */
+  public void setHeartbeatConditionalEnable(boolean heartbeatConditionalEnable) {
+    this.heartbeatConditionalEnable = heartbeatConditionalEnable;
+  }
+
   @Override
   public String toString() {
     return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
@@ -66,6 +66,8 @@ public abstract class AbstractMetaServerService<T extends BaseHeartBeatResponse>
   final Renewer renewer = new Renewer();
   private Thread renewerThread;
   final AtomicInteger renewFailCounter = new AtomicInteger(0);
+  // the last applied response, the base of the conditional heartbeat
+  volatile BaseHeartBeatResponse lastHeartbeatResponse;
   static final int MAX_RENEW_FAIL_COUNT = 3;
 
   @Override
@@ -146,12 +148,13 @@ public abstract class AbstractMetaServerService<T extends BaseHeartBeatResponse>
     boolean success = true;
     try {
       HeartbeatRequest heartbeatRequest = createRequest();
+      fillConditional(heartbeatRequest);
       GenericResponse<T> resp =
           (GenericResponse<T>)
               metaLeaderExchanger
                   .sendRequest(commonConfig.getLocalDataCenter(), heartbeatRequest)
                   .getResult();
-      handleHeartbeatResponse(resp);
+      handleHeartbeatResponse(heartbeatRequest, resp);
 
       success = true;
     } catch (Throwable e) {
@@ -179,13 +182,30 @@ public abstract class AbstractMetaServerService<T extends BaseHeartBeatResponse>
     return false;
   }
 
+  void fillConditional(HeartbeatRequest heartbeatRequest) {
+    final BaseHeartBeatResponse last = lastHeartbeatResponse;
+    if (heartbeatRequest == null || last == null || !commonConfig.isHeartbeatConditionalEnable()) {
+      return;
+    }
+    heartbeatRequest.setConditional(
+        last.getMetaServerEpoch(), last.getSessionServerEpoch(), last.getSessionNodesDigest());
+  }
+
   void handleHeartbeatResponse(GenericResponse<T> resp) {
+    handleHeartbeatResponse(null, resp);
+  }
+
+  void handleHeartbeatResponse(HeartbeatRequest heartbeatRequest, GenericResponse<T> resp) {
     if (resp == null) {
       throw new RuntimeException("renew node to metaServer error : resp is null");
     }
     String localDataCenter = commonConfig.getLocalDataCenter();
     if (resp.isSuccess()) {
+      if (heartbeatRequest != null && heartbeatRequest.isConditional()) {
+        fillOmitted(heartbeatRequest, resp.getData());
+      }
       updateState(resp.getData());
+      lastHeartbeatResponse = resp.getData();
       BaseHeartBeatResponse data = resp.getData();
       metaLeaderExchanger.learn(
           localDataCenter, new LeaderInfo(data.getMetaLeaderEpoch(), data.getMetaLeader()));
@@ -217,6 +237,16 @@ public abstract class AbstractMetaServerService<T extends BaseHeartBeatResponse>
     }
   }
 
+  private void fillOmitted(HeartbeatRequest heartbeatRequest, T response) {
+    try {
+      response.fillOmitted(heartbeatRequest.getSlotTable(), lastHeartbeatResponse);
+    } catch (Throwable e) {
+      // the base is missing, request the full response next time
+      lastHeartbeatResponse = null;
+      throw new RuntimeException("fill the conditional heartbeat response error", e);
+    }
+  }
+
   void handleHeartbeatFailed(String leaderIp, Throwable e) {
     renewFailCounter.incrementAndGet();
     RENEWER_LOGGER.error(
@@ -31,9 +31,13 @@ import com.alipay.sofa.registry.common.model.metaserver.ProvideData;
 import com.alipay.sofa.registry.common.model.metaserver.cluster.VersionedList;
 import com.alipay.sofa.registry.common.model.metaserver.inter.heartbeat.BaseHeartBeatResponse;
 import com.alipay.sofa.registry.common.model.metaserver.inter.heartbeat.HeartbeatRequest;
+import com.alipay.sofa.registry.common.model.metaserver.nodes.DataNode;
 import com.alipay.sofa.registry.common.model.metaserver.nodes.MetaNode;
 import com.alipay.sofa.registry.common.model.metaserver.nodes.SessionNode;
+import com.alipay.sofa.registry.common.model.slot.Slot;
+import com.alipay.sofa.registry.common.model.slot.SlotConfig;
 import com.alipay.sofa.registry.common.model.slot.SlotTable;
+import com.alipay.sofa.registry.common.model.slot.SlotTableDelta;
 import com.alipay.sofa.registry.common.model.store.URL;
 import com.alipay.sofa.registry.remoting.exchange.message.Response;
 import com.alipay.sofa.registry.server.shared.TestUtils;
@@ -283,6 +287,102 @@ public class MetaServerServiceTest {
     Assert.assertTrue(zones.contains("192.168.1.2"));
   }
 
+  @Test
+  public void testConditionalHeartbeat() {
+    MockServerService mockServerService = new MockServerService();
+    MetaLeaderExchanger metaLeaderExchanger = mock(MetaLeaderExchanger.class);
+    mockServerService.setMetaLeaderExchanger(metaLeaderExchanger).setCommonConfig(commonConfig);
+    when(commonConfig.isHeartbeatConditionalEnable()).thenReturn(true);
+
+    // no base, not conditional
+    HeartbeatRequest request = newHeartbeatRequest(SlotTable.INIT);
+    mockServerService.fillConditional(request);
+    Assert.assertFalse(request.isConditional());
+
+    VersionedList<SessionNode> sessionNodes =
+        new VersionedList(
+            1,
+            Lists.newArrayList(
+                new SessionNode(new URL("192.168.1.2"), "zoneA", ServerEnv.PROCESS_ID, 0)));
+    SlotTable slotTable =
+        new SlotTable(10, Lists.newArrayList(new Slot(0, "192.168.1.4", 1, null)));
+    GenericResponse<BaseHeartBeatResponse> resp = new GenericResponse<>();
+    resp.setSuccess(true);
+    resp.setData(
+        new BaseHeartBeatResponse(
+            true,
+            new VersionedList(2, Lists.newArrayList(new MetaNode(new URL("192.168.1.1"), "dc1"))),
+            slotTable,
+            sessionNodes,
+            "test",
+            100,
+            Collections.emptyMap()));
+    mockServerService.handleHeartbeatResponse(request, resp);
+
+    request = newHeartbeatRequest(slotTable);
+    mockServerService.fillConditional(request);
+    Assert.assertTrue(request.isConditional());
+    Assert.assertEquals(2, request.getMetaServerEpoch());
+    Assert.assertEquals(1, request.getSessionServerEpoch());
+    Assert.assertEquals(
+        BaseHeartBeatResponse.sessionNodesDigest(sessionNodes.getClusterMembers()),
+        request.getSessionNodesDigest());
+
+    // the meta nodes and the session nodes are omitted, the slot table is delta
+    SlotTable newSlotTable =
+        new SlotTable(
+            11,
+            Lists.newArrayList(
+                new Slot(0, "192.168.1.4", 1, null), new Slot(1, "192.168.1.5", 1, null)));
+    resp.setData(
+        new BaseHeartBeatResponse(
+            true,
+            null,
+            null,
+            SlotTableDelta.diff(slotTable, newSlotTable),
+            null,
+            "test",
+            100,
+            Collections.emptyMap()));
+    mockServerService.handleHeartbeatResponse(request, resp);
+    Assert.assertEquals(newSlotTable, resp.getData().getSlotTable());
+    Assert.assertEquals(
+        Sets.newHashSet("192.168.1.4", "192.168.1.5"), mockServerService.getDataServerList());
+    Assert.assertEquals(Sets.newHashSet("192.168.1.2"), mockServerService.getSessionServerList());
+    Assert.assertEquals(Sets.newHashSet("dc1"), mockServerService.getDataCenters());
+
+    // the delta not match the slot table of request, request full next time
+    request = newHeartbeatRequest(slotTable);
+    mockServerService.fillConditional(request);
+    resp.setData(
+        new BaseHeartBeatResponse(
+            true,
+            null,
+            null,
+            SlotTableDelta.diff(newSlotTable, newSlotTable),
+            null,
+            "test",
+            100,
+            Collections.emptyMap()));
+    HeartbeatRequest mismatch = request;
+    TestUtils.assertRunException(
+        RuntimeException.class, () -> mockServerService.handleHeartbeatResponse(mismatch, resp));
+    request = newHeartbeatRequest(newSlotTable);
+    mockServerService.fillConditional(request);
+    Assert.assertFalse(request.isConditional());
+  }
+
+  private static HeartbeatRequest newHeartbeatRequest(SlotTable slotTable) {
+    return new HeartbeatRequest<>(
+            new DataNode(new URL(ServerEnv.IP), TEST_DATA_CENTER),
+            slotTable.getEpoch(),
+            TEST_DATA_CENTER,
+            System.currentTimeMillis(),
+            SlotConfig.slotBasicInfo(),
+            Collections.emptyMap())
+        .setSlotTable(slotTable);
+  }
+
   @Test
   public void testFetchSystemProperty() {
     MockServerService mockServerService = new MockServerService();
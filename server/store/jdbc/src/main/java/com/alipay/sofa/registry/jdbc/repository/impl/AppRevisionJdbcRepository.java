@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.registry.jdbc.repository.impl;
 
+import static com.alipay.sofa.registry.jdbc.repository.impl.MetadataMetrics.Fetch.REVISION_CACHE_ABSENT_COUNTER;
 import static com.alipay.sofa.registry.jdbc.repository.impl.MetadataMetrics.Fetch.REVISION_CACHE_HIT_COUNTER;
 import static com.alipay.sofa.registry.jdbc.repository.impl.MetadataMetrics.Fetch.REVISION_CACHE_MISS_COUNTER;
 import static com.alipay.sofa.registry.jdbc.repository.impl.MetadataMetrics.Register.REVISION_REGISTER_COUNTER;
@@ -63,12 +64,24 @@ public class AppRevisionJdbcRepository implements AppRevisionRepository, Recover
 
   private static final Logger LOG = LoggerFactory.getLogger("METADATA-EXCHANGE", "[AppRevision]");
 
+  private static final int ABSENT_REVISION_EXPIRE_SECS = 10;
+
   /** map: <revision, AppRevision> */
   private final LoadingCache<String, AppRevision> registry;
 
   private final Cache<String, Boolean> localRevisions =
       CacheBuilder.newBuilder().expireAfterWrite(2, TimeUnit.MINUTES).build();
 
+  /**
+   * revisions confirmed not exist in db, only trusted while the informer has not seen them, the
+   * informer watch loop picks up revisions registered by other sessions within a few seconds
+   */
+  private final Cache<String, Boolean> absentRevisions =
+      CacheBuilder.newBuilder()
+          .maximumSize(10000L)
+          .expireAfterWrite(ABSENT_REVISION_EXPIRE_SECS, TimeUnit.SECONDS)
+          .build();
+
   private final CachedExecutor<String, Boolean> cachedExecutor = new CachedExecutor<>(1000 * 10);
 
   private final ScheduledExecutorService revisionDigestService =
@@ -139,6 +152,7 @@ public class AppRevisionJdbcRepository implements AppRevisionRepository, Recover
         appRevision.getAppName(), appRevision.getInterfaceMap().keySet());
 
     localRevisions.put(appRevision.getRevision(), true);
+    absentRevisions.invalidate(appRevision.getRevision());
     if (informer.getContainer().containsRevisionId(appRevision.getRevision())) {
       return;
     }
@@ -169,6 +183,11 @@ public class AppRevisionJdbcRepository implements AppRevisionRepository, Recover
       REVISION_CACHE_HIT_COUNTER.inc();
       return appRevision;
     }
+    if (absentRevisions.getIfPresent(revision) != null
+        && !informer.getContainer().containsRevisionId(revision)) {
+      REVISION_CACHE_ABSENT_COUNTER.inc();
+      return null;
+    }
     try {
       return registry.get(revision);
     } catch (ExecutionException e) {
@@ -176,6 +195,7 @@ public class AppRevisionJdbcRepository implements AppRevisionRepository, Recover
       throw new RuntimeException("jdbc refresh revision failed", e);
     } catch (Throwable t) {
       if (t.getCause() instanceof RevisionNotExistException) {
+        absentRevisions.put(revision, true);
         LOG.info("jdbc query revision failed, revision: {} not exist in db", revision, t);
       }
     }
@@ -203,9 +223,15 @@ public class AppRevisionJdbcRepository implements AppRevisionRepository, Recover
     return registry;
   }
 
+  @VisibleForTesting
+  Cache<String, Boolean> getAbsentRevisions() {
+    return absentRevisions;
+  }
+
   @VisibleForTesting
   void cleanCache() {
     registry.invalidateAll();
+    absentRevisions.invalidateAll();
     cachedExecutor.clean();
   }
 
@@ -37,6 +37,8 @@ public class MetadataMetrics {
             .register();
     static final Counter.Child REVISION_CACHE_HIT_COUNTER = FETCH_REVISION_COUNTER.labels("Y");
     static final Counter.Child REVISION_CACHE_MISS_COUNTER = FETCH_REVISION_COUNTER.labels("N");
+    static final Counter.Child REVISION_CACHE_ABSENT_COUNTER =
+        FETCH_REVISION_COUNTER.labels("ABSENT");
 
     static final Counter FETCH_APPS_COUNTER =
         Counter.build()
@@ -139,6 +139,29 @@ public class AppRevisionRepositoryTest extends AbstractH2DbTestBase {
     Assert.assertEquals(cache.asMap().size(), APP_REVISION_SIZE);
   }
 
+  @Test
+  public void testAbsentRevision() throws Exception {
+    AppRevisionJdbcRepository repository = (AppRevisionJdbcRepository) appRevisionJdbcRepository;
+    AppRevision notExistAppRevision = BuildNotExistRevision();
+    String revision = notExistAppRevision.getRevision();
+
+    Assert.assertNull(repository.queryRevision(revision));
+    Assert.assertNotNull(repository.getAbsentRevisions().getIfPresent(revision));
+    // answered by the absent cache
+    Assert.assertNull(repository.queryRevision(revision));
+
+    repository.register(notExistAppRevision);
+    Assert.assertNull(repository.getAbsentRevisions().getIfPresent(revision));
+    AppRevision query = repository.queryRevision(revision);
+    Assert.assertEquals(notExistAppRevision.getAppName(), query.getAppName());
+
+    AppRevisionDomain domain =
+        AppRevisionDomainConvertor.convert2Domain(
+            defaultCommonConfig.getDefaultClusterId(), notExistAppRevision);
+    domain.setDeleted(true);
+    appRevisionMapper.replace(domain);
+  }
+
   class HeartbeatRunner extends LoopRunnable {
 
     @Override